@@ -0,0 +1,83 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Collection;
+import java.util.Map;
+
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmark jar. Accepts the usual JMH command line and
+ * always attaches the GC profiler, so that every kernel also reports the bytes
+ * it allocates per operation. For benchmarks that count iterations, such as
+ * {@link OptimizerBenchmark}, the allocations are also reported per iteration.
+ */
+public final class Benchmarks {
+
+	public static void main(final String[] args) throws Exception {
+		final CommandLineOptions cmd = new CommandLineOptions(args);
+		final Collection<RunResult> results = new Runner(
+				new OptionsBuilder().parent(cmd).addProfiler(GCProfiler.class).build()).run();
+		printBytesPerIteration(results);
+	}
+
+	private static void printBytesPerIteration(final Collection<RunResult> results) {
+		boolean header = false;
+		for (final RunResult result : results) {
+			final Map<String, Result> secondary = result.getSecondaryResults();
+			final Result iterations = secondary.get("iterations");
+			final Result bytes = secondary.get("gc.alloc.rate.norm");
+			if (iterations == null || bytes == null) {
+				continue;
+			}
+
+			// time per call over time per iteration gives iterations per call
+			final double perCall = result.getPrimaryResult().getScore() / iterations.getScore();
+			if (!header) {
+				System.out.println();
+				System.out.println("Allocation per iteration:");
+				header = true;
+			}
+			System.out.printf("%-60s %14.1f B/iteration%n", label(result.getParams()), bytes.getScore() / perCall);
+		}
+	}
+
+	private static String label(final BenchmarkParams params) {
+		final String name = params.getBenchmark();
+		final int dot = name.lastIndexOf('.', name.lastIndexOf('.') - 1);
+		final StringBuilder sb = new StringBuilder(name.substring(dot + 1));
+		for (final String key : params.getParamsKeys()) {
+			sb.append(' ').append(key).append('=').append(params.getParam(key));
+		}
+		return sb.toString();
+	}
+
+	private Benchmarks() {
+	}
+}
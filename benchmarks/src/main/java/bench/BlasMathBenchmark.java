@@ -0,0 +1,127 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.BlasMath;
+
+/**
+ * Micro-benchmarks for the level-1 kernels in {@link BlasMath}. The offset of
+ * the first element and the stride of dnrm2 are parameters of separate states,
+ * so each kernel is only measured over the parameters it takes. The vectors are
+ * allocated with room for the largest offset and stride so that every
+ * combination reads the same backing arrays.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlasMathBenchmark {
+
+	private static final int MAX_SKIP = 4;
+
+	@Param({ "2", "10", "100", "1000", "10000", "100000", "1000000" })
+	public int n;
+
+	private double[] myX, myY, myZ;
+	private double myA;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random random = new Random(0L);
+		final int len = n * MAX_SKIP + MAX_SKIP;
+		myX = new double[len];
+		myY = new double[len];
+		myZ = new double[len];
+		for (int i = 0; i < len; ++i) {
+			myX[i] = random.nextGaussian();
+			myY[i] = random.nextGaussian();
+		}
+		myA = random.nextDouble();
+	}
+
+	@Benchmark
+	public double ddotm(final Offset o) {
+		return BlasMath.ddotm(n, myX, o.offset, myY, o.offset);
+	}
+
+	@Benchmark
+	public double[] daxpym(final Offset o) {
+		BlasMath.daxpym(n, myA, myX, o.offset, myY, o.offset);
+		return myY;
+	}
+
+	@Benchmark
+	public double[] daxpy1(final Offset o) {
+		BlasMath.daxpy1(n, myA, myX, o.offset, myY, o.offset, myZ, o.offset);
+		return myZ;
+	}
+
+	@Benchmark
+	public double[] dscal1(final Offset o) {
+		BlasMath.dscal1(n, myA, myX, o.offset, myZ, o.offset);
+		return myZ;
+	}
+
+	@Benchmark
+	public double dnrm2(final Stride s) {
+		return BlasMath.dnrm2(n, myX, 1, s.stride);
+	}
+
+	@Benchmark
+	public double denorm() {
+		return BlasMath.denorm(n, myX);
+	}
+
+	@State(Scope.Thread)
+	public static class Offset {
+
+		// one-based index of the first element, at most MAX_SKIP
+		@Param({ "1", "2", "4" })
+		public int offset;
+	}
+
+	@State(Scope.Thread)
+	public static class Stride {
+
+		// distance between consecutive elements, at most MAX_SKIP
+		@Param({ "1", "2", "4" })
+		public int stride;
+	}
+}
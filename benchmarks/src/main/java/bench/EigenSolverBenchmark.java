@@ -0,0 +1,115 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.DenseMatrix;
+import utils.SymmetricEigenSolver;
+
+/**
+ * Benchmarks {@link SymmetricEigenSolver} on a covariance matrix like the ones
+ * CMA-ES decomposes, from scratch and refining the eigenvectors of a slightly
+ * different matrix, as happens between two successive decompositions.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EigenSolverBenchmark {
+
+	@Param({ "100", "200", "400" })
+	public int n;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private SymmetricEigenSolver myCold, myWarm;
+	private DenseMatrix myC, myGuess, myZ;
+	private double[] myW;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final ForkJoinPool pool = parallel ? ForkJoinPool.commonPool() : null;
+		myCold = new SymmetricEigenSolver(pool);
+		myWarm = new SymmetricEigenSolver(pool, true);
+
+		// a random covariance with a spread of scales, and a small perturbation
+		// of it whose eigenvectors serve as the starting guess
+		final Random random = new Random(0L);
+		final DenseMatrix g = new DenseMatrix(n, n);
+		for (int i = 0; i < n; ++i) {
+			for (int j = 0; j < n; ++j) {
+				g.set(i, j, random.nextGaussian() * Math.pow(1e3, (double) j / (n - 1)));
+			}
+		}
+		myC = new DenseMatrix(n, n);
+		final DenseMatrix p = new DenseMatrix(n, n);
+		for (int i = 0; i < n; ++i) {
+			for (int j = 0; j <= i; ++j) {
+				double sum = 0.0;
+				for (int k = 0; k < n; ++k) {
+					sum += g.get(i, k) * g.get(j, k);
+				}
+				sum /= n;
+				final double noise = 1e-3 * random.nextGaussian() * Math.abs(sum);
+				myC.set(i, j, sum);
+				myC.set(j, i, sum);
+				p.set(i, j, sum + noise);
+				p.set(j, i, sum + noise);
+			}
+		}
+		myW = new double[n];
+		myZ = new DenseMatrix(n, n);
+		myGuess = new DenseMatrix(n, n);
+		myCold.decompose(p, myW, myGuess);
+	}
+
+	@Benchmark
+	public DenseMatrix cold() {
+		myCold.decompose(myC, myW, myZ);
+		return myZ;
+	}
+
+	@Benchmark
+	public DenseMatrix warm() {
+		myWarm.decompose(myC, myW, myZ, myGuess);
+		return myZ;
+	}
+}
@@ -0,0 +1,101 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.BlasMath;
+import utils.DenseMatrix;
+
+/**
+ * Benchmarks the tiled matrix products {@link BlasMath#dgemmnt} and
+ * {@link BlasMath#dgemmt} in the shapes that CMA-ES uses them: sampling a
+ * population of the default size in n dimensions, and the rank-mu update of
+ * the covariance matrix with the selected half of that population.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatrixProductBenchmark {
+
+	@Param({ "10", "100", "200", "400" })
+	public int n;
+
+	@Param({ "false", "true" })
+	public boolean parallel;
+
+	private int myLambda, myMu;
+	private DenseMatrix myZ, myB, myX, myY, myWY, myC;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final Random random = new Random(0L);
+		myLambda = 4 + (int) Math.floor(3.0 * Math.log(n));
+		myMu = myLambda / 2;
+		myZ = gaussian(random, myLambda, n);
+		myB = gaussian(random, n, n);
+		myX = new DenseMatrix(myLambda, n);
+		myY = gaussian(random, n, myMu + 1);
+		myWY = gaussian(random, n, myMu + 1);
+		myC = gaussian(random, n, n);
+	}
+
+	@Benchmark
+	public DenseMatrix dgemmnt() {
+		BlasMath.dgemmnt(0.5, myZ, myB, 0.0, myX, parallel ? ForkJoinPool.commonPool() : null);
+		return myX;
+	}
+
+	@Benchmark
+	public DenseMatrix dgemmt() {
+		BlasMath.dgemmt(1.0, myWY, myY, 0.5, myC, parallel ? ForkJoinPool.commonPool() : null);
+		return myC;
+	}
+
+	private static DenseMatrix gaussian(final Random random, final int m, final int n) {
+		final DenseMatrix a = new DenseMatrix(m, n);
+		for (int i = 0; i < m; ++i) {
+			for (int j = 0; j < n; ++j) {
+				a.set(i, j, random.nextGaussian());
+			}
+		}
+		return a;
+	}
+}
@@ -0,0 +1,394 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import opt.Optimizer;
+import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
+import opt.multivariate.GradientFreeOptimizer;
+import opt.multivariate.GradientOptimizer;
+import opt.multivariate.constrained.order1.ShorAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.ActiveCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.BiPopCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.CholeskyCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.CmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.IPopCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.LmCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.SepCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.CrsAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.DirectAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.NelderMeadAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.PraxisAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.RosenbrockAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.AdaptivePsoAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.AmalgamAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.CcPsoAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.CsoAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.DifferentialSearchAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.EschAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.PikaiaAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.SadeAlgorithm;
+import opt.multivariate.unconstrained.order0.quad.BobyqaAlgorithm;
+import opt.multivariate.unconstrained.order0.quad.NewuoaAlgorithm;
+import opt.multivariate.unconstrained.order0.quad.UobyqaAlgorithm;
+import opt.multivariate.unconstrained.order1.ConjugateGradientAlgorithm;
+import opt.multivariate.unconstrained.order1.ConjugateVariableMetricAlgorithm;
+import opt.multivariate.unconstrained.order1.LBFGSBAlgorithm;
+import opt.multivariate.unconstrained.order1.TruncatedNewtonAlgorithm;
+import opt.multivariate.unconstrained.order1.TrustRegionNewtonAlgorithm;
+
+/**
+ * Measures the bookkeeping cost of the multivariate optimizers. Every optimizer
+ * runs on an objective that is nearly free to evaluate, so the time and memory
+ * reported are almost entirely spent inside the optimizer itself.
+ * 
+ * One operation is a complete call to optimize, capped at
+ * {@link #MAX_ITERATIONS} iterations through the iteration listener and at an
+ * evaluation budget proportional to the dimension. Besides the time per call,
+ * the auxiliary counters report the time per iteration and per evaluation. The
+ * runner in {@link Benchmarks} derives the bytes allocated per iteration from
+ * the GC profiler. An optimizer that never reports an iteration to the listener
+ * counts one iteration per evaluation.
+ * 
+ * Each nested subclass benchmarks the optimizers that can run up to the same
+ * largest dimension, without exhausting the heap or their own internal limits,
+ * so that every point of its parameter grid can run.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public abstract class OptimizerBenchmark {
+
+	static final int MAX_ITERATIONS = 20;
+	static final int EVALUATIONS_PER_DIMENSION = 10;
+	static final double TOLERANCE = 1.0e-12;
+
+	@FunctionalInterface
+	interface Factory {
+
+		Optimizer<double[], Double, ?> create(int n, int budget);
+	}
+
+	/**
+	 * The optimizers under test.
+	 */
+	public enum Subject {
+
+		// CMA-ES variants
+		CMAES((n, b) -> new CmaesAlgorithm(TOLERANCE, 2.0, b)),
+		ACTIVE_CMAES((n, b) -> new ActiveCmaesAlgorithm(TOLERANCE, 2.0, b)),
+		CHOLESKY_CMAES((n, b) -> new CholeskyCmaesAlgorithm(TOLERANCE, TOLERANCE, 2.0, b)),
+		SEP_CMAES((n, b) -> new SepCmaesAlgorithm(TOLERANCE, 2.0, b, true)),
+		LM_CMAES((n, b) -> new LmCmaesAlgorithm(TOLERANCE, 2.0, b)),
+		IPOP_CMAES((n, b) -> new IPopCmaesAlgorithm(TOLERANCE, TOLERANCE, 2.0, b, false)),
+		BIPOP_CMAES((n, b) -> new BiPopCmaesAlgorithm(TOLERANCE, TOLERANCE, 2.0, b, false)),
+
+		// direct search
+		CRS((n, b) -> new CrsAlgorithm(TOLERANCE, TOLERANCE, b)),
+		DIRECT((n, b) -> new DirectAlgorithm(TOLERANCE, TOLERANCE, TOLERANCE, b, fill(n, -5.0), fill(n, 5.0))),
+		NELDER_MEAD((n, b) -> new NelderMeadAlgorithm(TOLERANCE, 1.0, n + 1, b)),
+		// PRAXIS has no evaluation budget of its own, so the listener enforces it
+		PRAXIS((n, b) -> new PraxisAlgorithm(1.0e-6, 2.0)),
+		ROSENBROCK((n, b) -> new RosenbrockAlgorithm(TOLERANCE, 1.0, b)),
+
+		// evolutionary and swarm
+		APSO((n, b) -> new AdaptivePsoAlgorithm(TOLERANCE, TOLERANCE, b, 50)),
+		AMALGAM((n, b) -> new AmalgamAlgorithm(TOLERANCE, TOLERANCE, b, true, false)),
+		CCPSO((n, b) -> new CcPsoAlgorithm(TOLERANCE, TOLERANCE, b, 10, partitions(n))),
+		CSO((n, b) -> new CsoAlgorithm(TOLERANCE, TOLERANCE, 50, b)),
+		DSA((n, b) -> new DifferentialSearchAlgorithm(TOLERANCE, TOLERANCE, b, 50)),
+		ESCH((n, b) -> new EschAlgorithm(b, 20, 60)),
+		PIKAIA((n, b) -> new PikaiaAlgorithm(50, b / 50)),
+		SADE((n, b) -> new SadeAlgorithm(TOLERANCE, TOLERANCE, 50, b)),
+
+		// quadratic models
+		BOBYQA((n, b) -> new BobyqaAlgorithm(TOLERANCE, 1.0, b)),
+		NEWUOA((n, b) -> new NewuoaAlgorithm(TOLERANCE, 1.0, b)),
+		UOBYQA((n, b) -> new UobyqaAlgorithm(TOLERANCE, 1.0, b + (n + 1) * (n + 2) / 2)),
+
+		// first order
+		CG((n, b) -> new ConjugateGradientAlgorithm(TOLERANCE, b)),
+		CVM((n, b) -> new ConjugateVariableMetricAlgorithm(TOLERANCE, 1.0, b, Math.min(n, 5))),
+		LBFGSB((n, b) -> new LBFGSBAlgorithm(TOLERANCE, 10)),
+		SHOR((n, b) -> new ShorAlgorithm(TOLERANCE, TOLERANCE, b)),
+		TNEWTON((n, b) -> new TruncatedNewtonAlgorithm(TOLERANCE, MAX_ITERATIONS, b)),
+		TRNEWTON((n, b) -> new TrustRegionNewtonAlgorithm(TOLERANCE, 1.0, 100.0, b));
+
+		final Factory myFactory;
+
+		Subject(final Factory factory) {
+			myFactory = factory;
+		}
+	}
+
+	/**
+	 * The objectives, both as defined in the BBOB testbed but without the random
+	 * shift of the optimum.
+	 */
+	public enum Problem {
+
+		SPHERE, ROSENBROCK;
+
+		double apply(final double[] x, final double[] g) {
+			final int n = x.length;
+			double f = 0.0;
+			switch (this) {
+			case SPHERE:
+				for (int i = 0; i < n; ++i) {
+					f += x[i] * x[i];
+					if (g != null) {
+						g[i] = 2.0 * x[i];
+					}
+				}
+				return f;
+			default:
+				final double s = Math.max(1.0, Math.sqrt(n) / 8.0);
+				if (g != null) {
+					for (int i = 0; i < n; ++i) {
+						g[i] = 0.0;
+					}
+				}
+				for (int i = 0; i < n - 1; ++i) {
+					final double zi = s * x[i] + 1.0;
+					final double zj = s * x[i + 1] + 1.0;
+					final double arg = zi * zi - zj;
+					f += 100.0 * arg * arg + (zi - 1.0) * (zi - 1.0);
+					if (g != null) {
+						g[i] += s * (400.0 * arg * zi + 2.0 * (zi - 1.0));
+						g[i + 1] -= s * 200.0 * arg;
+					}
+				}
+				return f;
+			}
+		}
+	}
+
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	@State(Scope.Thread)
+	public static class Counters {
+
+		public long iterations;
+		public long evaluations;
+
+		@Setup(Level.Iteration)
+		public void reset() {
+			iterations = 0L;
+			evaluations = 0L;
+		}
+	}
+
+	/**
+	 * The optimizers that run at every dimension.
+	 */
+	public static class UpTo1000 extends OptimizerBenchmark {
+
+		@Param({ "CMAES", "ACTIVE_CMAES", "CHOLESKY_CMAES", "SEP_CMAES", "LM_CMAES", "IPOP_CMAES", "BIPOP_CMAES",
+				"CRS", "NELDER_MEAD", "ROSENBROCK", "APSO", "AMALGAM", "CCPSO", "CSO", "DSA", "ESCH", "SADE", "BOBYQA",
+				"NEWUOA", "CG", "CVM", "LBFGSB", "SHOR", "TNEWTON", "TRNEWTON" })
+		public Subject optimizer;
+
+		@Param({ "2", "10", "40", "100", "1000" })
+		public int dimension;
+
+		@Override
+		Subject subject() {
+			return optimizer;
+		}
+
+		@Override
+		int dimension() {
+			return dimension;
+		}
+	}
+
+	/**
+	 * PRAXIS, whose dense direction matrix makes each step cost O(n^3).
+	 */
+	public static class UpTo100 extends OptimizerBenchmark {
+
+		@Param({ "PRAXIS" })
+		public Subject optimizer;
+
+		@Param({ "2", "10", "40", "100" })
+		public int dimension;
+
+		@Override
+		Subject subject() {
+			return optimizer;
+		}
+
+		@Override
+		int dimension() {
+			return dimension;
+		}
+	}
+
+	/**
+	 * DIRECT, whose rectangle lists grow too quickly with the dimension, and
+	 * UOBYQA, whose quadratic model needs O(n^2) points.
+	 */
+	public static class UpTo40 extends OptimizerBenchmark {
+
+		@Param({ "DIRECT", "UOBYQA" })
+		public Subject optimizer;
+
+		@Param({ "2", "10", "40" })
+		public int dimension;
+
+		@Override
+		Subject subject() {
+			return optimizer;
+		}
+
+		@Override
+		int dimension() {
+			return dimension;
+		}
+	}
+
+	/**
+	 * PIKAIA, which supports at most 32 parameters.
+	 */
+	public static class UpTo10 extends OptimizerBenchmark {
+
+		@Param({ "PIKAIA" })
+		public Subject optimizer;
+
+		@Param({ "2", "10" })
+		public int dimension;
+
+		@Override
+		Subject subject() {
+			return optimizer;
+		}
+
+		@Override
+		int dimension() {
+			return dimension;
+		}
+	}
+
+	@Param({ "SPHERE", "ROSENBROCK" })
+	public Problem problem;
+
+	private Optimizer<double[], Double, ?> myOptimizer;
+	private double[] myGuess;
+	private long myIterations, myEvaluations;
+	private ToDoubleFunction<double[]> myFunc;
+	private DifferentiableObjective myDiff;
+
+	abstract Subject subject();
+
+	abstract int dimension();
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final int dimension = dimension();
+		final int budget = EVALUATIONS_PER_DIMENSION * (dimension + 1);
+		myOptimizer = subject().myFactory.create(dimension, budget);
+		myOptimizer.setIterationListener(info -> ++myIterations < MAX_ITERATIONS && myEvaluations < budget);
+		myFunc = x -> {
+			++myEvaluations;
+			return problem.apply(x, null);
+		};
+		myDiff = new DifferentiableObjective() {
+
+			@Override
+			public double apply(final double[] x, final double[] g) {
+				++myEvaluations;
+				return problem.apply(x, g);
+			}
+
+			@Override
+			public double value(final double[] x) {
+				++myEvaluations;
+				return problem.apply(x, null);
+			}
+
+			@Override
+			public void gradient(final double[] x, final double[] g) {
+				problem.apply(x, g);
+			}
+		};
+		final Random random = new Random(0L);
+		myGuess = new double[dimension];
+		for (int i = 0; i < dimension; ++i) {
+			myGuess[i] = 8.0 * random.nextDouble() - 4.0;
+		}
+	}
+
+	@Benchmark
+	public OptimizerSolution<double[], Double> optimize(final Counters counters) {
+		myIterations = myEvaluations = 0L;
+		final OptimizerSolution<double[], Double> solution;
+		if (myOptimizer instanceof GradientOptimizer) {
+			solution = ((GradientOptimizer) myOptimizer).optimize(myDiff, myGuess.clone());
+		} else {
+			final GradientFreeOptimizer gfo = (GradientFreeOptimizer) myOptimizer;
+			gfo.setSeed(0L);
+			solution = gfo.optimizeDouble(myFunc, myGuess.clone());
+		}
+		counters.iterations += myIterations > 0L ? myIterations : myEvaluations;
+		counters.evaluations += myEvaluations;
+		return solution;
+	}
+
+	private static double[] fill(final int n, final double value) {
+		final double[] x = new double[n];
+		for (int i = 0; i < n; ++i) {
+			x[i] = value;
+		}
+		return x;
+	}
+
+	private static int[] partitions(final int n) {
+		final int[] sizes = { 1, 2, 5, 10, 20, 50, 100 };
+		int count = 0;
+		while (count < sizes.length && sizes[count] <= n) {
+			++count;
+		}
+		final int[] result = new int[count];
+		System.arraycopy(sizes, 0, result, 0, count);
+		return result;
+	}
+}
@@ -0,0 +1,97 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.BlasMath;
+
+/**
+ * Benchmarks the pivoted QR factorization {@link BlasMath#dqrfac}, as used by
+ * the Levenberg-Marquardt solver. The matrix is restored from a copy before
+ * every invocation since the factorization works in place.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QrFactorBenchmark {
+
+	@Param({ "10x10", "100x10", "100x100", "1000x10", "1000x100" })
+	public String shape;
+
+	@Param({ "true", "false" })
+	public boolean pivot;
+
+	private int myM, myN;
+	private double[][] myA0, myA;
+	private int[] myIpvt;
+	private double[] mySigma, myAcnorm, myWa;
+
+	@Setup(Level.Trial)
+	public void setup() {
+		final String[] mn = shape.split("x");
+		myM = Integer.parseInt(mn[0]);
+		myN = Integer.parseInt(mn[1]);
+		final Random random = new Random(0L);
+		myA0 = new double[myM][myN];
+		myA = new double[myM][myN];
+		for (int i = 0; i < myM; ++i) {
+			for (int j = 0; j < myN; ++j) {
+				myA0[i][j] = random.nextGaussian();
+			}
+		}
+		myIpvt = new int[myN];
+		mySigma = new double[myN];
+		myAcnorm = new double[myN];
+		myWa = new double[myN];
+	}
+
+	@Setup(Level.Invocation)
+	public void restore() {
+		for (int i = 0; i < myM; ++i) {
+			System.arraycopy(myA0[i], 0, myA[i], 0, myN);
+		}
+	}
+
+	@Benchmark
+	public double[] dqrfac() {
+		BlasMath.dqrfac(myM, myN, myA, myM, pivot, myIpvt, myN, mySigma, myAcnorm, myWa);
+		return mySigma;
+	}
+}
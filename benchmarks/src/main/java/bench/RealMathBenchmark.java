@@ -0,0 +1,112 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package bench;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import utils.RealMath;
+
+/**
+ * Compares the scalar routines in {@link RealMath} against their counterparts
+ * in {@link Math}. Each invocation sweeps a fixed table of random arguments so
+ * that the JIT cannot fold the inputs into constants.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RealMathBenchmark {
+
+	private static final int SIZE = 1024;
+
+	@Param({ "2", "3", "7", "-2", "20" })
+	public int power;
+
+	private double[] myX, myY;
+
+	@Setup
+	public void setup() {
+		final Random random = new Random(0L);
+		myX = new double[SIZE];
+		myY = new double[SIZE];
+		for (int i = 0; i < SIZE; ++i) {
+			myX[i] = 0.5 + random.nextDouble();
+			myY[i] = random.nextGaussian();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public double realMathPow() {
+		double sum = 0.0;
+		for (int i = 0; i < SIZE; ++i) {
+			sum += RealMath.pow(myX[i], power);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public double mathPow() {
+		double sum = 0.0;
+		for (int i = 0; i < SIZE; ++i) {
+			sum += Math.pow(myX[i], power);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public double realMathHypot() {
+		double sum = 0.0;
+		for (int i = 0; i < SIZE; ++i) {
+			sum += RealMath.hypot(myX[i], myY[i]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SIZE)
+	public double mathHypot() {
+		double sum = 0.0;
+		for (int i = 0; i < SIZE; ++i) {
+			sum += Math.hypot(myX[i], myY[i]);
+		}
+		return sum;
+	}
+}
@@ -0,0 +1,226 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package utils;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Level-1 kernels written with the incubating Vector API of JDK 16 and later,
+ * using fused multiply-adds. This class is compiled separately for Java 17 and
+ * loaded reflectively by {@link BlasMath}, which falls back to its own loops
+ * when it cannot be loaded, for instance on older JDKs or when the JVM is not
+ * started with --add-modules jdk.incubator.vector.
+ * 
+ * The reductions accumulate in a different order and with fused multiply-adds,
+ * so ddot and dnrm2 can differ from the scalar loops by a few units in the
+ * last place of the largest partial sum. The element-wise kernels round each
+ * element once, as the scalar loops do, except that daxpy fuses the multiply
+ * and add.
+ */
+final class VectorBlasKernels implements BlasKernels {
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+	private static final int LANES = SPECIES.length();
+
+	// the thresholds below and above which dnrm2 must scale, as in BlasMath
+	private static final double CUTLO = 8.23181e-11, CUTHI = 1.30438e19;
+
+	@Override
+	public final double ddot(final int n, final double[] dx, final int ox, final double[] dy, final int oy) {
+		final int bound = SPECIES.loopBound(n);
+		DoubleVector acc1 = DoubleVector.zero(SPECIES);
+		DoubleVector acc2 = DoubleVector.zero(SPECIES);
+		int i = 0;
+
+		// two accumulators hide the latency of the fused multiply-add
+		for (; i + LANES < bound; i += 2 * LANES) {
+			acc1 = DoubleVector.fromArray(SPECIES, dx, ox + i).fma(DoubleVector.fromArray(SPECIES, dy, oy + i), acc1);
+			acc2 = DoubleVector.fromArray(SPECIES, dx, ox + i + LANES)
+					.fma(DoubleVector.fromArray(SPECIES, dy, oy + i + LANES), acc2);
+		}
+		for (; i < bound; i += LANES) {
+			acc1 = DoubleVector.fromArray(SPECIES, dx, ox + i).fma(DoubleVector.fromArray(SPECIES, dy, oy + i), acc1);
+		}
+		double sum = acc1.add(acc2).reduceLanes(VectorOperators.ADD);
+		for (; i < n; ++i) {
+			sum = Math.fma(dx[ox + i], dy[oy + i], sum);
+		}
+		return sum;
+	}
+
+	@Override
+	public final void daxpy(final int n, final double da, final double[] dx, final int ox, final double[] dy,
+			final int oy, final double[] dz, final int oz) {
+		final int bound = SPECIES.loopBound(n);
+		final DoubleVector a = DoubleVector.broadcast(SPECIES, da);
+		int i = 0;
+		for (; i < bound; i += LANES) {
+			DoubleVector.fromArray(SPECIES, dx, ox + i).fma(a, DoubleVector.fromArray(SPECIES, dy, oy + i))
+					.intoArray(dz, oz + i);
+		}
+		for (; i < n; ++i) {
+			dz[oz + i] = Math.fma(da, dx[ox + i], dy[oy + i]);
+		}
+	}
+
+	@Override
+	public final void dscal(final int n, final double da, final double[] dx, final int ox, final double[] dy,
+			final int oy) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LANES) {
+			DoubleVector.fromArray(SPECIES, dx, ox + i).mul(da).intoArray(dy, oy + i);
+		}
+		for (; i < n; ++i) {
+			dy[oy + i] = dx[ox + i] * da;
+		}
+	}
+
+	@Override
+	public final void dxpy(final int n, final double[] dx, final int ox, final double[] dy, final int oy,
+			final double[] dz, final int oz) {
+		final int bound = SPECIES.loopBound(n);
+		int i = 0;
+		for (; i < bound; i += LANES) {
+			DoubleVector.fromArray(SPECIES, dy, oy + i).add(DoubleVector.fromArray(SPECIES, dx, ox + i))
+					.intoArray(dz, oz + i);
+		}
+		for (; i < n; ++i) {
+			dz[oz + i] = dy[oy + i] + dx[ox + i];
+		}
+	}
+
+	@Override
+	public final double dnrm2(final int n, final double[] dx, final int ox) {
+		final int bound = SPECIES.loopBound(n);
+		DoubleVector acc = DoubleVector.zero(SPECIES);
+		DoubleVector max = DoubleVector.zero(SPECIES);
+		int i = 0;
+		for (; i < bound; i += LANES) {
+			final DoubleVector v = DoubleVector.fromArray(SPECIES, dx, ox + i);
+			acc = v.fma(v, acc);
+			max = max.max(v.abs());
+		}
+		double sum = acc.reduceLanes(VectorOperators.ADD);
+		double xmax = max.reduceLanes(VectorOperators.MAX);
+		for (; i < n; ++i) {
+			sum = Math.fma(dx[ox + i], dx[ox + i], sum);
+			xmax = Math.max(xmax, Math.abs(dx[ox + i]));
+		}
+
+		// once the largest element exceeds CUTLO, the squares that lose precision
+		// to underflow are negligible next to its square
+		if (xmax == 0.0) {
+			return 0.0;
+		}
+		if (xmax < CUTLO || xmax >= CUTHI / n) {
+			return -1.0;
+		}
+		return Math.sqrt(sum);
+	}
+
+	@Override
+	public final void dgemmTile(final int i0, final int i1, final int j0, final int j1, final boolean lower,
+			final int k, final double alpha, final double[] a, final int lda, final double[] b, final int ldb,
+			final double beta, final double[] c, final int ldc) {
+		final int bound = SPECIES.loopBound(k);
+		int i = i0;
+		for (; i + 1 < i1; i += 2) {
+			final int ia0 = i * lda, ia1 = ia0 + lda, ic0 = i * ldc, ic1 = ic0 + ldc;
+			final int jend = lower ? Math.min(j1, i + 1) : j1;
+			int j = j0;
+
+			// two rows of a against four rows of b in eight vector accumulators
+			for (; j + 3 < jend; j += 4) {
+				final int jb0 = j * ldb, jb1 = jb0 + ldb, jb2 = jb1 + ldb, jb3 = jb2 + ldb;
+				DoubleVector s00 = DoubleVector.zero(SPECIES), s01 = s00, s02 = s00, s03 = s00;
+				DoubleVector s10 = s00, s11 = s00, s12 = s00, s13 = s00;
+				int l = 0;
+				for (; l < bound; l += LANES) {
+					final DoubleVector x0 = DoubleVector.fromArray(SPECIES, a, ia0 + l);
+					final DoubleVector x1 = DoubleVector.fromArray(SPECIES, a, ia1 + l);
+					final DoubleVector y0 = DoubleVector.fromArray(SPECIES, b, jb0 + l);
+					final DoubleVector y1 = DoubleVector.fromArray(SPECIES, b, jb1 + l);
+					final DoubleVector y2 = DoubleVector.fromArray(SPECIES, b, jb2 + l);
+					final DoubleVector y3 = DoubleVector.fromArray(SPECIES, b, jb3 + l);
+					s00 = x0.fma(y0, s00);
+					s01 = x0.fma(y1, s01);
+					s02 = x0.fma(y2, s02);
+					s03 = x0.fma(y3, s03);
+					s10 = x1.fma(y0, s10);
+					s11 = x1.fma(y1, s11);
+					s12 = x1.fma(y2, s12);
+					s13 = x1.fma(y3, s13);
+				}
+				double t00 = s00.reduceLanes(VectorOperators.ADD), t01 = s01.reduceLanes(VectorOperators.ADD);
+				double t02 = s02.reduceLanes(VectorOperators.ADD), t03 = s03.reduceLanes(VectorOperators.ADD);
+				double t10 = s10.reduceLanes(VectorOperators.ADD), t11 = s11.reduceLanes(VectorOperators.ADD);
+				double t12 = s12.reduceLanes(VectorOperators.ADD), t13 = s13.reduceLanes(VectorOperators.ADD);
+				for (; l < k; ++l) {
+					final double x0 = a[ia0 + l], x1 = a[ia1 + l];
+					t00 = Math.fma(x0, b[jb0 + l], t00);
+					t01 = Math.fma(x0, b[jb1 + l], t01);
+					t02 = Math.fma(x0, b[jb2 + l], t02);
+					t03 = Math.fma(x0, b[jb3 + l], t03);
+					t10 = Math.fma(x1, b[jb0 + l], t10);
+					t11 = Math.fma(x1, b[jb1 + l], t11);
+					t12 = Math.fma(x1, b[jb2 + l], t12);
+					t13 = Math.fma(x1, b[jb3 + l], t13);
+				}
+				c[ic0 + j] = scaleAdd(alpha, t00, beta, c[ic0 + j]);
+				c[ic0 + j + 1] = scaleAdd(alpha, t01, beta, c[ic0 + j + 1]);
+				c[ic0 + j + 2] = scaleAdd(alpha, t02, beta, c[ic0 + j + 2]);
+				c[ic0 + j + 3] = scaleAdd(alpha, t03, beta, c[ic0 + j + 3]);
+				c[ic1 + j] = scaleAdd(alpha, t10, beta, c[ic1 + j]);
+				c[ic1 + j + 1] = scaleAdd(alpha, t11, beta, c[ic1 + j + 1]);
+				c[ic1 + j + 2] = scaleAdd(alpha, t12, beta, c[ic1 + j + 2]);
+				c[ic1 + j + 3] = scaleAdd(alpha, t13, beta, c[ic1 + j + 3]);
+			}
+			for (; j < jend; ++j) {
+				c[ic0 + j] = scaleAdd(alpha, ddot(k, a, ia0, b, j * ldb), beta, c[ic0 + j]);
+				c[ic1 + j] = scaleAdd(alpha, ddot(k, a, ia1, b, j * ldb), beta, c[ic1 + j]);
+			}
+
+			// the diagonal element of the second row
+			if (lower && i + 1 >= j0 && i + 1 < j1) {
+				c[ic1 + i + 1] = scaleAdd(alpha, ddot(k, a, ia1, b, (i + 1) * ldb), beta, c[ic1 + i + 1]);
+			}
+		}
+		for (; i < i1; ++i) {
+			final int ia0 = i * lda, ic0 = i * ldc;
+			final int jend = lower ? Math.min(j1, i + 1) : j1;
+			for (int j = j0; j < jend; ++j) {
+				c[ic0 + j] = scaleAdd(alpha, ddot(k, a, ia0, b, j * ldb), beta, c[ic0 + j]);
+			}
+		}
+	}
+
+	private static double scaleAdd(final double alpha, final double sum, final double beta, final double c) {
+		if (beta == 0.0) {
+			return alpha * sum;
+		} else {
+			return alpha * sum + beta * c;
+		}
+	}
+}
@@ -0,0 +1,134 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt;
+
+/**
+ * A summary of the state of an optimizer at the end of one iteration. Which
+ * quantities are available depends on the optimizer: a value or step that does
+ * not apply is reported as NaN, and a phase that is not timed separately is
+ * reported as -1.
+ */
+public final class IterationInfo {
+
+	private final int myIteration;
+	private final int myFEvals;
+	private final int myDFEvals;
+	private final double myBestF;
+	private final double myStep;
+	private final long mySampleNanos;
+	private final long myEvaluateNanos;
+	private final long myUpdateNanos;
+
+	/**
+	 *
+	 * @param iteration
+	 * @param fevals
+	 * @param dfevals
+	 * @param bestf
+	 * @param step
+	 * @param sampleNanos
+	 * @param evaluateNanos
+	 * @param updateNanos
+	 */
+	public IterationInfo(final int iteration, final int fevals, final int dfevals, final double bestf,
+			final double step, final long sampleNanos, final long evaluateNanos, final long updateNanos) {
+		myIteration = iteration;
+		myFEvals = fevals;
+		myDFEvals = dfevals;
+		myBestF = bestf;
+		myStep = step;
+		mySampleNanos = sampleNanos;
+		myEvaluateNanos = evaluateNanos;
+		myUpdateNanos = updateNanos;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final int getIteration() {
+		return myIteration;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final int getFEvals() {
+		return myFEvals;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final int getDFEvals() {
+		return myDFEvals;
+	}
+
+	/**
+	 * Returns the best objective value found so far.
+	 * 
+	 * @return
+	 */
+	public final double getBestF() {
+		return myBestF;
+	}
+
+	/**
+	 * Returns the current step size, search radius or trust region radius of the
+	 * optimizer.
+	 * 
+	 * @return
+	 */
+	public final double getStep() {
+		return myStep;
+	}
+
+	/**
+	 * Returns the time spent generating new candidate points in this iteration.
+	 * 
+	 * @return
+	 */
+	public final long getSampleNanos() {
+		return mySampleNanos;
+	}
+
+	/**
+	 * Returns the time spent evaluating the objective in this iteration.
+	 * 
+	 * @return
+	 */
+	public final long getEvaluateNanos() {
+		return myEvaluateNanos;
+	}
+
+	/**
+	 * Returns the time spent updating the internal state of the optimizer in this
+	 * iteration.
+	 * 
+	 * @return
+	 */
+	public final long getUpdateNanos() {
+		return myUpdateNanos;
+	}
+}
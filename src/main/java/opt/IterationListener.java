@@ -0,0 +1,42 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt;
+
+/**
+ * A callback that an optimizer invokes at the end of each of its iterations.
+ * Optimizers do not build the iteration summary or measure time unless a
+ * listener is attached, so an optimizer without a listener pays nothing for
+ * this facility.
+ */
+@FunctionalInterface
+public interface IterationListener {
+
+	/**
+	 * Called at the end of each iteration. Returning false asks the optimizer to
+	 * stop and return its current best solution, which is then reported as not
+	 * converged.
+	 * 
+	 * @param info
+	 * @return
+	 */
+	boolean iterationCompleted(IterationInfo info);
+}
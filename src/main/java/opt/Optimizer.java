@@ -21,9 +21,180 @@ SOFTWARE.
 */
 package opt;
 
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 
 public abstract class Optimizer<X, Y, F extends Function<? super X, ? extends Y>> {
 
+	protected IterationListener myListener;
+	protected CancellationToken myToken;
+	protected boolean myHasDeadline;
+	protected long myDeadline;
+	private StopReason myStopReason = StopReason.NONE;
+
 	public abstract OptimizerSolution<X, Y> optimize(F function, X guess);
+
+	/**
+	 * Attaches a listener that is notified at the end of every iteration, or
+	 * detaches the current listener if null.
+	 * 
+	 * @param listener
+	 */
+	public final void setIterationListener(final IterationListener listener) {
+		myListener = listener;
+	}
+
+	/**
+	 * Sets the cancellation token checked at the end of every iteration, or
+	 * removes the current token if null.
+	 * 
+	 * @param token
+	 */
+	public final void setCancellationToken(final CancellationToken token) {
+		myToken = token;
+	}
+
+	/**
+	 * Sets an absolute deadline, in the time base of System.nanoTime(), after
+	 * which the optimizer stops at the end of its current iteration.
+	 * 
+	 * @param deadlineNanos
+	 */
+	public final void setDeadline(final long deadlineNanos) {
+		myHasDeadline = true;
+		myDeadline = deadlineNanos;
+	}
+
+	/**
+	 * Sets a deadline the given amount of time from now. The clock starts when
+	 * this method is called, not when optimize is called.
+	 * 
+	 * @param timeout
+	 * @param unit
+	 */
+	public final void setTimeLimit(final long timeout, final TimeUnit unit) {
+		setDeadline(System.nanoTime() + unit.toNanos(timeout));
+	}
+
+	/**
+	 *
+	 */
+	public final void clearDeadline() {
+		myHasDeadline = false;
+	}
+
+	/**
+	 * Copies the deadline and cancellation token of this optimizer to
+	 * another, so that an inner optimizer run by this one stops with it.
+	 * 
+	 * @param other
+	 */
+	protected final void shareStopConditions(final Optimizer<?, ?, ?> other) {
+		other.myToken = myToken;
+		other.myHasDeadline = myHasDeadline;
+		other.myDeadline = myDeadline;
+	}
+
+	/**
+	 * Notifies the listener, if any, that an iteration has completed, and returns
+	 * false if the optimizer should stop because it was cancelled, its deadline
+	 * passed or the listener asked it to stop.
+	 * 
+	 * @param iteration
+	 * @param fevals
+	 * @param dfevals
+	 * @param bestf
+	 * @param step
+	 * @return
+	 */
+	protected final boolean fireIteration(final int iteration, final int fevals, final int dfevals,
+			final double bestf, final double step) {
+		return fireIteration(iteration, fevals, dfevals, bestf, step, -1L, -1L, -1L);
+	}
+
+	/**
+	 * Notifies the listener, if any, that an iteration has completed, including
+	 * the time spent in each phase of the iteration, and returns false if the
+	 * optimizer should stop.
+	 * 
+	 * @param iteration
+	 * @param fevals
+	 * @param dfevals
+	 * @param bestf
+	 * @param step
+	 * @param sampleNanos
+	 * @param evaluateNanos
+	 * @param updateNanos
+	 * @return
+	 */
+	protected final boolean fireIteration(final int iteration, final int fevals, final int dfevals,
+			final double bestf, final double step, final long sampleNanos, final long evaluateNanos,
+			final long updateNanos) {
+		if (stopRequested()) {
+			return false;
+		}
+		if (myListener == null) {
+			return true;
+		}
+		if (!myListener.iterationCompleted(
+				new IterationInfo(iteration, fevals, dfevals, bestf, step, sampleNanos, evaluateNanos, updateNanos))) {
+			myStopReason = StopReason.LISTENER;
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns true if the optimizer should stop because it was cancelled or its
+	 * deadline passed. Unlike fireIteration, this does not notify the listener,
+	 * so it can be checked inside loops that do not complete a full iteration,
+	 * such as the steps of a line search.
+	 * 
+	 * @return
+	 */
+	protected final boolean stopRequested() {
+		if (myToken != null && myToken.isCancelled()) {
+			myStopReason = StopReason.CANCELLED;
+			return true;
+		}
+		if (myHasDeadline && System.nanoTime() - myDeadline >= 0L) {
+			myStopReason = StopReason.DEADLINE;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Clears the reason the previous run stopped. Optimizers that pass their
+	 * solutions through finish call this when a run starts, so that a reason
+	 * left over from an interrupted run is not reported again.
+	 */
+	protected final void start() {
+		myStopReason = StopReason.NONE;
+	}
+
+	/**
+	 * Returns why the current run stopped early, if it did, and resets the
+	 * reason for the next run.
+	 * 
+	 * @return
+	 */
+	protected final StopReason takeStopReason() {
+		final StopReason reason = myStopReason;
+		myStopReason = StopReason.NONE;
+		return reason;
+	}
+
+	/**
+	 * Records on the solution why the run stopped early, if it did, and resets
+	 * the reason for the next run. Optimizers that call fireIteration pass every
+	 * solution they return through this method.
+	 * 
+	 * @param solution
+	 * @return
+	 */
+	protected final <S extends OptimizerSolution<X, Y>> S finish(final S solution) {
+		solution.myStopReason = takeStopReason();
+		return solution;
+	}
 }
@@ -33,6 +33,7 @@ public class OptimizerSolution<X, Y> {
 	protected int myFEvals;
 	protected int myDEvals;
 	protected final boolean myConverged;
+	protected StopReason myStopReason = StopReason.NONE;
 
 	/**
 	 * 
@@ -49,6 +50,20 @@ public class OptimizerSolution<X, Y> {
 		myConverged = converged;
 	}
 
+	/**
+	 * 
+	 * @param sol
+	 * @param fevals
+	 * @param dfevals
+	 * @param converged
+	 * @param stopReason
+	 */
+	public OptimizerSolution(final X sol, final int fevals, final int dfevals, final boolean converged,
+			final StopReason stopReason) {
+		this(sol, fevals, dfevals, converged);
+		myStopReason = stopReason;
+	}
+
 	/**
 	 * 
 	 * @return
@@ -80,4 +95,14 @@ public class OptimizerSolution<X, Y> {
 	public boolean converged() {
 		return myConverged;
 	}
+
+	/**
+	 * Returns why the optimizer stopped before meeting its own termination
+	 * criteria, or NONE if it did not.
+	 * 
+	 * @return
+	 */
+	public StopReason getStopReason() {
+		return myStopReason;
+	}
 }
@@ -21,8 +21,7 @@
  */
 package opt.linesearch;
 
-import java.util.function.Function;
-
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -55,9 +54,9 @@ public final class BacktrackingLineSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			final double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, final double f0, final double initial) {
+		start();
 		final int D = x0.length;
 
 		// prepare initial position and dot products
@@ -70,21 +69,21 @@ public final class BacktrackingLineSearch extends LineSearch {
 		int fevals = 0;
 
 		// main loop of backtracking line search
-		for (int i = 0; i < myMaxIters; ++i) {
+		for (int i = 0; i < myMaxIters && !stopRequested(); ++i) {
 
 			// compute new position and function value for step
 			BlasMath.daxpy1(D, step, dir, 1, x0, 1, x, 1);
-			y = f.apply(x);
+			y = f.value(x);
 			++fevals;
 
 			// check the approximate Wolfe condition
 			if (y <= f0 + myC1 * step * dy) {
-				return new LineSearchSolution(step, fevals, 0, x, true);
+				return finish(new LineSearchSolution(step, fevals, 0, x, true));
 			}
 
 			// update step size
 			step = Math.min(step * myRho, myMaxStepSize / normdir);
 		}
-		return new LineSearchSolution(step, fevals, 0, x, false);
+		return finish(new LineSearchSolution(step, fevals, 0, x, false));
 	}
 }
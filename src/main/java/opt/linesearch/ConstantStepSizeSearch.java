@@ -21,8 +21,7 @@
  */
 package opt.linesearch;
 
-import java.util.function.Function;
-
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -45,9 +44,8 @@ public final class ConstantStepSizeSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			final double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, final double f0, final double initial) {
 		final int D = x0.length;
 		final double[] x = new double[D];
 		BlasMath.daxpy1(D, myStepSize, dir, 1, x0, 1, x, 1);
@@ -21,8 +21,7 @@
  */
 package opt.linesearch;
 
-import java.util.function.Function;
-
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -50,12 +49,13 @@ public final class FletcherLineSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, double f0, final double initial) {
+		start();
 		final double rhoscal = 0.1, sig = 0.7, tau = 0.1, chi = 0.75, eps2 = myTol;
 		final int mhat = myMaxIters, n = x0.length;
 		final double[] wa = new double[n];
+		final double[] dfa = new double[n];
 
 		// INITIALIZE TEMPORARY ALGORITHM VARIABLES
 		double alfa0 = initial, alfal = 0.0, alfau = 1e99;
@@ -69,10 +69,11 @@ public final class FletcherLineSearch extends LineSearch {
 
 			// UPDATE DELTA AND COMPUTE F(X+DELTA)
 			BlasMath.daxpy1(n, alfa0, dir, 1, x0, 1, wa, 1);
-			f0 = f.apply(wa);
+			f0 = f.value(wa);
 			++mit;
 
-			if (f0 > fl + rhoscal * (alfa0 - alfal) * flp && Math.abs(fl - f0) > eps2 && mit < mhat) {
+			if (f0 > fl + rhoscal * (alfa0 - alfal) * flp && Math.abs(fl - f0) > eps2 && mit < mhat
+					&& !stopRequested()) {
 
 				// PERFORM INTERPOLATION
 				if (alfa0 < alfau) {
@@ -94,7 +95,8 @@ public final class FletcherLineSearch extends LineSearch {
 
 				// COMPUTE DF(X+ALPHA_0*D)^T*D
 				BlasMath.daxpy1(n, alfa0, dir, 1, x0, 1, wa, 1);
-				final double f0p = BlasMath.ddotm(n, df.apply(wa), 1, dir, 1);
+				f.gradient(wa, dfa);
+				final double f0p = BlasMath.ddotm(n, dfa, 1, dir, 1);
 				++dmit;
 
 				// PERFORM EXTRAPOLATION
@@ -115,13 +117,13 @@ public final class FletcherLineSearch extends LineSearch {
 					converged = true;
 					break;
 				}
-				if (mit >= mhat) {
+				if (mit >= mhat || stopRequested()) {
 					break;
 				}
 			}
 		}
 
 		// RETURN RESULT
-		return new LineSearchSolution(alfa0, mit, dmit, wa, converged);
+		return finish(new LineSearchSolution(alfa0, mit, dmit, wa, converged));
 	}
 }
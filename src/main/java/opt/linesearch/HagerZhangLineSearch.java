@@ -24,6 +24,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.function.Function;
 
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -65,16 +66,16 @@ public final class HagerZhangLineSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			final double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, final double f0, final double initial) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final int[] dfev = new int[1];
 
 		// call main subroutine
-		return hagerzhang(f, df, x0, dir, df0, f0, initial, myTol, myMaxIters, fev, dfev);
+		return finish(hagerzhang(f, x0, dir, df0, f0, initial, myTol, myMaxIters, fev, dfev));
 	}
 
 	/**
@@ -99,8 +100,33 @@ public final class HagerZhangLineSearch extends LineSearch {
 			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
 			final double f0, final double psi0, final double psi1, final double psi2, final double epsk,
 			final int maxit, final int k, final double pstep, final boolean quadstep) {
+		return lineSearch(DifferentiableObjective.of(f::apply, df), x0, dir, df0, f0, psi0, psi1, psi2, epsk, maxit, k,
+				pstep, quadstep);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param x0
+	 * @param dir
+	 * @param df0
+	 * @param f0
+	 * @param psi0
+	 * @param psi1
+	 * @param psi2
+	 * @param epsk
+	 * @param maxit
+	 * @param k
+	 * @param pstep
+	 * @param quadstep
+	 * @return
+	 */
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, final double f0, final double psi0, final double psi1, final double psi2,
+			final double epsk, final int maxit, final int k, final double pstep, final boolean quadstep) {
 
 		// prepare variables
+		start();
 		final int n = x0.length;
 		final int[] fev = new int[1];
 		final int[] dfev = new int[1];
@@ -130,7 +156,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 			for (int i = 0; i < n; ++i) {
 				wa[i] = x0[i] + step * dir[i];
 			}
-			final double phi1 = f.apply(wa);
+			final double phi1 = f.value(wa);
 			final double a = (phi1 - phi0 - step * dphi0) / step / step;
 			final double b = dphi0;
 			if (phi1 <= phi0 && a > 0.0 && Math.abs(b) > 0.0) {
@@ -148,13 +174,12 @@ public final class HagerZhangLineSearch extends LineSearch {
 		}
 
 		// call main subroutine
-		return hagerzhang(f, df, x0, dir, df0, f0, c, epsk, maxit, fev, dfev);
+		return finish(hagerzhang(f, x0, dir, df0, f0, c, epsk, maxit, fev, dfev));
 	}
 
-	private static LineSearchSolution hagerzhang(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			final double f0, final double initial, final double eps, final int maxit, final int[] fev,
-			final int[] dfev) {
+	private LineSearchSolution hagerzhang(final DifferentiableObjective f, final double[] x0,
+			final double[] dir, final double[] df0, final double f0, final double initial, final double eps,
+			final int maxit, final int[] fev, final int[] dfev) {
 
 		// prepare variables
 		final int n = x0.length;
@@ -168,21 +193,20 @@ public final class HagerZhangLineSearch extends LineSearch {
 		// call main subroutine
 		// TODO: check convergence
 		final double stepf = hagerzhang(lsr, n, dfarr, x0, dir, wa, initial, false, 0.1, 0.9, Double.POSITIVE_INFINITY,
-				5.0, eps, 0.66, maxit, 0.1, 10000, f, df, fev, dfev);
+				5.0, eps, 0.66, maxit, 0.1, 10000, f, fev, dfev);
 		BlasMath.daxpy1(n, stepf, dir, 1, x0, 1, wa, 1);
 		return new LineSearchSolution(stepf, fev[0], dfev[0], wa, true);
 	}
 
-	private static double hagerzhang(final List<LineStep> lsr, final int n, final double[] df, final double[] x,
+	private double hagerzhang(final List<LineStep> lsr, final int n, final double[] df, final double[] x,
 			final double[] d, final double[] wa, double c, boolean canbreak, final double delta, final double sigma,
 			double stepmax, final double rho, final double eps, final double gamma, final int lsmax, final double psi3,
-			final int itfmax, final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final int[] fev, final int[] dfev) {
+			final int itfmax, final DifferentiableObjective func, final int[] fev, final int[] dfev) {
 
 		double phi0 = lsr.get(1 - 1).value;
 		double dphi0 = lsr.get(1 - 1).slope;
 		double philim = phi0 + eps * Math.abs(phi0);
-		double[] val = eval(n, df, x, d, c, wa, true, func, dfunc);
+		double[] val = eval(n, df, x, d, c, wa, true, func);
 		double phic = val[0];
 		double dphic = val[1];
 		++fev[0];
@@ -192,7 +216,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 			canbreak = false;
 			++itf;
 			c *= psi3;
-			val = eval(n, df, x, d, c, wa, true, func, dfunc);
+			val = eval(n, df, x, d, c, wa, true, func);
 			phic = val[0];
 			dphic = val[1];
 			++fev[0];
@@ -211,6 +235,9 @@ public final class HagerZhangLineSearch extends LineSearch {
 		int it = 1;
 		double cold;
 		while (!isbrak && it < lsmax) {
+			if (stopRequested()) {
+				return c;
+			}
 			if (dphic >= 0.0) {
 				ib = lsr.size();
 				for (int i = ib - 1; i >= 1; --i) {
@@ -223,7 +250,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 			} else if (lsr.get(lsr.size() - 1).value > philim) {
 				ib = lsr.size();
 				ia = ib - 1;
-				final int[] iab = bisect(lsr, n, df, x, d, wa, ia, ib, philim, func, dfunc, fev, dfev);
+				final int[] iab = bisect(lsr, n, df, x, d, wa, ia, ib, philim, func, fev, dfev);
 				ia = iab[0];
 				ib = iab[1];
 				isbrak = true;
@@ -236,7 +263,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 						return cold;
 					}
 				}
-				val = eval(n, df, x, d, c, wa, true, func, dfunc);
+				val = eval(n, df, x, d, c, wa, true, func);
 				phic = val[0];
 				dphic = val[1];
 				++fev[0];
@@ -246,7 +273,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 					stepmax = c;
 					++itf;
 					c = (cold + c) / 2.0;
-					val = eval(n, df, x, d, c, wa, true, func, dfunc);
+					val = eval(n, df, x, d, c, wa, true, func);
 					phic = val[0];
 					dphic = val[1];
 					++fev[0];
@@ -262,12 +289,15 @@ public final class HagerZhangLineSearch extends LineSearch {
 			++it;
 		}
 		while (it < lsmax) {
+			if (stopRequested()) {
+				return lsr.get(ia - 1).step;
+			}
 			double a = lsr.get(ia - 1).step;
 			double b = lsr.get(ib - 1).step;
 			if (b - a <= Math.ulp(b)) {
 				return a;
 			}
-			final int[] sec = secant2(lsr, n, df, x, d, wa, ia, ib, philim, delta, sigma, func, dfunc, fev, dfev);
+			final int[] sec = secant2(lsr, n, df, x, d, wa, ia, ib, philim, delta, sigma, func, fev, dfev);
 			boolean iswolfe = sec[0] == 1;
 			int iA = sec[1];
 			int iB = sec[2];
@@ -285,13 +315,13 @@ public final class HagerZhangLineSearch extends LineSearch {
 				ib = iB;
 			} else {
 				c = (A + B) / 2.0;
-				val = eval(n, df, x, d, c, wa, true, func, dfunc);
+				val = eval(n, df, x, d, c, wa, true, func);
 				phic = val[0];
 				dphic = val[1];
 				++fev[0];
 				++dfev[0];
 				lsr.add(new LineStep(c, dphic, phic));
-				final int[] iab = update(lsr, n, df, x, d, wa, iA, iB, lsr.size(), philim, func, dfunc, fev, dfev);
+				final int[] iab = update(lsr, n, df, x, d, wa, iA, iB, lsr.size(), philim, func, fev, dfev);
 				ia = iab[0];
 				ib = iab[1];
 			}
@@ -302,8 +332,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 
 	private static int[] secant2(final List<LineStep> lsr, final int n, final double[] df, final double[] x,
 			final double[] d, final double[] wa, final int ia, final int ib, final double philim, final double delta,
-			final double sigma, final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final int[] fev, final int[] dfev) {
+			final double sigma, final DifferentiableObjective func, final int[] fev, final int[] dfev) {
 		double phi0 = lsr.get(1 - 1).value;
 		double dphi0 = lsr.get(1 - 1).slope;
 		double a = lsr.get(ia - 1).step;
@@ -311,7 +340,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 		double dphia = lsr.get(ia - 1).slope;
 		double dphib = lsr.get(ib - 1).slope;
 		double c = secant(a, b, dphia, dphib);
-		double[] val = eval(n, df, x, d, c, wa, true, func, dfunc);
+		double[] val = eval(n, df, x, d, c, wa, true, func);
 		double phic = val[0];
 		double dphic = val[1];
 		++fev[0];
@@ -321,7 +350,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 		if (satisfiesWolfe(c, phic, dphic, phi0, dphi0, philim, delta, sigma)) {
 			return new int[] { 1, ic, ic };
 		}
-		int[] AB = update(lsr, n, df, x, d, wa, ia, ib, ic, philim, func, dfunc, fev, dfev);
+		int[] AB = update(lsr, n, df, x, d, wa, ia, ib, ic, philim, func, fev, dfev);
 		int iA = AB[0];
 		int iB = AB[1];
 		a = lsr.get(iA - 1).step;
@@ -332,7 +361,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 			c = secant(lsr, ia, iA);
 		}
 		if (c >= a && c <= b) {
-			val = eval(n, df, x, d, c, wa, true, func, dfunc);
+			val = eval(n, df, x, d, c, wa, true, func);
 			phic = val[0];
 			dphic = val[1];
 			++fev[0];
@@ -342,7 +371,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 			if (satisfiesWolfe(c, phic, dphic, phi0, dphi0, philim, delta, sigma)) {
 				return new int[] { 1, ic, ic };
 			}
-			AB = update(lsr, n, df, x, d, wa, iA, iB, ic, philim, func, dfunc, fev, dfev);
+			AB = update(lsr, n, df, x, d, wa, iA, iB, ic, philim, func, fev, dfev);
 			iA = AB[0];
 			iB = AB[1];
 		}
@@ -358,8 +387,7 @@ public final class HagerZhangLineSearch extends LineSearch {
 
 	private static int[] update(final List<LineStep> lsr, final int n, final double[] df, final double[] x,
 			final double[] d, final double[] wa, final int ia, final int ib, final int ic, final double philim,
-			final Function<? super double[], Double> func, final Function<? super double[], double[]> dfunc,
-			final int[] fev, final int[] dfev) {
+			final DifferentiableObjective func, final int[] fev, final int[] dfev) {
 		double a = lsr.get(ia - 1).step;
 		double b = lsr.get(ib - 1).step;
 		double c = lsr.get(ic - 1).step;
@@ -372,19 +400,18 @@ public final class HagerZhangLineSearch extends LineSearch {
 		} else if (phic <= philim) {
 			return new int[] { ic, ib };
 		} else {
-			return bisect(lsr, n, df, x, d, wa, ia, ic, philim, func, dfunc, fev, dfev);
+			return bisect(lsr, n, df, x, d, wa, ia, ic, philim, func, fev, dfev);
 		}
 	}
 
 	private static int[] bisect(final List<LineStep> lsr, final int n, final double[] df, final double[] x,
 			final double[] d, final double[] wa, int ia, int ib, final double philim,
-			final Function<? super double[], Double> func, final Function<? super double[], double[]> dfunc,
-			final int[] fev, final int[] dfev) {
+			final DifferentiableObjective func, final int[] fev, final int[] dfev) {
 		double a = lsr.get(ia - 1).step;
 		double b = lsr.get(ib - 1).step;
 		while (b - a > Math.ulp(b)) {
 			final double dd = (a + b) / 2.0;
-			final double[] val = eval(n, df, x, d, dd, wa, true, func, dfunc);
+			final double[] val = eval(n, df, x, d, dd, wa, true, func);
 			final double phid = val[0];
 			final double gphi = val[1];
 			++fev[0];
@@ -405,19 +432,17 @@ public final class HagerZhangLineSearch extends LineSearch {
 	}
 
 	private static double[] eval(final int n, final double[] df, final double[] x, final double[] d, final double step,
-			final double[] wa, final boolean grad, final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc) {
+			final double[] wa, final boolean grad, final DifferentiableObjective func) {
 		BlasMath.daxpy1(n, step, d, 1, x, 1, wa, 1);
 		double gphi = Double.NaN;
 		double phi;
 		if (grad) {
-			phi = func.apply(wa);
-			System.arraycopy(dfunc.apply(wa), 0, df, 0, n);
+			phi = func.apply(wa, df);
 			if (Double.isFinite(phi)) {
 				gphi = BlasMath.ddotm(n, df, 1, d, 1);
 			}
 		} else {
-			phi = func.apply(wa);
+			phi = func.value(wa);
 		}
 		return new double[] { phi, gphi };
 	}
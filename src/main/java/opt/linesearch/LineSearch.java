@@ -22,8 +22,10 @@
 package opt.linesearch;
 
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.Optimizer;
+import opt.multivariate.DifferentiableObjective;
 
 /**
  * An abstract algorithm for performing a line search.
@@ -55,6 +57,19 @@ public abstract class LineSearch extends Optimizer<Double, Double, LineSearchPro
 		this(tolerance, maxIterations, 1e-4);
 	}
 
+	/**
+	 *
+	 * @param f
+	 * @param x0
+	 * @param dir
+	 * @param df0
+	 * @param f0
+	 * @param initial
+	 * @return
+	 */
+	public abstract LineSearchSolution lineSearch(DifferentiableObjective f, double[] x0, double[] dir, double[] df0,
+			double f0, double initial);
+
 	/**
 	 *
 	 * @param f
@@ -66,18 +81,36 @@ public abstract class LineSearch extends Optimizer<Double, Double, LineSearchPro
 	 * @param initial
 	 * @return
 	 */
-	public abstract LineSearchSolution lineSearch(Function<? super double[], Double> f,
-			Function<? super double[], double[]> df, double[] x0, double[] dir, double[] df0, double f0,
-			double initial);
+	public final LineSearchSolution lineSearchDouble(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
+			final double f0, final double initial) {
+		return lineSearch(DifferentiableObjective.of(f, df), x0, dir, df0, f0, initial);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param df
+	 * @param x0
+	 * @param dir
+	 * @param df0
+	 * @param f0
+	 * @param initial
+	 * @return
+	 */
+	public LineSearchSolution lineSearch(final Function<? super double[], Double> f,
+			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
+			final double f0, final double initial) {
+		return lineSearchDouble(f::apply, df, x0, dir, df0, f0, initial);
+	}
 
 	@Override
 	public LineSearchSolution optimize(final LineSearchProblem problem, final Double guess) {
-		final Function<double[], Double> f = problem.myFunc;
-		final Function<double[], double[]> df = problem.myDFunc;
+		final DifferentiableObjective f = problem.myFunc;
 		final double[] x0 = problem.myX0;
 		final double[] dir = problem.myD;
-		final double[] df0 = df.apply(x0);
-		final double f0 = f.apply(x0);
-		return lineSearch(f, df, x0, dir, df0, f0, guess);
+		final double[] df0 = new double[x0.length];
+		final double f0 = f.apply(x0, df0);
+		return lineSearch(f, x0, dir, df0, f0, guess);
 	}
 }
@@ -22,7 +22,9 @@
 package opt.linesearch;
 
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -37,8 +39,7 @@ import utils.BlasMath;
  */
 public final class LineSearchProblem implements Function<Double, Double> {
 
-	protected final Function<double[], Double> myFunc;
-	protected final Function<double[], double[]> myDFunc;
+	protected final DifferentiableObjective myFunc;
 	protected final double[] myX0, myD;
 	private final double[] myTemp;
 	private final int myN;
@@ -46,23 +47,57 @@ public final class LineSearchProblem implements Function<Double, Double> {
 	/**
 	 *
 	 * @param func
-	 * @param dfunc
 	 * @param x0
 	 * @param dir
 	 */
-	public LineSearchProblem(final Function<double[], Double> func, final Function<double[], double[]> dfunc,
-			final double[] x0, final double[] dir) {
+	public LineSearchProblem(final DifferentiableObjective func, final double[] x0, final double[] dir) {
 		myFunc = func;
-		myDFunc = dfunc;
 		myX0 = x0;
 		myD = dir;
 		myN = myX0.length;
 		myTemp = new double[myN];
 	}
 
+	/**
+	 *
+	 * @param func
+	 * @param dfunc
+	 * @param x0
+	 * @param dir
+	 */
+	public LineSearchProblem(final Function<double[], Double> func, final Function<double[], double[]> dfunc,
+			final double[] x0, final double[] dir) {
+		this(DifferentiableObjective.of(func::apply, dfunc), x0, dir);
+	}
+
+	/**
+	 * Returns the problem of evaluating the given primitive function along the
+	 * ray through x0 in the direction dir.
+	 * 
+	 * @param func
+	 * @param dfunc
+	 * @param x0
+	 * @param dir
+	 * @return
+	 */
+	public static LineSearchProblem ofDouble(final ToDoubleFunction<? super double[]> func,
+			final Function<? super double[], double[]> dfunc, final double[] x0, final double[] dir) {
+		return new LineSearchProblem(DifferentiableObjective.of(func, dfunc), x0, dir);
+	}
+
 	@Override
 	public final Double apply(final Double t) {
+		return applyAsDouble(t);
+	}
+
+	/**
+	 * Evaluates the function along the ray without boxing the step or the value.
+	 * 
+	 * @param t
+	 * @return
+	 */
+	public final double applyAsDouble(final double t) {
 		BlasMath.daxpy1(myN, t, myD, 1, myX0, 1, myTemp, 1);
-		return myFunc.apply(myTemp);
+		return myFunc.value(myTemp);
 	}
 }
@@ -54,8 +54,8 @@ POSSIBILITY OF SUCH LOSS OR DAMAGES.
 package opt.linesearch;
 
 import java.util.Arrays;
-import java.util.function.Function;
 
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -121,11 +121,11 @@ public final class MoreThuenteLineSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, double f0, final double initial) {
 
 		// initialize data
+		start();
 		final int n = x0.length;
 		final double[] fin = { f0 };
 		final double[] stpin = { initial };
@@ -137,13 +137,12 @@ public final class MoreThuenteLineSearch extends LineSearch {
 		final int[] nfev = new int[] { 0 };
 
 		// call search
-		cvsrch(f, df, n, x0copy, fin, df0copy, dircopy, stpin, myFTol, myGTol, myXTol, myMinStep, myMaxStep, myMaxIters,
+		cvsrch(f, n, x0copy, fin, df0copy, dircopy, stpin, myFTol, myGTol, myXTol, myMinStep, myMaxStep, myMaxIters,
 				info, nfev, wa);
-		return new LineSearchSolution(stpin[0], nfev[0], nfev[0], x0copy, info[0] == 1);
+		return finish(new LineSearchSolution(stpin[0], nfev[0], nfev[0], x0copy, info[0] == 1));
 	}
 
-	private static void cvsrch(final Function<? super double[], Double> fcn,
-			final Function<? super double[], double[]> dfcn, final int n, final double[] x, final double[] f,
+	private void cvsrch(final DifferentiableObjective fcn, final int n, final double[] x, final double[] f,
 			final double[] g, final double[] s, final double[] stp, final double ftol, final double gtol,
 			final double xtol, final double stpmin, final double stpmax, final int maxfev, final int[] info,
 			final int[] nfev, final double[] wa) {
@@ -207,8 +206,7 @@ public final class MoreThuenteLineSearch extends LineSearch {
 
 			// evaluate function and gradient
 			BlasMath.daxpy1(n, stp[0], s, 1, wa, 1, x, 1);
-			f[0] = fcn.apply(x);
-			System.arraycopy(dfcn.apply(x), 0, g, 0, n);
+			f[0] = fcn.apply(x, g);
 			++nfev[0];
 
 			final double ftest1 = finit + stp[0] * dgtest;
@@ -224,7 +222,7 @@ public final class MoreThuenteLineSearch extends LineSearch {
 			if (stp[0] == stpmin && (f[0] > ftest1 || dg >= dgtest)) {
 				info[0] = 4;
 			}
-			if (nfev[0] >= maxfev) {
+			if (nfev[0] >= maxfev || stopRequested()) {
 				info[0] = 3;
 			}
 			if (brackt[0] == 1 && stmax - stmin <= xtol * stmax) {
@@ -21,8 +21,7 @@ SOFTWARE.
 */
 package opt.linesearch;
 
-import java.util.function.Function;
-
+import opt.multivariate.DifferentiableObjective;
 import utils.BlasMath;
 
 /**
@@ -56,11 +55,12 @@ public final class StrongWolfeLineSearch extends LineSearch {
 	}
 
 	@Override
-	public final LineSearchSolution lineSearch(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] x0, final double[] dir, final double[] df0,
-			final double f0, final double initial) {
+	public final LineSearchSolution lineSearch(final DifferentiableObjective f, final double[] x0, final double[] dir,
+			final double[] df0, final double f0, final double initial) {
+		start();
 		final int D = x0.length;
 		final double[] wa = new double[D];
+		final double[] df1 = new double[D];
 
 		// compute dphi(0)/da
 		double dphi0 = BlasMath.ddotm(D, df0, 1, dir, 1);
@@ -77,15 +77,14 @@ public final class StrongWolfeLineSearch extends LineSearch {
 
 			// compute position at a1, function and gradient values
 			BlasMath.daxpy1(D, a1, dir, 1, x0, 1, wa, 1);
-			final double[] df1 = df.apply(wa);
-			final double y1 = f.apply(wa);
+			final double y1 = f.apply(wa, df1);
 			final double dy1 = BlasMath.ddotm(D, df1, 1, dir, 1);
 			++fevals[0];
 			++dfevals[0];
 
 			// check sufficient condition
 			if (y1 > f0 + myC1 * a1 * dphi0 || (y1 >= y0 && !first)) {
-				step = zoom(f, df, a0, a1, y0, y1, dy0, f0, dphi0, wa, x0, dir, D, fevals, dfevals);
+				step = zoom(f, a0, a1, y0, y1, dy0, f0, dphi0, wa, x0, dir, D, fevals, dfevals);
 				converged = true;
 				break;
 			}
@@ -98,7 +97,13 @@ public final class StrongWolfeLineSearch extends LineSearch {
 
 			// check if we passed the minimum
 			if (dy1 >= 0.0) {
-				step = zoom(f, df, a1, a0, y1, y0, dy1, f0, dphi0, wa, x0, dir, D, fevals, dfevals);
+				step = zoom(f, a1, a0, y1, y0, dy1, f0, dphi0, wa, x0, dir, D, fevals, dfevals);
+				break;
+			}
+
+			// stop at the last point if the deadline passed or the run was cancelled
+			if (stopRequested()) {
+				step = a1;
 				break;
 			}
 
@@ -113,19 +118,19 @@ public final class StrongWolfeLineSearch extends LineSearch {
 
 		// compute the final posititon
 		BlasMath.daxpy1(D, step, dir, 1, x0, 1, wa, 1);
-		return new LineSearchSolution(step, fevals[0], dfevals[0], wa, converged);
+		return finish(new LineSearchSolution(step, fevals[0], dfevals[0], wa, converged));
 	}
 
-	private double zoom(final Function<? super double[], Double> f, final Function<? super double[], double[]> df,
-			double alo, double ahi, double ylo, double yhi, double dylo, final double phi0, final double dphi0,
-			final double[] wa, final double[] x0, final double[] dir, final int D, final int[] fevals,
-			final int[] dfevals) {
+	private double zoom(final DifferentiableObjective f, double alo, double ahi, double ylo, double yhi, double dylo,
+			final double phi0, final double dphi0, final double[] wa, final double[] x0, final double[] dir,
+			final int D, final int[] fevals, final int[] dfevals) {
+		final double[] dftry = new double[D];
 
 		// initialize
 		double atry = 0.0, ar = 0.0, yr = phi0;
 
 		// updating portion of zoom algorithm in Nocedal and Wright (3.3)
-		for (int i = 0; i < myMaxIters; ++i) {
+		for (int i = 0; i < myMaxIters && !stopRequested(); ++i) {
 
 			// interpolation step
 			if (i == 0) {
@@ -157,7 +162,7 @@ public final class StrongWolfeLineSearch extends LineSearch {
 
 			// compute new point
 			BlasMath.daxpy1(D, atry, dir, 1, x0, 1, wa, 1);
-			final double ytry = f.apply(wa);
+			final double ytry = f.value(wa);
 			++fevals[0];
 
 			// check wolfe conditions
@@ -169,7 +174,8 @@ public final class StrongWolfeLineSearch extends LineSearch {
 			} else {
 
 				// check descent condition
-				final double dytry = BlasMath.ddotm(D, df.apply(wa), 1, dir, 1);
+				f.gradient(wa, dftry);
+				final double dytry = BlasMath.ddotm(D, dftry, 1, dir, 1);
 				++fevals[0];
 				if (Math.abs(dytry) <= -myC2 * dphi0) {
 					break;
@@ -0,0 +1,153 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A multivariate objective function that evaluates a whole population of points
+ * in a single call. Population-based optimizers hand each generation to this
+ * interface at once, so that an implementation can amortize setup costs across
+ * the generation or vectorize the evaluation.
+ */
+@FunctionalInterface
+public interface BatchObjective {
+
+	/**
+	 * Evaluates the objective at the first n points of x, and stores the value at
+	 * point x[i] in fx[i].
+	 * 
+	 * @param n
+	 * @param x
+	 * @param fx
+	 */
+	void apply(int n, double[][] x, double[] fx);
+
+	/**
+	 * Returns a view of this objective that evaluates one point at a time.
+	 * 
+	 * @return
+	 */
+	default ToDoubleFunction<double[]> asFunction() {
+		return x -> {
+			final double[] fx = new double[1];
+			apply(1, new double[][] { x }, fx);
+			return fx[0];
+		};
+	}
+
+	/**
+	 * Returns a batch objective that evaluates each point in turn using the given
+	 * function.
+	 * 
+	 * @param func
+	 * @return
+	 */
+	static BatchObjective of(final Function<? super double[], Double> func) {
+		return ofDouble(func::apply);
+	}
+
+	/**
+	 * Returns a batch objective that evaluates each point in turn using the given
+	 * primitive function.
+	 * 
+	 * @param func
+	 * @return
+	 */
+	static BatchObjective ofDouble(final ToDoubleFunction<? super double[]> func) {
+		return new BatchObjective() {
+
+			@Override
+			public final void apply(final int n, final double[][] x, final double[] fx) {
+				for (int i = 0; i < n; ++i) {
+					fx[i] = func.applyAsDouble(x[i]);
+				}
+			}
+
+			@Override
+			public final ToDoubleFunction<double[]> asFunction() {
+				return func::applyAsDouble;
+			}
+		};
+	}
+
+	/**
+	 * Returns a batch objective that evaluates the points of each batch
+	 * concurrently on the given executor, and waits for all of them to finish.
+	 * Each value is written to its own slot of fx, so the result does not depend
+	 * on the order in which the evaluations complete. The function must be safe
+	 * to call from multiple threads.
+	 * 
+	 * @param func
+	 * @param executor
+	 * @return
+	 */
+	static BatchObjective of(final Function<? super double[], Double> func, final Executor executor) {
+		return ofDouble(func::apply, executor);
+	}
+
+	/**
+	 * Returns a batch objective that evaluates the points of each batch
+	 * concurrently on the given executor using the given primitive function.
+	 * 
+	 * @param func
+	 * @param executor
+	 * @return
+	 */
+	static BatchObjective ofDouble(final ToDoubleFunction<? super double[]> func, final Executor executor) {
+		return new BatchObjective() {
+
+			@Override
+			public final void apply(final int n, final double[][] x, final double[] fx) {
+
+				// submit one task per point
+				final CompletableFuture<?>[] tasks = new CompletableFuture<?>[n];
+				for (int i = 0; i < n; ++i) {
+					final int j = i;
+					tasks[i] = CompletableFuture.runAsync(() -> fx[j] = func.applyAsDouble(x[j]), executor);
+				}
+
+				// wait for the whole batch and rethrow the first failure
+				try {
+					CompletableFuture.allOf(tasks).join();
+				} catch (final CompletionException e) {
+					final Throwable cause = e.getCause();
+					if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					}
+					throw e;
+				}
+			}
+
+			@Override
+			public final ToDoubleFunction<double[]> asFunction() {
+				return func::applyAsDouble;
+			}
+		};
+	}
+}
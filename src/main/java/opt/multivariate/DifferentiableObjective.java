@@ -0,0 +1,98 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate;
+
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A differentiable multivariate objective function that computes its value and
+ * its gradient in a single call. This is useful when the value and gradient
+ * share most of their work, for example in adjoint-based models, where
+ * evaluating them separately would roughly double the cost of each point.
+ */
+@FunctionalInterface
+public interface DifferentiableObjective {
+
+	/**
+	 * Evaluates the objective at x, writes its gradient into the first x.length
+	 * elements of g, and returns the value.
+	 * 
+	 * @param x
+	 * @param g
+	 * @return
+	 */
+	double apply(double[] x, double[] g);
+
+	/**
+	 * Evaluates the objective at x when the gradient is not needed. By default,
+	 * this computes the gradient into a temporary buffer and discards it.
+	 * 
+	 * @param x
+	 * @return
+	 */
+	default double value(final double[] x) {
+		return apply(x, new double[x.length]);
+	}
+
+	/**
+	 * Evaluates only the gradient of the objective at x and writes it into the
+	 * first x.length elements of g. By default, this discards the value.
+	 * 
+	 * @param x
+	 * @param g
+	 */
+	default void gradient(final double[] x, final double[] g) {
+		apply(x, g);
+	}
+
+	/**
+	 * Returns an objective that evaluates the given value and gradient functions
+	 * separately.
+	 * 
+	 * @param f
+	 * @param df
+	 * @return
+	 */
+	static DifferentiableObjective of(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df) {
+		return new DifferentiableObjective() {
+
+			@Override
+			public final double apply(final double[] x, final double[] g) {
+				final double fx = f.applyAsDouble(x);
+				System.arraycopy(df.apply(x), 0, g, 0, x.length);
+				return fx;
+			}
+
+			@Override
+			public final double value(final double[] x) {
+				return f.applyAsDouble(x);
+			}
+
+			@Override
+			public final void gradient(final double[] x, final double[] g) {
+				System.arraycopy(df.apply(x), 0, g, 0, x.length);
+			}
+		};
+	}
+}
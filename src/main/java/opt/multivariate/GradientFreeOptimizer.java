@@ -22,8 +22,14 @@ SOFTWARE.
 package opt.multivariate;
 
 import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
+import opt.IterationListener;
 import opt.Optimizer;
 import opt.OptimizerSolution;
 import utils.Constants;
@@ -33,10 +39,10 @@ import utils.Constants;
  */
 public abstract class GradientFreeOptimizer extends Optimizer<double[], Double, Function<? super double[], Double>> {
 
-	protected static final Random RAND = new Random();
 	protected static final double RELEPS = Constants.EPSILON;
 
 	protected final double myTol;
+	protected Random myRandom = new Random();
 
 	/**
 	 *
@@ -46,10 +52,167 @@ public abstract class GradientFreeOptimizer extends Optimizer<double[], Double,
 		myTol = tolerance;
 	}
 
-	public abstract void initialize(Function<? super double[], Double> func, double[] guess);
+	/**
+	 * Reseeds the random number generator of this optimizer, so that subsequent
+	 * runs can be reproduced.
+	 * 
+	 * @param seed
+	 */
+	public final void setSeed(final long seed) {
+		myRandom = new Random(seed);
+	}
+
+	/**
+	 * Replaces the random number generator of this optimizer. Each optimizer
+	 * instance has its own generator by default, so that optimizers running on
+	 * different threads do not contend for a shared one.
+	 * 
+	 * @param random
+	 */
+	public final void setRandom(final Random random) {
+		myRandom = random;
+	}
+
+	/**
+	 * Initializes the optimizer with a primitive objective, whose values are
+	 * never boxed.
+	 * 
+	 * @param func
+	 * @param guess
+	 */
+	public abstract void initializeDouble(ToDoubleFunction<? super double[]> func, double[] guess);
 
 	public abstract void iterate();
 
-	public abstract OptimizerSolution<double[], Double> optimize(Function<? super double[], Double> func,
+	/**
+	 * Minimizes a primitive objective, whose values are never boxed.
+	 * 
+	 * @param func
+	 * @param guess
+	 * @return
+	 */
+	public abstract OptimizerSolution<double[], Double> optimizeDouble(ToDoubleFunction<? super double[]> func,
 			double[] guess);
+
+	/**
+	 * 
+	 * @param func
+	 * @param guess
+	 */
+	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+		initializeDouble(func::apply, guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+			final double[] guess) {
+		return optimizeDouble(func::apply, guess);
+	}
+
+	/**
+	 * Initializes the optimizer with an objective that is evaluated on entire
+	 * populations. By default, points are evaluated one at a time; population-based
+	 * optimizers override this method to hand each generation to the objective.
+	 * 
+	 * @param func
+	 * @param guess
+	 */
+	public void initialize(final BatchObjective func, final double[] guess) {
+		initializeDouble(func.asFunction(), guess);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param guess
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
+		return optimizeDouble(func.asFunction(), guess);
+	}
+
+	/**
+	 * Runs the given tasks on the executor and waits for all of them to finish,
+	 * rethrowing the first failure.
+	 * 
+	 * @param tasks
+	 * @param executor
+	 */
+	protected static void runAll(final Runnable[] tasks, final Executor executor) {
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks.length];
+		for (int i = 0; i < tasks.length; ++i) {
+			futures[i] = CompletableFuture.runAsync(tasks[i], executor);
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Returns a listener for an inner optimizer that charges the evaluations it
+	 * reports to a budget shared with other inner optimizers, and stops it once
+	 * the budget is spent.
+	 * 
+	 * @param budget
+	 * @return
+	 */
+	protected static IterationListener chargeTo(final AtomicInteger budget) {
+		final int[] charged = new int[1];
+		return info -> {
+			final int fev = info.getFEvals();
+			final int left = budget.addAndGet(charged[0] - fev);
+			charged[0] = fev;
+			return left > 0;
+		};
+	}
+
+	/**
+	 * Takes the given number of evaluations from a budget shared with other inner
+	 * optimizers, or returns false and takes none if fewer are left.
+	 * 
+	 * @param budget
+	 * @param evals
+	 * @return
+	 */
+	protected static boolean reserve(final AtomicInteger budget, final int evals) {
+		int left;
+		do {
+			left = budget.get();
+			if (left < evals) {
+				return false;
+			}
+		} while (!budget.compareAndSet(left, left - evals));
+		return true;
+	}
+
+	/**
+	 * Returns a listener for an inner optimizer that evaluates the same number of
+	 * points in every iteration, which takes the evaluations of the next iteration
+	 * from a shared budget before they are sampled, and stops the optimizer once
+	 * the budget cannot cover them. Every evaluation taken is added to
+	 * reserved[0], so that the caller can return those left unused.
+	 * 
+	 * @param budget
+	 * @param perIteration
+	 * @param reserved
+	 * @return
+	 */
+	protected static IterationListener reserveFrom(final AtomicInteger budget, final int perIteration,
+			final int[] reserved) {
+		return info -> {
+			if (!reserve(budget, perIteration)) {
+				return false;
+			}
+			reserved[0] += perIteration;
+			return true;
+		};
+	}
 }
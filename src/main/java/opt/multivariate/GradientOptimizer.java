@@ -21,7 +21,9 @@ SOFTWARE.
 */
 package opt.multivariate;
 
+import java.util.concurrent.Executor;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.Optimizer;
 import opt.OptimizerSolution;
@@ -32,6 +34,9 @@ import opt.OptimizerSolution;
 public abstract class GradientOptimizer extends Optimizer<double[], Double, Function<? super double[], Double>> {
 
 	protected final double myTol;
+	protected NumericalGradient.Scheme myScheme = NumericalGradient.Scheme.CENTRAL;
+	protected Executor myDiffExecutor;
+	protected int myDiffTasks = 1;
 
 	/**
 	 *
@@ -41,6 +46,43 @@ public abstract class GradientOptimizer extends Optimizer<double[], Double, Func
 		myTol = tolerance;
 	}
 
+	/**
+	 * Sets the finite-difference stencil used to approximate the gradient when
+	 * none is provided. Only the FORWARD scheme reuses the value at the current
+	 * point for its difference; the default CENTRAL scheme costs two evaluations
+	 * per coordinate.
+	 * 
+	 * @param scheme
+	 */
+	public final void setDifferentiationScheme(final NumericalGradient.Scheme scheme) {
+		myScheme = scheme;
+	}
+
+	/**
+	 * Sets the executor on which the perturbed points of a finite-difference
+	 * gradient are evaluated, split into the given number of tasks, or evaluates
+	 * them on the calling thread if the executor is null.
+	 * 
+	 * @param executor
+	 * @param tasks
+	 */
+	public final void setDifferentiationExecutor(final Executor executor, final int tasks) {
+		if (tasks <= 0) {
+			throw new IllegalArgumentException("tasks must be positive");
+		}
+		myDiffExecutor = executor;
+		myDiffTasks = tasks;
+	}
+
+	/**
+	 * 
+	 * @param f
+	 * @param df
+	 * @param guess
+	 * @return
+	 */
+	public abstract OptimizerSolution<double[], Double> optimize(DifferentiableObjective f, double[] guess);
+
 	/**
 	 * 
 	 * @param f
@@ -48,17 +90,44 @@ public abstract class GradientOptimizer extends Optimizer<double[], Double, Func
 	 * @param guess
 	 * @return
 	 */
-	public abstract OptimizerSolution<double[], Double> optimize(Function<? super double[], Double> f,
-			Function<? super double[], double[]> df, double[] guess);
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df, final double[] guess) {
+		return optimize(DifferentiableObjective.of(f, df), guess);
+	}
 
 	/**
+	 * Minimizes a function without a gradient, which is approximated by finite
+	 * differences. The function evaluation count of the solution includes every
+	 * evaluation made by the finite differences.
 	 *
 	 * @param f
 	 * @param guess
 	 * @return
 	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> f,
+			final double[] guess) {
+		final NumericalGradient df = new NumericalGradient(f, myScheme);
+		df.setExecutor(myDiffExecutor, myDiffTasks);
+		final OptimizerSolution<double[], Double> sol = optimize(df, guess);
+		return new OptimizerSolution<>(sol.getOptimalPoint(), (int) df.getEvaluations(), sol.getDFEvals(),
+				sol.converged(), sol.getStopReason());
+	}
+
+	/**
+	 * 
+	 * @param f
+	 * @param df
+	 * @param guess
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
+			final Function<? super double[], double[]> df, final double[] guess) {
+		return optimizeDouble(f::apply, df, guess);
+	}
+
+	@Override
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
 			final double[] guess) {
-		throw new IllegalArgumentException("f' not provided; no numerical diff. method exists yet!");
+		return optimizeDouble(f::apply, guess);
 	}
 }
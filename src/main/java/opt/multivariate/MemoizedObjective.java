@@ -0,0 +1,209 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * A decorator for a multivariate objective function that remembers the values
+ * of the most recently evaluated points, so that evaluating the same point
+ * again returns the stored value instead of calling the objective. Points are
+ * compared by the exact bit patterns of their coordinates, so for instance 0.0
+ * and -0.0 are treated as different points. At most a fixed number of points
+ * are stored, and the least recently used point is evicted first.
+ * 
+ * All methods are safe to call from multiple threads. The objective itself is
+ * evaluated outside of the lock, so concurrent misses on the same point may
+ * evaluate it more than once.
+ */
+public final class MemoizedObjective implements ToDoubleFunction<double[]> {
+
+	private static final class Key {
+
+		final long[] bits;
+		final int hash;
+
+		Key(final double[] x) {
+			bits = new long[x.length];
+			for (int i = 0; i < x.length; ++i) {
+				bits[i] = Double.doubleToRawLongBits(x[i]);
+			}
+			hash = Arrays.hashCode(bits);
+		}
+
+		@Override
+		public final int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public final boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return hash == other.hash && Arrays.equals(bits, other.bits);
+		}
+	}
+
+	private final ToDoubleFunction<? super double[]> myFunc;
+	private final int myCapacity;
+	private final Map<Key, Double> myCache;
+	private long myHits, myMisses, myEvictions;
+
+	/**
+	 *
+	 * @param func
+	 * @param capacity
+	 */
+	public MemoizedObjective(final ToDoubleFunction<? super double[]> func, final int capacity) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive");
+		}
+		myFunc = func;
+		myCapacity = capacity;
+		myCache = new LinkedHashMap<Key, Double>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected final boolean removeEldestEntry(final Map.Entry<Key, Double> eldest) {
+				if (size() > myCapacity) {
+					++myEvictions;
+					return true;
+				}
+				return false;
+			}
+		};
+	}
+
+	/**
+	 * Returns a memoized view of the given boxed objective.
+	 * 
+	 * @param func
+	 * @param capacity
+	 * @return
+	 */
+	public static MemoizedObjective of(final Function<? super double[], Double> func, final int capacity) {
+		return new MemoizedObjective(func::apply, capacity);
+	}
+
+	@Override
+	public final double applyAsDouble(final double[] x) {
+		final Key key = new Key(x);
+
+		// look up the point
+		synchronized (myCache) {
+			final Double fx = myCache.get(key);
+			if (fx != null) {
+				++myHits;
+				return fx;
+			}
+			++myMisses;
+		}
+
+		// evaluate the objective without holding the lock
+		final double fx = myFunc.applyAsDouble(x);
+		synchronized (myCache) {
+			myCache.put(key, fx);
+		}
+		return fx;
+	}
+
+	/**
+	 * Removes all stored points and resets the statistics.
+	 */
+	public final void clear() {
+		synchronized (myCache) {
+			myCache.clear();
+			myHits = myMisses = myEvictions = 0L;
+		}
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final int size() {
+		synchronized (myCache) {
+			return myCache.size();
+		}
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final int getCapacity() {
+		return myCapacity;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final long getHits() {
+		synchronized (myCache) {
+			return myHits;
+		}
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final long getMisses() {
+		synchronized (myCache) {
+			return myMisses;
+		}
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final long getEvictions() {
+		synchronized (myCache) {
+			return myEvictions;
+		}
+	}
+
+	/**
+	 * Returns the fraction of lookups that were answered from the cache, or zero
+	 * if no lookups have been made.
+	 * 
+	 * @return
+	 */
+	public final double getHitRate() {
+		synchronized (myCache) {
+			final long total = myHits + myMisses;
+			return total == 0L ? 0.0 : (double) myHits / total;
+		}
+	}
+}
@@ -0,0 +1,243 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import utils.Constants;
+
+/**
+ * A differentiable objective whose gradient is approximated by finite
+ * differences of the objective. The step along each coordinate is scaled to
+ * the magnitude of that coordinate and to the truncation order of the stencil,
+ * and is rounded so that the perturbed point is exactly representable.
+ * 
+ * The value at x is evaluated once per call to apply and reused by the forward
+ * stencil. The most recently evaluated point is also remembered, so that a
+ * call to gradient right after a call to value at the same point does not
+ * evaluate it again.
+ * 
+ * If an executor is set, the perturbed points are split into the given number
+ * of tasks and evaluated on the executor, so the objective must then be safe
+ * to call from multiple threads. Instances are meant to be used by one
+ * optimizer at a time.
+ */
+public final class NumericalGradient implements DifferentiableObjective {
+
+	/**
+	 * The finite-difference stencils, in increasing order of accuracy and cost.
+	 */
+	public enum Scheme {
+
+		/**
+		 * First-order one-sided differences, using n evaluations besides f(x).
+		 */
+		FORWARD(1),
+
+		/**
+		 * Second-order central differences, using 2n evaluations.
+		 */
+		CENTRAL(2),
+
+		/**
+		 * Fourth-order central differences on five points, using 4n evaluations.
+		 */
+		FIVE_POINT(4);
+
+		final double myStepFactor;
+
+		Scheme(final int order) {
+
+			// balances the truncation error against the rounding error
+			myStepFactor = Math.pow(Constants.EPSILON, 1.0 / (order + 1));
+		}
+	}
+
+	private final ToDoubleFunction<? super double[]> myFunc;
+	private final Scheme myScheme;
+	private final AtomicLong myEvals = new AtomicLong();
+	private Executor myExecutor;
+	private int myTasks = 1;
+
+	// the most recently evaluated point
+	private double[] myLastX;
+	private double myLastF;
+
+	/**
+	 *
+	 * @param func the objective to differentiate
+	 * @param scheme the stencil used to approximate each partial derivative
+	 */
+	public NumericalGradient(final ToDoubleFunction<? super double[]> func, final Scheme scheme) {
+		myFunc = func;
+		myScheme = scheme;
+	}
+
+	/**
+	 *
+	 * @param func the objective to differentiate with central differences
+	 */
+	public NumericalGradient(final ToDoubleFunction<? super double[]> func) {
+		this(func, Scheme.CENTRAL);
+	}
+
+	/**
+	 * Returns a numerical gradient of an objective that returns boxed values.
+	 * 
+	 * @param func the objective to differentiate
+	 * @param scheme the stencil used to approximate each partial derivative
+	 * @return
+	 */
+	public static NumericalGradient of(final Function<? super double[], Double> func, final Scheme scheme) {
+		return new NumericalGradient(func::apply, scheme);
+	}
+
+	/**
+	 * Sets the executor used to evaluate the perturbed points, split into the
+	 * given number of tasks, or evaluates them on the calling thread if the
+	 * executor is null.
+	 * 
+	 * @param executor
+	 * @param tasks
+	 */
+	public final void setExecutor(final Executor executor, final int tasks) {
+		if (tasks <= 0) {
+			throw new IllegalArgumentException("tasks must be positive");
+		}
+		myExecutor = executor;
+		myTasks = tasks;
+	}
+
+	@Override
+	public final double apply(final double[] x, final double[] g) {
+		final double fx = value(x);
+		differentiate(x, fx, g);
+		return fx;
+	}
+
+	@Override
+	public final double value(final double[] x) {
+		final double fx = myFunc.applyAsDouble(x);
+		myEvals.incrementAndGet();
+		if (myLastX == null || myLastX.length != x.length) {
+			myLastX = new double[x.length];
+		}
+		System.arraycopy(x, 0, myLastX, 0, x.length);
+		myLastF = fx;
+		return fx;
+	}
+
+	@Override
+	public final void gradient(final double[] x, final double[] g) {
+		if (myScheme == Scheme.FORWARD) {
+			final double fx = Arrays.equals(x, myLastX) ? myLastF : value(x);
+			differentiate(x, fx, g);
+		} else {
+
+			// the central stencils do not use f(x)
+			differentiate(x, Double.NaN, g);
+		}
+	}
+
+	/**
+	 * Returns the number of times the objective has been evaluated, including
+	 * the perturbed points.
+	 * 
+	 * @return
+	 */
+	public final long getEvaluations() {
+		return myEvals.get();
+	}
+
+	private void differentiate(final double[] x, final double fx, final double[] g) {
+		final int n = x.length;
+		final int tasks = myExecutor == null ? 1 : Math.min(myTasks, n);
+		if (tasks <= 1) {
+			differentiate(x, fx, g, 0, n);
+			return;
+		}
+
+		// split the coordinates into contiguous blocks of nearly equal size
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+		for (int t = 0; t < tasks; ++t) {
+			final int lo = (int) ((long) n * t / tasks);
+			final int hi = (int) ((long) n * (t + 1) / tasks);
+			futures[t] = CompletableFuture.runAsync(() -> differentiate(x, fx, g, lo, hi), myExecutor);
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	private void differentiate(final double[] x, final double fx, final double[] g, final int lo, final int hi) {
+		final double[] xh = Arrays.copyOf(x, x.length);
+		int evals = 0;
+		for (int i = lo; i < hi; ++i) {
+			final double xi = x[i];
+			final double temp = xi + myScheme.myStepFactor * Math.max(Math.abs(xi), 1.0);
+			final double h = temp - xi;
+			switch (myScheme) {
+			case FORWARD:
+				xh[i] = xi + h;
+				g[i] = (myFunc.applyAsDouble(xh) - fx) / h;
+				evals += 1;
+				break;
+			case CENTRAL:
+				xh[i] = xi + h;
+				final double fp = myFunc.applyAsDouble(xh);
+				xh[i] = xi - h;
+				final double fm = myFunc.applyAsDouble(xh);
+				g[i] = (fp - fm) / (2.0 * h);
+				evals += 2;
+				break;
+			default:
+				xh[i] = xi + h;
+				final double fp1 = myFunc.applyAsDouble(xh);
+				xh[i] = xi - h;
+				final double fm1 = myFunc.applyAsDouble(xh);
+				xh[i] = xi + 2.0 * h;
+				final double fp2 = myFunc.applyAsDouble(xh);
+				xh[i] = xi - 2.0 * h;
+				final double fm2 = myFunc.applyAsDouble(xh);
+				g[i] = (8.0 * (fp1 - fm1) - (fp2 - fm2)) / (12.0 * h);
+				evals += 4;
+				break;
+			}
+			xh[i] = xi;
+		}
+		myEvals.addAndGet(evals);
+	}
+}
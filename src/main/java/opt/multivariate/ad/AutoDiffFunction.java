@@ -0,0 +1,42 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.ad;
+
+/**
+ * A multivariate objective written against the {@link Scalar} API, so that its
+ * derivatives can be computed automatically. For example, the Rosenbrock
+ * function in two dimensions is
+ * 
+ * <pre>
+ * x -&gt; x[0].constant(1.0).sub(x[0]).square().add(x[1].sub(x[0].square()).square().mul(100.0))
+ * </pre>
+ */
+@FunctionalInterface
+public interface AutoDiffFunction {
+
+	/**
+	 * 
+	 * @param x
+	 * @return
+	 */
+	Scalar apply(Scalar[] x);
+}
@@ -0,0 +1,86 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.ad;
+
+import opt.multivariate.DifferentiableObjective;
+
+/**
+ * A differentiable objective whose gradient is computed by reverse-mode
+ * automatic differentiation on a {@link Tape} owned by this objective. It can
+ * be passed wherever a {@link DifferentiableObjective} is accepted, such as
+ * the gradient optimizers and line searches, and its value and gradient
+ * methods can also be passed separately as f and df. Like its tape, an
+ * instance is not safe to use from multiple threads.
+ */
+public final class AutoDiffObjective implements DifferentiableObjective {
+
+	private final AutoDiffFunction myFunc;
+	private final Tape myTape = new Tape();
+
+	/**
+	 *
+	 * @param func
+	 */
+	public AutoDiffObjective(final AutoDiffFunction func) {
+		myFunc = func;
+	}
+
+	@Override
+	public final double apply(final double[] x, final double[] g) {
+		return myTape.gradient(myFunc, x, g);
+	}
+
+	@Override
+	public final double value(final double[] x) {
+		return myTape.value(myFunc, x);
+	}
+
+	@Override
+	public final void gradient(final double[] x, final double[] g) {
+		myTape.gradient(myFunc, x, g);
+	}
+
+	/**
+	 * Returns the gradient at x in a new array.
+	 * 
+	 * @param x
+	 * @return
+	 */
+	public final double[] gradient(final double[] x) {
+		final double[] g = new double[x.length];
+		myTape.gradient(myFunc, x, g);
+		return g;
+	}
+
+	/**
+	 * Writes the product of the Hessian at x with v into hv, and returns the
+	 * value.
+	 * 
+	 * @param x
+	 * @param v
+	 * @param hv
+	 * @return
+	 */
+	public final double hessianVector(final double[] x, final double[] v, final double[] hv) {
+		return myTape.hessianVector(myFunc, x, v, new double[x.length], hv);
+	}
+}
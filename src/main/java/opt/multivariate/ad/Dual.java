@@ -0,0 +1,211 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.ad;
+
+/**
+ * A dual number a + b e with e^2 = 0, which carries the derivative of a value
+ * along one direction. Evaluating an {@link AutoDiffFunction} on dual numbers
+ * gives the directional derivative of the function in a single pass, at a
+ * small constant multiple of the cost of the function.
+ */
+public final class Dual implements Scalar {
+
+	private final double myValue;
+	private final double myTangent;
+
+	/**
+	 *
+	 * @param value
+	 * @param tangent
+	 */
+	public Dual(final double value, final double tangent) {
+		myValue = value;
+		myTangent = tangent;
+	}
+
+	/**
+	 * Returns the derivative of the function at x along the direction v, and
+	 * writes the value of the function into fx[0] if fx is not null.
+	 * 
+	 * @param f
+	 * @param x
+	 * @param v
+	 * @param fx
+	 * @return
+	 */
+	public static final double derivative(final AutoDiffFunction f, final double[] x, final double[] v,
+			final double[] fx) {
+		final Dual[] duals = new Dual[x.length];
+		for (int i = 0; i < x.length; ++i) {
+			duals[i] = new Dual(x[i], v[i]);
+		}
+		final Dual y = (Dual) f.apply(duals);
+		if (fx != null) {
+			fx[0] = y.myValue;
+		}
+		return y.myTangent;
+	}
+
+	/**
+	 * Computes the gradient of the function at x with one forward pass per
+	 * coordinate, and returns the value. This is only worthwhile for a few
+	 * variables; see {@link Tape} otherwise.
+	 * 
+	 * @param f
+	 * @param x
+	 * @param g
+	 * @return
+	 */
+	public static final double gradient(final AutoDiffFunction f, final double[] x, final double[] g) {
+		final int n = x.length;
+		final Dual[] duals = new Dual[n];
+		double fx = Double.NaN;
+		for (int j = 0; j < n; ++j) {
+			for (int i = 0; i < n; ++i) {
+				duals[i] = new Dual(x[i], i == j ? 1.0 : 0.0);
+			}
+			final Dual y = (Dual) f.apply(duals);
+			fx = y.myValue;
+			g[j] = y.myTangent;
+		}
+		return fx;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final double tangent() {
+		return myTangent;
+	}
+
+	@Override
+	public final double value() {
+		return myValue;
+	}
+
+	@Override
+	public final Dual constant(final double c) {
+		return new Dual(c, 0.0);
+	}
+
+	@Override
+	public final Dual add(final Scalar other) {
+		final Dual b = (Dual) other;
+		return new Dual(myValue + b.myValue, myTangent + b.myTangent);
+	}
+
+	@Override
+	public final Dual add(final double c) {
+		return new Dual(myValue + c, myTangent);
+	}
+
+	@Override
+	public final Dual sub(final Scalar other) {
+		final Dual b = (Dual) other;
+		return new Dual(myValue - b.myValue, myTangent - b.myTangent);
+	}
+
+	@Override
+	public final Dual mul(final Scalar other) {
+		final Dual b = (Dual) other;
+		return new Dual(myValue * b.myValue, myTangent * b.myValue + myValue * b.myTangent);
+	}
+
+	@Override
+	public final Dual mul(final double c) {
+		return new Dual(myValue * c, myTangent * c);
+	}
+
+	@Override
+	public final Dual div(final Scalar other) {
+		final Dual b = (Dual) other;
+		final double v = myValue / b.myValue;
+		return new Dual(v, (myTangent - v * b.myTangent) / b.myValue);
+	}
+
+	@Override
+	public final Dual neg() {
+		return new Dual(-myValue, -myTangent);
+	}
+
+	@Override
+	public final Dual abs() {
+		return myValue < 0.0 ? neg() : this;
+	}
+
+	@Override
+	public final Dual square() {
+		return new Dual(myValue * myValue, 2.0 * myValue * myTangent);
+	}
+
+	@Override
+	public final Dual sqrt() {
+		final double v = Math.sqrt(myValue);
+		return new Dual(v, 0.5 * myTangent / v);
+	}
+
+	@Override
+	public final Dual exp() {
+		final double v = Math.exp(myValue);
+		return new Dual(v, v * myTangent);
+	}
+
+	@Override
+	public final Dual log() {
+		return new Dual(Math.log(myValue), myTangent / myValue);
+	}
+
+	@Override
+	public final Dual sin() {
+		return new Dual(Math.sin(myValue), Math.cos(myValue) * myTangent);
+	}
+
+	@Override
+	public final Dual cos() {
+		return new Dual(Math.cos(myValue), -Math.sin(myValue) * myTangent);
+	}
+
+	@Override
+	public final Dual tanh() {
+		final double v = Math.tanh(myValue);
+		return new Dual(v, (1.0 - v * v) * myTangent);
+	}
+
+	@Override
+	public final Dual pow(final double c) {
+		return new Dual(Math.pow(myValue, c), c * Math.pow(myValue, c - 1.0) * myTangent);
+	}
+
+	@Override
+	public final Dual pow(final Scalar other) {
+		final Dual b = (Dual) other;
+		final double v = Math.pow(myValue, b.myValue);
+		final double d2 = b.myTangent == 0.0 ? 0.0 : v * Math.log(myValue) * b.myTangent;
+		return new Dual(v, b.myValue * Math.pow(myValue, b.myValue - 1.0) * myTangent + d2);
+	}
+
+	@Override
+	public String toString() {
+		return myValue + " + " + myTangent + "e";
+	}
+}
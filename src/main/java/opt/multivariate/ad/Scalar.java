@@ -0,0 +1,90 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.ad;
+
+/**
+ * A real number that carries derivative information through arithmetic.
+ * Objectives written against this interface, as an {@link AutoDiffFunction},
+ * can be differentiated in forward mode with {@link Dual} or in reverse mode
+ * with a {@link Tape}. Scalars of different modes, or of different tapes, must
+ * not be mixed in one expression.
+ */
+public interface Scalar {
+
+	/**
+	 * 
+	 * @return
+	 */
+	double value();
+
+	/**
+	 * Returns a constant of the same mode as this scalar.
+	 * 
+	 * @param c
+	 * @return
+	 */
+	Scalar constant(double c);
+
+	Scalar add(Scalar other);
+
+	Scalar add(double c);
+
+	Scalar sub(Scalar other);
+
+	Scalar mul(Scalar other);
+
+	Scalar mul(double c);
+
+	Scalar div(Scalar other);
+
+	Scalar neg();
+
+	Scalar abs();
+
+	Scalar sqrt();
+
+	Scalar exp();
+
+	Scalar log();
+
+	Scalar sin();
+
+	Scalar cos();
+
+	Scalar tanh();
+
+	Scalar pow(double c);
+
+	Scalar pow(Scalar other);
+
+	default Scalar sub(final double c) {
+		return add(-c);
+	}
+
+	default Scalar div(final double c) {
+		return mul(1.0 / c);
+	}
+
+	default Scalar square() {
+		return mul(this);
+	}
+}
@@ -0,0 +1,352 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.ad;
+
+import java.util.Arrays;
+
+/**
+ * Records the evaluation of an {@link AutoDiffFunction} as a list of
+ * elementary operations, each with the partial derivatives with respect to
+ * its at most two arguments, and then sweeps the list backward to accumulate
+ * the gradient. The gradient costs a small constant multiple of the cost of
+ * the function, whatever the number of variables.
+ * 
+ * Every node also carries a dual-number tangent along a direction v, together
+ * with the tangents of its partial derivatives. Sweeping these backward as
+ * well gives the Hessian-vector product H v in the same pass as the gradient.
+ * 
+ * The storage of the tape, including the scalars handed to the function, is
+ * kept and reused by later evaluations, so evaluating a function of a fixed
+ * structure repeatedly does not allocate once the tape has grown to its size.
+ * A tape is not safe to use from multiple threads, and the scalars of one
+ * evaluation must not be used after the next one starts.
+ */
+public final class Tape {
+
+	/**
+	 * A node of the tape.
+	 */
+	public final class Var implements Scalar {
+
+		private final int myIndex;
+
+		private Var(final int index) {
+			myIndex = index;
+		}
+
+		@Override
+		public final double value() {
+			return myValues[myIndex];
+		}
+
+		@Override
+		public final Var constant(final double c) {
+			return push(c, 0.0, -1, 0.0, 0.0, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var add(final Scalar other) {
+			final int b = index(other);
+			return push(myValues[myIndex] + myValues[b], myTangents[myIndex] + myTangents[b], myIndex, 1.0, 0.0, b,
+					1.0, 0.0);
+		}
+
+		@Override
+		public final Var add(final double c) {
+			return push(myValues[myIndex] + c, myTangents[myIndex], myIndex, 1.0, 0.0, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var sub(final Scalar other) {
+			final int b = index(other);
+			return push(myValues[myIndex] - myValues[b], myTangents[myIndex] - myTangents[b], myIndex, 1.0, 0.0, b,
+					-1.0, 0.0);
+		}
+
+		@Override
+		public final Var mul(final Scalar other) {
+			final int b = index(other);
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double vb = myValues[b], tb = myTangents[b];
+			return push(va * vb, ta * vb + va * tb, myIndex, vb, tb, b, va, ta);
+		}
+
+		@Override
+		public final Var mul(final double c) {
+			return push(myValues[myIndex] * c, myTangents[myIndex] * c, myIndex, c, 0.0, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var div(final Scalar other) {
+			final int b = index(other);
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double vb = myValues[b], tb = myTangents[b];
+			final double v = va / vb, tv = (ta - v * tb) / vb;
+			final double d1 = 1.0 / vb, d2 = -v / vb;
+			return push(v, tv, myIndex, d1, -d1 * d1 * tb, b, d2, -(tv - v * d1 * tb) / vb);
+		}
+
+		@Override
+		public final Var neg() {
+			return push(-myValues[myIndex], -myTangents[myIndex], myIndex, -1.0, 0.0, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var abs() {
+			return myValues[myIndex] < 0.0 ? neg() : mul(1.0);
+		}
+
+		@Override
+		public final Var square() {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			return push(va * va, 2.0 * va * ta, myIndex, 2.0 * va, 2.0 * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var sqrt() {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double v = Math.sqrt(va), d = 0.5 / v;
+			return push(v, d * ta, myIndex, d, -d * ta / (2.0 * va), -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var exp() {
+			final double ta = myTangents[myIndex];
+			final double v = Math.exp(myValues[myIndex]);
+			return push(v, v * ta, myIndex, v, v * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var log() {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double d = 1.0 / va;
+			return push(Math.log(va), d * ta, myIndex, d, -d * d * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var sin() {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double s = Math.sin(va), c = Math.cos(va);
+			return push(s, c * ta, myIndex, c, -s * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var cos() {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double s = Math.sin(va), c = Math.cos(va);
+			return push(c, -s * ta, myIndex, -s, -c * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var tanh() {
+			final double ta = myTangents[myIndex];
+			final double v = Math.tanh(myValues[myIndex]), d = 1.0 - v * v;
+			return push(v, d * ta, myIndex, d, -2.0 * v * d * ta, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var pow(final double c) {
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double d = c * Math.pow(va, c - 1.0);
+			final double dt = c == 1.0 ? 0.0 : c * (c - 1.0) * Math.pow(va, c - 2.0) * ta;
+			return push(Math.pow(va, c), d * ta, myIndex, d, dt, -1, 0.0, 0.0);
+		}
+
+		@Override
+		public final Var pow(final Scalar other) {
+			final int b = index(other);
+			final double va = myValues[myIndex], ta = myTangents[myIndex];
+			final double vb = myValues[b], tb = myTangents[b];
+			final double v = Math.pow(va, vb), loga = Math.log(va);
+			final double d1 = vb * Math.pow(va, vb - 1.0), d2 = v * loga;
+			final double tv = d1 * ta + d2 * tb;
+			final double d1t = tb * Math.pow(va, vb - 1.0) + d1 * ((vb - 1.0) * ta / va + loga * tb);
+			final double d2t = tv * loga + v * ta / va;
+			return push(v, tv, myIndex, d1, d1t, b, d2, d2t);
+		}
+
+		private int index(final Scalar other) {
+			final Var var = (Var) other;
+			if (var.tape() != Tape.this) {
+				throw new IllegalArgumentException("Scalars of different tapes cannot be combined.");
+			}
+			return var.myIndex;
+		}
+
+		private Tape tape() {
+			return Tape.this;
+		}
+	}
+
+	private int mySize, myInputs;
+	private Var[] myVars = new Var[0];
+	private Var[] myInputVars = new Var[0];
+	private double[] myValues = new double[0];
+	private double[] myTangents = new double[0];
+	private int[] myArgs1 = new int[0];
+	private int[] myArgs2 = new int[0];
+	private double[] myPartials1 = new double[0];
+	private double[] myPartials2 = new double[0];
+	private double[] myPartialTangents1 = new double[0];
+	private double[] myPartialTangents2 = new double[0];
+	private double[] myAdjoints = new double[0];
+	private double[] myAdjointTangents = new double[0];
+
+	/**
+	 * Evaluates the function at x without differentiating it.
+	 * 
+	 * @param f
+	 * @param x
+	 * @return
+	 */
+	public final double value(final AutoDiffFunction f, final double[] x) {
+		return record(f, x, null).value();
+	}
+
+	/**
+	 * Writes the gradient of the function at x into g, and returns the value.
+	 * 
+	 * @param f
+	 * @param x
+	 * @param g
+	 * @return
+	 */
+	public final double gradient(final AutoDiffFunction f, final double[] x, final double[] g) {
+		final Var y = record(f, x, null);
+		sweep(y.myIndex, false);
+		System.arraycopy(myAdjoints, 0, g, 0, x.length);
+		return y.value();
+	}
+
+	/**
+	 * Writes the gradient of the function at x into g and the product of its
+	 * Hessian at x with v into hv, and returns the value.
+	 * 
+	 * @param f
+	 * @param x
+	 * @param v
+	 * @param g
+	 * @param hv
+	 * @return
+	 */
+	public final double hessianVector(final AutoDiffFunction f, final double[] x, final double[] v,
+			final double[] g, final double[] hv) {
+		final Var y = record(f, x, v);
+		sweep(y.myIndex, true);
+		System.arraycopy(myAdjoints, 0, g, 0, x.length);
+		System.arraycopy(myAdjointTangents, 0, hv, 0, x.length);
+		return y.value();
+	}
+
+	/**
+	 * Returns the number of nodes recorded by the last evaluation, including
+	 * the inputs.
+	 * 
+	 * @return
+	 */
+	public final int size() {
+		return mySize;
+	}
+
+	private Var record(final AutoDiffFunction f, final double[] x, final double[] v) {
+		final int n = x.length;
+		mySize = 0;
+		for (int i = 0; i < n; ++i) {
+			push(x[i], v == null ? 0.0 : v[i], -1, 0.0, 0.0, -1, 0.0, 0.0);
+		}
+		myInputs = n;
+		if (myInputVars.length != n) {
+			myInputVars = new Var[n];
+		}
+		System.arraycopy(myVars, 0, myInputVars, 0, n);
+		final Scalar y = f.apply(myInputVars);
+		if (!(y instanceof Var) || ((Var) y).tape() != this) {
+			throw new IllegalArgumentException("The function must return a scalar of this tape.");
+		}
+		return (Var) y;
+	}
+
+	private void sweep(final int output, final boolean tangents) {
+		Arrays.fill(myAdjoints, 0, mySize, 0.0);
+		myAdjoints[output] = 1.0;
+		if (tangents) {
+			Arrays.fill(myAdjointTangents, 0, mySize, 0.0);
+		}
+		for (int k = output; k >= myInputs; --k) {
+			final double adj = myAdjoints[k];
+			final int a1 = myArgs1[k], a2 = myArgs2[k];
+			if (tangents) {
+				final double adjt = myAdjointTangents[k];
+				if (a1 >= 0) {
+					myAdjoints[a1] += adj * myPartials1[k];
+					myAdjointTangents[a1] += adjt * myPartials1[k] + adj * myPartialTangents1[k];
+				}
+				if (a2 >= 0) {
+					myAdjoints[a2] += adj * myPartials2[k];
+					myAdjointTangents[a2] += adjt * myPartials2[k] + adj * myPartialTangents2[k];
+				}
+			} else if (adj != 0.0) {
+				if (a1 >= 0) {
+					myAdjoints[a1] += adj * myPartials1[k];
+				}
+				if (a2 >= 0) {
+					myAdjoints[a2] += adj * myPartials2[k];
+				}
+			}
+		}
+	}
+
+	private Var push(final double value, final double tangent, final int a1, final double d1, final double d1t,
+			final int a2, final double d2, final double d2t) {
+		if (mySize == myValues.length) {
+			grow();
+		}
+		final int k = mySize++;
+		myValues[k] = value;
+		myTangents[k] = tangent;
+		myArgs1[k] = a1;
+		myPartials1[k] = d1;
+		myPartialTangents1[k] = d1t;
+		myArgs2[k] = a2;
+		myPartials2[k] = d2;
+		myPartialTangents2[k] = d2t;
+		if (myVars[k] == null) {
+			myVars[k] = new Var(k);
+		}
+		return myVars[k];
+	}
+
+	private void grow() {
+		final int capacity = Math.max(64, 2 * myValues.length);
+		myVars = Arrays.copyOf(myVars, capacity);
+		myValues = Arrays.copyOf(myValues, capacity);
+		myTangents = Arrays.copyOf(myTangents, capacity);
+		myArgs1 = Arrays.copyOf(myArgs1, capacity);
+		myArgs2 = Arrays.copyOf(myArgs2, capacity);
+		myPartials1 = Arrays.copyOf(myPartials1, capacity);
+		myPartials2 = Arrays.copyOf(myPartials2, capacity);
+		myPartialTangents1 = Arrays.copyOf(myPartialTangents1, capacity);
+		myPartialTangents2 = Arrays.copyOf(myPartialTangents2, capacity);
+		myAdjoints = new double[capacity];
+		myAdjointTangents = new double[capacity];
+	}
+}
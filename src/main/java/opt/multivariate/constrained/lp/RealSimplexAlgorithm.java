@@ -55,6 +55,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 
 	@Override
 	public final OptimizerSolution<double[], Double> optimize(final RealLinearProgram lp, final double[] guess) {
+		start();
 
 		// prepare variables
 		final double[][] a = lp.mySimplex.getA();
@@ -74,10 +75,10 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 
 		// call main subroutine
 		final double[] result = smplx(a, b, c, iter, myMaxIters, numle, numge, rerr, converged);
-		return new OptimizerSolution<>(result, iter[0], 0, converged[0]);
+		return finish(new OptimizerSolution<>(result, iter[0], 0, converged[0]));
 	}
 
-	private static double[] smplx(final double[][] a, final double[] b0, final double[] c, final int[] iter,
+	private double[] smplx(final double[][] a, final double[] b0, final double[] c, final int[] iter,
 			final int mxiter, final int numle, final int numge, final double[] rerr, final boolean[] converged) {
 
 		// prepare variables
@@ -88,7 +89,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 		final int[] ibasis = new int[m];
 		final double[] x = new double[n0 + numle + numge];
 		final double[] z = new double[1];
-		final double[][] bi = new double[m][m];
+		final double[] bi = new double[m * m];
 		final double[] c1 = new double[n0 + numle + numge];
 		System.arraycopy(c, 0, c1, 0, n0);
 
@@ -98,9 +99,9 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 		return Arrays.copyOf(x, n0);
 	}
 
-	private static void smplx(final double[][] a, final double[] b0, final double[] c, final int ka, final int m,
+	private void smplx(final double[][] a, final double[] b0, final double[] c, final int ka, final int m,
 			final int n0, final int[] ind, final int[] ibasis, final double[] x, final double[] z, final int[] iter,
-			final int mxiter, final int numle, final int numge, final double[][] bi, final double[] rerr) {
+			final int mxiter, final int numle, final int numge, final double[] bi, final double[] rerr) {
 		double eps0 = dpmpar(1);
 		double rerrmn = 10.0 * eps0;
 		double rerrmx = 1.0e-4;
@@ -110,10 +111,10 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 		smplx1(a, b0, c, ka, m, n0, ind, ibasis, x, z, iter, mxiter, eps0, rerrmn, rerrmx, rerr, numle, numge, bi);
 	}
 
-	private static void smplx1(final double[][] a, final double[] b0, final double[] c, final int ka, final int m,
+	private void smplx1(final double[][] a, final double[] b0, final double[] c, final int ka, final int m,
 			final int n0, final int[] ind, final int[] ibasis, final double[] r, final double[] z, final int[] iter,
 			final int mxiter, final double eps0, final double rerrmn, final double rerrmx, final double[] rerr,
-			final int numle, final int numge, final double[][] bi) {
+			final int numle, final int numge, final double[] bi) {
 
 		int i, ibeg, icount, iend, ii, il, imin = 0, iout = 0, ip = 0, j, jj, jmin, jp = 0, k, kk, ki, kj, l, ll, lrow,
 				m0, mcheck, ms, n, npos = 0, nrow, ns, nstep = 0, num, bflag = 0;
@@ -183,9 +184,9 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 					for (j = 1; j <= m; ++j) {
 						xb[j - 1] = b0[j - 1];
 						for (kk = 1; kk <= m; ++kk) {
-							bi[kk - 1][j - 1] = zero;
+							bi[kk - 1 + (j - 1) * m] = zero;
 						}
-						bi[j - 1][j - 1] = 1.0;
+						bi[j - 1 + (j - 1) * m] = 1.0;
 					}
 					if (numge == 0) {
 						gotoflag = 630;
@@ -193,7 +194,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						jmin = numle + 1;
 						for (j = jmin; j <= ms; ++j) {
 							xb[j - 1] = -xb[j - 1];
-							bi[j - 1][j - 1] = -1.0;
+							bi[j - 1 + (j - 1) * m] = -1.0;
 						}
 						gotoflag = 601;
 					}
@@ -237,36 +238,36 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						kj = ibasis[j - 1];
 						if (kj <= n0) {
 							for (kk = 1; kk <= m; ++kk) {
-								bi[kk - 1][j - 1] = a[kk - 1][kj - 1];
+								bi[kk - 1 + (j - 1) * m] = a[kk - 1][kj - 1];
 							}
 						} else if (kj <= ns) {
 							l = kj - n0;
 							for (kk = 1; kk <= m; ++kk) {
-								bi[kk - 1][j - 1] = zero;
+								bi[kk - 1 + (j - 1) * m] = zero;
 							}
-							bi[l - 1][j - 1] = 1.0;
+							bi[l - 1 + (j - 1) * m] = 1.0;
 						} else if (kj <= n) {
 							l = kj - n0;
 							for (kk = 1; kk <= m; ++kk) {
-								bi[kk - 1][j - 1] = zero;
+								bi[kk - 1 + (j - 1) * m] = zero;
 							}
-							bi[l - 1][j - 1] = -1.0;
+							bi[l - 1 + (j - 1) * m] = -1.0;
 						} else {
 							l = kj - n0;
 							for (kk = 1; kk <= m; ++kk) {
-								bi[kk - 1][j - 1] = zero;
+								bi[kk - 1 + (j - 1) * m] = zero;
 							}
-							bi[l - 1][j - 1] = 1.0;
+							bi[l - 1 + (j - 1) * m] = 1.0;
 						}
 					}
 					icount = 0;
 					final double[] wa = new double[m];
 					for (kk = 1; kk <= m; ++kk) {
-						wa[kk - 1] = bi[kk - 1][1 - 1];
+						wa[kk - 1] = bi[kk - 1];
 					}
 					crout1(wa, m, m, iend, indx, y, ierr);
 					for (kk = 1; kk <= m; ++kk) {
-						bi[kk - 1][1 - 1] = wa[kk - 1];
+						bi[kk - 1] = wa[kk - 1];
 					}
 					if (ierr[0] != 0) {
 						if (iter[0] == 0) {
@@ -311,7 +312,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						for (j = 1; j <= m; ++j) {
 							total = zero;
 							for (kk = 1; kk <= m; ++kk) {
-								total += Math.abs(bi[kk - 1][j - 1]);
+								total += Math.abs(bi[kk - 1 + (j - 1) * m]);
 							}
 							binorm = Math.max(binorm, total);
 						}
@@ -346,7 +347,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 							for (i = 1; i <= m; ++i) {
 								dsump = dsumn = zero;
 								for (l = 1; l <= m; ++l) {
-									dt = bi[i - 1][l - 1] * b0[l - 1];
+									dt = bi[i - 1 + (l - 1) * m] * b0[l - 1];
 									if (dt > zero) {
 										dsump += dt;
 									} else {
@@ -452,10 +453,10 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 
 			if (gotoflag == 300) {
 
-				// IF MXITER ITERATIONS HAVE NOT BEEN PERFORMED THEN BEGIN THE
-				// NEXT ITERATION. COMPUTE THE JP-TH COLUMN OF BI*A AND STORE IT IN
-				// Y.
-				if (iter[0] >= mxiter) {
+				// IF MXITER ITERATIONS HAVE NOT BEEN PERFORMED AND THE RUN WAS
+				// NOT STOPPED THEN BEGIN THE NEXT ITERATION. COMPUTE THE JP-TH
+				// COLUMN OF BI*A AND STORE IT IN Y.
+				if (iter[0] >= mxiter || !fireIteration(iter[0], iter[0], 0, Double.NaN, Double.NaN)) {
 					ind[0] = 2;
 					gotoflag = 220;
 					continue;
@@ -465,12 +466,12 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 				if (jp > ns) {
 					l = jp - n0;
 					for (kk = 1; kk <= m; ++kk) {
-						y[kk - 1] = -bi[kk - 1][l - 1];
+						y[kk - 1] = -bi[kk - 1 + (l - 1) * m];
 					}
 				} else if (jp > n0) {
 					l = jp - n0;
 					for (kk = 1; kk <= m; ++kk) {
-						y[kk - 1] = bi[kk - 1][l - 1];
+						y[kk - 1] = bi[kk - 1 + (l - 1) * m];
 					}
 				} else {
 
@@ -494,7 +495,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 							dsum = zero;
 							for (ll = 1; ll <= nrow; ++ll) {
 								l = indx[ll - 1];
-								dsum += bi[i - 1][l - 1] * a[l - 1][jp - 1];
+								dsum += bi[i - 1 + (l - 1) * m] * a[l - 1][jp - 1];
 							}
 							y[i - 1] = dsum;
 							if (Math.abs(y[i - 1]) >= 5e-3) {
@@ -502,7 +503,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 							}
 							bmax = zero;
 							for (l = 1; l <= m; ++l) {
-								bmax = Math.max(Math.abs(bi[i - 1][l - 1]), bmax);
+								bmax = Math.max(Math.abs(bi[i - 1 + (l - 1) * m]), bmax);
 							}
 							tol = rerr1 * bmax;
 							if (Math.abs(y[i - 1]) < tol) {
@@ -733,14 +734,14 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 
 				// TRANSFORMATION OF BI
 				for (j = 1; j <= m; ++j) {
-					if (bi[ip - 1][j - 1] == zero) {
+					if (bi[ip - 1 + (j - 1) * m] == zero) {
 						continue;
 					}
-					cons = bi[ip - 1][j - 1] / y[ip - 1];
+					cons = bi[ip - 1 + (j - 1) * m] / y[ip - 1];
 					for (kk = 1; kk <= m; ++kk) {
-						bi[kk - 1][j - 1] -= cons * y[kk - 1];
+						bi[kk - 1 + (j - 1) * m] -= cons * y[kk - 1];
 					}
-					bi[ip - 1][j - 1] = cons;
+					bi[ip - 1 + (j - 1) * m] = cons;
 				}
 
 				// UPDATING IBASIS AND BASIS
@@ -772,7 +773,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						}
 						total = zero;
 						for (kk = 1; kk <= m; ++kk) {
-							total += bi[j - 1][kk - 1] * a[kk - 1][kj - 1];
+							total += bi[j - 1 + (kk - 1) * m] * a[kk - 1][kj - 1];
 						}
 						rerr[0] = Math.max(rerr[0], Math.abs(1.0 - total));
 						++k;
@@ -811,7 +812,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						} else {
 							total = zero;
 							for (kk = 1; kk <= m; ++kk) {
-								total += bi[ip - 1][kk - 1] * a[kk - 1][j - 1];
+								total += bi[ip - 1 + (kk - 1) * m] * a[kk - 1][j - 1];
 							}
 							r[j - 1] -= cons * total;
 							if (r[j - 1] >= zero) {
@@ -830,7 +831,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 								r[j - 1] = zero;
 							} else {
 								jj = j - n0;
-								r[j - 1] -= cons * bi[ip - 1][jj - 1];
+								r[j - 1] -= cons * bi[ip - 1 + (jj - 1) * m];
 							}
 						}
 					}
@@ -841,7 +842,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 								r[j - 1] = zero;
 							} else {
 								jj = j - n0;
-								r[j - 1] += cons * bi[ip - 1][jj - 1];
+								r[j - 1] += cons * bi[ip - 1 + (jj - 1) * m];
 							}
 						}
 					}
@@ -879,10 +880,10 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 					dsump = dsumn = zero;
 					for (ll = 1; ll <= m0; ++ll) {
 						l = indx[ll - 1];
-						if (bi[l - 1][j - 1] < zero) {
-							dsumn += bi[l - 1][j - 1];
-						} else if (bi[l - 1][j - 1] > zero) {
-							dsump += bi[l - 1][j - 1];
+						if (bi[l - 1 + (j - 1) * m] < zero) {
+							dsumn += bi[l - 1 + (j - 1) * m];
+						} else if (bi[l - 1 + (j - 1) * m] > zero) {
+							dsump += bi[l - 1 + (j - 1) * m];
 						}
 					}
 					y[j - 1] = dsump + dsumn;
@@ -946,10 +947,10 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						dsump = dsumn = zero;
 						for (ll = 1; ll <= m0; ++ll) {
 							l = indx[ll - 1];
-							if (bi[l - 1][j - 1] < zero) {
-								dsumn += bi[l - 1][j - 1];
-							} else if (bi[l - 1][j - 1] > zero) {
-								dsump += bi[l - 1][j - 1];
+							if (bi[l - 1 + (j - 1) * m] < zero) {
+								dsumn += bi[l - 1 + (j - 1) * m];
+							} else if (bi[l - 1 + (j - 1) * m] > zero) {
+								dsump += bi[l - 1 + (j - 1) * m];
 							}
 						}
 						y[j - 1] = -(dsump + dsumn);
@@ -1008,7 +1009,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 					for (l = 1; l <= m; ++l) {
 						il = ibasis[l - 1];
 						if (il <= n0) {
-							dsum += c[il - 1] * bi[l - 1][j - 1];
+							dsum += c[il - 1] * bi[l - 1 + (j - 1) * m];
 						}
 					}
 					y[j - 1] = dsum;
@@ -1110,7 +1111,7 @@ public final class RealSimplexAlgorithm extends Optimizer<double[], Double, Real
 						continue;
 					}
 					for (l = 1; l <= m; ++l) {
-						dt = bi[i - 1][l - 1] * r[l - 1];
+						dt = bi[i - 1 + (l - 1) * m] * r[l - 1];
 						if (dt > zero) {
 							dsump += dt;
 						} else {
@@ -45,7 +45,7 @@ import opt.OptimizerSolution;
  */
 public final class BoxComplexAlgorithm {
 
-	private static final Random RAND = new Random();
+	private Random myRandom = new Random();
 
 	// algorithm parameters
 	private final double myTol;
@@ -125,6 +125,22 @@ public final class BoxComplexAlgorithm {
 		this(tolerance, maxEvaluations, false);
 	}
 
+	/**
+	 *
+	 * @param seed
+	 */
+	public final void setSeed(final long seed) {
+		myRandom = new Random(seed);
+	}
+
+	/**
+	 *
+	 * @param random
+	 */
+	public final void setRandom(final Random random) {
+		myRandom = random;
+	}
+
 	/**
 	 *
 	 * @param objective
@@ -204,7 +220,7 @@ public final class BoxComplexAlgorithm {
 			if (myConstr.test(start)) {
 				break;
 			}
-			final double r = RAND.nextDouble();
+			final double r = myRandom.nextDouble();
 			for (int j = 0; j < myN; ++j) {
 				start[j] = myLower[j] + r * (myUpper[j] - myLower[j]);
 			}
@@ -226,7 +242,7 @@ public final class BoxComplexAlgorithm {
 			// generate the initial point
 			final double[] ptsi = myPts[i];
 			for (int j = 0; j < myN; ++j) {
-				final double r = RAND.nextDouble();
+				final double r = myRandom.nextDouble();
 				ptsi[j] = myLower[j] + r * (myUpper[j] - myLower[j]);
 			}
 
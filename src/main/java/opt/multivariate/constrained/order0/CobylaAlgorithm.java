@@ -22,8 +22,10 @@ package opt.multivariate.constrained.order0;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
 /**
@@ -47,9 +49,9 @@ import utils.BlasMath;
  * Numerical Analysis Group, Report NA1998/04 from
  * http://www.damtp.cam.ac.uk/user/na/reports.html
  */
-public final class CobylaAlgorithm {
+public final class CobylaAlgorithm extends GradientFreeOptimizer {
 
-	private final double myTol, myRho0;
+	private final double myRho0;
 	private final int myMaxEvals;
 
 	/**
@@ -59,13 +61,38 @@ public final class CobylaAlgorithm {
 	 * @param maxEvaluations
 	 */
 	public CobylaAlgorithm(final double tolerance, final double initialStep, final int maxEvaluations) {
-		myTol = tolerance;
+		super(tolerance);
 		myRho0 = initialStep;
 		myMaxEvals = maxEvaluations;
 	}
 
+	@Override
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		// nothing to do here
+	}
+
+	@Override
+	public final void iterate() {
+		// nothing to do here
+	}
+
+	@Override
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] guess) {
+		return optimize(func::applyAsDouble, x -> new double[0], 0, guess);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param constr
+	 * @param m
+	 * @param guess
+	 * @return
+	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final Function<? super double[], double[]> constr, final int m, final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
@@ -75,10 +102,10 @@ public final class CobylaAlgorithm {
 		// call main subroutine
 		// TODO: check convergence
 		cobyla(func, constr, n, m, x, myRho0, myTol, maxfun);
-		return new OptimizerSolution<>(x, maxfun[0], 0, false);
+		return finish(new OptimizerSolution<>(x, maxfun[0], 0, false));
 	}
 
-	private static void cobyla(final Function<? super double[], Double> func,
+	private void cobyla(final Function<? super double[], Double> func,
 			final Function<? super double[], double[]> constr, final int n, final int m, final double[] x,
 			final double rhobeg, final double rhoend, final int[] maxfun) {
 		final int mpp = m + 2;
@@ -98,7 +125,7 @@ public final class CobylaAlgorithm {
 				sigbar, dx, w, iact);
 	}
 
-	private static void cobylb(final Function<? super double[], Double> func,
+	private void cobylb(final Function<? super double[], Double> func,
 			final Function<? super double[], double[]> constr, final int n, final int m, final int mpp,
 			final double[] x, final double rhobeg, final double rhoend, final int iprint, final int[] maxfun,
 			final double[] con, final double[][] sim, final double[][] simi, final double[][] datmat,
@@ -148,6 +175,9 @@ public final class CobylaAlgorithm {
 				if (nfvals >= maxfun[0] && nfvals > 0) {
 					break;
 				}
+				if (nfvals > np && !fireIteration(nfvals - np, nfvals, 0, datmat[np - 1][mp - 1], rho)) {
+					break;
+				}
 				++nfvals;
 				f = func.apply(x);
 				System.arraycopy(constr.apply(x), 0, con, 0, m);
@@ -26,8 +26,10 @@ package opt.multivariate.constrained.order1;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 import utils.RealMath;
@@ -74,11 +76,20 @@ public final class ShorAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> fun,
-			final Function<? super double[], double[]> dfun, final double[] guess) {
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective obj,
+			final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
+
+		// prepare functions: solvopt copies every gradient out of the buffer
+		final ToDoubleFunction<double[]> fun = obj::value;
+		final double[] gbuf = new double[n];
+		final Function<double[], double[]> dfun = px -> {
+			obj.gradient(px, gbuf);
+			return gbuf;
+		};
 		final double[] x = Arrays.copyOf(guess, n);
 		final double[] f = new double[1];
 		final double[] options = new double[13];
@@ -92,12 +103,13 @@ public final class ShorAlgorithm extends GradientOptimizer {
 
 		// call main subroutine
 		solvopt(n, x, f, fun, true, dfun, options, false, null, false, null);
-		return new OptimizerSolution<>(x, (int) options[10 - 1], (int) options[11 - 1], options[9 - 1] > 0);
+		return finish(new OptimizerSolution<>(x, (int) options[10 - 1], (int) options[11 - 1], options[9 - 1] > 0));
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
@@ -114,13 +126,13 @@ public final class ShorAlgorithm extends GradientOptimizer {
 
 		// call main subroutine
 		solvopt(n, x, f, func, false, null, options, false, null, false, null);
-		return new OptimizerSolution<>(x, (int) options[10 - 1], 0, options[9 - 1] > 0);
+		return finish(new OptimizerSolution<>(x, (int) options[10 - 1], 0, options[9 - 1] > 0));
 	}
 
-	private static void solvopt(final int n, final double[] x, final double[] f,
-			final Function<? super double[], Double> fun, final boolean flg,
+	private void solvopt(final int n, final double[] x, final double[] f,
+			final ToDoubleFunction<? super double[]> fun, final boolean flg,
 			final Function<? super double[], double[]> grad, final double[] options, final boolean flfc,
-			final Function<? super double[], Double> func, final boolean flgc,
+			final ToDoubleFunction<? super double[]> func, final boolean flgc,
 			final Function<? super double[], double[]> gradc) {
 
 		boolean constr, app, appconstr, fsbpnt = false, fsbpnt1 = false, termflag, stopf, stopping, dispwarn,
@@ -267,7 +279,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 		stopf = false;
 
 		// COMPUTE THE FUNCTION ( FIRST TIME )
-		f[0] = fun.apply(x);
+		f[0] = fun.applyAsDouble(x);
 		options[10 - 1] += one;
 		if (Math.abs(f[0]) >= infty) {
 			options[9 - 1] = -three;
@@ -280,7 +292,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 		if (constr) {
 			kless = 0;
 			fp[0] = f[0];
-			fc[0] = func.apply(x);
+			fc[0] = func.applyAsDouble(x);
 			options[12 - 1] += one;
 			if (Math.abs(fc[0]) >= infty) {
 				options[9 - 1] = -five;
@@ -514,7 +526,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 					}
 
 					// FUNCTION VALUE
-					f[0] = fun.apply(x);
+					f[0] = fun.applyAsDouble(x);
 					options[10 - 1] += one;
 					if (h1 * f[0] >= infty) {
 						options[9 - 1] = -seven;
@@ -522,7 +534,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 					}
 					if (constr) {
 						fp[0] = f[0];
-						fc[0] = func.apply(x);
+						fc[0] = func.applyAsDouble(x);
 						options[12 - 1] += one;
 						if (Math.abs(fc[0]) >= infty) {
 							options[9 - 1] = -five;
@@ -882,6 +894,12 @@ public final class ShorAlgorithm extends GradientOptimizer {
 					return;
 				}
 
+				// STOPPED BY THE CALLER
+				if (!fireIteration(k, (int) options[10 - 1], (int) options[11 - 1], f[0], dx)) {
+					options[9 - 1] = -ten - five;
+					return;
+				}
+
 				// ZERO GRADIENT
 				if (constr) {
 					if (ng <= zerograd) {
@@ -897,7 +915,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 					BlasMath.dscalm(n, -h / two, g0, 1);
 					for (i = 1; i <= 10; ++i) {
 						BlasMath.dxpym(n, g0, 1, x, 1);
-						f[0] = fun.apply(x);
+						f[0] = fun.applyAsDouble(x);
 						options[10 - 1] += one;
 						if (Math.abs(f[0]) >= infty) {
 							options[9 - 1] = -three;
@@ -962,7 +980,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 							}
 							for (ip = 1; ip <= 20; ++ip) {
 								x1[j - 1] /= 1.15;
-								f1 = fun.apply(x1);
+								f1 = fun.applyAsDouble(x1);
 								options[10 - 1] += one;
 								if (Math.abs(f1) < infty) {
 									if (h1 * f1 > h1 * fm[0]) {
@@ -1018,7 +1036,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 	}
 
 	private static void apprgrdn(final int n, final double[] g, final double[] x, final double[] f,
-			final Function<? super double[], Double> fun, final double[] deltax, final boolean obj) {
+			final ToDoubleFunction<? super double[]> fun, final double[] deltax, final boolean obj) {
 
 		final double lowbndobj = 2.0e-10, lowbndcnt = 5.0e-15, one = 1.0, ten = 10.0, half = 0.5;
 		double d, y, fi;
@@ -1040,13 +1058,13 @@ public final class ShorAlgorithm extends GradientOptimizer {
 				d = lowbndcnt * RealMath.sign(one, deltax[i - 1]);
 			}
 			x[i - 1] = y + d;
-			fi = fun.apply(x);
+			fi = fun.applyAsDouble(x);
 			if (obj) {
 				if (fi == f[0]) {
 					for (j = 1; j <= 3; ++j) {
 						d *= ten;
 						x[i - 1] = y + d;
-						fi = fun.apply(x);
+						fi = fun.applyAsDouble(x);
 						if (fi != f[0]) {
 							return;
 						}
@@ -1057,7 +1075,7 @@ public final class ShorAlgorithm extends GradientOptimizer {
 			if (obj) {
 				if (center) {
 					x[i - 1] = y - d;
-					fi = fun.apply(x);
+					fi = fun.applyAsDouble(x);
 					g[i - 1] = half * (g[i - 1] + (f[0] - fi) / d);
 				}
 			}
@@ -49,8 +49,10 @@ package opt.multivariate.constrained.order1;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 import utils.IntMath;
@@ -152,9 +154,8 @@ public final class SqpAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] guess) {
-		return optimize(f, df, guess, null, null);
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess) {
+		return optimize(f, guess, null, null);
 	}
 
 	/**
@@ -170,6 +171,36 @@ public final class SqpAlgorithm extends GradientOptimizer {
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> obj,
 			final Function<? super double[], double[]> dobj, final double[] guess, final double[] lower,
 			final double[] upper) {
+		return optimizeDouble(obj::apply, dobj, guess, lower, upper);
+	}
+
+	/**
+	 *
+	 * @param obj
+	 * @param dobj
+	 * @param guess
+	 * @param ix
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> obj,
+			final Function<? super double[], double[]> dobj, final double[] guess, final double[] lower,
+			final double[] upper) {
+		return optimize(DifferentiableObjective.of(obj, dobj), guess, lower, upper);
+	}
+
+	/**
+	 *
+	 * @param obj
+	 * @param guess
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective obj, final double[] guess,
+			final double[] lower, final double[] upper) {
+		start();
 		final double[] cf = new double[1];
 		final double[] cl = new double[1];
 		final double[] cu = new double[1];
@@ -179,14 +210,13 @@ public final class SqpAlgorithm extends GradientOptimizer {
 			Arrays.fill(ix, 3);
 		}
 		final boolean[] converged = new boolean[1];
-		final double[] result = psqpn1(obj, dobj, null, null, 1, 0, guess, ix, lower, upper, cf, ic, cl, cu, converged);
-		return new OptimizerSolution<>(result, nfv, nfg, converged[0]);
+		final double[] result = psqpn1(obj, null, null, 1, 0, guess, ix, lower, upper, cf, ic, cl, cu, converged);
+		return finish(new OptimizerSolution<>(result, nfv, nfg, converged[0]));
 	}
 
-	private double[] psqpn1(final Function<? super double[], Double> f, final Function<? super double[], double[]> df,
-			final Con con, final Dcon dcon, final int nb, final int nc, final double[] guess, final int[] ix,
-			final double[] xl, final double[] xu, final double[] cf, final int[] ic, final double[] cl,
-			final double[] cu, final boolean[] converged) {
+	private double[] psqpn1(final DifferentiableObjective f, final Con con, final Dcon dcon, final int nb, final int nc,
+			final double[] guess, final int[] ix, final double[] xl, final double[] xu, final double[] cf,
+			final int[] ic, final double[] cl, final double[] cu, final boolean[] converged) {
 
 		// prepare variables
 		final int nf = guess.length;
@@ -200,16 +230,15 @@ public final class SqpAlgorithm extends GradientOptimizer {
 		final int[] iterm = new int[1];
 
 		// call main subroutine
-		psqpn(f, df, con, dcon, nf, nb, nc, x, ix, xl, xu, cf, ic, cl, cu, ipar, rpar, farr, gmax, cmax, 0, iterm);
+		psqpn(f, con, dcon, nf, nb, nc, x, ix, xl, xu, cf, ic, cl, cu, ipar, rpar, farr, gmax, cmax, 0, iterm);
 		converged[0] = iterm[0] == 1 || iterm[0] == 2 || iterm[0] == 3 || iterm[0] == 4 || iterm[0] == -6;
 		return x;
 	}
 
-	private void psqpn(final Function<? super double[], Double> obj, final Function<? super double[], double[]> dobj,
-			final Con con, final Dcon dcon, final int nf, final int nb, final int nc, final double[] x, final int[] ix,
-			final double[] xl, final double[] xu, final double[] cf, final int[] ic, final double[] cl,
-			final double[] cu, final int[] ipar, final double[] rpar, final double[] f, final double[] gmax,
-			final double[] cmax, final int iprnt, final int[] iterm) {
+	private void psqpn(final DifferentiableObjective obj, final Con con, final Dcon dcon, final int nf, final int nb,
+			final int nc, final double[] x, final int[] ix, final double[] xl, final double[] xu, final double[] cf,
+			final int[] ic, final double[] cl, final double[] cu, final int[] ipar, final double[] rpar,
+			final double[] f, final double[] gmax, final double[] cmax, final int iprnt, final int[] iterm) {
 
 		final double[] cg = new double[nf * nc];
 		final double[] cfo = new double[nc + 1];
@@ -234,7 +263,7 @@ public final class SqpAlgorithm extends GradientOptimizer {
 		final int[] ipar2 = { ipar[2 - 1] };
 		final int[] ipar5 = { ipar[5 - 1] };
 		final int[] ipar6 = { ipar[6 - 1] };
-		psqp(obj, dobj, con, dcon, nf, nb, nc, x, ix, xl, xu, cf, ic, cl, cu, cg, cfo, cfd, gc, ia, cr, cz, cp, gf, g,
+		psqp(obj, con, dcon, nf, nb, nc, x, ix, xl, xu, cf, ic, cl, cu, cg, cfo, cfd, gc, ia, cr, cz, cp, gf, g,
 				h, s, xo, go, rpar1, rpar2, rpar3, rpar4, rpar5, cmax, gmax, f, ipar1, ipar2, ipar5, ipar6, iprnt,
 				iterm);
 		rpar[1 - 1] = rpar1[0];
@@ -248,15 +277,14 @@ public final class SqpAlgorithm extends GradientOptimizer {
 		ipar[6 - 1] = ipar6[0];
 	}
 
-	private void psqp(final Function<? super double[], Double> obj, final Function<? super double[], double[]> dobj,
-			final Con con, final Dcon dcon, final int nf, final int nb, final int nc, final double[] x, final int[] ix,
-			final double[] xl, final double[] xu, final double[] cf, final int[] ic, final double[] cl,
-			final double[] cu, final double[] cg, final double[] cfo, final double[] cfd, final double[] gc,
-			final int[] ica, final double[] cr, final double[] cz, final double[] cp, final double[] gf,
-			final double[] g, final double[] h, final double[] s, final double[] xo, final double[] go,
-			final double[] xmax, final double[] tolx, final double[] tolc, final double[] tolg, final double[] rpf,
-			final double[] cmax, final double[] gmax, final double[] f, final int[] mit, final int[] mfv,
-			final int[] met, final int[] mec, final int iprnt, final int[] iterm) {
+	private void psqp(final DifferentiableObjective obj, final Con con, final Dcon dcon, final int nf, final int nb,
+			final int nc, final double[] x, final int[] ix, final double[] xl, final double[] xu, final double[] cf,
+			final int[] ic, final double[] cl, final double[] cu, final double[] cg, final double[] cfo,
+			final double[] cfd, final double[] gc, final int[] ica, final double[] cr, final double[] cz,
+			final double[] cp, final double[] gf, final double[] g, final double[] h, final double[] s,
+			final double[] xo, final double[] go, final double[] xmax, final double[] tolx, final double[] tolc,
+			final double[] tolg, final double[] rpf, final double[] cmax, final double[] gmax, final double[] f,
+			final int[] mit, final int[] mfv, final int[] met, final int[] mec, final int iprnt, final int[] iterm) {
 
 		final double[] ff = new double[1], fc = new double[1], umax = new double[1], r = new double[1],
 				rp = new double[1], fp = new double[1], pp = new double[1], p = new double[1], po = new double[1],
@@ -391,7 +419,7 @@ public final class SqpAlgorithm extends GradientOptimizer {
 		while (true) {
 
 			lds = ld[0];
-			pf1f01(obj, dobj, nf, x, gf, gf, ff, f, kd[0], ld, iext);
+			pf1f01(obj, nf, x, gf, gf, ff, f, kd[0], ld, iext);
 			ld[0] = lds;
 			pc1f01(con, dcon, nf, nc, x, fc, cf, cl, cu, ic, gc, cg, cmax, kd[0], ld);
 			cf[nc + 1 - 1] = f[0];
@@ -521,7 +549,7 @@ public final class SqpAlgorithm extends GradientOptimizer {
 					} else {
 						mxvdir(nf, r[0], s, 1, xo, x, 1);
 						lds = ld[0];
-						pf1f01(obj, dobj, nf, x, gf, g, ff, f, kd[0], ld, iext);
+						pf1f01(obj, nf, x, gf, g, ff, f, kd[0], ld, iext);
 						ld[0] = lds;
 						pc1f01(con, dcon, nf, nc, x, fc, cf, cl, cu, ic, gc, cg, cmax, kd[0], ld);
 						cf[nc + 1 - 1] = f[0];
@@ -550,7 +578,7 @@ public final class SqpAlgorithm extends GradientOptimizer {
 			// APPROXIMATED FUNCTIONS
 			if (kd[0] > ld[0]) {
 				lds = ld[0];
-				pf1f01(obj, dobj, nf, x, gf, gf, ff, f, kd[0], ld, iext);
+				pf1f01(obj, nf, x, gf, gf, ff, f, kd[0], ld, iext);
 				ld[0] = lds;
 				pc1f01(con, dcon, nf, nc, x, fc, cf, cl, cu, ic, gc, cg, cmax, kd[0], ld);
 			}
@@ -562,6 +590,12 @@ public final class SqpAlgorithm extends GradientOptimizer {
 			// VARIABLE METRIC UPDATE
 			pudbg1(n[0], h, g, s, xo, go, r[0], po[0], nit, kit, iterh, met[0], met1, mec[0]);
 
+			// REPORT THE ITERATION AND STOP IF THE LISTENER ASKS TO
+			if (!fireIteration(nit, nfv, nfg, f[0], r[0])) {
+				iterm[0] = -20;
+				return;
+			}
+
 			// END OF THE ITERATION
 		}
 	}
@@ -615,30 +649,36 @@ public final class SqpAlgorithm extends GradientOptimizer {
 		ld[0] = kd;
 	}
 
-	private void pf1f01(final Function<? super double[], Double> obj, final Function<? super double[], double[]> dobj,
-			final int nf, final double[] x, final double[] gf, final double[] g, final double[] ff, final double[] f,
-			final int kd, final int[] ld, final int iext) {
+	private void pf1f01(final DifferentiableObjective obj, final int nf, final double[] x, final double[] gf,
+			final double[] g, final double[] ff, final double[] f, final int kd, final int[] ld, final int iext) {
 		if (kd <= ld[0]) {
 			return;
 		}
 
-		if (ld[0] < 0) {
+		final boolean needf = ld[0] < 0;
+		final boolean needg = kd >= 1 && ld[0] < 1;
+
+		// evaluate the value and gradient together when both are needed
+		if (needf) {
 			++nfv;
-			ff[0] = obj.apply(x);
+			if (needg) {
+				++nfg;
+				ff[0] = obj.apply(x, gf);
+			} else {
+				ff[0] = obj.value(x);
+			}
 			if (iext <= 0) {
 				f[0] = ff[0];
 			} else {
 				f[0] = -ff[0];
 			}
+		} else if (needg) {
+			++nfg;
+			obj.apply(x, gf);
 		}
 
-		if (kd < 1 || ld[0] >= 1) {
-		} else {
-			++nfg;
-			System.arraycopy(dobj.apply(x), 0, gf, 0, nf);
-			if (iext > 0) {
-				mxvneg(nf, gf, g);
-			}
+		if (needg && iext > 0) {
+			mxvneg(nf, gf, g);
 		}
 		ld[0] = kd;
 	}
@@ -22,6 +22,7 @@ package opt.multivariate.constrained.order1;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import utils.BlasMath;
@@ -73,6 +74,24 @@ public final class TolminAlgorithm {
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final Function<? super double[], double[]> dfunc, final int meq, final double[][] a, final double[] b,
 			final double[] xl, final double[] xu, final double[] guess) {
+		return optimizeDouble(func::apply, dfunc, meq, a, b, xl, xu, guess);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param dfunc
+	 * @param meq
+	 * @param a
+	 * @param b
+	 * @param xl
+	 * @param xu
+	 * @param guess
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final Function<? super double[], double[]> dfunc, final int meq, final double[][] a, final double[] b,
+			final double[] xl, final double[] xu, final double[] guess) {
 
 		// prepare work variables
 		final int n = guess.length;
@@ -85,7 +104,7 @@ public final class TolminAlgorithm {
 
 		final Fg fg = (pn, px, pg) -> {
 			System.arraycopy(dfunc.apply(px), 0, pg, 0, pn);
-			return func.apply(px);
+			return func.applyAsDouble(px);
 		};
 
 		// call main subroutine
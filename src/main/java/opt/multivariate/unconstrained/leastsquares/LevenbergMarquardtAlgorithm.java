@@ -54,6 +54,9 @@ POSSIBILITY OF SUCH LOSS OR DAMAGES.
 package opt.multivariate.unconstrained.leastsquares;
 
 import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.function.Function;
 
 import opt.OptimizerSolution;
@@ -73,6 +76,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 	}
 
 	private final int myMaxEvals;
+	private Executor myExecutor;
 
 	/**
 	 *
@@ -84,18 +88,32 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 		myMaxEvals = maxEvaluations;
 	}
 
+	/**
+	 * Sets the executor used to evaluate the columns of the finite-difference
+	 * Jacobian concurrently when no Jacobian is provided. Pass null to evaluate
+	 * them serially. Each column is computed exactly as in the serial code, so
+	 * the result and the evaluation counts do not depend on the executor.
+	 * 
+	 * @param executor
+	 */
+	public final void setExecutor(final Executor executor) {
+		myExecutor = executor;
+	}
+
 	@Override
 	public final OptimizerSolution<double[], double[]> optimize(final Function<? super double[], double[]> func,
 			final double[] guess) {
 
 		// prepare variables
+		start();
 		final int[] info = new int[1];
 		final int[] nfev = new int[1];
 		final int[] njev = new int[1];
 
 		// call main subroutine
-		final double[] result = dnlse1(func, guess, myTol, myTol, myTol, myMaxEvals, 0.0, 100.0, info, nfev, njev);
-		return new OptimizerSolution<>(result, nfev[0], njev[0], info[0] >= 1 && info[0] <= 4);
+		final double[] result = dnlse1(func, guess, myTol, myTol, myTol, myMaxEvals, 0.0, 100.0, info, nfev, njev,
+				myExecutor);
+		return finish(new OptimizerSolution<>(result, nfev[0], njev[0], info[0] >= 1 && info[0] <= 4));
 	}
 
 	/**
@@ -109,6 +127,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 			final Function<double[], double[][]> jacobian, final double[] guess) {
 
 		// prepare variables
+		start();
 		final int[] info = new int[1];
 		final int[] nfev = new int[1];
 		final int[] njev = new int[1];
@@ -116,12 +135,43 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 		// call main subroutine
 		final double[] result = dnlse2(func, jacobian, guess, myTol, myTol, myTol, myMaxEvals, 0.0, 100.0, info, nfev,
 				njev);
-		return new OptimizerSolution<>(result, nfev[0], njev[0], info[0] >= 1 && info[0] <= 4);
+		return finish(new OptimizerSolution<>(result, nfev[0], njev[0], info[0] >= 1 && info[0] <= 4));
+	}
+
+	/**
+	 * Minimizes the sum of squares of residuals whose Jacobian is sparse, where
+	 * pattern[i] lists the variables on which the i-th residual depends. The
+	 * Jacobian is estimated by forward differences with one evaluation of the
+	 * residuals per group of structurally orthogonal columns, and is stored in
+	 * compressed sparse row format. Each step solves the damped linear least
+	 * squares problem by conjugate gradients (CGLS), with the damping parameter
+	 * updated as in [1], so that no dense matrix is ever formed.
+	 * 
+	 * [1] Nielsen, Hans Bruun. "Damping parameter in Marquardt's method." IMM,
+	 * Technical University of Denmark (1999).
+	 * 
+	 * @param func
+	 * @param pattern
+	 * @param guess
+	 * @return
+	 */
+	public final OptimizerSolution<double[], double[]> optimize(final Function<? super double[], double[]> func,
+			final int[][] pattern, final double[] guess) {
+
+		// prepare variables
+		start();
+		final int[] nfev = new int[1];
+		final int[] njev = new int[1];
+		final double[] x = Arrays.copyOf(guess, guess.length);
+
+		// call main subroutine
+		final boolean converged = sparselm(func, pattern, x, myTol, myTol, myTol, myMaxEvals, nfev, njev);
+		return finish(new OptimizerSolution<>(x, nfev[0], njev[0], converged));
 	}
 
-	private static double[] dnlse1(final Function<? super double[], double[]> func, final double[] x, final double ftol,
+	private double[] dnlse1(final Function<? super double[], double[]> func, final double[] x, final double ftol,
 			final double xtol, final double gtol, final int maxfev, final double epsfcn, final double factor,
-			final int[] info, final int[] nfev, final int[] njev) {
+			final int[] info, final int[] nfev, final int[] njev, final Executor executor) {
 
 		// prepare fcn function
 		final Fcn fcn = (iflag, m, n, x1, fvec, fjac, ldfjac) -> {
@@ -139,11 +189,11 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 
 		// call main subroutine
 		dnls1(fcn, iopt, m, n, guess, fvec, fjac, ldfjac, ftol, xtol, gtol, maxfev, epsfcn, diag, mode, factor, info,
-				nfev, njev, ipvt, qtf, wa1, wa2, wa3, wa4);
+				nfev, njev, ipvt, qtf, wa1, wa2, wa3, wa4, executor);
 		return guess;
 	}
 
-	private static double[] dnlse2(final Function<? super double[], double[]> func,
+	private double[] dnlse2(final Function<? super double[], double[]> func,
 			final Function<? super double[], double[][]> jac, final double[] x, final double ftol, final double xtol,
 			final double gtol, final int maxfev, final double epsfcn, final double factor, final int[] info,
 			final int[] nfev, final int[] njev) {
@@ -168,17 +218,173 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 
 		// call main subroutine
 		dnls1(fcn, iopt, m, n, guess, fvec, fjac, ldfjac, ftol, xtol, gtol, maxfev, epsfcn, diag, mode, factor, info,
-				nfev, njev, ipvt, qtf, wa1, wa2, wa3, wa4);
+				nfev, njev, ipvt, qtf, wa1, wa2, wa3, wa4, null);
 		return guess;
 	}
 
-	private static void dnls1(final Fcn fcn, final int iopt, final int m, final int n, final double[] x,
+	private boolean sparselm(final Function<? super double[], double[]> func, final int[][] pattern,
+			final double[] x, final double ftol, final double xtol, final double gtol, final int maxfev,
+			final int[] nfev, final int[] njev) {
+
+		// evaluate the residuals at the starting point
+		final int n = x.length;
+		double[] fvec = func.apply(x);
+		final int m = fvec.length;
+		nfev[0] = 1;
+		if (pattern.length != m) {
+			throw new IllegalArgumentException("The pattern has " + pattern.length + " rows but there are " + m
+					+ " residuals.");
+		}
+		final SparseJacobian jac = new SparseJacobian(n, pattern);
+		final double eps = Math.sqrt(BlasMath.D1MACH[4 - 1]);
+		final double[] diag = new double[n], norms = new double[n], g = new double[n], p = new double[n],
+				xnew = new double[n], dx = new double[n], jp = new double[m];
+		double fnorm2 = BlasMath.ddotm(m, fvec, 1, fvec, 1);
+		double lambda = -1.0, nu = 2.0;
+		int iter = 0;
+
+		while (true) {
+
+			// estimate the Jacobian and scale by the largest column norms so far
+			jac.estimate(func, x, fvec, eps);
+			nfev[0] += jac.colors();
+			++njev[0];
+			jac.columnNorms(norms);
+			for (int j = 0; j < n; ++j) {
+				diag[j] = Math.max(diag[j], norms[j]);
+				if (diag[j] == 0.0) {
+					diag[j] = 1.0;
+				}
+			}
+
+			// test for convergence of the scaled gradient
+			if (fnorm2 == 0.0) {
+				return true;
+			}
+			jac.multiplyTranspose(fvec, g);
+			double gnorm = 0.0;
+			for (int j = 0; j < n; ++j) {
+				gnorm = Math.max(gnorm, Math.abs(g[j]) / (diag[j] * Math.sqrt(fnorm2)));
+			}
+			if (gnorm <= gtol) {
+				return true;
+			}
+			if (lambda < 0.0) {
+				double dmax = 0.0;
+				for (int j = 0; j < n; ++j) {
+					dmax = Math.max(dmax, diag[j]);
+				}
+				lambda = 1.0e-3 * dmax * dmax;
+			}
+
+			while (true) {
+
+				// solve the damped subproblem and evaluate the trial point
+				cgls(jac, fvec, diag, lambda, p, 2 * n + 10);
+				for (int j = 0; j < n; ++j) {
+					xnew[j] = x[j] + p[j];
+					dx[j] = diag[j] * p[j];
+				}
+				final double pnorm = BlasMath.denorm(n, dx);
+				for (int j = 0; j < n; ++j) {
+					dx[j] = diag[j] * x[j];
+				}
+				final double xnorm = BlasMath.denorm(n, dx);
+				final double[] fnew = func.apply(xnew);
+				++nfev[0];
+
+				// compare the actual reduction to the reduction of the linear model
+				final double fnew2 = BlasMath.ddotm(m, fnew, 1, fnew, 1);
+				jac.multiply(p, jp);
+				double lin2 = 0.0;
+				for (int i = 0; i < m; ++i) {
+					lin2 += (fvec[i] + jp[i]) * (fvec[i] + jp[i]);
+				}
+				final double actred = fnorm2 - fnew2;
+				final double prered = fnorm2 - lin2;
+				final double ratio = prered > 0.0 ? actred / prered : -1.0;
+
+				if (ratio > 0.0) {
+
+					// accept the step and relax the damping
+					System.arraycopy(xnew, 0, x, 0, n);
+					fvec = fnew;
+					final double fold2 = fnorm2;
+					fnorm2 = fnew2;
+					final double r = 2.0 * ratio - 1.0;
+					lambda *= Math.max(1.0 / 3.0, 1.0 - r * r * r);
+					nu = 2.0;
+					if ((Math.abs(actred) <= ftol * fold2 && prered <= ftol * fold2) || pnorm <= xtol * xnorm) {
+						return true;
+					}
+					++iter;
+					if (nfev[0] >= maxfev || !fireIteration(iter, nfev[0], njev[0], fnorm2, pnorm)) {
+						return false;
+					}
+					break;
+				}
+
+				// reject the step and increase the damping
+				lambda *= nu;
+				nu *= 2.0;
+				if (pnorm <= xtol * xnorm || nfev[0] >= maxfev || stopRequested()) {
+					return pnorm <= xtol * xnorm;
+				}
+			}
+		}
+	}
+
+	private static void cgls(final SparseJacobian jac, final double[] fvec, final double[] diag, final double lambda,
+			final double[] x, final int maxit) {
+
+		// minimize |J x + f|^2 + lambda |D x|^2 starting from x = 0
+		final int m = jac.myRows, n = jac.myCols;
+		final double[] r = new double[m], s = new double[n], p = new double[n], q = new double[m];
+		Arrays.fill(x, 0.0);
+		for (int i = 0; i < m; ++i) {
+			r[i] = -fvec[i];
+		}
+		jac.multiplyTranspose(r, s);
+		System.arraycopy(s, 0, p, 0, n);
+		double gamma = BlasMath.ddotm(n, s, 1, s, 1);
+		final double tol = 1.0e-10 * Math.sqrt(gamma);
+		for (int it = 0; it < maxit && Math.sqrt(gamma) > tol; ++it) {
+			jac.multiply(p, q);
+			double delta = BlasMath.ddotm(m, q, 1, q, 1);
+			for (int j = 0; j < n; ++j) {
+				delta += lambda * diag[j] * diag[j] * p[j] * p[j];
+			}
+			if (delta <= 0.0) {
+				break;
+			}
+			final double alpha = gamma / delta;
+			for (int j = 0; j < n; ++j) {
+				x[j] += alpha * p[j];
+			}
+			for (int i = 0; i < m; ++i) {
+				r[i] -= alpha * q[i];
+			}
+			jac.multiplyTranspose(r, s);
+			for (int j = 0; j < n; ++j) {
+				s[j] -= lambda * diag[j] * diag[j] * x[j];
+			}
+			final double gammanew = BlasMath.ddotm(n, s, 1, s, 1);
+			final double beta = gammanew / gamma;
+			gamma = gammanew;
+			for (int j = 0; j < n; ++j) {
+				p[j] = s[j] + beta * p[j];
+			}
+		}
+	}
+
+	private void dnls1(final Fcn fcn, final int iopt, final int m, final int n, final double[] x,
 			final double[] fvec, final double[][] fjac, final int ldfjac, final double ftol, final double xtol,
 			final double gtol, final int maxfev, final double epsfcn, final double[] diag, final int mode,
 			final double factor, final int[] info, final int[] nfev, final int[] njev, final int[] ipvt,
-			final double[] qtf, final double[] wa1, final double[] wa2, final double[] wa3, final double[] wa4) {
+			final double[] qtf, final double[] wa1, final double[] wa2, final double[] wa3, final double[] wa4,
+			final Executor executor) {
 
-		boolean sing;
+		boolean sing, proceed = true;
 		int i, iter, j, l, modech, ijunk, nrow;
 		double actred, chklim = 0.1, delta = 0.0, dirder, epsmch, fnorm, fnorm1, gnorm, one = 1.0, pnorm, prered,
 				p1 = 0.1, p5 = 0.5, p25 = 0.25, p75 = 0.75, p0001 = 1.0e-4, ratio, sum, temp1, temp2, xnorm = 0.0,
@@ -347,7 +553,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 
 					// THE CODE APPROXIMATES THE JACOBIAN
 					iflag[0] = 1;
-					dfdjc3(fcn, m, n, x, fvec, fjac, ldfjac, iflag, epsfcn, wa4);
+					dfdjc3(fcn, m, n, x, fvec, fjac, ldfjac, iflag, epsfcn, wa4, executor);
 					nfev[0] += n;
 				} else {
 
@@ -579,6 +785,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 					xnorm = BlasMath.denorm(n, wa2);
 					fnorm = fnorm1;
 					++iter;
+					proceed = fireIteration(iter, nfev[0], njev[0], fnorm * fnorm, delta);
 				}
 
 				// TESTS FOR CONVERGENCE
@@ -601,7 +808,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 				}
 
 				// TESTS FOR TERMINATION AND STRINGENT TOLERANCES
-				if (nfev[0] >= maxfev) {
+				if (nfev[0] >= maxfev || !proceed || stopRequested()) {
 					info[0] = 5;
 				}
 				if (Math.abs(actred) <= epsmch && prered <= epsmch && p5 * ratio <= one) {
@@ -848,7 +1055,8 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 	}
 
 	private static void dfdjc3(final Fcn fcn, final int m, final int n, final double[] x, final double[] fvec,
-			final double[][] fjac, final int ldfjac, final int[] iflag, final double epsfcn, final double[] wa) {
+			final double[][] fjac, final int ldfjac, final int[] iflag, final double epsfcn, final double[] wa,
+			final Executor executor) {
 		int i, j;
 		double eps, epsmch, h, temp, zero = 0.0;
 
@@ -856,6 +1064,12 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 		epsmch = BlasMath.D1MACH[4 - 1];
 		eps = Math.sqrt(Math.max(epsfcn, epsmch));
 
+		// EVALUATE THE COLUMNS CONCURRENTLY, EACH ON ITS OWN COPY OF X
+		if (executor != null) {
+			dfdjc3(fcn, m, n, x, fvec, fjac, ldfjac, iflag, eps, executor);
+			return;
+		}
+
 		// SET IFLAG=1 TO INDICATE THAT FUNCTION VALUES ARE TO BE RETURNED BY FCN
 		iflag[0] = 1;
 		for (j = 1; j <= n; ++j) {
@@ -876,6 +1090,40 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 		}
 	}
 
+	private static void dfdjc3(final Fcn fcn, final int m, final int n, final double[] x, final double[] fvec,
+			final double[][] fjac, final int ldfjac, final int[] iflag, final double eps, final Executor executor) {
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[n];
+		for (int j = 1; j <= n; ++j) {
+			final int col = j;
+			futures[j - 1] = CompletableFuture.runAsync(() -> {
+				final double[] xj = Arrays.copyOf(x, n);
+				final double[] wj = new double[m];
+				final double temp = xj[col - 1];
+				double h = eps * Math.abs(temp);
+				if (h <= 0.0) {
+					h = eps;
+				}
+				xj[col - 1] = temp + h;
+				fcn.fcn(new int[] { 1 }, m, n, xj, wj, fjac, ldfjac);
+				for (int i = 1; i <= m; ++i) {
+					fjac[i - 1][col - 1] = (wj[i - 1] - fvec[i - 1]) / h;
+				}
+			}, executor);
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+		iflag[0] = 1;
+	}
+
 	private static void dwupdt(final int n, final double[][] r, final int ldr, final double[] w, final double[] b,
 			final double[] alpha, final double[] cos, final double[] sin) {
 		int i, j, jm1;
@@ -927,7 +1175,7 @@ public final class LevenbergMarquardtAlgorithm extends LeastSquaresOptimizer {
 
 		// FIRST EXECUTABLE STATEMENT DQRSLV
 		for (j = 1; j <= n; ++j) {
-			for (i = j; i <= n; ++j) {
+			for (i = j; i <= n; ++i) {
 				r[i - 1][j - 1] = r[j - 1][i - 1];
 			}
 			x[j - 1] = r[j - 1][j - 1];
@@ -0,0 +1,238 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.unconstrained.leastsquares;
+
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * A Jacobian matrix with a fixed sparsity pattern, stored in compressed sparse
+ * row format. The columns are partitioned into groups with no two columns of
+ * a group sharing a row, using the greedy coloring of Curtis, Powell and Reid
+ * with columns taken in decreasing order of their number of nonzeros. The
+ * matrix can then be estimated by forward differences with one evaluation of
+ * the residuals per group, instead of one per column.
+ * 
+ * [1] Curtis, A. R., M. J. D. Powell, and J. K. Reid. "On the estimation of
+ * sparse Jacobian matrices." IMA Journal of Applied Mathematics 13.1 (1974):
+ * 117-119.
+ */
+final class SparseJacobian {
+
+	final int myRows, myCols;
+	final int[] myRowStart, myColIndex;
+	final double[] myValues;
+
+	// the nonzeros of each column, as positions in the row storage, and the row
+	// of each position
+	private final int[] myColStart, myColEntry, myRowOf;
+
+	// the columns of each color
+	private final int myColors;
+	private final int[] myColorStart, myColorCols;
+
+	/**
+	 *
+	 * @param cols
+	 * @param pattern the column indices of the nonzeros of each row
+	 */
+	SparseJacobian(final int cols, final int[][] pattern) {
+		myRows = pattern.length;
+		myCols = cols;
+
+		// compressed rows
+		myRowStart = new int[myRows + 1];
+		for (int i = 0; i < myRows; ++i) {
+			myRowStart[i + 1] = myRowStart[i] + pattern[i].length;
+		}
+		final int nnz = myRowStart[myRows];
+		myColIndex = new int[nnz];
+		myValues = new double[nnz];
+		for (int i = 0; i < myRows; ++i) {
+			final int[] row = pattern[i].clone();
+			Arrays.sort(row);
+			for (int k = 0; k < row.length; ++k) {
+				if (row[k] < 0 || row[k] >= cols || (k > 0 && row[k] == row[k - 1])) {
+					throw new IllegalArgumentException("Invalid or repeated column " + row[k] + " in row " + i + ".");
+				}
+			}
+			System.arraycopy(row, 0, myColIndex, myRowStart[i], row.length);
+		}
+
+		// compressed columns pointing into the row storage
+		myColStart = new int[cols + 1];
+		for (int k = 0; k < nnz; ++k) {
+			++myColStart[myColIndex[k] + 1];
+		}
+		for (int j = 0; j < cols; ++j) {
+			myColStart[j + 1] += myColStart[j];
+		}
+		myColEntry = new int[nnz];
+		myRowOf = new int[nnz];
+		final int[] next = Arrays.copyOf(myColStart, cols);
+		for (int i = 0; i < myRows; ++i) {
+			for (int k = myRowStart[i]; k < myRowStart[i + 1]; ++k) {
+				myColEntry[next[myColIndex[k]]++] = k;
+				myRowOf[k] = i;
+			}
+		}
+
+		// greedy coloring, largest columns first
+		final Integer[] order = new Integer[cols];
+		for (int j = 0; j < cols; ++j) {
+			order[j] = j;
+		}
+		Arrays.sort(order,
+				(a, b) -> Integer.compare(myColStart[b + 1] - myColStart[b], myColStart[a + 1] - myColStart[a]));
+		final int[] color = new int[cols];
+		final int[] forbidden = new int[cols + 1];
+		Arrays.fill(color, -1);
+		Arrays.fill(forbidden, -1);
+		int colors = 0;
+		for (final int j : order) {
+			for (int p = myColStart[j]; p < myColStart[j + 1]; ++p) {
+				final int i = myRowOf[myColEntry[p]];
+				for (int k = myRowStart[i]; k < myRowStart[i + 1]; ++k) {
+					final int c = color[myColIndex[k]];
+					if (c >= 0) {
+						forbidden[c] = j;
+					}
+				}
+			}
+			int c = 0;
+			while (forbidden[c] == j) {
+				++c;
+			}
+			color[j] = c;
+			colors = Math.max(colors, c + 1);
+		}
+		myColors = colors;
+		myColorStart = new int[colors + 1];
+		for (int j = 0; j < cols; ++j) {
+			++myColorStart[color[j] + 1];
+		}
+		for (int c = 0; c < colors; ++c) {
+			myColorStart[c + 1] += myColorStart[c];
+		}
+		myColorCols = new int[cols];
+		final int[] fill = Arrays.copyOf(myColorStart, colors);
+		for (int j = 0; j < cols; ++j) {
+			myColorCols[fill[color[j]]++] = j;
+		}
+	}
+
+	/**
+	 * 
+	 * @return the number of residual evaluations per estimate
+	 */
+	final int colors() {
+		return myColors;
+	}
+
+	/**
+	 * Estimates the Jacobian at x by forward differences, given the residuals
+	 * fx at x. The vector x is perturbed in place and restored.
+	 * 
+	 * @param func
+	 * @param x
+	 * @param fx
+	 * @param eps
+	 */
+	final void estimate(final Function<? super double[], double[]> func, final double[] x, final double[] fx,
+			final double eps) {
+		final double[] h = new double[myCols];
+		for (int c = 0; c < myColors; ++c) {
+
+			// perturb every column of this color at once
+			for (int q = myColorStart[c]; q < myColorStart[c + 1]; ++q) {
+				final int j = myColorCols[q];
+				final double temp = x[j];
+				double hj = eps * Math.abs(temp);
+				if (hj <= 0.0) {
+					hj = eps;
+				}
+				x[j] = temp + hj;
+				h[j] = x[j] - temp;
+			}
+			final double[] fh = func.apply(x);
+
+			// the columns do not share rows, so each residual belongs to one column
+			for (int q = myColorStart[c]; q < myColorStart[c + 1]; ++q) {
+				final int j = myColorCols[q];
+				x[j] -= h[j];
+				for (int p = myColStart[j]; p < myColStart[j + 1]; ++p) {
+					final int k = myColEntry[p];
+					final int i = myRowOf[k];
+					myValues[k] = (fh[i] - fx[i]) / h[j];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Computes y = J x.
+	 * 
+	 * @param x
+	 * @param y
+	 */
+	final void multiply(final double[] x, final double[] y) {
+		for (int i = 0; i < myRows; ++i) {
+			double sum = 0.0;
+			for (int k = myRowStart[i]; k < myRowStart[i + 1]; ++k) {
+				sum += myValues[k] * x[myColIndex[k]];
+			}
+			y[i] = sum;
+		}
+	}
+
+	/**
+	 * Computes x = J^T y.
+	 * 
+	 * @param y
+	 * @param x
+	 */
+	final void multiplyTranspose(final double[] y, final double[] x) {
+		Arrays.fill(x, 0, myCols, 0.0);
+		for (int i = 0; i < myRows; ++i) {
+			final double yi = y[i];
+			for (int k = myRowStart[i]; k < myRowStart[i + 1]; ++k) {
+				x[myColIndex[k]] += myValues[k] * yi;
+			}
+		}
+	}
+
+	/**
+	 * Writes the Euclidean norm of each column into norms.
+	 * 
+	 * @param norms
+	 */
+	final void columnNorms(final double[] norms) {
+		for (int j = 0; j < myCols; ++j) {
+			double sum = 0.0;
+			for (int p = myColStart[j]; p < myColStart[j + 1]; ++p) {
+				final double v = myValues[myColEntry[p]];
+				sum += v * v;
+			}
+			norms[j] = Math.sqrt(sum);
+		}
+	}
+}
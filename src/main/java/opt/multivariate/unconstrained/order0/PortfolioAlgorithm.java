@@ -0,0 +1,326 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.unconstrained.order0;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+
+import opt.OptimizerSolution;
+import opt.StopReason;
+import opt.multivariate.GradientFreeOptimizer;
+import opt.multivariate.unconstrained.order0.PortfolioSolution.Member;
+import opt.multivariate.unconstrained.order0.PortfolioSolution.Outcome;
+
+/**
+ * A portfolio of derivative-free optimizers that race on the same problem under
+ * one evaluation budget, and returns the best point found by any of them. The
+ * members run concurrently on an executor, or one after another, in which case
+ * each member may spend at most an equal share of the evaluations that are
+ * left when it starts, so that the first member cannot take the whole budget
+ * before the others are ranked against it. Each member
+ * sees the objective through a view that counts its evaluations, keeps its best
+ * point, and stops it when the portfolio decides so; this works for every
+ * member, including those that do not report iterations.
+ * 
+ * Clearly losing members are eliminated early by asynchronous successive
+ * halving [1]: whenever the evaluation count of a member reaches a rung, its
+ * best value is ranked against the values that the other members had on
+ * reaching the same rung, and the member is stopped unless it is among the best
+ * 1/eta of them. The first rung is given by the user, and each following rung
+ * is eta times the previous one.
+ * 
+ * 
+ * REFERENCES:
+ * 
+ * [1] Li, Liam, et al. "A System for Massively Parallel Hyperparameter
+ * Tuning." Proceedings of Machine Learning and Systems 2 (2020): 230-246.
+ */
+public final class PortfolioAlgorithm extends GradientFreeOptimizer {
+
+	// thrown through a member to stop it
+	private static final class Stop extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		final Outcome outcome;
+
+		Stop(final Outcome why) {
+			super(null, null, false, false);
+			outcome = why;
+		}
+	}
+
+	// the run state of one member
+	private static final class Entrant {
+
+		final Member member;
+		final AtomicInteger left = new AtomicInteger(Integer.MAX_VALUE);
+		volatile Outcome stop;
+		int rung;
+		long nextRung;
+
+		Entrant(final Member stats, final long firstRung) {
+			member = stats;
+			nextRung = firstRung;
+		}
+	}
+
+	private final GradientFreeOptimizer[] myOptimizers;
+	private final int myMaxEvals, myFirstRung;
+	private final double myEta;
+	private Executor myExecutor;
+
+	private ToDoubleFunction<? super double[]> myFunc;
+	private double[] myGuess;
+	private Entrant[] myEntrants;
+	private AtomicInteger myBudget;
+	private List<List<Double>> myRungs;
+	private int myNext;
+
+	/**
+	 *
+	 * @param maxEvaluations
+	 * @param firstRung
+	 * @param eta
+	 * @param optimizers
+	 */
+	public PortfolioAlgorithm(final int maxEvaluations, final int firstRung, final double eta,
+			final GradientFreeOptimizer... optimizers) {
+		super(0.0);
+		myMaxEvals = maxEvaluations;
+		myFirstRung = firstRung;
+		myEta = eta;
+		myOptimizers = optimizers;
+	}
+
+	/**
+	 *
+	 * @param maxEvaluations
+	 * @param optimizers
+	 */
+	public PortfolioAlgorithm(final int maxEvaluations, final GradientFreeOptimizer... optimizers) {
+		this(maxEvaluations, Math.max(1, maxEvaluations / (10 * optimizers.length)), 2.0, optimizers);
+	}
+
+	/**
+	 * Sets the executor used to run all members concurrently. Pass null to run
+	 * them one after another. The objective must be safe to call from multiple
+	 * threads, and the members must be distinct instances.
+	 * 
+	 * @param executor
+	 */
+	public final void setExecutor(final Executor executor) {
+		myExecutor = executor;
+	}
+
+	@Override
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		myFunc = func;
+		myGuess = guess;
+		myEntrants = new Entrant[myOptimizers.length];
+		for (int i = 0; i < myOptimizers.length; ++i) {
+			myEntrants[i] = new Entrant(new Member(myOptimizers[i]), myFirstRung);
+		}
+		myBudget = new AtomicInteger(myMaxEvals);
+		myRungs = new ArrayList<>();
+		myNext = 0;
+	}
+
+	/**
+	 * Runs the next member of the portfolio until it finishes, is stopped, or has
+	 * spent its share of the evaluations that are left.
+	 */
+	@Override
+	public final void iterate() {
+		if (myNext < myEntrants.length) {
+			final int share = Math.max(0, myBudget.get()) / (myEntrants.length - myNext);
+			myEntrants[myNext].left.set(share);
+			run(myEntrants[myNext]);
+			++myNext;
+		}
+	}
+
+	@Override
+	public PortfolioSolution optimize(final Function<? super double[], Double> func, final double[] guess) {
+		return optimizeDouble(func::apply, guess);
+	}
+
+	@Override
+	public final PortfolioSolution optimizeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		start();
+		initializeDouble(func, guess);
+		if (myExecutor == null) {
+
+			// run the members in turn, and skip the rest if asked to stop
+			while (myNext < myEntrants.length) {
+				iterate();
+				if (!fireIteration(myNext, countEvaluations(), 0, bestValue(), Double.NaN)) {
+					for (int i = myNext; i < myEntrants.length; ++i) {
+						myEntrants[i].member.myOutcome = Outcome.STOPPED;
+					}
+					break;
+				}
+			}
+		} else {
+
+			// race all members at once
+			final Runnable[] tasks = new Runnable[myEntrants.length];
+			for (int i = 0; i < myEntrants.length; ++i) {
+				final Entrant entrant = myEntrants[i];
+				tasks[i] = () -> run(entrant);
+			}
+			runAll(tasks, myExecutor);
+			myNext = myEntrants.length;
+			fireIteration(myNext, countEvaluations(), 0, bestValue(), Double.NaN);
+		}
+
+		// pick the winner, breaking ties by position in the portfolio
+		final List<Member> members = new ArrayList<>(myEntrants.length);
+		int winner = -1;
+		for (int i = 0; i < myEntrants.length; ++i) {
+			final Member member = myEntrants[i].member;
+			members.add(member);
+			if (member.myBestX != null && (winner < 0 || member.myBestF < members.get(winner).myBestF)) {
+				winner = i;
+			}
+		}
+		final double[] sol = winner < 0 ? null : members.get(winner).myBestX;
+		final boolean converged = winner >= 0 && members.get(winner).myConverged;
+		return finish(new PortfolioSolution(sol, countEvaluations(), converged, members, winner));
+	}
+
+	private void run(final Entrant entrant) {
+		final Member member = entrant.member;
+		final GradientFreeOptimizer optimizer = member.myOptimizer;
+		final ToDoubleFunction<double[]> view = x -> evaluate(entrant, x);
+		shareStopConditions(optimizer);
+		final long start = System.nanoTime();
+		try {
+			final OptimizerSolution<double[], Double> sol = optimizer.optimizeDouble(view,
+					Arrays.copyOf(myGuess, myGuess.length));
+			member.myConverged = sol.converged();
+			if (sol.getStopReason() == StopReason.NONE) {
+				member.myOutcome = Outcome.FINISHED;
+			} else {
+				member.myOutcome = Outcome.STOPPED;
+			}
+		} catch (final RuntimeException e) {
+
+			// the stop signal may arrive wrapped by the member
+			Throwable cause = e;
+			while (cause != null && !(cause instanceof Stop)) {
+				cause = cause.getCause();
+			}
+			if (cause != null) {
+				member.myOutcome = ((Stop) cause).outcome;
+			} else {
+				member.myOutcome = Outcome.FAILED;
+				member.myFailure = e;
+			}
+		}
+		member.myNanos = System.nanoTime() - start;
+	}
+
+	private double evaluate(final Entrant entrant, final double[] x) {
+
+		// stop the member if it lost, the run was stopped or its budget is spent
+		if (entrant.stop != null) {
+			throw new Stop(entrant.stop);
+		}
+		if ((myToken != null && myToken.isCancelled()) || (myHasDeadline && System.nanoTime() - myDeadline >= 0L)) {
+			entrant.stop = Outcome.STOPPED;
+			throw new Stop(Outcome.STOPPED);
+		}
+		if (entrant.left.getAndDecrement() <= 0 || myBudget.getAndDecrement() <= 0) {
+			entrant.stop = Outcome.EXHAUSTED;
+			throw new Stop(Outcome.EXHAUSTED);
+		}
+
+		// evaluate and record the point
+		final double fx = myFunc.applyAsDouble(x);
+		final Member member = entrant.member;
+		int rung = -1;
+		double best = 0.0;
+		synchronized (entrant) {
+			++member.myEvals;
+			if (fx < member.myBestF) {
+				member.myBestF = fx;
+				member.myBestX = Arrays.copyOf(x, x.length);
+			}
+			if (member.myEvals >= entrant.nextRung) {
+				rung = entrant.rung;
+				best = member.myBestF;
+				++entrant.rung;
+				entrant.nextRung = (long) Math.ceil(entrant.nextRung * myEta);
+			}
+		}
+
+		// on reaching a rung, continue only if among the best at that rung
+		if (rung >= 0 && !promote(rung, best)) {
+			entrant.stop = Outcome.ELIMINATED;
+			throw new Stop(Outcome.ELIMINATED);
+		}
+		return fx;
+	}
+
+	private boolean promote(final int rung, final double best) {
+		synchronized (myRungs) {
+			while (myRungs.size() <= rung) {
+				myRungs.add(new ArrayList<>());
+			}
+			final List<Double> values = myRungs.get(rung);
+			values.add(best);
+			int better = 0;
+			for (final double value : values) {
+				if (value < best) {
+					++better;
+				}
+			}
+			return better < Math.ceil(values.size() / myEta);
+		}
+	}
+
+	private int countEvaluations() {
+		int evals = 0;
+		for (final Entrant entrant : myEntrants) {
+			synchronized (entrant) {
+				evals += entrant.member.myEvals;
+			}
+		}
+		return evals;
+	}
+
+	private double bestValue() {
+		double best = Double.POSITIVE_INFINITY;
+		for (final Entrant entrant : myEntrants) {
+			synchronized (entrant) {
+				best = Math.min(best, entrant.member.myBestF);
+			}
+		}
+		return best;
+	}
+}
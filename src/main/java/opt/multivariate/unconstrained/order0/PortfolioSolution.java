@@ -0,0 +1,187 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.multivariate.unconstrained.order0;
+
+import java.util.Collections;
+import java.util.List;
+
+import opt.OptimizerSolution;
+import opt.multivariate.GradientFreeOptimizer;
+
+/**
+ * The result of a portfolio run: the best point found by any member, together
+ * with statistics for every member of the portfolio.
+ */
+public final class PortfolioSolution extends OptimizerSolution<double[], Double> {
+
+	/**
+	 * How a member of the portfolio ended.
+	 */
+	public static enum Outcome {
+
+		/**
+		 * The member returned on its own.
+		 */
+		FINISHED,
+
+		/**
+		 * The member was clearly losing the race and was stopped early.
+		 */
+		ELIMINATED,
+
+		/**
+		 * The shared evaluation budget ran out while the member was running.
+		 */
+		EXHAUSTED,
+
+		/**
+		 * The portfolio was cancelled or its deadline passed.
+		 */
+		STOPPED,
+
+		/**
+		 * The member threw an exception.
+		 */
+		FAILED
+	}
+
+	/**
+	 * Statistics for one member of the portfolio.
+	 */
+	public static final class Member {
+
+		final GradientFreeOptimizer myOptimizer;
+		int myEvals;
+		double myBestF = Double.POSITIVE_INFINITY;
+		double[] myBestX;
+		long myNanos;
+		boolean myConverged;
+		Outcome myOutcome;
+		Throwable myFailure;
+
+		Member(final GradientFreeOptimizer optimizer) {
+			myOptimizer = optimizer;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final GradientFreeOptimizer getOptimizer() {
+			return myOptimizer;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final int getFEvals() {
+			return myEvals;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final double getBestValue() {
+			return myBestF;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final double[] getBestPoint() {
+			return myBestX;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final long getNanos() {
+			return myNanos;
+		}
+
+		/**
+		 * Returns whether the member finished and reported convergence.
+		 * 
+		 * @return
+		 */
+		public final boolean converged() {
+			return myConverged;
+		}
+
+		/**
+		 *
+		 * @return
+		 */
+		public final Outcome getOutcome() {
+			return myOutcome;
+		}
+
+		/**
+		 * Returns the exception thrown by the member, if its outcome is FAILED.
+		 * 
+		 * @return
+		 */
+		public final Throwable getFailure() {
+			return myFailure;
+		}
+	}
+
+	private final List<Member> myMembers;
+	private final int myWinner;
+
+	/**
+	 *
+	 * @param sol
+	 * @param fevals
+	 * @param converged
+	 * @param members
+	 * @param winner
+	 */
+	public PortfolioSolution(final double[] sol, final int fevals, final boolean converged,
+			final List<Member> members, final int winner) {
+		super(sol, fevals, 0, converged);
+		myMembers = Collections.unmodifiableList(members);
+		myWinner = winner;
+	}
+
+	/**
+	 *
+	 * @return
+	 */
+	public final List<Member> getMembers() {
+		return myMembers;
+	}
+
+	/**
+	 * Returns the index of the member that found the best point, or -1 if no
+	 * member evaluated the objective.
+	 * 
+	 * @return
+	 */
+	public final int getWinner() {
+		return myWinner;
+	}
+}
@@ -22,9 +22,11 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.cmaes;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.concurrent.Executor;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -96,8 +98,9 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 	}
 
 	// domain properties
-	protected Function<? super double[], Double> myFunc;
+	protected BatchObjective myFunc;
 	protected int D;
+	private Executor myExecutor;
 
 	// algorithm properties
 	protected final boolean myAdaptivePop, myAdaptiveIters;
@@ -112,12 +115,19 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 	protected double[] ybw;
 	protected double[][] arx;
 	protected double mueff, cc, cs, c1, cmu, damps, chi, sigma;
-	protected double[] xmean, xold, weights, artmp, pc, ps;
+	protected double[] xmean, xold, weights, artmp, pc, ps, arfit;
 
 	// history
 	protected int myHistoryLength, ik, myEvals;
 	protected double myHistoryBestFit, myHistoryWorstFit;
 	protected FitnessHistory myHistoryBest, myHistoryKth;
+	private double myBestFit;
+
+	// instrumentation
+	protected long mySampleNanos = -1L, myEvaluateNanos = -1L, myUpdateNanos = -1L;
+
+	// ask and tell
+	private boolean myAsked;
 
 	/**
 	 *
@@ -177,13 +187,42 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 	 */
 	public abstract boolean converged();
 
+	/**
+	 * Sets the executor used to evaluate each generation concurrently when this
+	 * optimizer is given a point-wise objective. Pass null to evaluate serially.
+	 * Sampling still happens on the calling thread, so for a given seed the
+	 * result and the number of evaluations match the serial run.
+	 * 
+	 * @param executor
+	 */
+	public final void setExecutor(final Executor executor) {
+		myExecutor = executor;
+	}
+
+	@Override
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(toBatch(func), guess);
+	}
+
+	/**
+	 * Initializes the optimizer for use with ask and tell, where the caller
+	 * evaluates the population instead of the optimizer.
+	 * 
+	 * @param guess
+	 */
+	public final void initialize(final double[] guess) {
+		initialize((BatchObjective) null, guess);
+	}
+
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 
 		// initialize domain
 		myFunc = func;
 		D = guess.length;
 		myEvals = 0;
+		myAsked = false;
+		myBestFit = Double.POSITIVE_INFINITY;
 
 		// adaptive initialization of population size
 		if (myAdaptivePop) {
@@ -201,6 +240,7 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 
 		// initialization of population and ranking memory
 		arx = new double[myLambda][D];
+		arfit = new double[myLambda];
 		ibw = new int[4];
 		ybw = new double[4];
 		arfitness = new IntDoublePair[myLambda];
@@ -249,26 +289,84 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 
 	@Override
 	public void iterate() {
+
+		// time the phases only when someone is listening
+		final boolean timed = myListener != null;
+		final long t0 = timed ? System.nanoTime() : 0L;
 		samplePopulation();
+		final long t1 = timed ? System.nanoTime() : 0L;
 		evaluateAndSortPopulation();
+		final long t2 = timed ? System.nanoTime() : 0L;
+		updateDistribution();
+		updateHistory();
+		++myIteration;
+		if (timed) {
+			mySampleNanos = t1 - t0;
+			myEvaluateNanos = t2 - t1;
+			myUpdateNanos = System.nanoTime() - t2;
+		}
+	}
+
+	/**
+	 * Samples a new generation and returns it, one point per row, so that the
+	 * caller can evaluate it in any order and on any thread. The rows belong to
+	 * the optimizer and are overwritten by the next call to ask.
+	 * 
+	 * @return
+	 */
+	public final double[][] ask() {
+		samplePopulation();
+		myAsked = true;
+		return arx;
+	}
+
+	/**
+	 * Completes the generation returned by the last call to ask, where fitness[i]
+	 * is the value of the i-th row. The caller should stop once converged()
+	 * returns true or the evaluation budget is exhausted, and then read the
+	 * result from getBestSolution().
+	 * 
+	 * @param fitness
+	 */
+	public final void tell(final double[] fitness) {
+		if (!myAsked) {
+			throw new IllegalStateException("tell called without a preceding ask");
+		}
+		if (fitness.length != myLambda) {
+			throw new IllegalArgumentException("expected " + myLambda + " fitness values, got " + fitness.length);
+		}
+		myAsked = false;
+		System.arraycopy(fitness, 0, arfit, 0, myLambda);
+		myEvals += myLambda;
+		sortPopulation();
 		updateDistribution();
 		updateHistory();
 		++myIteration;
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(toBatch(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
+		start();
 		initialize(func, guess);
 		boolean converged = false;
 		while (myEvals < myMaxEvals) {
 			iterate();
+			if (!fireIteration(myIteration, myEvals, 0, myBestFit, sigma, mySampleNanos, myEvaluateNanos,
+					myUpdateNanos)) {
+				break;
+			}
 			if (converged()) {
 				converged = true;
 				break;
 			}
 		}
-		return new OptimizerSolution<>(getBestSolution(), myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(getBestSolution(), myEvals, 0, converged));
 	}
 
 	/**
@@ -317,12 +415,20 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 	 */
 	public void evaluateAndSortPopulation() {
 
-		// Sort by fitness
+		// evaluate the whole generation at once and sort by fitness
+		myFunc.apply(myLambda, arx, arfit);
+		myEvals += myLambda;
+		sortPopulation();
+	}
+
+	/**
+	 * 
+	 */
+	public void sortPopulation() {
 		for (int i = 0; i < myLambda; ++i) {
 			arfitness[i].index = i;
-			arfitness[i].value = myFunc.apply(arx[i]);
+			arfitness[i].value = arfit[i];
 		}
-		myEvals += myLambda;
 
 		// get the best and worst elements
 		Arrays.sort(arfitness);
@@ -334,6 +440,15 @@ public abstract class AbstractCmaesOptimizer extends GradientFreeOptimizer {
 		ybw[1] = arfitness[1].value;
 		ybw[2] = arfitness[myLambda - 2].value;
 		ybw[3] = arfitness[myLambda - 1].value;
+		myBestFit = Math.min(myBestFit, ybw[0]);
+	}
+
+	private BatchObjective toBatch(final ToDoubleFunction<? super double[]> func) {
+		if (myExecutor == null) {
+			return BatchObjective.ofDouble(func);
+		} else {
+			return BatchObjective.ofDouble(func, myExecutor);
+		}
 	}
 
 	/**
@@ -21,9 +21,9 @@ SOFTWARE.
 */
 package opt.multivariate.unconstrained.order0.cmaes;
 
-import java.util.function.Function;
-
+import opt.multivariate.BatchObjective;
 import utils.BlasMath;
+import utils.DenseMatrix;
 
 /**
  * The active variant of the CMA-ES algorithm, which includes a negative update
@@ -63,7 +63,8 @@ public class ActiveCmaesAlgorithm extends CmaesAlgorithm {
 
 	// other algorithm memory
 	private double cm, cneg, alphaold;
-	private double[] ycoeff;
+	private double[] ycoeff, ssq;
+	private DenseMatrix arneg, arnegt;
 
 	/**
 	 * 
@@ -113,7 +114,7 @@ public class ActiveCmaesAlgorithm extends CmaesAlgorithm {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 		super.initialize(func, guess);
 
 		// re-define other parameters
@@ -136,6 +137,11 @@ public class ActiveCmaesAlgorithm extends CmaesAlgorithm {
 
 		// other new storage
 		ycoeff = new double[myMu];
+		ssq = new double[myMu];
+		ary = new DenseMatrix(D, 2 * myMu + 1);
+		arwy = new DenseMatrix(D, 2 * myMu + 1);
+		arneg = new DenseMatrix(myMu, D);
+		arnegt = new DenseMatrix(myMu, D);
 	}
 
 	@Override
@@ -154,11 +160,12 @@ public class ActiveCmaesAlgorithm extends CmaesAlgorithm {
 
 		// Cumulation: Update evolution paths
 		final double csc = Math.sqrt(cs * (2.0 - cs) * mueff);
+		for (int j = 0; j < D; ++j) {
+			artmp[j] = (xmean[j] - xold[j]) / (cm * sigma);
+		}
+		final int ldisc = invsqrtC.getLeadingDimension();
 		for (int i = 0; i < D; ++i) {
-			ps[i] *= (1.0 - cs);
-			for (int j = 0; j < D; ++j) {
-				ps[i] += csc * invsqrtC[i][j] * (xmean[j] - xold[j]) / (cm * sigma);
-			}
+			ps[i] = (1.0 - cs) * ps[i] + csc * BlasMath.ddotm(D, invsqrtC.getData(), i * ldisc + 1, artmp, 1);
 		}
 
 		// compute hsig
@@ -177,53 +184,52 @@ public class ActiveCmaesAlgorithm extends CmaesAlgorithm {
 			pc[i] = (1.0 - cc) * pc[i] + hsig * ccc * (xmean[i] - xold[i]) / (cm * sigma);
 		}
 
-		// compute the coefficients for the vectors for the negative update
-		for (int i = 0; i < myMu; ++i) {
-			final int mtop = arfitness[myLambda - myMu + 1 + i - 1].index;
-			final int mbot = arfitness[myLambda - i - 1].index;
-			double ssqtop = 0.0;
-			double ssqbot = 0.0;
-			for (int j = 0; j < D; ++j) {
-				double termtop = 0.0;
-				double termbot = 0.0;
-				for (int l = 0; l < D; ++l) {
-					termtop += invsqrtC[j][l] * (arx[mtop][l] - xold[l]);
-					termbot += invsqrtC[j][l] * (arx[mbot][l] - xold[l]);
-				}
-				ssqtop += termtop * termtop;
-				ssqbot += termbot * termbot;
+		// compute the squared Mahalanobis lengths of the worst mu steps, from worst
+		// to best, as the rows of (arx - xold) * invsqrtC^T
+		final double[] neg = arneg.getData(), negt = arnegt.getData();
+		final int ldneg = arneg.getLeadingDimension(), ldnegt = arnegt.getLeadingDimension();
+		for (int k = 0; k < myMu; ++k) {
+			final int m = arfitness[myLambda - k - 1].index;
+			for (int i = 0; i < D; ++i) {
+				neg[k * ldneg + i] = (arx[m][i] - xold[i]) / sigma;
 			}
-			ssqbot = Math.max(ssqbot, 1e-8);
+		}
+		BlasMath.dgemmnt(sigma, arneg, invsqrtC, 0.0, arnegt, myMatrixExecutor);
+		for (int k = 0; k < myMu; ++k) {
+			ssq[k] = BlasMath.ddotm(D, negt, k * ldnegt + 1, negt, k * ldnegt + 1);
+		}
+
+		// compute the coefficients for the vectors for the negative update, which
+		// pair the i-th worst step with the i-th best of the worst mu steps
+		for (int i = 0; i < myMu; ++i) {
+			final double ssqtop = ssq[myMu - 1 - i];
+			final double ssqbot = Math.max(ssq[i], 1e-8);
 			ycoeff[i] = ssqtop / ssqbot;
 		}
 
-		// Adapt covariance matrix C
+		// Adapt covariance matrix C: old matrix plus rank-one and rank mu update,
+		// and the active update with negative weights on the worst mu steps, which
+		// is the main modification in active CMA-ES
 		final double c2 = (1.0 - hsig) * cc * (2.0 - cc);
 		final double cmu1 = cmu + cneg * (1.0 - alphaold);
-		for (int i = 0; i < D; ++i) {
-			for (int j = 0; j <= i; ++j) {
-
-				// old matrix plus rank-one update
-				double sum = (1.0 - c1 - cmu + cneg * alphaold) * C[i][j] + c1 * (pc[i] * pc[j] + c2 * C[i][j]);
-
-				// rank mu update
-				for (int k = 0; k < myMu; ++k) {
-					final int m = arfitness[k].index;
-					final double di = (arx[m][i] - xold[i]) / sigma;
-					final double dj = (arx[m][j] - xold[j]) / sigma;
-					sum += cmu1 * weights[k] * di * dj;
-				}
-
-				// active update: this is the main modification in active CMA-ES
-				for (int k = 0; k < myMu; ++k) {
-					final int m = arfitness[myLambda - k - 1].index;
-					final double di = (arx[m][i] - xold[i]) / sigma;
-					final double dj = (arx[m][j] - xold[j]) / sigma;
-					sum -= cneg * weights[k] * ycoeff[k] * di * dj;
-				}
-				C[i][j] = sum;
+		final double[] y = ary.getData(), wy = arwy.getData();
+		final int ld = ary.getLeadingDimension(), ldw = arwy.getLeadingDimension();
+		for (int k = 0; k < myMu; ++k) {
+			final int m = arfitness[k].index;
+			final double w = cmu1 * weights[k];
+			final double wneg = -cneg * weights[k] * ycoeff[k];
+			for (int i = 0; i < D; ++i) {
+				y[i * ld + k] = (arx[m][i] - xold[i]) / sigma;
+				wy[i * ldw + k] = w * y[i * ld + k];
+				y[i * ld + myMu + k] = neg[k * ldneg + i];
+				wy[i * ldw + myMu + k] = wneg * neg[k * ldneg + i];
 			}
 		}
+		for (int i = 0; i < D; ++i) {
+			y[i * ld + 2 * myMu] = pc[i];
+			wy[i * ldw + 2 * myMu] = c1 * pc[i];
+		}
+		BlasMath.dgemmt(1.0, arwy, ary, 1.0 - c1 - cmu + cneg * alphaold + c1 * c2, C, myMatrixExecutor);
 
 		// update sigma
 		updateSigma();
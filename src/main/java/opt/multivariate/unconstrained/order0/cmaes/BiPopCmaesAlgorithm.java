@@ -22,9 +22,12 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.cmaes;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import opt.multivariate.unconstrained.order0.cmaes.AbstractCmaesOptimizer.AbstractCmaesFactory;
 
@@ -54,6 +57,15 @@ import opt.multivariate.unconstrained.order0.cmaes.AbstractCmaesOptimizer.Abstra
  */
 public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 
+	// the settings and outcome of one restart
+	private static final class Restart {
+
+		int regime, lambda, maxEvals, fevals;
+		double sigma, fx;
+		long seed;
+		double[] x0, x;
+	}
+
 	// algorithm parameters
 	private final int myBudgetFactor = 2;
 	private final int myMaxEvals, myMaxRuns;
@@ -72,9 +84,14 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 	private AbstractCmaesOptimizer myCmaes;
 
 	// domain
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
+	private ToDoubleFunction<? super double[]> myPointFunc;
 	private int myD;
 
+	// concurrent restarts
+	private Executor myExecutor;
+	private int myRestarts = 1;
+
 	/**
 	 *
 	 * @param tolerance
@@ -136,11 +153,37 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 		this(tolerance, cmaesTolerance, sigma0, maxEvaluations, 9, printProgress);
 	}
 
+	/**
+	 * Sets the executor used to run several restarts at once, and the number of
+	 * restarts to run together. Each restart in a batch is assigned a regime as if
+	 * the earlier restarts of the batch had used up their whole budget. The
+	 * restarts draw from a shared evaluation budget and are merged into the best
+	 * solution in the order they were planned. Each generation is taken from the
+	 * budget before it is sampled, and a restart that cannot afford its first
+	 * generation only evaluates its start point, so a batch exceeds the budget by
+	 * at most one evaluation per restart. Pass null or a single restart to run
+	 * the restarts one after another. The objective must be safe to call from
+	 * multiple threads.
+	 * 
+	 * @param executor
+	 * @param concurrentRestarts
+	 */
+	public final void setExecutor(final Executor executor, final int concurrentRestarts) {
+		myExecutor = executor;
+		myRestarts = Math.max(1, concurrentRestarts);
+	}
+
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final void initialize(final BatchObjective func, final double[] guess) {
 
 		// initialize problem
 		myFunc = func;
+		myPointFunc = func.asFunction();
 		myD = guess.length;
 		myXGuess = guess;
 
@@ -158,12 +201,14 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 
 		// set up the optimizer
 		myCmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, myLambda, mySigma, myEvalsref);
+		myCmaes.setSeed(myRandom.nextLong());
+		shareStopConditions(myCmaes);
 		myX0 = Arrays.copyOf(myXGuess, myD);
 
 		// first default run with small population size
 		final OptimizerSolution<double[], Double> sol = myCmaes.optimize(func, myX0);
 		myX = sol.getOptimalPoint();
-		myFx = func.apply(myX);
+		myFx = myPointFunc.applyAsDouble(myX);
 
 		// initialize counters - note we do first restart with first regime
 		myEvals = sol.getFEvals() + 1;
@@ -187,52 +232,82 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 	@Override
 	public final void iterate() {
 
-		// evolve the initial guess using D-dim random walk
-		for (int i = 0; i < myD; ++i) {
-			myX0[i] = myXGuess[i] + mySigmaRef * RAND.nextGaussian();
-		}
+		// run a single restart
+		if (myExecutor == null || myRestarts <= 1) {
 
-		// decide which strategy to run
-		if (myIteration == 0) {
+			// evolve the initial guess using D-dim random walk
+			for (int i = 0; i < myD; ++i) {
+				myX0[i] = myXGuess[i] + mySigmaRef * myRandom.nextGaussian();
+			}
 
-			// first run is with the large population size
-			myCurrentRegime = 0;
-		} else {
-			if (myAdaptiveBudget) {
-
-				// in NBIPOP-aCMA-ES, use an adaptive strategy for each budget:
-				// allocate twice the budget to the regime which yielded the best
-				// solution in the recent runs
-				if (myLastBestRegime == 0) {
-					if (myBudgetl <= myBudgetFactor * myBudgets) {
-						myCurrentRegime = 0;
-					} else {
-						myCurrentRegime = 1;
-					}
-				} else {
-					if (myBudgets <= myBudgetFactor * myBudgetl) {
-						myCurrentRegime = 1;
-					} else {
-						myCurrentRegime = 0;
-					}
-				}
+			// apply the strategy with the lower budget
+			myCurrentRegime = chooseRegime(myIteration);
+			if (myCurrentRegime == 0) {
+				runFirstRegime();
 			} else {
+				runSecondRegime();
+			}
+			completeIteration();
+			return;
+		}
 
-				// in BIPOP-CMA-ES we choose the regime with the lower budget
-				if (myBudgetl <= myBudgets) {
-					myCurrentRegime = 0;
-				} else {
-					myCurrentRegime = 1;
-				}
+		// plan a batch of restarts that continues the schedule
+		final Restart[] batch = new Restart[myRestarts];
+		int n = 0;
+		int reserved = myEvals;
+		while (n < myRestarts && reserved < myMaxEvals && myIl < myMaxRuns) {
+			for (int i = 0; i < myD; ++i) {
+				myX0[i] = myXGuess[i] + mySigmaRef * myRandom.nextGaussian();
 			}
+			if (chooseRegime(myIteration + n) == 0) {
+				batch[n] = planFirstRegime();
+			} else {
+				batch[n] = planSecondRegime();
+			}
+			reserved += batch[n].maxEvals;
+			++n;
 		}
 
-		// apply the strategy with the lower budget
-		if (myCurrentRegime == 0) {
-			runFirstRegime();
-		} else {
-			runSecondRegime();
+		// run the batch concurrently against a shared budget
+		final AtomicInteger budget = new AtomicInteger(myMaxEvals - myEvals);
+		final Runnable[] tasks = new Runnable[n];
+		for (int r = 0; r < n; ++r) {
+			final Restart restart = batch[r];
+			tasks[r] = () -> runRestart(restart, budget);
+		}
+		runAll(tasks, myExecutor);
+
+		// merge the results in the order they were planned
+		for (int r = 0; r < n; ++r) {
+			myCurrentRegime = batch[r].regime;
+			completeRestart(batch[r]);
+			completeIteration();
 		}
+	}
+
+	private int chooseRegime(final int iteration) {
+
+		// first run is with the large population size
+		if (iteration == 0) {
+			return 0;
+		}
+		if (myAdaptiveBudget) {
+
+			// in NBIPOP-aCMA-ES, use an adaptive strategy for each budget:
+			// allocate twice the budget to the regime which yielded the best
+			// solution in the recent runs
+			if (myLastBestRegime == 0) {
+				return myBudgetl <= myBudgetFactor * myBudgets ? 0 : 1;
+			} else {
+				return myBudgets <= myBudgetFactor * myBudgetl ? 1 : 0;
+			}
+		}
+
+		// in BIPOP-CMA-ES we choose the regime with the lower budget
+		return myBudgetl <= myBudgets ? 0 : 1;
+	}
+
+	private void completeIteration() {
 
 		// update the best point so far
 		if (myFx < myFxBest) {
@@ -251,12 +326,21 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
+		start();
 		initialize(func, guess);
 		boolean converged = false;
 		while (true) {
 			iterate();
+			if (!fireIteration(myIteration, myEvals, 0, myFxBest, mySigma)) {
+				break;
+			}
 
 			// check if reached max number of restarts or evals
 			if (myIl >= myMaxRuns || myEvals >= myMaxEvals) {
@@ -273,13 +357,28 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 				myFxold = myFx;
 			}
 		}
-		return new OptimizerSolution<>(myXBest, myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(myXBest, myEvals, 0, converged));
 	}
 
 	/**
 	 * 
 	 */
 	public final void runFirstRegime() {
+		final Restart restart = planFirstRegime();
+		runRestart(restart, null);
+		completeRestart(restart);
+	}
+
+	/**
+	 * 
+	 */
+	public final void runSecondRegime() {
+		final Restart restart = planSecondRegime();
+		runRestart(restart, null);
+		completeRestart(restart);
+	}
+
+	private Restart planFirstRegime() {
 
 		// compute the new lambda
 		myLambdal <<= 1;
@@ -295,33 +394,23 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 		myEvalsref = (int) (100.0 + 50.0 * myEvalsref / Math.sqrt(myLambda)) * myLambda;
 		myEvalsref = Math.min(myEvalsref, myMaxEvals - myEvals);
 
-		// set up the optimizer
-		myCmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, myLambdal, mySigma, myEvalsref);
-
-		// run the CMAES with increasing population size
-		final OptimizerSolution<double[], Double> sol = myCmaes.optimize(myFunc, myX0);
-		myX = sol.getOptimalPoint();
-		myFx = myFunc.apply(myX);
-
-		// increment counters and adjust budget
-		myEvals += sol.getFEvals() + 1;
-		myBudgetl += sol.getFEvals() + 1;
+		// reserve the budget, which is corrected once the run completes
+		final Restart restart = newRestart(0);
+		myBudgetl += restart.maxEvals;
 		++myIl;
 		myLastRegime = 0;
+		return restart;
 	}
 
-	/**
-	 * 
-	 */
-	public final void runSecondRegime() {
+	private Restart planSecondRegime() {
 
 		// compute new lambda
-		final double u = RAND.nextDouble();
+		final double u = myRandom.nextDouble();
 		myLambdas = (int) (myLambdaRef * Math.pow(0.5 * myLambdal / myLambdaRef, u * u));
 		myLambda = myLambdas;
 
 		// compute new sigma
-		mySigma = mySigmaRef * Math.pow(10.0, -2.0 * RAND.nextDouble());
+		mySigma = mySigmaRef * Math.pow(10.0, -2.0 * myRandom.nextDouble());
 
 		// number of function evaluations
 		if (myLastRegime == 0) {
@@ -332,18 +421,66 @@ public final class BiPopCmaesAlgorithm extends GradientFreeOptimizer {
 		}
 		myEvalsref = Math.min(myEvalsref, myMaxEvals - myEvals);
 
+		// reserve the budget, which is corrected once the run completes
+		final Restart restart = newRestart(1);
+		myBudgets += restart.maxEvals;
+		++myIs;
+		myLastRegime = 1;
+		return restart;
+	}
+
+	private Restart newRestart(final int regime) {
+		final Restart restart = new Restart();
+		restart.regime = regime;
+		restart.lambda = myLambda;
+		restart.sigma = mySigma;
+		restart.maxEvals = myEvalsref;
+		restart.x0 = Arrays.copyOf(myX0, myD);
+		restart.seed = myRandom.nextLong();
+		return restart;
+	}
+
+	private void runRestart(final Restart restart, final AtomicInteger budget) {
+
+		// without the budget for a first generation, only evaluate the start point
+		final int[] reserved = { restart.lambda + 1 };
+		if (budget != null && !reserve(budget, reserved[0])) {
+			restart.x = restart.x0;
+			restart.fx = myPointFunc.applyAsDouble(restart.x);
+			restart.fevals = 1;
+			budget.decrementAndGet();
+			return;
+		}
+
 		// set up the optimizer
-		myCmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, myLambda, mySigma, myEvalsref);
+		final AbstractCmaesOptimizer cmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, restart.lambda,
+				restart.sigma, restart.maxEvals);
+		cmaes.setSeed(restart.seed);
+		shareStopConditions(cmaes);
+		if (budget != null) {
+			cmaes.setIterationListener(reserveFrom(budget, restart.lambda, reserved));
+		}
 
-		// run the CMAES with small population size
-		final OptimizerSolution<double[], Double> sol = myCmaes.optimize(myFunc, myX0);
-		myX = sol.getOptimalPoint();
-		myFx = myFunc.apply(myX);
+		// run the CMAES with the planned population size
+		final OptimizerSolution<double[], Double> sol = cmaes.optimize(myFunc, restart.x0);
+		restart.x = sol.getOptimalPoint();
+		restart.fx = myPointFunc.applyAsDouble(restart.x);
+		restart.fevals = sol.getFEvals() + 1;
+		if (budget != null) {
+			budget.addAndGet(reserved[0] - restart.fevals);
+		}
+	}
 
-		// increment counters and adjust budget
-		myEvals += sol.getFEvals() + 1;
-		myBudgets += sol.getFEvals() + 1;
-		++myIs;
-		myLastRegime = 1;
+	private void completeRestart(final Restart restart) {
+		myX = restart.x;
+		myFx = restart.fx;
+
+		// increment counters and replace the reserved budget with the actual one
+		myEvals += restart.fevals;
+		if (restart.regime == 0) {
+			myBudgetl += restart.fevals - restart.maxEvals;
+		} else {
+			myBudgets += restart.fevals - restart.maxEvals;
+		}
 	}
 }
@@ -21,8 +21,7 @@ SOFTWARE.
 */
 package opt.multivariate.unconstrained.order0.cmaes;
 
-import java.util.function.Function;
-
+import opt.multivariate.BatchObjective;
 import utils.BlasMath;
 
 /**
@@ -97,7 +96,7 @@ public final class CholeskyCmaesAlgorithm extends AbstractCmaesOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initialize(final BatchObjective func, final double[] guess) {
 		super.initialize(func, guess);
 
 		// Initialize dynamic (internal) strategy parameters and constants
@@ -175,7 +174,7 @@ public final class CholeskyCmaesAlgorithm extends AbstractCmaesOptimizer {
 	public final void samplePopulation() {
 		for (int n = 0; n < myLambda; ++n) {
 			for (int i = 0; i < D; ++i) {
-				artmp[i] = RAND.nextGaussian();
+				artmp[i] = myRandom.nextGaussian();
 			}
 			for (int i = 0; i < D; ++i) {
 				final double sum = BlasMath.ddotm(D, A[i], 1, artmp, 1);
@@ -21,11 +21,12 @@ SOFTWARE.
 */
 package opt.multivariate.unconstrained.order0.cmaes;
 
-import java.util.Arrays;
-import java.util.function.Function;
+import java.util.concurrent.Executor;
 
+import opt.multivariate.BatchObjective;
 import utils.BlasMath;
-import utils.RealMath;
+import utils.DenseMatrix;
+import utils.SymmetricEigenSolver;
 
 /**
  * A basic implementation of the classical CMA-ES algorithm. Suited for
@@ -62,10 +63,18 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 	protected int myFlag;
 
 	// other algorithm memory
+	protected boolean myLazyEigen = true;
 	protected double updateEigenFrequency;
 	protected int updateEigenLastEval;
-	protected double[] diagD;
-	protected double[][] B, C, invsqrtC;
+	protected double[] diagD, diagDtmp;
+	protected DenseMatrix B, C, invsqrtC, Btmp;
+
+	// the scaled normal samples of a generation and their images under sigma * B,
+	// and the steps that update the covariance matrix stored one coordinate per
+	// row, without and with weights
+	protected DenseMatrix arz, arbz, ary, arwy;
+	protected Executor myMatrixExecutor;
+	protected SymmetricEigenSolver myEigenSolver = new SymmetricEigenSolver();
 
 	/**
 	 *
@@ -98,8 +107,44 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 		super(tolerance, initialSigma);
 	}
 
+	/**
+	 * Sets whether the eigendecomposition of the covariance matrix is refreshed
+	 * lazily, once every 1 / (10 D (c1 + cmu)) generations as in [2], or after
+	 * every generation. In between, sampling and the evolution path reuse the
+	 * previous B, diagD and invsqrtC, so a generation costs O(D^2) instead of
+	 * O(D^3). This is on by default. For small D the lazy schedule refreshes every
+	 * generation anyway, so it only takes effect in large dimensions.
+	 * 
+	 * @param lazy
+	 */
+	public final void setLazyEigenDecomposition(final boolean lazy) {
+		myLazyEigen = lazy;
+	}
+
+	/**
+	 * Sets the executor used to sample the population and to update the
+	 * covariance matrix with tiled matrix products. Pass null to compute them on
+	 * the calling thread. The result does not depend on the executor.
+	 * 
+	 * @param executor
+	 */
+	public final void setMatrixExecutor(final Executor executor) {
+		myMatrixExecutor = executor;
+	}
+
+	/**
+	 * Sets the solver used for the eigendecomposition of the covariance matrix,
+	 * for instance one that runs in parallel on a fork-join pool or that refines
+	 * the previous eigenvectors instead of starting from scratch.
+	 * 
+	 * @param solver
+	 */
+	public final void setEigenSolver(final SymmetricEigenSolver solver) {
+		myEigenSolver = solver;
+	}
+
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 		super.initialize(func, guess);
 
 		// we perform an eigenvalue decomposition every O(d) iterations
@@ -108,12 +153,20 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 
 		// Initialize dynamic (internal) strategy parameters and constants
 		diagD = new double[D];
-		B = new double[D][D];
-		C = new double[D][D];
-		invsqrtC = new double[D][D];
+		diagDtmp = new double[D];
+		B = new DenseMatrix(D, D);
+		Btmp = new DenseMatrix(D, D);
+		C = new DenseMatrix(D, D);
+		invsqrtC = new DenseMatrix(D, D);
+		arz = new DenseMatrix(myLambda, D);
+		arbz = new DenseMatrix(myLambda, D);
+		ary = new DenseMatrix(D, myMu + 1);
+		arwy = new DenseMatrix(D, myMu + 1);
 		for (int d = 0; d < D; ++d) {
 			diagD[d] = 1.0;
-			C[d][d] = invsqrtC[d][d] = B[d][d] = 1.0;
+			C.set(d, d, 1.0);
+			invsqrtC.set(d, d, 1.0);
+			B.set(d, d, 1.0);
 		}
 
 		// Initialize convergence parameters
@@ -136,11 +189,12 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 
 		// Cumulation: Update evolution paths
 		final double csc = Math.sqrt(cs * (2.0 - cs) * mueff);
+		for (int j = 0; j < D; ++j) {
+			artmp[j] = (xmean[j] - xold[j]) / sigma;
+		}
+		final int ldisc = invsqrtC.getLeadingDimension();
 		for (int i = 0; i < D; ++i) {
-			ps[i] *= (1.0 - cs);
-			for (int j = 0; j < D; ++j) {
-				ps[i] += csc * invsqrtC[i][j] * (xmean[j] - xold[j]) / sigma;
-			}
+			ps[i] = (1.0 - cs) * ps[i] + csc * BlasMath.ddotm(D, invsqrtC.getData(), i * ldisc + 1, artmp, 1);
 		}
 
 		// compute hsig
@@ -159,24 +213,24 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 			pc[i] = (1.0 - cc) * pc[i] + hsig * ccc * (xmean[i] - xold[i]) / sigma;
 		}
 
-		// Adapt covariance matrix C
+		// Adapt covariance matrix C: the rank mu update adds the outer products of
+		// the selected steps and the rank-one update that of pc
 		final double c2 = (1.0 - hsig) * cc * (2.0 - cc);
-		for (int i = 0; i < D; ++i) {
-			for (int j = 0; j <= i; ++j) {
-
-				// old matrix plus rank-one update
-				double sum = (1.0 - c1 - cmu) * C[i][j] + c1 * (pc[i] * pc[j] + c2 * C[i][j]);
-
-				// rank mu update
-				for (int k = 0; k < myMu; ++k) {
-					final int m = arfitness[k].index;
-					final double di = (arx[m][i] - xold[i]) / sigma;
-					final double dj = (arx[m][j] - xold[j]) / sigma;
-					sum += cmu * weights[k] * di * dj;
-				}
-				C[i][j] = sum;
+		final double[] y = ary.getData(), wy = arwy.getData();
+		final int ld = ary.getLeadingDimension(), ldw = arwy.getLeadingDimension();
+		for (int k = 0; k < myMu; ++k) {
+			final int m = arfitness[k].index;
+			final double w = cmu * weights[k];
+			for (int i = 0; i < D; ++i) {
+				y[i * ld + k] = (arx[m][i] - xold[i]) / sigma;
+				wy[i * ldw + k] = w * y[i * ld + k];
 			}
 		}
+		for (int i = 0; i < D; ++i) {
+			y[i * ld + myMu] = pc[i];
+			wy[i * ldw + myMu] = c1 * pc[i];
+		}
+		BlasMath.dgemmt(1.0, arwy, ary, 1.0 - c1 - cmu + c1 * c2, C, myMatrixExecutor);
 
 		// update sigma parameters
 		updateSigma();
@@ -187,15 +241,20 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 
 	@Override
 	public void samplePopulation() {
+
+		// arx = xmean + sigma * B * diag(D) * arz for the whole generation at once
+		final double[] z = arz.getData();
+		final int ldz = arz.getLeadingDimension();
 		for (int n = 0; n < myLambda; ++n) {
 			for (int i = 0; i < D; ++i) {
-				artmp[i] = diagD[i] * RAND.nextGaussian();
-			}
-			for (int i = 0; i < D; ++i) {
-				final double sum = BlasMath.ddotm(D, B[i], 1, artmp, 1);
-				arx[n][i] = xmean[i] + sigma * sum;
+				z[n * ldz + i] = diagD[i] * myRandom.nextGaussian();
 			}
 		}
+		BlasMath.dgemmnt(sigma, arz, B, 0.0, arbz, myMatrixExecutor);
+		final int ldbz = arbz.getLeadingDimension();
+		for (int n = 0; n < myLambda; ++n) {
+			BlasMath.dxpy1(D, xmean, 1, arbz.getData(), n * ldbz + 1, arx[n], 1);
+		}
 	}
 
 	@Override
@@ -230,7 +289,7 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 		// TolX
 		boolean converged = true;
 		for (int i = 0; i < D; ++i) {
-			if (Math.max(pc[i], Math.sqrt(C[i][i])) * sigma / mySigma0 >= myTol) {
+			if (Math.max(pc[i], Math.sqrt(C.get(i, i))) * sigma / mySigma0 >= myTol) {
 				converged = false;
 				break;
 			}
@@ -256,7 +315,7 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 		final int iaxis = D - 1 - ((myIteration - 1) % D);
 		converged = true;
 		for (int i = 0; i < D; ++i) {
-			if (xmean[i] != xmean[i] + 0.1 * sigma * diagD[iaxis] * B[iaxis][i]) {
+			if (xmean[i] != xmean[i] + 0.1 * sigma * diagD[iaxis] * B.get(iaxis, i)) {
 				converged = false;
 				break;
 			}
@@ -268,7 +327,7 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 
 		// NoEffectCoor
 		for (int i = 0; i < D; ++i) {
-			if (xmean[i] == xmean[i] + 0.2 * sigma * Math.sqrt(C[i][i])) {
+			if (xmean[i] == xmean[i] + 0.2 * sigma * Math.sqrt(C.get(i, i))) {
 				myFlag = 9;
 				return true;
 			}
@@ -292,21 +351,30 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 
 		// skip the eigenvalue-decomposition O(D^3) until condition is reached
 		// this is done once every O(D) iterations making the algorithm O(D^2)
-		if (myEvals - updateEigenLastEval <= myLambda * updateEigenFrequency) {
+		if (myLazyEigen && myEvals - updateEigenLastEval <= myLambda * updateEigenFrequency) {
 			return;
 		}
+		updateEigenLastEval = myEvals;
 
-		// enforce symmetry
-		for (int i = 0; i < D; ++i) {
-			for (int j = 0; j <= i; ++j) {
-				B[i][j] = B[j][i] = C[i][j];
-			}
-		}
+		// eigenvalue decomposition of the lower triangle of C, B==normalized
+		// eigenvectors, into scratch storage so that the previous B and diagD
+		// survive a failure; the previous B is offered as a starting guess
+		myEigenSolver.decompose(C, diagDtmp, Btmp, B);
 
-		// eigenvalue decomposition, B==normalized eigenvectors
-		updateEigenLastEval = myEvals;
-		tred2(D, B, diagD, artmp);
-		tql2(D, diagD, artmp, B);
+		// if C is no longer finite or has collapsed, keep the last valid
+		// decomposition and rebuild C from it
+		if (!isValidDecomposition()) {
+			restoreCovariance();
+			return;
+		}
+		final double[] c = C.getData();
+		final int ldc = C.getLeadingDimension();
+		DenseMatrix swapB = B;
+		B = Btmp;
+		Btmp = swapB;
+		double[] swapD = diagD;
+		diagD = diagDtmp;
+		diagDtmp = swapD;
 
 		// limit condition number of covariance matrix
 		if (diagD[0] <= 0.0) {
@@ -315,14 +383,14 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 			}
 			final double shift = diagD[D - 1] / 1e14;
 			for (int i = 0; i < D; ++i) {
-				C[i][i] += shift;
+				c[i * ldc + i] += shift;
 				diagD[i] += shift;
 			}
 		}
 		if (diagD[D - 1] > 1e14 * diagD[0]) {
 			final double shift = diagD[D - 1] / 1e14 - diagD[0];
 			for (int i = 0; i < D; ++i) {
-				C[i][i] += shift;
+				c[i * ldc + i] += shift;
 				diagD[i] += shift;
 			}
 		}
@@ -333,219 +401,47 @@ public class CmaesAlgorithm extends AbstractCmaesOptimizer {
 		}
 
 		// invsqrtC = B * diag(D^-1) * B^T
+		final double[] b = B.getData(), isc = invsqrtC.getData();
+		final int ldb = B.getLeadingDimension(), ldisc = invsqrtC.getLeadingDimension();
 		for (int i = 0; i < D; ++i) {
 			for (int j = 0; j <= i; ++j) {
 				double sum = 0.0;
 				for (int k = 0; k < D; ++k) {
-					sum += B[i][k] / diagD[k] * B[j][k];
+					sum += b[i * ldb + k] / diagD[k] * b[j * ldb + k];
 				}
-				invsqrtC[i][j] = invsqrtC[j][i] = sum;
+				isc[i * ldisc + j] = isc[j * ldisc + i] = sum;
 			}
 		}
 	}
 
-	/**
-	 * This include code translated from the JAMA package. The code is released into
-	 * the public domain, but contains the following license information.
-	 * 
-	 * 
-	 * Copyright Notice
-	 * 
-	 * This software is a cooperative product of The MathWorks and the National
-	 * Institute of Standards and Technology (NIST) which has been released to the
-	 * public domain. Neither The MathWorks nor NIST assumes any responsibility
-	 * whatsoever for its use by other parties, and makes no guarantees, expressed
-	 * or implied, about its quality, reliability, or any other characteristic.
-	 */
-	protected static final void tred2(int n, final double[][] V, final double[] d, final double[] e) {
-
-		// This is derived from the Algol procedures tred2 by
-		// Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
-		// Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
-		// Fortran subroutine in EISPACK.
-		System.arraycopy(V[n - 1], 0, d, 0, n);
-
-		// Householder reduction to tridiagonal form.
-		for (int i = n - 1; i > 0; i--) {
-
-			// Scale to avoid under/overflow.
-			double scale = 0.0;
-			double h = 0.0;
-			for (int k = 0; k < i; k++) {
-				scale += Math.abs(d[k]);
-			}
-			if (scale == 0.0) {
-				e[i] = d[i - 1];
-				for (int j = 0; j < i; j++) {
-					d[j] = V[i - 1][j];
-					V[i][j] = V[j][i] = 0.0;
-				}
-			} else {
-
-				// Generate Householder vector.
-				for (int k = 0; k < i; k++) {
-					d[k] /= scale;
-					h += d[k] * d[k];
-				}
-				double f = d[i - 1];
-				double g = Math.sqrt(h);
-				if (f > 0) {
-					g = -g;
-				}
-				e[i] = scale * g;
-				h = h - f * g;
-				d[i - 1] = f - g;
-				Arrays.fill(e, 0, i, 0.0);
-
-				// Apply similarity transformation to remaining columns.
-				for (int j = 0; j < i; j++) {
-					f = d[j];
-					V[j][i] = f;
-					g = e[j] + V[j][j] * f;
-					for (int k = j + 1; k <= i - 1; k++) {
-						g += V[k][j] * d[k];
-						e[k] += V[k][j] * f;
-					}
-					e[j] = g;
-				}
-				BlasMath.dscalm(i, 1.0 / h, e, 1);
-				f = BlasMath.ddotm(i, e, 1, d, 1);
-				double hh = f / (h + h);
-				BlasMath.daxpym(i, -hh, d, 1, e, 1);
-				for (int j = 0; j < i; j++) {
-					f = d[j];
-					g = e[j];
-					for (int k = j; k <= i - 1; k++) {
-						V[k][j] -= (f * e[k] + g * d[k]);
-					}
-					d[j] = V[i - 1][j];
-					V[i][j] = 0.0;
-				}
+	private boolean isValidDecomposition() {
+		for (int i = 0; i < D; ++i) {
+			if (!Double.isFinite(diagDtmp[i])) {
+				return false;
 			}
-			d[i] = h;
 		}
-
-		// Accumulate transformations.
-		for (int i = 0; i < n - 1; i++) {
-			V[n - 1][i] = V[i][i];
-			V[i][i] = 1.0;
-			double h = d[i + 1];
-			if (h != 0.0) {
-				for (int k = 0; k <= i; k++) {
-					d[k] = V[k][i + 1] / h;
-				}
-				for (int j = 0; j <= i; j++) {
-					double g = 0.0;
-					for (int k = 0; k <= i; k++) {
-						g += V[k][i + 1] * V[k][j];
-					}
-					for (int k = 0; k <= i; k++) {
-						V[k][j] -= g * d[k];
-					}
+		for (int i = 0; i < D; ++i) {
+			for (int j = 0; j < D; ++j) {
+				if (!Double.isFinite(Btmp.get(i, j))) {
+					return false;
 				}
 			}
-			for (int k = 0; k <= i; k++) {
-				V[k][i + 1] = 0.0;
-			}
 		}
-		System.arraycopy(V[n - 1], 0, d, 0, n);
-		Arrays.fill(V[n - 1], 0, n, 0.0);
-		V[n - 1][n - 1] = 1.0;
-		e[0] = 0.0;
+		return diagDtmp[D - 1] > 0.0;
 	}
 
-	// Symmetric tridiagonal QL algorithm, taken from JAMA package.
-	protected static final void tql2(int n, double[] d, double[] e, double[][] V) {
-		System.arraycopy(e, 1, e, 0, n - 1);
-		e[n - 1] = 0.0;
-		double f = 0.0, tst1 = 0.0;
-		double eps = Math.pow(2.0, -52.0);
-		for (int l = 0; l < n; l++) {
-
-			// Find small subdiagonal element
-			tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
-			int m = l;
-			for (m = l; m < n; m++) {
-				if (Math.abs(e[m]) <= eps * tst1) {
-					break;
-				}
-			}
-			if (m >= n) {
-				break;
-			}
-
-			// If m == l, d[l] is an eigenvalue, otherwise, iterate.
-			if (m > l) {
-				do {
-
-					// Compute implicit shift
-					double g = d[l];
-					double p = (d[l + 1] - g) / (2.0 * e[l]);
-					double r = RealMath.hypot(p, 1.0);
-					r = RealMath.sign(r, p);
-					d[l] = e[l] / (p + r);
-					d[l + 1] = e[l] * (p + r);
-					double dl1 = d[l + 1];
-					double h = g - d[l];
-					for (int i = l + 2; i < n; i++) {
-						d[i] -= h;
-					}
-					f += h;
-
-					// Implicit QL transformation.
-					p = d[m];
-					double c = 1.0, c2 = c, c3 = c;
-					double el1 = e[l + 1];
-					double s = 0.0, s2 = 0.0;
-					for (int i = m - 1; i >= l; i--) {
-						c3 = c2;
-						c2 = c;
-						s2 = s;
-						g = c * e[i];
-						h = c * p;
-						r = RealMath.hypot(p, e[i]);
-						e[i + 1] = s * r;
-						s = e[i] / r;
-						c = p / r;
-						p = c * d[i] - s * g;
-						d[i + 1] = h + s * (c * g + s * d[i]);
-
-						// Accumulate transformation.
-						for (int k = 0; k < n; k++) {
-							h = V[k][i + 1];
-							V[k][i + 1] = s * V[k][i] + c * h;
-							V[k][i] = c * V[k][i] - s * h;
-						}
-					}
-					p = -s * s2 * c3 * el1 * e[l] / dl1;
-					e[l] = s * p;
-					d[l] = c * p;
+	private void restoreCovariance() {
 
-					// Check for convergence.
-				} while (Math.abs(e[l]) > eps * tst1);
-			}
-			d[l] += f;
-			e[l] = 0.0;
-		}
-
-		// Sort eigenvalues and corresponding vectors.
-		for (int i = 0; i < n - 1; i++) {
-			int k = i;
-			double p = d[i];
-			for (int j = i + 1; j < n; j++) {
-				if (d[j] < p) {
-					k = j;
-					p = d[j];
-				}
-			}
-			if (k != i) {
-				d[k] = d[i];
-				d[i] = p;
-				for (int j = 0; j < n; j++) {
-					p = V[j][i];
-					V[j][i] = V[j][k];
-					V[j][k] = p;
+		// C = B * diag(D^2) * B^T
+		final double[] b = B.getData(), c = C.getData();
+		final int ldb = B.getLeadingDimension(), ldc = C.getLeadingDimension();
+		for (int i = 0; i < D; ++i) {
+			for (int j = 0; j <= i; ++j) {
+				double sum = 0.0;
+				for (int k = 0; k < D; ++k) {
+					sum += b[i * ldb + k] * diagD[k] * diagD[k] * b[j * ldb + k];
 				}
+				c[i * ldc + j] = c[j * ldc + i] = sum;
 			}
 		}
 	}
@@ -22,9 +22,12 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.cmaes;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import opt.multivariate.unconstrained.order0.cmaes.AbstractCmaesOptimizer.AbstractCmaesFactory;
 
@@ -57,6 +60,15 @@ import opt.multivariate.unconstrained.order0.cmaes.AbstractCmaesOptimizer.Abstra
  */
 public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 
+	// the settings and outcome of one restart
+	private static final class Restart {
+
+		int lambda, maxEvals, fevals;
+		double sigma, fx;
+		long seed;
+		double[] x0, x;
+	}
+
 	private final double myCmaesTol, mySigmaRef, mySigmaDec;
 	private final int myMaxEvals;
 	private final boolean myPrint;
@@ -68,9 +80,13 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 	private double[] myXBest, myX, myXStart, myXGuess;
 	private AbstractCmaesOptimizer myCmaes;
 
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
+	private ToDoubleFunction<? super double[]> myPointFunc;
 	private int myD;
 
+	private Executor myExecutor;
+	private int myRestarts = 1;
+
 	/**
 	 *
 	 * @param tolerance
@@ -139,11 +155,36 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 				new ActiveCmaesAlgorithm.ActiveCmaesFactory(), 1.6);
 	}
 
+	/**
+	 * Sets the executor used to run several restarts at once, and the number of
+	 * restarts to run together. The restarts of a batch follow the usual
+	 * population-doubling schedule, draw from a shared evaluation budget, and are
+	 * merged into the best solution in schedule order. Each generation is taken
+	 * from the budget before it is sampled, and a restart that cannot afford its
+	 * first generation only evaluates its start point, so a batch exceeds the
+	 * budget by at most one evaluation per restart. Pass null or a single restart
+	 * to run the restarts one after another. The objective must be safe to call
+	 * from multiple threads.
+	 * 
+	 * @param executor
+	 * @param concurrentRestarts
+	 */
+	public final void setExecutor(final Executor executor, final int concurrentRestarts) {
+		myExecutor = executor;
+		myRestarts = Math.max(1, concurrentRestarts);
+	}
+
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final void initialize(final BatchObjective func, final double[] guess) {
 
 		// initialize domain
 		myFunc = func;
+		myPointFunc = func.asFunction();
 		myD = guess.length;
 		myXGuess = guess;
 
@@ -164,12 +205,14 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 
 		// create new optimizer
 		myCmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, myLambda, mySigma, myMaxEv);
+		myCmaes.setSeed(myRandom.nextLong());
+		shareStopConditions(myCmaes);
 		myXStart = Arrays.copyOf(myXGuess, myD);
 
 		// run initial CMAES algorithm
 		final OptimizerSolution<double[], Double> sol = myCmaes.optimize(myFunc, myXStart);
 		myX = sol.getOptimalPoint();
-		myFx = myFunc.apply(myX);
+		myFx = myPointFunc.applyAsDouble(myX);
 
 		// initialize counters
 		myEvals = sol.getFEvals() + 1;
@@ -191,6 +234,42 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 	@Override
 	public final void iterate() {
 
+		// run a single restart
+		if (myExecutor == null || myRestarts <= 1) {
+			final Restart restart = planRestart();
+			runRestart(restart, null);
+			completeRestart(restart);
+			return;
+		}
+
+		// plan a batch of restarts that continues the schedule
+		final Restart[] batch = new Restart[myRestarts];
+		int n = 0;
+		int reserved = myEvals;
+		while (n < myRestarts && reserved < myMaxEvals) {
+			batch[n] = planRestart();
+			reserved += batch[n].maxEvals;
+			++n;
+		}
+
+		// run the batch concurrently against a shared budget
+		final AtomicInteger budget = new AtomicInteger(myMaxEvals - myEvals);
+		final Runnable[] tasks = new Runnable[n];
+		for (int r = 0; r < n; ++r) {
+			final Restart restart = batch[r];
+			tasks[r] = () -> runRestart(restart, budget);
+		}
+		runAll(tasks, myExecutor);
+
+		// merge the results in the order they were planned
+		for (int r = 0; r < n; ++r) {
+			completeRestart(batch[r]);
+		}
+	}
+
+	private Restart planRestart() {
+		final Restart restart = new Restart();
+
 		// increase population size
 		// we apply the maximum bound in Liao et al. (2013) and reset the lambda to
 		// its initial value when reached
@@ -209,19 +288,53 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 
 		// set the guess
 		for (int i = 0; i < myD; ++i) {
-			myXStart[i] = myXGuess[i] + mySigmaRef * RAND.nextGaussian();
+			myXStart[i] = myXGuess[i] + mySigmaRef * myRandom.nextGaussian();
+		}
+		restart.lambda = myLambda;
+		restart.sigma = mySigma;
+		restart.maxEvals = myMaxEv;
+		restart.x0 = Arrays.copyOf(myXStart, myD);
+		restart.seed = myRandom.nextLong();
+		return restart;
+	}
+
+	private void runRestart(final Restart restart, final AtomicInteger budget) {
+
+		// without the budget for a first generation, only evaluate the start point
+		final int[] reserved = { restart.lambda + 1 };
+		if (budget != null && !reserve(budget, reserved[0])) {
+			restart.x = restart.x0;
+			restart.fx = myPointFunc.applyAsDouble(restart.x);
+			restart.fevals = 1;
+			budget.decrementAndGet();
+			return;
 		}
 
 		// create new optimizer
-		myCmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, myLambda, mySigma, myMaxEv);
+		final AbstractCmaesOptimizer cmaes = myCmaesFactory.createCmaStrategy(myCmaesTol, restart.lambda,
+				restart.sigma, restart.maxEvals);
+		cmaes.setSeed(restart.seed);
+		shareStopConditions(cmaes);
+		if (budget != null) {
+			cmaes.setIterationListener(reserveFrom(budget, restart.lambda, reserved));
+		}
 
 		// run CMAES again
-		final OptimizerSolution<double[], Double> sol = myCmaes.optimize(myFunc, myXStart);
-		myX = sol.getOptimalPoint();
-		myFx = myFunc.apply(myX);
+		final OptimizerSolution<double[], Double> sol = cmaes.optimize(myFunc, restart.x0);
+		restart.x = sol.getOptimalPoint();
+		restart.fx = myPointFunc.applyAsDouble(restart.x);
+		restart.fevals = sol.getFEvals() + 1;
+		if (budget != null) {
+			budget.addAndGet(reserved[0] - restart.fevals);
+		}
+	}
+
+	private void completeRestart(final Restart restart) {
+		myX = restart.x;
+		myFx = restart.fx;
 
 		// increment counters
-		myEvals += sol.getFEvals() + 1;
+		myEvals += restart.fevals;
 		++myIt;
 
 		// update best point
@@ -233,18 +346,27 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 
 		// print output
 		if (myPrint) {
-			System.out.println(myIt + "\t" + myEvals + "\t" + myMaxEv + "\t" + myLambda + "\t" + mySigma + "\t" + myFx
-					+ "\t" + myFxBest);
+			System.out.println(myIt + "\t" + myEvals + "\t" + restart.maxEvals + "\t" + restart.lambda + "\t"
+					+ restart.sigma + "\t" + myFx + "\t" + myFxBest);
 		}
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
+		start();
 		initialize(func, guess);
 		boolean converged = false;
 		while (myEvals < myMaxEvals) {
 			iterate();
+			if (!fireIteration(myIt, myEvals, 0, myFxBest, mySigma)) {
+				break;
+			}
 
 			// check convergence
 			if (myFx != myFxOld) {
@@ -255,6 +377,6 @@ public final class IPopCmaesAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 		}
-		return new OptimizerSolution<>(myXBest, myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(myXBest, myEvals, 0, converged));
 	}
 }
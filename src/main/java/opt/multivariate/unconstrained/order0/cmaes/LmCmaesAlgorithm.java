@@ -24,6 +24,7 @@ package opt.multivariate.unconstrained.order0.cmaes;
 import java.util.Arrays;
 import java.util.function.Function;
 
+import opt.multivariate.BatchObjective;
 import utils.BlasMath;
 
 /**
@@ -145,7 +146,7 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 
 		// call super method
 		super.initialize(func, guess);
@@ -232,13 +233,13 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 
 					// sample from a Gaussian distribution
 					for (int i = 0; i < D; ++i) {
-						artmp[i] = Az[i] = RAND.nextGaussian();
+						artmp[i] = Az[i] = myRandom.nextGaussian();
 					}
 				} else {
 
 					// sample from a Rademacher distribution
 					for (int i = 0; i < D; ++i) {
-						artmp[i] = Az[i] = RAND.nextBoolean() ? 1 : -1;
+						artmp[i] = Az[i] = myRandom.nextBoolean() ? 1 : -1;
 					}
 				}
 
@@ -312,7 +313,7 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 	}
 
 	@Override
-	public void evaluateAndSortPopulation() {
+	public void sortPopulation() {
 
 		// cache the previous fitness
 		if (myIteration > 0) {
@@ -321,8 +322,8 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 			}
 		}
 
-		// now perform fitness evaluation
-		super.evaluateAndSortPopulation();
+		// now sort the new fitness values
+		super.sortPopulation();
 	}
 
 	@Override
@@ -400,7 +401,7 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 		return imin == 1 ? 0 : imin;
 	}
 
-	private static int selectSubset(final int m, final int k) {
+	private int selectSubset(final int m, final int k) {
 
 		// this is algorithm 6 in Loshchilov (2015)
 		if (m <= 1) {
@@ -410,7 +411,7 @@ public class LmCmaesAlgorithm extends AbstractCmaesOptimizer {
 		if (k == 0) {
 			msigma *= 10;
 		}
-		int mstar = (int) (msigma * Math.abs(RAND.nextGaussian()));
+		int mstar = (int) (msigma * Math.abs(myRandom.nextGaussian()));
 		mstar = Math.min(mstar, m);
 		mstar = m - mstar;
 		return mstar;
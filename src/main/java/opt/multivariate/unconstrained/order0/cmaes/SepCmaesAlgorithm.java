@@ -21,8 +21,7 @@ SOFTWARE.
 */
 package opt.multivariate.unconstrained.order0.cmaes;
 
-import java.util.function.Function;
-
+import opt.multivariate.BatchObjective;
 import utils.BlasMath;
 import utils.Constants;
 
@@ -100,7 +99,7 @@ public final class SepCmaesAlgorithm extends AbstractCmaesOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 		super.initialize(func, guess);
 
 		// Strategy parameter setting: Adaptation
@@ -186,7 +185,7 @@ public final class SepCmaesAlgorithm extends AbstractCmaesOptimizer {
 	public final void samplePopulation() {
 		for (int n = 0; n < myLambda; ++n) {
 			for (int i = 0; i < D; ++i) {
-				arx[n][i] = xmean[i] + sigma * diagD[i] * RAND.nextGaussian();
+				arx[n][i] = xmean[i] + sigma * diagD[i] * myRandom.nextGaussian();
 			}
 		}
 	}
@@ -24,6 +24,7 @@ package opt.multivariate.unconstrained.order0.direct;
 import java.util.Arrays;
 import java.util.TreeSet;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -67,7 +68,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 
 		int n;
 		double[] lb, ub;
-		Function<? super double[], Double> f;
+		ToDoubleFunction<? super double[]> f;
 		int evals;
 
 		int npts;
@@ -83,7 +84,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 	private final int myMaxEvals, myPopSize, myMaxMutations;
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private ToDoubleFunction<? super double[]> myFunc;
 	private double[] myLower, myUpper;
 	private int n;
 
@@ -121,18 +122,18 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
 			lo[i] = guess[i] - 4.0;
 			hi[i] = guess[i] + 4.0;
 		}
-		initialize(func, lo, hi, guess);
+		initializeDouble(func, lo, hi, guess);
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
@@ -140,7 +141,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 			lo[i] = guess[i] - 4.0;
 			hi[i] = guess[i] + 4.0;
 		}
-		return optimize(func, lo, hi, guess);
+		return optimizeDouble(func, lo, hi, guess);
 	}
 
 	@Override
@@ -176,6 +177,18 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 	 */
 	public void initialize(final Function<? super double[], Double> func, final double[] lb, final double[] ub,
 			final double[] guess) {
+		initializeDouble(func::apply, lb, ub, guess);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @param guess
+	 */
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lb, final double[] ub,
+			final double[] guess) {
 		myFunc = func;
 		myLower = lb;
 		myUpper = ub;
@@ -203,15 +216,33 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 	 */
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lb, final double[] ub, final double[] guess) {
-		initialize(func, lb, ub, guess);
+		return optimizeDouble(func::apply, lb, ub, guess);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @param guess
+	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lb, final double[] ub, final double[] guess) {
+		start();
+		initializeDouble(func, lb, ub, guess);
+		int iteration = 0;
 		while (!done) {
 			iterate();
+			++iteration;
+			if (!fireIteration(iteration, data.evals, 0, minF, Double.NaN)) {
+				break;
+			}
 		}
 		// TODO: check convergence
-		return new OptimizerSolution<>(Arrays.copyOf(x, n), data.evals, 0, false);
+		return finish(new OptimizerSolution<>(Arrays.copyOf(x, n), data.evals, 0, false));
 	}
 
-	private static void random_trial(final CrsData d, final RbNode best) {
+	private void random_trial(final CrsData d, final RbNode best) {
 		final int n = d.n;
 
 		// initialize x to x_0 = best point
@@ -221,7 +252,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 		// which of remaining n points is "x_n", i.e. which to reflect through ...
 		// this is necessary since we generate the remaining points in order, so
 		// just picking the last point would not be very random
-		int jn = RAND.nextInt(n);
+		int jn = myRandom.nextInt(n);
 
 		/*
 		 * use "method A" from
@@ -242,7 +273,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 			}
 			while (nleft > 1) {
 				double q = ((double) nptsfree) / nptsleft;
-				final double v = RAND.nextDouble();
+				final double v = myRandom.nextDouble();
 				while (q > v) {
 					++i;
 					if (i == i0) {
@@ -268,7 +299,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 				--nptsleft;
 				--nleft;
 			}
-			i += RAND.nextInt(nptsleft);
+			i += myRandom.nextInt(nptsleft);
 			if (i == i0) {
 				++i;
 			}
@@ -294,14 +325,14 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void crs_trial(final CrsData d, final int maxevls, final int numMutations) {
+	private void crs_trial(final CrsData d, final int maxevls, final int numMutations) {
 		final RbNode best = d.t.first();
 		final RbNode worst = d.t.last();
 		int mutation = numMutations;
 		int n = d.n;
 		random_trial(d, best);
 		do {
-			d.pf = d.f.apply(d.px);
+			d.pf = d.f.applyAsDouble(d.px);
 			++d.evals;
 			if (d.pf < worst.fx) {
 				break;
@@ -311,7 +342,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 			}
 			if (mutation != 0) {
 				for (int i = 0; i < n; ++i) {
-					final double w = RAND.nextDouble();
+					final double w = myRandom.nextDouble();
 					d.px[i] = best.x[i] * (1.0 + w) - w * d.px[i];
 					if (d.px[i] > d.ub[i]) {
 						d.px[i] = d.ub[i];
@@ -331,8 +362,8 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 		d.t.add(worst);
 	}
 
-	private static void crs_init(final CrsData d, final int n, final double[] x, final double[] lb, final double[] ub,
-			final Function<? super double[], Double> f, final int pop) {
+	private void crs_init(final CrsData d, final int n, final double[] x, final double[] lb, final double[] ub,
+			final ToDoubleFunction<? super double[]> f, final int pop) {
 		if (pop == 0) {
 
 			/*
@@ -364,7 +395,7 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 
 		// generate initial points randomly, plus starting guess
 		System.arraycopy(x, 0, d.psx[0], 0, n);
-		d.psf[0] = f.apply(x);
+		d.psf[0] = f.applyAsDouble(x);
 		++d.evals;
 		final RbNode node = new RbNode();
 		node.x = d.psx[0];
@@ -374,9 +405,9 @@ public final class CrsAlgorithm extends GradientFreeOptimizer {
 		for (int i = 1; i < d.npts; ++i) {
 			final double[] k = d.psx[i];
 			for (int j = 0; j < n; ++j) {
-				k[j] = lb[j] + (ub[j] - lb[j]) * RAND.nextDouble();
+				k[j] = lb[j] + (ub[j] - lb[j]) * myRandom.nextDouble();
 			}
-			d.psf[i] = f.apply(k);
+			d.psf[i] = f.applyAsDouble(k);
 			++d.evals;
 			final RbNode node_i = new RbNode();
 			node_i.x = k;
@@ -25,7 +25,7 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.direct;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -95,7 +95,7 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -105,22 +105,23 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare data
 		final int n = guess.length;
 		final double[] x = Arrays.copyOf(guess, n);
-		final double[] eps = { myTol }, fmin = { func.apply(x) };
+		final double[] eps = { myTol }, fmin = { func.applyAsDouble(x) };
 		final int[] maxf = { maxfunc - 21 }, maxT = { maxiters }, Ierror = new int[1];
 		final double fglobal = -1.0e100, fglper = 0.0;
 
 		// call main subroutine
 		Direct(func, x, n, eps, maxf, maxT[0], fmin, lx, ux, method, Ierror, fglobal, fglper, volper, sigmaper);
-		return new OptimizerSolution<>(x, maxf[0], 0, Ierror[0] > 0);
+		return finish(new OptimizerSolution<>(x, maxf[0], 0, Ierror[0] > 0));
 	}
 
-	private void Direct(final Function<? super double[], Double> fcn, final double[] x, final int n, final double[] eps,
+	private void Direct(final ToDoubleFunction<? super double[]> fcn, final double[] x, final int n, final double[] eps,
 			final int[] maxf, final int maxT, final double[] fmin, final double[] l, final double[] u,
 			final int algmethod, final int[] Ierror, final double fglobal, final double fglper, final double volper,
 			final double sigmaper) {
@@ -392,6 +393,22 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 					maxf[0] = numfunc + oldmaxf;
 				}
 			}
+
+			// Report the iteration and stop if the listener asks to
+			if (!fireIteration(t, numfunc, 0, fmin[0], delta)) {
+				Ierror[0] = 0;
+
+				// Store the position of the minimum in x
+				for (i = 1; i <= n; ++i) {
+					x[i - 1] = c[minpos[0] - 1][i - 1] * l[i - 1] + l[i - 1] * u[i - 1];
+				}
+				System.arraycopy(oldu, 0, u, 0, n);
+				System.arraycopy(oldl, 0, l, 0, n);
+
+				// Store the number of function evaluations in maxf
+				maxf[0] = numfunc;
+				return;
+			}
 		}
 
 		// The algorithm stopped after maxT iterations
@@ -409,7 +426,7 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 	}
 
 	private static void DIRSamplef(final double[][] c, final int nnew, final int[][] length, final double[][] f,
-			final int free, final int maxI, final int[] point, final Function<? super double[], Double> fcn,
+			final int free, final int maxI, final int[] point, final ToDoubleFunction<? super double[]> fcn,
 			final double[] x, final double[] l, final double[] fmin, final int[] minpos, final double[] u, final int n,
 			final double[] fmax, final int[] IFeasiblef, final int[] IInfeasiblef) {
 		int j, kret = 0;
@@ -800,7 +817,7 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 		start[0] = list2[start[0] - 1][1 - 1];
 	}
 
-	private void DIRInit(final double[][] f, final Function<? super double[], Double> fcn, final double[][] c,
+	private void DIRInit(final double[][] f, final ToDoubleFunction<? super double[]> fcn, final double[][] c,
 			final int[][] length, final int[] actdeep, final int[] point, final int[] anchor, final int[] free,
 			final int[] arrayI, final int[] maxI, final int[][] list2, final double[] w, final double[] x,
 			final double[] l, final double[] u, final double[] fmin, final int[] minpos, final double[] thirds,
@@ -1002,12 +1019,12 @@ public final class DirectAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void DIRinfcn(final Function<? super double[], Double> fcn, final double[] x, final double[] c1,
+	private static void DIRinfcn(final ToDoubleFunction<? super double[]> fcn, final double[] x, final double[] c1,
 			final double[] c2, final int n, final double[] f) {
 		for (int i = 1; i <= n; ++i) {
 			x[i - 1] = (x[i - 1] + c2[i - 1]) * c1[i - 1];
 		}
-		f[0] = fcn.apply(x);
+		f[0] = fcn.applyAsDouble(x);
 		for (int i = 1; i <= n; ++i) {
 			x[i - 1] = x[i - 1] / c1[i - 1] - c2[i - 1];
 		}
@@ -8,7 +8,7 @@ This code is distributed under the GNU LGPL license.
 package opt.multivariate.unconstrained.order0.direct;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -43,7 +43,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 	private final double myRadius;
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private ToDoubleFunction<? super double[]> myFunc;
 	private int n;
 	private double[] start;
 
@@ -84,7 +84,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 
 		// problem initialization
 		n = guess.length;
@@ -146,7 +146,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 		for (int k = 1; k <= n; ++k) {
 			pstar[k - 1] = pbar[k - 1] + rcoeff * (pbar[k - 1] - p[ihi - 1][k - 1]);
 		}
-		ystar = myFunc.apply(pstar);
+		ystar = myFunc.applyAsDouble(pstar);
 		++icount;
 
 		// Successful reflection, so extension.
@@ -156,7 +156,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 			for (int k = 1; k <= n; ++k) {
 				p2star[k - 1] = pbar[k - 1] + ecoeff * (pstar[k - 1] - pbar[k - 1]);
 			}
-			y2star = myFunc.apply(p2star);
+			y2star = myFunc.applyAsDouble(p2star);
 			++icount;
 
 			// Retain extension or contraction.
@@ -187,7 +187,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 				for (int k = 1; k <= n; ++k) {
 					p2star[k - 1] = pbar[k - 1] + ccoeff * (p[ihi - 1][k - 1] - pbar[k - 1]);
 				}
-				y2star = myFunc.apply(p2star);
+				y2star = myFunc.applyAsDouble(p2star);
 				++icount;
 
 				// Contract the whole simplex.
@@ -197,7 +197,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 							p[j - 1][k - 1] = scoeff * (p[j - 1][k - 1] + p[ilo - 1][k - 1]);
 						}
 						System.arraycopy(p[j - 1], 0, xmin, 0, n);
-						y[j - 1] = myFunc.apply(xmin);
+						y[j - 1] = myFunc.applyAsDouble(xmin);
 						++icount;
 					}
 					ilo = argmin(n + 1, y) + 1;
@@ -216,7 +216,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 				for (int k = 1; k <= n; ++k) {
 					p2star[k - 1] = pbar[k - 1] + ccoeff * (pstar[k - 1] - pbar[k - 1]);
 				}
-				y2star = myFunc.apply(p2star);
+				y2star = myFunc.applyAsDouble(p2star);
 				++icount;
 
 				// Retain reflection?
@@ -260,25 +260,27 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare variables
-		initialize(func, guess);
+		initializeDouble(func, guess);
 
 		// call main subroutine
 		final int ifault = nelmin();
-		return new OptimizerSolution<>(xmin, icount, 0, ifault == 0);
+		return finish(new OptimizerSolution<>(xmin, icount, 0, ifault == 0));
 	}
 
 	private int nelmin() {
 
 		// Initial or restarted loop.
+		int iteration = 0;
 		while (true) {
 
 			// Start of the restart.
 			System.arraycopy(start, 0, p[n], 0, n);
-			y[n + 1 - 1] = myFunc.apply(start);
+			y[n + 1 - 1] = myFunc.applyAsDouble(start);
 			++icount;
 
 			// Define the initial simplex.
@@ -286,7 +288,7 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 				final double x = start[j - 1];
 				start[j - 1] += step[j - 1] * del;
 				System.arraycopy(start, 0, p[j - 1], 0, n);
-				y[j - 1] = myFunc.apply(start);
+				y[j - 1] = myFunc.applyAsDouble(start);
 				++icount;
 				start[j - 1] = x;
 			}
@@ -299,6 +301,12 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 			// Inner loop.
 			while (icount < myMaxEvals) {
 				iterate();
+				++iteration;
+				if (!fireIteration(iteration, icount, 0, ylo, Double.NaN)) {
+					System.arraycopy(p[ilo - 1], 0, xmin, 0, n);
+					ynewlo = y[ilo - 1];
+					return 3;
+				}
 				if (converged) {
 					break;
 				}
@@ -314,14 +322,14 @@ public final class NelderMeadAlgorithm extends GradientFreeOptimizer {
 			for (int i = 1; i <= n; ++i) {
 				del = step[i - 1] * eps;
 				xmin[i - 1] += del;
-				double z = myFunc.apply(xmin);
+				double z = myFunc.applyAsDouble(xmin);
 				++icount;
 				if (z < ynewlo) {
 					ifault = 2;
 					break;
 				}
 				xmin[i - 1] -= (del + del);
-				z = myFunc.apply(xmin);
+				z = myFunc.applyAsDouble(xmin);
 				++icount;
 				if (z < ynewlo) {
 					ifault = 2;
@@ -25,7 +25,7 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.direct;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -64,7 +64,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -74,8 +74,9 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
@@ -84,11 +85,11 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 		// call main subroutine
 		// TODO: check convergence
 		praxis(myTol, Constants.EPSILON, H0, n, x, func);
-		return new OptimizerSolution<>(x, nf, 0, false);
+		return finish(new OptimizerSolution<>(x, nf, 0, false));
 	}
 
 	private double praxis(final double t0, final double machep, final double h0, final int n, final double[] x,
-			final Function<? super double[], Double> f) {
+			final ToDoubleFunction<? super double[]> f) {
 
 		// IF N>20 OR IF N<20 AND YOU NEED MORE SPACE, CHANGE '20' TO THE
 		// LARGEST VALUE OF N IN THE NEXT CARD, IN THE CARD 'IDIM=20', AND
@@ -99,7 +100,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 		tmp = new double[n];
 
 		boolean illc, skipto80;
-		int i, ii, im1, j, k, k2, kl, klmk, km1, kt, ktm;
+		int i, ii, im1, j, k, k2, kl, klmk, km1, kt, ktm, iteration = 0;
 		double dn, dni, df, f1, h, ldfac, scbd, sf, sl, small, t, t2, vsmall, large, vlarge, m2, m4;
 		final double[] d = new double[n], dk2 = new double[1], lds = new double[1], s = new double[1],
 				value = new double[1], y = new double[n], z = new double[n], zeroes = new double[n];
@@ -129,7 +130,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 		}
 		kt = nl = 0;
 		nf = 1;
-		fx = f.apply(x);
+		fx = f.applyAsDouble(x);
 		qf1 = fx;
 		t = small + Math.abs(t0);
 		t2 = t;
@@ -187,13 +188,13 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 				// DISTRIBUTED IN (0,1)
 				if (illc) {
 					for (i = 1; i <= n; ++i) {
-						s[0] = (0.1 * ldt + t2 * RealMath.pow(10.0, kt)) * (RAND.nextDouble() - 0.5);
+						s[0] = (0.1 * ldt + t2 * RealMath.pow(10.0, kt)) * (myRandom.nextDouble() - 0.5);
 						z[i - 1] = s[0];
 						for (j = 1; j <= n; ++j) {
 							x[j - 1] += s[0] * v[j - 1][i - 1];
 						}
 					}
-					fx = f.apply(x);
+					fx = f.applyAsDouble(x);
 					++nf;
 				}
 
@@ -297,6 +298,12 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 					// RETURN.....
 					return fx;
 				}
+
+				// REPORT THE ITERATION AND STOP IF THE LISTENER ASKS TO
+				++iteration;
+				if (!fireIteration(iteration, nf, 0, fx, ldt)) {
+					return fx;
+				}
 				skipto80 = false;
 			}
 			// THE INNER LOOP ENDS HERE
@@ -402,7 +409,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 		// THE MAIN LOOP ENDS HERE.....
 	}
 
-	private void quad(final int n, final Function<? super double[], Double> f, final double[] x, final double t,
+	private void quad(final int n, final ToDoubleFunction<? super double[]> f, final double[] x, final double t,
 			final double machep, final double h) {
 		int i;
 		final double[] l = new double[1], s = new double[1], value = new double[1];
@@ -441,7 +448,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 	}
 
 	private void min(final int n, final int j, final int nits, final double[] d2, final double[] x1, final double[] f1,
-			final boolean fk, final Function<? super double[], Double> f, final double[] x, final double t,
+			final boolean fk, final ToDoubleFunction<? super double[]> f, final double[] x, final double t,
 			final double machep, final double h) {
 		boolean dz;
 		int i, k;
@@ -583,7 +590,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private double flin(final int n, final int j, final double l, final Function<? super double[], Double> f,
+	private double flin(final int n, final int j, final double l, final ToDoubleFunction<? super double[]> f,
 			final double[] x) {
 		int i;
 		if (j != 0) {
@@ -605,7 +612,7 @@ public final class PraxisAlgorithm extends GradientFreeOptimizer {
 
 		// THE FUNCTION EVALUATION COUNTER NF IS INCREMENTED...
 		++nf;
-		return f.apply(tmp);
+		return f.applyAsDouble(tmp);
 	}
 
 	private static void sort(final int m, final int n, final double[] d, final double[][] v) {
@@ -22,7 +22,7 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.direct;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -77,7 +77,7 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -87,8 +87,9 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
@@ -99,10 +100,10 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 
 		// call main subroutine
 		dsc(func, n, x0, myStep0, myRho, myTol, myMaxEvals, x1, fun, ierr);
-		return new OptimizerSolution<>(x1, fun[0], 0, ierr[0] == 0);
+		return finish(new OptimizerSolution<>(x1, fun[0], 0, ierr[0] == 0));
 	}
 
-	private static void dsc(final Function<? super double[], Double> func, final int n, final double[] x0,
+	private void dsc(final ToDoubleFunction<? super double[]> func, final int n, final double[] x0,
 			final double step0, final double rho, final double eps, final int maxfev, final double[] x1,
 			final int[] fev, final int[] ierr) {
 		final double[][] v = new double[n + 2][n];
@@ -111,7 +112,8 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 		final double[] d = new double[n + 2];
 		final double[] temp = new double[n + 1];
 		final double[] wa = new double[1];
-		int i, ii, jj, j;
+		final double[] fwa = new double[1];
+		int i, ii, jj, j, iteration = 0;
 		double zn, dxn, step, tmp;
 
 		// INITIALIZATION
@@ -129,7 +131,7 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 			// SUGGESTED BY DAVIES, SWANN AND CAMPEY. SEE SWANN (1964) OR
 			// BOX ET AL (1969)
 			wa[0] = step;
-			int err = line_search(func, n, x[i - 1], wa, v[i], x[i], fev, maxfev);
+			int err = line_search(func, n, x[i - 1], wa, v[i], x[i], fwa, fev, maxfev);
 			d[i] = wa[0];
 
 			// REACHED MAXIMUM NUMBER OF EVALUATIONS
@@ -138,6 +140,14 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 				return;
 			}
 
+			// REPORT THE LINE SEARCH AND STOP IF THE LISTENER ASKS TO
+			++iteration;
+			if (!fireIteration(iteration, fev[0], 0, fwa[0], step)) {
+				System.arraycopy(x[i], 0, x1, 0, n);
+				ierr[0] = 1;
+				return;
+			}
+
 			// MAIN LOOP
 			if (i < n) {
 				++i;
@@ -236,8 +246,9 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static int line_search(final Function<? super double[], Double> func, final int n, final double[] pos,
-			final double[] s, final double[] v, final double[] x, final int[] fev, final int maxfev) {
+	private static int line_search(final ToDoubleFunction<? super double[]> func, final int n, final double[] pos,
+			final double[] s, final double[] v, final double[] x, final double[] fval, final int[] fev,
+			final int maxfev) {
 		final double[] x0 = Arrays.copyOf(pos, n);
 		final double[] fs = new double[4];
 		double fx, fx0, num, den, stepf;
@@ -246,12 +257,12 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 
 		// INITIALIZATION
 		goto3 = true;
-		fx0 = func.apply(x0);
+		fx0 = func.applyAsDouble(x0);
 		++fev[0];
 
 		// STEP FORWARD
 		BlasMath.daxpy1(n, s[0], v, 1, x0, 1, x, 1);
-		fx = func.apply(x);
+		fx = func.applyAsDouble(x);
 		++fev[0];
 
 		if (fx > fx0) {
@@ -259,7 +270,7 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 			// STEP BACKWARD
 			BlasMath.daxpym(n, -2.0 * s[0], v, 1, x, 1);
 			s[0] = -s[0];
-			fx = func.apply(x);
+			fx = func.applyAsDouble(x);
 			++fev[0];
 			if (fx > fx0) {
 				goto3 = false;
@@ -274,7 +285,7 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 				System.arraycopy(x, 0, x0, 0, n);
 				fx0 = fx;
 				BlasMath.daxpy1(n, s[0], v, 1, x0, 1, x, 1);
-				fx = func.apply(x);
+				fx = func.applyAsDouble(x);
 				++fev[0];
 				if (fev[0] > maxfev) {
 					return 1;
@@ -288,13 +299,13 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 
 		// GENERATE THE FOUR POSSIBLE INTERPOLATION POINTS AND THE VALUES
 		BlasMath.daxpy1(n, -s[0], v, 1, x0, 1, x, 1);
-		fs[0] = func.apply(x);
+		fs[0] = func.applyAsDouble(x);
 		System.arraycopy(x0, 0, x, 0, n);
-		fs[1] = func.apply(x);
+		fs[1] = func.applyAsDouble(x);
 		BlasMath.daxpy1(n, s[0], v, 1, x0, 1, x, 1);
-		fs[2] = func.apply(x);
+		fs[2] = func.applyAsDouble(x);
 		BlasMath.daxpy1(n, 2.0 * s[0], v, 1, x0, 1, x, 1);
-		fs[3] = func.apply(x);
+		fs[3] = func.applyAsDouble(x);
 		fev[0] += 4;
 
 		// IGNORE THE POINT THAT IS FURTHEST FROM THE MINIMUM OF THE FOUR
@@ -322,12 +333,13 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 			stepf = imin == 0 ? -s[0] : 2.0 * s[0];
 			BlasMath.daxpy1(n, stepf, v, 1, x0, 1, x, 1);
 			s[0] = stepf;
+			fval[0] = fs[imin];
 			return 0;
 		}
 
 		// COMPUTE THE POINT AND FUNCTION VALUE AT THE INTERPOLATED STEP
 		BlasMath.daxpy1(n, stepf, v, 1, x0, 1, x, 1);
-		fx = func.apply(x);
+		fx = func.applyAsDouble(x);
 		++fev[0];
 
 		// IF THIS FUNCTION VALUE EXCEEDS F2, THEN RESTORE THE POINT BACK
@@ -335,8 +347,10 @@ public final class RosenbrockAlgorithm extends GradientFreeOptimizer {
 		if ((imin == 1 && fx > fs[1]) || (imin == 2 && fx > fs[2])) {
 			stepf = imin == 1 ? 0.0 : s[0];
 			BlasMath.daxpy1(n, stepf, v, 1, x0, 1, x, 1);
+			fx = fs[imin];
 		}
 		s[0] = stepf;
+		fval[0] = fx;
 		return 0;
 	}
 
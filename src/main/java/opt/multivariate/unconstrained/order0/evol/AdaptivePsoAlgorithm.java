@@ -23,8 +23,10 @@ package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -47,20 +49,20 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 		final double[] myPBest;
 		double myPBestFit;
 
-		Particle(final double[] pos, final double[] vel) {
+		Particle(final double[] pos, final double[] vel, final double fit) {
 			myPos = pos;
 			myVel = vel;
 			myPBest = Arrays.copyOf(myPos, myD);
-			myFit = myFunc.apply(myPos);
+			myFit = fit;
 			myPBestFit = myFit;
 		}
 
-		final void update() {
+		final void move() {
 
 			// update the velocity and position of this particle (1)-(2)
 			for (int i = 0; i < myD; ++i) {
-				final double r1 = RAND.nextDouble();
-				final double r2 = RAND.nextDouble();
+				final double r1 = myRandom.nextDouble();
+				final double r2 = myRandom.nextDouble();
 				myVel[i] = myVel[i] * myW + myC1 * r1 * (myPBest[i] - myPos[i]) + myC2 * r2 * (myGBest[i] - myPos[i]);
 				myPos[i] += myVel[i];
 			}
@@ -76,9 +78,12 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 
+		}
+
+		final void evaluated(final double fit) {
+
 			// fitness re-evaluation and update best point so far
-			myFit = myFunc.apply(myPos);
-			++myEvals;
+			myFit = fit;
 			if (myFit < myPBestFit) {
 				System.arraycopy(myPos, 0, myPBest, 0, myD);
 				myPBestFit = myFit;
@@ -111,10 +116,12 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 	private double[] myGBest;
 	private double myGBestFit;
 	private int myIWorst;
-	private double[] workp, works, workmu;
+	private double[] workp, works, workmu, workf;
+	private double[][] workx;
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
+	private ToDoubleFunction<? super double[]> myPointFunc;
 	private double[] myLower, myUpper;
 	private int myD;
 
@@ -148,7 +155,12 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -159,8 +171,13 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -199,9 +216,33 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 	 */
 	public final void initialize(final Function<? super double[], Double> func, final double[] lower,
 			final double[] upper) {
+		initialize(BatchObjective.of(func), lower, upper);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lower,
+			final double[] upper) {
+		initialize(BatchObjective.ofDouble(func), lower, upper);
+	}
+
+	/**
+	 * Initializes the swarm uniformly in the box [lower, upper], evaluating the
+	 * initial positions and each later move of the swarm with one call to func.
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public final void initialize(final BatchObjective func, final double[] lower, final double[] upper) {
 
 		// set problem
 		myFunc = func;
+		myPointFunc = func.asFunction();
 		myD = lower.length;
 		myLower = lower;
 		myUpper = upper;
@@ -213,21 +254,28 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 		myIter = myState = 0;
 		myMaxIters = (int) Math.round(myMaxEvals / (1.0 + mySwarmSize));
 
-		// initialize swarm
+		// initialize swarm positions and evaluate them
 		mySwarm = new Particle[mySwarmSize];
+		workx = new double[mySwarmSize][];
+		workf = new double[mySwarmSize];
+		for (int i = 0; i < mySwarmSize; ++i) {
+			final double[] pos = new double[myD];
+			for (int j = 0; j < myD; ++j) {
+				final double r1 = myRandom.nextDouble();
+				pos[j] = myLower[j] + (myUpper[j] - myLower[j]) * r1;
+			}
+			workx[i] = pos;
+		}
+		myFunc.apply(mySwarmSize, workx, workf);
+		myEvals += mySwarmSize;
+
+		// initialize swarm
 		myGBestFit = Double.POSITIVE_INFINITY;
 		int ibest = myIWorst = 0;
 		for (int i = 0; i < mySwarm.length; ++i) {
 
 			// create particle
-			final double[] pos = new double[myD];
-			final double[] vel = new double[myD];
-			for (int j = 0; j < myD; ++j) {
-				final double r1 = RAND.nextDouble();
-				pos[j] = myLower[j] + (myUpper[j] - myLower[j]) * r1;
-			}
-			mySwarm[i] = new Particle(pos, vel);
-			++myEvals;
+			mySwarm[i] = new Particle(workx[i], new double[myD], workf[i]);
 
 			// update best and worst positions
 			if (mySwarm[i].myFit < myGBestFit) {
@@ -255,6 +303,32 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.of(func), lb, ub);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.ofDouble(func), lb, ub);
+	}
+
+	/**
+	 * Minimizes func over the box [lb, ub], evaluating the whole swarm at once.
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] lb,
+			final double[] ub) {
+		start();
 
 		// initialize parameters
 		initialize(func, lb, ub);
@@ -265,6 +339,9 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 
 			// perform a single generation
 			iterate();
+			if (!fireIteration(myIter, myEvals, 0, myGBestFit, Double.NaN)) {
+				break;
+			}
 
 			// converge when distance in fitness between best and worst points
 			// is below the given tolerance
@@ -293,7 +370,7 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 		}
-		return new OptimizerSolution<>(myGBest, myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(myGBest, myEvals, 0, converged));
 	}
 
 	private void updateGlobalBest(final double[] p, final int it, final int itmax) {
@@ -303,9 +380,9 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 		System.arraycopy(myGBest, 0, p, 0, myD);
 
 		// perturb P(d)
-		final int d = RAND.nextInt(myD);
+		final int d = myRandom.nextInt(myD);
 		final double sigma = mySigmaMax - (mySigmaMax - mySigmaMin) * it / itmax;
-		final double gaus = RAND.nextGaussian() * sigma;
+		final double gaus = myRandom.nextGaussian() * sigma;
 		p[d] += (myUpper[d] - myLower[d]) * gaus;
 
 		// make sure P is in the range
@@ -318,7 +395,7 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 		}
 
 		// evaluate P and replace best or worst point if necessary
-		final double nu = myFunc.apply(p);
+		final double nu = myPointFunc.applyAsDouble(p);
 		++myEvals;
 		if (nu < myGBestFit) {
 			System.arraycopy(p, 0, myGBest, 0, myD);
@@ -330,9 +407,14 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 
 	private void updateSwarm() {
 
-		// update the swarm
+		// move the swarm and evaluate the new positions as one generation
 		for (final Particle p : mySwarm) {
-			p.update();
+			p.move();
+		}
+		myFunc.apply(mySwarmSize, workx, workf);
+		myEvals += mySwarmSize;
+		for (int i = 0; i < mySwarmSize; ++i) {
+			mySwarm[i].evaluated(workf[i]);
 		}
 
 		// compute the new global best and worst
@@ -361,8 +443,8 @@ public final class AdaptivePsoAlgorithm extends GradientFreeOptimizer {
 		myW = 1.0 / (1.0 + 1.5 * Math.exp(-2.6 * f));
 
 		// update C1 and C2 in (11)-(12)
-		final double delta1 = 0.05 * (1.0 + RAND.nextDouble());
-		final double delta2 = 0.05 * (1.0 + RAND.nextDouble());
+		final double delta1 = 0.05 * (1.0 + myRandom.nextDouble());
+		final double delta2 = 0.05 * (1.0 + myRandom.nextDouble());
 		switch (state) {
 		case 1:
 			myC1 += delta1;
@@ -28,9 +28,13 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -54,7 +58,8 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	}
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
+	private ToDoubleFunction<? super double[]> myPointFunc;
 	private int myD;
 	private double[] myLower, myUpper;
 
@@ -73,7 +78,8 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 
 	private Solution[] mySols;
 	private double[] myMu, myMuOld, myMuShift, myMuShiftOld;
-	private double[] myTemp, myXAvg;
+	private double[] myTemp, myXAvg, myWorkF;
+	private double[][] myWorkX;
 	private double[][] myCov, myChol;
 
 	// algorithm parameters for multiple runs
@@ -82,6 +88,7 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	private int myS, myRuns, myNBase, myBudget;
 	private double[] myBestX;
 	private double myBestF, myBestFRun, myBestFRunOld;
+	private Executor myExecutor;
 
 	/**
 	 * 
@@ -118,8 +125,24 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 		this(toleranceSigmaF, toleranceGlobalF, maxEvaluations, 0, useIAmalgam, true, printProgress);
 	}
 
+	/**
+	 * Sets the executor used to run the independent runs of each round of the
+	 * parameter-free mode concurrently. Pass null to run them one after another.
+	 * The objective must be safe to call from multiple threads.
+	 * 
+	 * @param executor
+	 */
+	public final void setExecutor(final Executor executor) {
+		myExecutor = executor;
+	}
+
+	@Override
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -131,8 +154,13 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -178,7 +206,7 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 
 		// re-sample parameters
 		final int ibest = samplePopulation(mySols, myPopSize, myD, myMu, myChol, myNAms, myDeltaAms, myCMult, myMuShift,
-				myTemp, myFunc);
+				myTemp, myWorkX, myWorkF, myFunc);
 		myEvals += myPopSize;
 
 		// update the rest of the parameters
@@ -212,9 +240,32 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	 * @param upper
 	 */
 	public void initialize(final Function<? super double[], Double> func, final double[] lower, final double[] upper) {
+		initialize(BatchObjective.of(func), lower, upper);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lower, final double[] upper) {
+		initialize(BatchObjective.ofDouble(func), lower, upper);
+	}
+
+	/**
+	 * Initializes the search in the box [lower, upper] with an objective that
+	 * evaluates each generation of every run in a single call.
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public void initialize(final BatchObjective func, final double[] lower, final double[] upper) {
 
 		// prepare problem
 		myFunc = func;
+		myPointFunc = func.asFunction();
 		myLower = lower;
 		myUpper = upper;
 		myD = lower.length;
@@ -286,13 +337,19 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 
 		// initialize the population
 		mySols = new Solution[myPopSize];
+		myWorkX = new double[myPopSize][];
+		myWorkF = new double[myPopSize];
 		for (int m = 0; m < myPopSize; ++m) {
 			mySols[m] = new Solution();
 			mySols[m].x = new double[myD];
 			for (int i = 0; i < myD; ++i) {
-				mySols[m].x[i] = myLower[i] + (myUpper[i] - myLower[i]) * RAND.nextDouble();
+				mySols[m].x[i] = myLower[i] + (myUpper[i] - myLower[i]) * myRandom.nextDouble();
 			}
-			mySols[m].fx = myFunc.apply(mySols[m].x);
+			myWorkX[m] = mySols[m].x;
+		}
+		myFunc.apply(myPopSize, myWorkX, myWorkF);
+		for (int m = 0; m < myPopSize; ++m) {
+			mySols[m].fx = myWorkF[m];
 		}
 		myEvals += myPopSize;
 		Arrays.sort(mySols);
@@ -332,17 +389,50 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	 */
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lower, final double[] upper) {
+		return optimize(BatchObjective.of(func), lower, upper);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lower, final double[] upper) {
+		return optimize(BatchObjective.ofDouble(func), lower, upper);
+	}
+
+	/**
+	 * Minimizes func over the box [lower, upper], handing each generation to
+	 * func at once.
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] lower,
+			final double[] upper) {
+		start();
 		initialize(func, lower, upper);
 		while (true) {
 			iterate();
-			if (isConverged()) {
+			final boolean proceed;
+			if (myParamFree) {
+				proceed = fireIteration(myS, myEvals, 0, myBestF, Double.NaN);
+			} else {
+				proceed = fireIteration(myT, myEvals, 0, mySols[0].fx, myCMult);
+			}
+			if (!proceed || isConverged()) {
 				final double[] sol;
 				if (myParamFree) {
 					sol = myBestX;
 				} else {
 					sol = mySols[0].x;
 				}
-				return new OptimizerSolution<>(sol, myEvals, 0, myEvals < myMaxEvals);
+				return finish(new OptimizerSolution<>(sol, myEvals, 0, proceed && myEvals < myMaxEvals));
 			}
 		}
 	}
@@ -353,31 +443,68 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 		myBestFRunOld = myBestFRun;
 		myBestFRun = Double.POSITIVE_INFINITY;
 
-		for (int r = 1; r <= myRuns; ++r) {
+		// draw the seeds up front so the runs do not depend on scheduling
+		final long[] seeds = new long[myRuns];
+		for (int r = 0; r < myRuns; ++r) {
+			seeds[r] = myRandom.nextLong();
+		}
 
-			// initialize the optimizer
-			final AmalgamAlgorithm algr = new AmalgamAlgorithm(myTol, 0, myBudget, myPopSize, myIamalgam, false, false);
+		// the runs draw from a shared budget and all stop once it is spent
+		final AtomicInteger budget = new AtomicInteger(myBudget);
 
-			// perform the optimization
-			final OptimizerSolution<double[], Double> sol = algr.optimize(myFunc, myLower, myUpper);
-			myEvals += sol.getFEvals();
-			myBudget -= sol.getFEvals();
-			final double[] optr = sol.getOptimalPoint();
+		// perform the runs
+		final double[][] optx = new double[myRuns][];
+		final double[] optf = new double[myRuns];
+		final int[] fevs = new int[myRuns];
+		if (myExecutor == null) {
+			for (int r = 0; r < myRuns; ++r) {
+				run(r, seeds[r], budget.get(), budget, optx, optf, fevs);
+			}
+		} else {
+			final int cap = budget.get();
+			final Runnable[] tasks = new Runnable[myRuns];
+			for (int r = 0; r < myRuns; ++r) {
+				final int j = r;
+				tasks[r] = () -> run(j, seeds[j], cap, budget, optx, optf, fevs);
+			}
+			runAll(tasks, myExecutor);
+		}
 
-			// get the best fitness
-			final double fitr = myFunc.apply(optr);
-			++myEvals;
-			--myBudget;
+		// reduce in run order so that ties are broken the same way every time
+		for (int r = 0; r < myRuns; ++r) {
+			myEvals += fevs[r] + 1;
 
 			// update local best solution found on this run
-			myBestFRun = Math.min(myBestFRun, fitr);
+			myBestFRun = Math.min(myBestFRun, optf[r]);
 
 			// update global best solution found
-			if (fitr < myBestF) {
-				myBestF = fitr;
-				myBestX = optr;
+			if (optf[r] < myBestF) {
+				myBestF = optf[r];
+				myBestX = optx[r];
 			}
 		}
+		myBudget = budget.get();
+	}
+
+	private void run(final int r, final long seed, final int cap, final AtomicInteger budget, final double[][] optx,
+			final double[] optf, final int[] fevs) {
+
+		// initialize the optimizer
+		final AmalgamAlgorithm algr = new AmalgamAlgorithm(myTol, 0, cap, myPopSize, myIamalgam, false, false);
+		algr.setSeed(seed);
+		shareStopConditions(algr);
+
+		// charge each iteration to the shared budget, and stop when it runs out
+		algr.setIterationListener(chargeTo(budget));
+
+		// perform the optimization
+		final OptimizerSolution<double[], Double> sol = algr.optimize(myFunc, myLower, myUpper);
+		fevs[r] = sol.getFEvals();
+		optx[r] = sol.getOptimalPoint();
+
+		// get the best fitness
+		optf[r] = myPointFunc.applyAsDouble(optx[r]);
+		budget.decrementAndGet();
 	}
 
 	private boolean isConverged() {
@@ -509,14 +636,14 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static int samplePopulation(final Solution[] sols, final int n, final int d, final double[] mu,
+	private int samplePopulation(final Solution[] sols, final int n, final int d, final double[] mu,
 			final double[][] cholf, final int nams, final double delams, final double cmult, final double[] mushift,
-			final double[] temp, final Function<? super double[], Double> func) {
+			final double[] temp, final double[][] workx, final double[] workf, final BatchObjective func) {
 
 		// sample from the estimated normal distribution
 		for (final Solution sol : sols) {
 			for (int i = 0; i < d; ++i) {
-				temp[i] = RAND.nextGaussian();
+				temp[i] = myRandom.nextGaussian();
 			}
 			for (int i = 0; i < d; ++i) {
 				sol.x[i] = mu[i];
@@ -533,9 +660,13 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 
 		// perform the fitness evaluation
 		// find an element that has a better fitness than the best
+		for (int m = 1; m < n; ++m) {
+			workx[m - 1] = sols[m].x;
+		}
+		func.apply(n - 1, workx, workf);
 		int ibest = 0;
 		for (int m = 1; m < n; ++m) {
-			sols[m].fx = func.apply(sols[m].x);
+			sols[m].fx = workf[m - 1];
 			if (sols[m].fx < sols[0].fx) {
 				ibest = m;
 			}
@@ -621,9 +752,9 @@ public final class AmalgamAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@SafeVarargs
-	private static final <T> void shuffle(final int i1, final int i2, final T... arr) {
+	private final <T> void shuffle(final int i1, final int i2, final T... arr) {
 		for (int i = i2; i > i1; --i) {
-			final int index = RAND.nextInt(i - i1 + 1) + i1;
+			final int index = myRandom.nextInt(i - i1 + 1) + i1;
 			swap(arr, index, i);
 		}
 	}
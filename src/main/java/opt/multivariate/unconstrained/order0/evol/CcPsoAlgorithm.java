@@ -22,6 +22,7 @@ SOFTWARE.
 package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -38,7 +39,7 @@ import utils.BlasMath;
 public class CcPsoAlgorithm extends GradientFreeOptimizer {
 
 	// function properties
-	private Function<? super double[], Double> myFunc;
+	private ToDoubleFunction<? super double[]> myFunc;
 	private double[] myLower, myUpper;
 	private int myD;
 	private int myEvals;
@@ -116,14 +117,14 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
 			lo[i] = guess[i] - 4.0;
 			hi[i] = guess[i] + 4.0;
 		}
-		initialize(func, lo, hi);
+		initializeDouble(func, lo, hi);
 	}
 
 	@Override
@@ -152,7 +153,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
@@ -160,7 +161,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 			lo[i] = guess[i] - 4.0;
 			hi[i] = guess[i] + 4.0;
 		}
-		return optimize(func, lo, hi);
+		return optimizeDouble(func, lo, hi);
 	}
 
 	/**
@@ -170,6 +171,16 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 	 * @param upper
 	 */
 	public void initialize(final Function<? super double[], Double> func, final double[] lower, final double[] upper) {
+		initializeDouble(func::apply, lower, upper);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lower, final double[] upper) {
 
 		// initialize domain
 		myFunc = func;
@@ -208,14 +219,30 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 	 */
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lower, final double[] upper) {
+		return optimizeDouble(func::apply, lower, upper);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lower, final double[] upper) {
+		start();
 
 		// initialization
-		initialize(func, lower, upper);
+		initializeDouble(func, lower, upper);
 
 		// main loop
 		boolean converged = false;
 		for (myGenr = 0; myGenr < Integer.MAX_VALUE; ++myGenr) {
 			iterate();
+			if (!fireIteration(myGenr + 1, myEvals, 0, myBestFit, Double.NaN)) {
+				break;
+			}
 
 			// check max number of evaluations
 			if (myEvals >= myMaxEvals) {
@@ -256,13 +283,13 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 		}
-		return new OptimizerSolution<>(myBestPos, myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(myBestPos, myEvals, 0, converged));
 	}
 
 	private void randomizeComponents() {
 
 		// sample an s at random, the number of components per swarm
-		myIs = RAND.nextInt(myS.length);
+		myIs = myRandom.nextInt(myS.length);
 		myCompsPerSwarm = myS[myIs];
 		mySwarmCount = myD / myCompsPerSwarm;
 
@@ -288,7 +315,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 		// initialize the particles in all swarms in range [lb, ub]
 		for (int ip = 0; ip < mySwarmSize; ++ip) {
 			for (int i = 0; i < myD; ++i) {
-				final double c = RAND.nextDouble();
+				final double c = myRandom.nextDouble();
 				myPos[ip][i] = myLower[i] + c * (myUpper[i] - myLower[i]);
 			}
 			System.arraycopy(myPos[ip], 0, myPersBestPos[ip], 0, myD);
@@ -298,7 +325,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 		myBestFit = Double.POSITIVE_INFINITY;
 		int bestip = -1;
 		for (int ip = 0; ip < mySwarmSize; ++ip) {
-			final double fit = myFunc.apply(myPos[ip]);
+			final double fit = myFunc.applyAsDouble(myPos[ip]);
 			++myEvals;
 			if (fit < myBestFit) {
 				myBestFit = fit;
@@ -375,7 +402,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 			for (final int i : myK[is]) {
 				myBestPos[i] = mySwarmBestPos[i];
 			}
-			myBestFit = myFunc.apply(myBestPos);
+			myBestFit = myFunc.applyAsDouble(myBestPos);
 			++myEvals;
 		}
 	}
@@ -385,7 +412,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 
 			// decide whether the next sample will come from a Cauchy or Gaussian
 			// distribution
-			final double rand = RAND.nextDouble();
+			final double rand = myRandom.nextDouble();
 			final boolean cauchy = rand <= myF;
 
 			// evolve the particle
@@ -397,7 +424,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 				}
 			} else {
 				for (final int i : myK[is]) {
-					final double c = RAND.nextGaussian();
+					final double c = myRandom.nextGaussian();
 					final double dist = myPersBestPos[ip][i] - myLocalBestPos[ip][i];
 					myPos[ip][i] = myLocalBestPos[ip][i] + c * Math.abs(dist);
 				}
@@ -408,7 +435,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 			if (myApplyBoundsConstr) {
 				for (final int i : myK[is]) {
 					if (myPos[ip][i] < myLower[i] || myPos[ip][i] > myUpper[i]) {
-						final double c = RAND.nextDouble();
+						final double c = myRandom.nextDouble();
 						myPos[ip][i] = myLower[i] + c * (myUpper[i] - myLower[i]);
 					}
 				}
@@ -426,7 +453,7 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 		}
 
 		// evaluate function at the modified vector
-		final double fit = myFunc.apply(mySwarmBestPos);
+		final double fit = myFunc.applyAsDouble(mySwarmBestPos);
 		++myEvals;
 
 		// restore the swarm best position
@@ -452,13 +479,13 @@ public class CcPsoAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static double cauchy() {
-		return Math.tan(Math.PI * (RAND.nextDouble() - 0.5));
+	private double cauchy() {
+		return Math.tan(Math.PI * (myRandom.nextDouble() - 0.5));
 	}
 
-	private static final void shuffle(final int... arr) {
+	private final void shuffle(final int... arr) {
 		for (int i = arr.length - 1; i > 0; --i) {
-			final int index = RAND.nextInt(i + 1);
+			final int index = myRandom.nextInt(i + 1);
 			swap(arr, index, i);
 		}
 	}
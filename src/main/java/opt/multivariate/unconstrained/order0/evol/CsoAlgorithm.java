@@ -23,8 +23,10 @@ package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -57,13 +59,13 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 		Particle myLeft;
 		Particle myRight;
 
-		Particle(final double[] pos, final double[] vel) {
+		Particle(final double[] pos, final double[] vel, final double fit) {
 			myPos = pos;
 			myVel = vel;
-			myFit = myFunc.apply(myPos);
+			myFit = fit;
 		}
 
-		final void competeWith(final Particle other) {
+		final Particle competeWith(final Particle other) {
 
 			// find the loser
 			final Particle loser;
@@ -80,9 +82,9 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 			for (int i = 0; i < myD; ++i) {
 
 				// velocity update (6)
-				final double r1 = RAND.nextDouble();
-				final double r2 = RAND.nextDouble();
-				final double r3 = RAND.nextDouble();
+				final double r1 = myRandom.nextDouble();
+				final double r2 = myRandom.nextDouble();
+				final double r3 = myRandom.nextDouble();
 				loser.myVel[i] = r1 * loser.myVel[i] + r2 * (winner.myPos[i] - loser.myPos[i])
 						+ myPhi * r3 * (loser.myMean[i] - loser.myPos[i]);
 
@@ -106,8 +108,7 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 
-			// update the fitness of the loser
-			loser.myFit = myFunc.apply(loser.myPos);
+			return loser;
 		}
 	}
 
@@ -115,10 +116,12 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 	private final boolean myUseRingTopology, myCorrectInBox;
 	private final double myPhi, mySigmaTol;
 	private final int mySize, myMaxEvals;
-	private final Particle[] mySwarm;
+	private final Particle[] mySwarm, myLosers;
+	private final double[][] workx;
+	private final double[] workf;
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
 	private int myD;
 	private double[] myMean, myLower, myUpper;
 	private Particle myBest, myWorst;
@@ -141,6 +144,9 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 		mySigmaTol = stdevTolerance;
 		mySize = ((swarmSize & 1) == 0) ? swarmSize : swarmSize + 1;
 		mySwarm = new Particle[mySize];
+		myLosers = new Particle[mySize >>> 1];
+		workx = new double[mySize][];
+		workf = new double[mySize];
 		myPhi = phi;
 		myMaxEvals = maxEvaluations;
 		myUseRingTopology = useRingTopology;
@@ -186,7 +192,12 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -197,8 +208,13 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -219,7 +235,14 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 		final int halfm = mySize >>> 1;
 		for (int i = 0; i < halfm; ++i) {
 			final int j = i + halfm;
-			mySwarm[i].competeWith(mySwarm[j]);
+			myLosers[i] = mySwarm[i].competeWith(mySwarm[j]);
+			workx[i] = myLosers[i].myPos;
+		}
+
+		// update the fitness of the losers
+		myFunc.apply(halfm, workx, workf);
+		for (int i = 0; i < halfm; ++i) {
+			myLosers[i].myFit = workf[i];
 		}
 		myEvals += halfm;
 
@@ -259,6 +282,28 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 	 * @param ub
 	 */
 	public final void initialize(final Function<? super double[], Double> func, final double[] lb, final double[] ub) {
+		initialize(BatchObjective.of(func), lb, ub);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 */
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lb, final double[] ub) {
+		initialize(BatchObjective.ofDouble(func), lb, ub);
+	}
+
+	/**
+	 * Initializes the swarm in the box [lb, ub] with an objective that evaluates
+	 * the initial swarm, and the losers of each round, in a single call.
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 */
+	public final void initialize(final BatchObjective func, final double[] lb, final double[] ub) {
 
 		// initialize function
 		myFunc = func;
@@ -274,14 +319,19 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 			for (int j = 0; j < myD; ++j) {
 
 				// randomly initialize position within the search space
-				final double r = RAND.nextDouble();
+				final double r = myRandom.nextDouble();
 				x[j] = (myUpper[j] - myLower[j]) * r + myLower[j];
 
 				// set velocity initially to zero to reduce the chance the
 				// particle leaves the boundary in subsequent iterations
 				v[j] = 0.0;
 			}
-			mySwarm[i] = new Particle(x, v);
+			workx[i] = x;
+			mySwarm[i] = new Particle(x, v, Double.NaN);
+		}
+		myFunc.apply(mySize, workx, workf);
+		for (int i = 0; i < mySize; ++i) {
+			mySwarm[i].myFit = workf[i];
 		}
 		myEvals += mySize;
 
@@ -318,16 +368,48 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.of(func), lb, ub);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.ofDouble(func), lb, ub);
+	}
+
+	/**
+	 * Minimizes func over the box [lb, ub], evaluating the losers of each round
+	 * together.
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] lb,
+			final double[] ub) {
+		start();
 
 		// initialize parameters
 		initialize(func, lb, ub);
 
 		// main iteration loop over generations
 		boolean converged = false;
+		int iteration = 0;
 		while (myEvals < myMaxEvals) {
 
 			// perform a single generation
 			iterate();
+			++iteration;
+			if (!fireIteration(iteration, myEvals, 0, myBest.myFit, Double.NaN)) {
+				break;
+			}
 
 			// converge when distance in fitness between best and worst points
 			// is below the given tolerance
@@ -356,13 +438,14 @@ public final class CsoAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 		}
-		return new OptimizerSolution<>(myBest == null ? null : myBest.myPos, myEvals, 0, myBest != null && converged);
+		return finish(
+				new OptimizerSolution<>(myBest == null ? null : myBest.myPos, myEvals, 0, myBest != null && converged));
 	}
 
 	@SafeVarargs
-	private static final <T> void shuffle(final T... arr) {
+	private final <T> void shuffle(final T... arr) {
 		for (int i = arr.length - 1; i > 0; --i) {
-			final int index = RAND.nextInt(i + 1);
+			final int index = myRandom.nextInt(i + 1);
 			swap(arr, index, i);
 		}
 	}
@@ -26,8 +26,10 @@ package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -73,7 +75,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	private final double mySigmaTol;
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
 	private int myD;
 	private double[] myLower, myUpper;
 
@@ -114,7 +116,12 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -130,11 +137,11 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		// SETTING OF ALGORITHMIC CONTROL PARAMETERS
 		// Trial-pattern generation strategy for morphogenesis;
 		// 'one-or-more morphogenesis'. (DEFAULT)
-		final double p1 = 0.3 * RAND.nextDouble();
-		final double p2 = 0.3 * RAND.nextDouble();
+		final double p1 = 0.3 * myRandom.nextDouble();
+		final double p2 = 0.3 * myRandom.nextDouble();
 
 		// sample a method
-		final int imethd = RAND.nextInt(myMethods.length);
+		final int imethd = myRandom.nextInt(myMethods.length);
 		final int methd = myMethods[imethd];
 
 		// search direction
@@ -149,7 +156,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		// R=lognrnd(rand,5*rand); % brownian walk
 		// R=1/normrnd(0,5); % pseudo-stable walk
 		// we use pseudo-stable walk
-		final double R = 1.0 / (-2.0 * Math.log(RAND.nextDouble()));
+		final double R = 1.0 / (-2.0 * Math.log(myRandom.nextDouble()));
 
 		// bio-interaction (morphogenesis)
 		for (int i = 0; i < mySwarmSize; ++i) {
@@ -162,8 +169,8 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		update(stopover, myLower, myUpper);
 
 		// Selection-II
+		myFunc.apply(mySwarmSize, stopover, fit_stopover);
 		for (int i = 0; i < mySwarmSize; ++i) {
-			fit_stopover[i] = myFunc.apply(stopover[i]);
 			if (fit_stopover[i] < fit_super[i]) {
 				fit_super[i] = fit_stopover[i];
 				System.arraycopy(stopover[i], 0, superorganism[i], 0, myD);
@@ -173,8 +180,13 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -191,6 +203,28 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	 * @param upper
 	 */
 	public void initialize(final Function<? super double[], Double> func, final double[] lower, final double[] upper) {
+		initialize(BatchObjective.of(func), lower, upper);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lower, final double[] upper) {
+		initialize(BatchObjective.ofDouble(func), lower, upper);
+	}
+
+	/**
+	 * Initializes the superorganism in the box [lower, upper] with an objective
+	 * that evaluates all stopover sites of a generation in one call.
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 */
+	public void initialize(final BatchObjective func, final double[] lower, final double[] upper) {
 
 		// set functions
 		myFunc = func;
@@ -204,9 +238,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 
 		// success of clans/superorganism
 		fit_super = new double[mySwarmSize];
-		for (int i = 0; i < mySwarmSize; ++i) {
-			fit_super[i] = myFunc.apply(superorganism[i]);
-		}
+		myFunc.apply(mySwarmSize, superorganism, fit_super);
 		myEvals += mySwarmSize;
 
 		// I have moved this here and implemented native copy operations
@@ -228,20 +260,52 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	 */
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] lower, final double[] upper) {
+		return optimize(BatchObjective.of(func), lower, upper);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] lower, final double[] upper) {
+		return optimize(BatchObjective.ofDouble(func), lower, upper);
+	}
+
+	/**
+	 * Minimizes func over the box [lower, upper], evaluating the stopover sites
+	 * of each generation together.
+	 * 
+	 * @param func
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] lower,
+			final double[] upper) {
+		start();
 
 		// initialization of swarm
 		initialize(func, lower, upper);
 
 		// main loop
 		boolean converged = false;
+		int iteration = 0;
 		while (myEvals < myMaxEvals) {
 
 			// perform iteration
 			iterate();
+			++iteration;
+			final int imin = argmin(mySwarmSize, fit_super);
+			if (!fireIteration(iteration, myEvals, 0, fit_super[imin], Double.NaN)) {
+				break;
+			}
 
 			// converge when distance in fitness between best and worst points
 			// is below the given tolerance
-			final int imin = argmin(mySwarmSize, fit_super);
 			final int imax = argmax(fit_super);
 			final double best = fit_super[imin];
 			final double worst = fit_super[imax];
@@ -274,10 +338,10 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		// update results
 		final int imin = argmin(mySwarmSize, fit_super);
 		final double[] sol = superorganism[imin];
-		return new OptimizerSolution<>(sol, myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(sol, myEvals, 0, converged));
 	}
 
-	private static double[][] generate_dir(final double[][] direction, final int method, final double[][] superorganism,
+	private double[][] generate_dir(final double[][] direction, final int method, final double[][] superorganism,
 			final int size, final double[] fit, final Integer[] jind) {
 		switch (method) {
 		case 1:
@@ -303,9 +367,9 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 				jind[i] = i;
 			}
 			Arrays.sort(jind, (i, j) -> Double.compare(fit[i], fit[j]));
-			final int nums = (int) Math.ceil(RAND.nextDouble() * size);
+			final int nums = (int) Math.ceil(myRandom.nextDouble() * size);
 			for (int i = 0; i < size; ++i) {
-				final int j = RAND.nextInt(nums);
+				final int j = myRandom.nextInt(nums);
 				direction[i] = superorganism[j];
 			}
 			break;
@@ -318,7 +382,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 				jind[i] = i;
 			}
 			Arrays.sort(jind, (i, j) -> Double.compare(fit[i], fit[j]));
-			final int nums1 = Math.min((int) Math.ceil(RAND.nextDouble() * size), size - 1);
+			final int nums1 = Math.min((int) Math.ceil(myRandom.nextDouble() * size), size - 1);
 			final int ibest = jind[nums1];
 			for (int i = 0; i < size; ++i) {
 				direction[i] = superorganism[ibest];
@@ -338,17 +402,17 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		return direction;
 	}
 
-	private static double[][] generate_pop(final int a, final int b, final double[] low, final double[] up) {
+	private double[][] generate_pop(final int a, final int b, final double[] low, final double[] up) {
 		final double[][] pop = new double[a][b];
 		for (int i = 1; i <= a; ++i) {
 			for (int j = 1; j <= b; ++j) {
-				pop[i - 1][j - 1] = RAND.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
+				pop[i - 1][j - 1] = myRandom.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
 			}
 		}
 		return pop;
 	}
 
-	private static void update(final double[][] p, final double[] low, final double[] up) {
+	private void update(final double[][] p, final double[] low, final double[] up) {
 		final int popsize = p.length;
 		final int dim = p[0].length;
 		for (int i = 1; i <= popsize; ++i) {
@@ -356,15 +420,15 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 
 				// first (standard)-method
 				if (p[i - 1][j - 1] < low[j - 1]) {
-					if (RAND.nextDouble() < RAND.nextDouble()) {
-						p[i - 1][j - 1] = RAND.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
+					if (myRandom.nextDouble() < myRandom.nextDouble()) {
+						p[i - 1][j - 1] = myRandom.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
 					} else {
 						p[i - 1][j - 1] = low[j - 1];
 					}
 				}
 				if (p[i - 1][j - 1] > up[j - 1]) {
-					if (RAND.nextDouble() < RAND.nextDouble()) {
-						p[i - 1][j - 1] = RAND.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
+					if (myRandom.nextDouble() < myRandom.nextDouble()) {
+						p[i - 1][j - 1] = myRandom.nextDouble() * (up[j - 1] - low[j - 1]) + low[j - 1];
 					} else {
 						p[i - 1][j - 1] = up[j - 1];
 					}
@@ -373,17 +437,17 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static int[][] generate_map(final int[][] map, final int size_super, final int size_clan, final double p1,
+	private int[][] generate_map(final int[][] map, final int size_super, final int size_clan, final double p1,
 			final double p2) {
 
 		// strategy-selection of active/passive individuals
-		if (RAND.nextDouble() < RAND.nextDouble()) {
-			if (RAND.nextDouble() < p1) {
+		if (myRandom.nextDouble() < myRandom.nextDouble()) {
+			if (myRandom.nextDouble() < p1) {
 
 				// Random-mutation #1 strategy
 				for (int i = 0; i < size_super; ++i) {
 					for (int j = 0; j < size_clan; ++j) {
-						if (RAND.nextDouble() < RAND.nextDouble()) {
+						if (myRandom.nextDouble() < myRandom.nextDouble()) {
 							map[i][j] = 1;
 						} else {
 							map[i][j] = 0;
@@ -394,7 +458,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 
 				// Differential-mutation strategy
 				for (int i = 0; i < size_super; ++i) {
-					final int j = RAND.nextInt(size_clan);
+					final int j = myRandom.nextInt(size_clan);
 					Arrays.fill(map[i], 0);
 					map[i][j] = 1;
 				}
@@ -406,7 +470,7 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 			for (int i = 0; i < size_super; ++i) {
 				Arrays.fill(map[i], 0);
 				for (int k = 0; k < mapmax; ++k) {
-					final int j = RAND.nextInt(size_clan);
+					final int j = myRandom.nextInt(size_clan);
 					map[i][j] = 1;
 				}
 			}
@@ -446,9 +510,9 @@ public final class DifferentialSearchAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@SafeVarargs
-	private static final <T> void shuffle(final T... arr) {
+	private final <T> void shuffle(final T... arr) {
 		for (int i = arr.length - 1; i > 0; --i) {
-			final int index = RAND.nextInt(i + 1);
+			final int index = myRandom.nextInt(i + 1);
 			swap(arr, index, i);
 		}
 	}
@@ -25,8 +25,10 @@ package opt.multivariate.unconstrained.order0.evol;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 
 /**
@@ -45,14 +47,15 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 	}
 
 	// problem parameters
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
 	private int myD;
 	private double[] myLo, myHi, myGuess;
 	private Comparator<Individual> myComparer;
 
 	// algorithm parameters
 	private final int myMaxEvals, np, no;
-	private double[] vetor;
+	private double[] vetor, workf;
+	private double[][] workx;
 
 	// algorithm memory
 	private Individual[] esparents, esoffsprings, estotal;
@@ -72,7 +75,12 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -89,9 +97,9 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 		 * Crossover
 		 **************************************/
 		for (int id = 0; id < no; ++id) {
-			final int parent1 = RAND.nextInt(np);
-			final int parent2 = RAND.nextInt(np);
-			final int crosspoint = RAND.nextInt(myD);
+			final int parent1 = myRandom.nextInt(np);
+			final int parent2 = myRandom.nextInt(np);
+			final int crosspoint = myRandom.nextInt(myD);
 			for (int item = 0; item < crosspoint; ++item) {
 				esoffsprings[id].parameters[item] = esparents[parent1].parameters[item];
 			}
@@ -108,8 +116,8 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 			totalmutation = 1;
 		}
 		for (int contmutation = 0; contmutation < totalmutation; ++contmutation) {
-			final int idoffmutation = RAND.nextInt(no);
-			final int paramoffmutation = RAND.nextInt(myD);
+			final int idoffmutation = myRandom.nextInt(no);
+			final int paramoffmutation = myRandom.nextInt(myD);
 			vetor[1] = myLo[paramoffmutation];
 			vetor[2] = myHi[paramoffmutation];
 			vetor[7] += contmutation;
@@ -120,7 +128,11 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 		 * Offsprings fitness evaluation
 		 **************************************/
 		for (int id = 0; id < no; ++id) {
-			esoffsprings[id].fitness = myFunc.apply(esoffsprings[id].parameters);
+			workx[id] = esoffsprings[id].parameters;
+		}
+		myFunc.apply(no, workx, workf);
+		for (int id = 0; id < no; ++id) {
+			esoffsprings[id].fitness = workf[id];
 			estotal[id + np].fitness = esoffsprings[id].fitness;
 		}
 		myEvals += no;
@@ -140,8 +152,13 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -160,7 +177,34 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 	 */
 	public void initialize(final Function<? super double[], Double> f, final double[] guess, final double[] lb,
 			final double[] ub) {
+		initialize(BatchObjective.of(f), guess, lb, ub);
+	}
+
+	/**
+	 * 
+	 * @param f
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 */
+	public void initializeDouble(final ToDoubleFunction<? super double[]> f, final double[] guess, final double[] lb,
+			final double[] ub) {
+		initialize(BatchObjective.ofDouble(f), guess, lb, ub);
+	}
+
+	/**
+	 * Initializes the parents in the box [lb, ub] with an objective that
+	 * evaluates each generation of offspring in a single call.
+	 * 
+	 * @param f
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 */
+	public void initialize(final BatchObjective f, final double[] guess, final double[] lb, final double[] ub) {
 		vetor = new double[8];
+		workx = new double[Math.max(np, no)][];
+		workf = new double[Math.max(np, no)];
 
 		// set parameters
 		myFunc = f;
@@ -226,7 +270,11 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 		 * Parents fitness evaluation
 		 **************************************/
 		for (int id = 0; id < np; ++id) {
-			esparents[id].fitness = f.apply(esparents[id].parameters);
+			workx[id] = esparents[id].parameters;
+		}
+		f.apply(np, workx, workf);
+		for (int id = 0; id < np; ++id) {
+			esparents[id].fitness = workf[id];
 			estotal[id].fitness = esparents[id].fitness;
 		}
 		myEvals = np;
@@ -242,19 +290,53 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 	 */
 	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] guess, final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.of(func), guess, lb, ub);
+	}
+
+	/**
+	 * 
+	 * @param func
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] guess, final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.ofDouble(func), guess, lb, ub);
+	}
+
+	/**
+	 * Minimizes func over the box [lb, ub], evaluating all offspring of a
+	 * generation at once.
+	 * 
+	 * @param func
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess,
+			final double[] lb, final double[] ub) {
+		start();
 		initialize(func, guess, lb, ub);
+		int iteration = 0;
 		while (myEvals < myMaxEvals) {
 			iterate();
+			++iteration;
+			if (!fireIteration(iteration, myEvals, 0, esparents[0].fitness, Double.NaN)) {
+				break;
+			}
 		}
 		// TODO: check convergence
-		return new OptimizerSolution<>(esparents[0].parameters, myEvals, 0, false);
+		return finish(new OptimizerSolution<>(esparents[0].parameters, myEvals, 0, false));
 	}
 
 	private static int compare(final Individual a, final Individual b) {
 		return Double.compare(a.fitness, b.fitness);
 	}
 
-	private static double randcauchy(final double[] params) {
+	private double randcauchy(final double[] params) {
 		double na_unif, cauchy_mit, limit_inf, limit_sup;
 		double valor;
 		double min = params[1];
@@ -265,7 +347,7 @@ public final class EschAlgorithm extends GradientFreeOptimizer {
 		limit_inf = mi - band * 0.5;
 		limit_sup = mi + band * 0.5;
 		do {
-			na_unif = Math.random();
+			na_unif = myRandom.nextDouble();
 			cauchy_mit = t * Math.tan((na_unif - 0.5) * Math.PI) + mi;
 		} while (cauchy_mit < limit_inf || cauchy_mit > limit_sup);
 		if (cauchy_mit < 0.0) {
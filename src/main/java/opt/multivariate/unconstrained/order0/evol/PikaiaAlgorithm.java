@@ -27,9 +27,10 @@
 package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.RealMath;
 
@@ -63,6 +64,7 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 			jfit = new int[PMAX];
 
 	private FF ff;
+	private BatchObjective myFunc;
 	private int n;
 	private double[] ctrl;
 	private int myEvals = 0;
@@ -123,10 +125,17 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final void initialize(final BatchObjective func, final double[] guess) {
 
 		n = guess.length;
-		ff = (pn, px) -> -func.apply(px);
+		myFunc = func;
+		final ToDoubleFunction<? super double[]> pfunc = func.asFunction();
+		ff = (pn, px) -> -pfunc.applyAsDouble(px);
 
 		// Set control variables from input and defaults
 		setctl(ctrl, n, np, ngen, nd, pcross, pmutmn, pmutmx, pmut, imut, fdif, irep, ielite, ivrb, status);
@@ -143,10 +152,10 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		// Compute initial (random but bounded) phenotypes
 		for (ip = 1; ip <= np[0]; ++ip) {
 			for (k = 1; k <= n; ++k) {
-				oldph[ip - 1][k - 1] = RAND.nextDouble();
+				oldph[ip - 1][k - 1] = myRandom.nextDouble();
 			}
-			fitns[ip - 1] = ff.ff(n, oldph[ip - 1]);
 		}
+		evalpop(myFunc, np[0], oldph, fitns);
 		myEvals = np[0];
 
 		// Rank initial population by fitness order
@@ -195,7 +204,7 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		// if running full generational replacement: swap populations
 		if (irep[0] == 1) {
 			final int[] fev = new int[1];
-			newpop(ff, ielite[0], NMAX, n, np[0], oldph, newph, ifit, jfit, fitns, newtot, fev);
+			newpop(ff, myFunc, ielite[0], NMAX, n, np[0], oldph, newph, ifit, jfit, fitns, newtot, fev);
 			myEvals += fev[0];
 		}
 
@@ -206,13 +215,22 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
+		start();
 		initialize(func, guess);
 
 		// Main Generation Loop
 		for (ig = 1; ig <= ngen[0]; ++ig) {
 			iterate();
+			if (!fireIteration(ig, myEvals, 0, -fitns[ifit[np[0] - 1] - 1], pmut[0])) {
+				break;
+			}
 			if (status[0] != 0) {
 				break;
 			}
@@ -220,7 +238,7 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 
 		// Return best phenotype and its fitness
 		// TODO: check convergence
-		return new OptimizerSolution<>(Arrays.copyOf(oldph[ifit[np[0] - 1] - 1], n), myEvals, 0, false);
+		return finish(new OptimizerSolution<>(Arrays.copyOf(oldph[ifit[np[0] - 1] - 1], n), myEvals, 0, false));
 	}
 
 	private static void setctl(final double[] ctrl, final int n, final int[] np, final int[] ngen, final int[] nd,
@@ -313,22 +331,22 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void cross(final int n, final int nd, final double pcross, final int[] gn1, final int[] gn2) {
+	private void cross(final int n, final int nd, final double pcross, final int[] gn1, final int[] gn2) {
 
 		// Local:
 		int i, ispl, ispl2, itmp, t;
 
 		// Use crossover probability to decide whether a crossover occurs
-		if (RAND.nextDouble() < pcross) {
+		if (myRandom.nextDouble() < pcross) {
 
 			// Compute first crossover point
-			ispl = (int) (RAND.nextDouble() * n * nd) + 1;
+			ispl = (int) (myRandom.nextDouble() * n * nd) + 1;
 
 			// Now choose between one-point and two-point crossover
-			if (RAND.nextDouble() < 0.5) {
+			if (myRandom.nextDouble() < 0.5) {
 				ispl2 = n * nd;
 			} else {
-				ispl2 = (int) (RAND.nextDouble() * n * nd) + 1;
+				ispl2 = (int) (myRandom.nextDouble() * n * nd) + 1;
 
 				// Un-comment following line to enforce one-point crossover
 				// ispl2=n*nd;
@@ -348,23 +366,23 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void mutate(final int n, final int nd, final double pmut, final int[] gn, final int imut) {
+	private void mutate(final int n, final int nd, final double pmut, final int[] gn, final int imut) {
 
 		// Local:
 		int i, j, k, l, ist, inc, loc;
 
 		// Decide which type of mutation is to occur
-		if (imut >= 4 && RAND.nextDouble() <= 0.5) {
+		if (imut >= 4 && myRandom.nextDouble() <= 0.5) {
 
 			// CREEP MUTATION OPERATOR
 			// Subject each locus to random +/- 1 increment at the rate pmut
 			for (i = 1; i <= n; ++i) {
 				for (j = 1; j <= nd; ++j) {
-					if (RAND.nextDouble() < pmut) {
+					if (myRandom.nextDouble() < pmut) {
 
 						// Construct integer
 						loc = (i - 1) * nd + j;
-						inc = ((int) Math.round(RAND.nextDouble())) * 2 - 1;
+						inc = ((int) Math.round(myRandom.nextDouble())) * 2 - 1;
 						ist = (i - 1) * nd + 1;
 						gn[loc - 1] += inc;
 
@@ -430,8 +448,8 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 			// UNIFORM MUTATION OPERATOR
 			// Subject each locus to random mutation at the rate pmut
 			for (i = 1; i <= n * nd; ++i) {
-				if (RAND.nextDouble() < pmut) {
-					gn[i - 1] = (int) (RAND.nextDouble() * 10.0);
+				if (myRandom.nextDouble() < pmut) {
+					gn[i - 1] = (int) (myRandom.nextDouble() * 10.0);
 				}
 			}
 		}
@@ -489,14 +507,14 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 	// c called by: PIKAIA
 	// c calls: FF, RNKPOP
 	// c
-	private static void select(final int np, final int[] jfit, final double fdif, final int[] idad) {
+	private void select(final int np, final int[] jfit, final double fdif, final int[] idad) {
 
 		// Local:
 		int np1, i;
 		double dice, rtfit;
 
 		np1 = np + 1;
-		dice = RAND.nextDouble() * np * np1;
+		dice = myRandom.nextDouble() * np * np1;
 		rtfit = 0;
 		for (i = 1; i <= np; ++i) {
 			rtfit += (np1 + fdif * (np1 - 2 * jfit[i - 1]));
@@ -529,7 +547,7 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		System.arraycopy(ph[2 - 1], 0, newph[i2 - 1], 0, n);
 	}
 
-	private static void stdrep(final FF ff, final int ndim, final int n, final int np, final int irep, final int ielite,
+	private void stdrep(final FF ff, final int ndim, final int n, final int np, final int irep, final int ielite,
 			final double[][] ph, final double[][] oldph, final double[] fitns, final int[] ifit, final int[] jfit,
 			final int[] nnew, final int[] fev) {
 
@@ -568,9 +586,9 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 					if (irep == 3) {
 						i1 = 1;
 					} else if (ielite == 0 || i == np) {
-						i1 = (int) (RAND.nextDouble() * np) + 1;
+						i1 = (int) (myRandom.nextDouble() * np) + 1;
 					} else {
-						i1 = (int) (RAND.nextDouble() * (np - 1)) + 1;
+						i1 = (int) (myRandom.nextDouble() * (np - 1)) + 1;
 					}
 					if1 = ifit[i1 - 1];
 					fitns[if1 - 1] = fit;
@@ -603,9 +621,18 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void newpop(final FF ff, final int ielite, final int ndim, final int n, final int np,
-			final double[][] oldph, final double[][] newph, final int[] ifit, final int[] jfit, final double[] fitns,
-			final int[] nnew, final int[] fev) {
+	private static void evalpop(final BatchObjective func, final int np, final double[][] ph, final double[] fitns) {
+
+		// get fitness of the first np phenotypes using caller's function
+		func.apply(np, ph, fitns);
+		for (int i = 1; i <= np; ++i) {
+			fitns[i - 1] = -fitns[i - 1];
+		}
+	}
+
+	private static void newpop(final FF ff, final BatchObjective func, final int ielite, final int ndim, final int n,
+			final int np, final double[][] oldph, final double[][] newph, final int[] ifit, final int[] jfit,
+			final double[] fitns, final int[] nnew, final int[] fev) {
 		nnew[0] = np;
 
 		// if using elitism, introduce in new population fittest of old
@@ -620,12 +647,12 @@ public class PikaiaAlgorithm extends GradientFreeOptimizer {
 		// replace population
 		for (int i = 1; i <= np; ++i) {
 			System.arraycopy(newph[i - 1], 0, oldph[i - 1], 0, n);
-
-			// get fitness using caller's fitness function
-			fitns[i - 1] = ff.ff(n, oldph[i - 1]);
-			++fev[0];
 		}
 
+		// get fitness using caller's fitness function
+		evalpop(func, np, oldph, fitns);
+		fev[0] += np;
+
 		// compute new population fitness rank order
 		rnkpop(np, fitns, ifit, jfit);
 	}
@@ -23,8 +23,10 @@ package opt.multivariate.unconstrained.order0.evol;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.BatchObjective;
 import opt.multivariate.GradientFreeOptimizer;
 import utils.BlasMath;
 
@@ -58,12 +60,13 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 	private final double mySigmaF = 0.3;
 	private final double myMu = 0.5;
 
-	private Function<? super double[], Double> myFunc;
+	private BatchObjective myFunc;
 	private double CRm, Fp;
-	private double[] p, y, CR, CRrec, dfit, lower, upper, xtrii;
-	private double[][] pool;
+	private double[] p, y, ytri, CR, CRrec, dfit, lower, upper;
+	private double[][] pool, xtri;
 	private int genr, ihist, Fns0, Fnf0, Fns1, Fnf1;
-	private int[] ns, nf, ibw;
+	private int[] ns, nf, ibw, ktri;
+	private boolean[] gtri;
 	private int myEvals = 0;
 
 	/**
@@ -98,7 +101,12 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
+		initialize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public final void initialize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -109,8 +117,13 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		return optimize(BatchObjective.ofDouble(func), guess);
+	}
+
+	@Override
+	public OptimizerSolution<double[], Double> optimize(final BatchObjective func, final double[] guess) {
 		final double[] lo = new double[guess.length];
 		final double[] hi = new double[guess.length];
 		for (int i = 0; i < guess.length; ++i) {
@@ -163,26 +176,27 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 			Fns0 = Fnf0 = Fns1 = Fnf1 = 0;
 		}
 
-		// update population
+		// generate the trial vectors for the whole population: the population is
+		// updated synchronously, so that the generation can be evaluated at once
 		for (int i = 0; i < myNp; ++i) {
 
 			// compute crossover constant F
-			final double u = RAND.nextDouble();
+			final double u = myRandom.nextDouble();
 			final boolean usegauss = u < Fp;
 			double F = 0.0;
 			while (F <= 0.0) {
 				if (usegauss) {
-					F = RAND.nextGaussian() * mySigmaF + myMu;
+					F = myRandom.nextGaussian() * mySigmaF + myMu;
 				} else {
-					F = Math.tan(Math.PI * (RAND.nextDouble() - 0.5));
+					F = Math.tan(Math.PI * (myRandom.nextDouble() - 0.5));
 				}
 			}
 
 			// compute CR constant if needed
 			if (genr > 0 && genr % myCp == 0) {
-				double CRi = RAND.nextGaussian() * mySigmaCr + CRm;
+				double CRi = myRandom.nextGaussian() * mySigmaCr + CRm;
 				while (CRi <= 0.0 || CRi >= 1.0) {
-					CRi = RAND.nextGaussian() * mySigmaCr + CRm;
+					CRi = myRandom.nextGaussian() * mySigmaCr + CRm;
 				}
 				CR[i] = CRi;
 			}
@@ -190,9 +204,20 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 			// generate a strategy to use for the current member
 			final int ki = rouletteSample(p);
 
-			// trial vector generation and fitness
-			trial(d, i, ki, F, CR[i], ibw[0], xtrii);
-			final double newy = myFunc.apply(xtrii);
+			// trial vector generation
+			trial(d, i, ki, F, CR[i], ibw[0], xtri[i]);
+			ktri[i] = ki;
+			gtri[i] = usegauss;
+		}
+
+		// evaluate the trial vectors as one generation
+		myFunc.apply(myNp, xtri, ytri);
+
+		// update population
+		for (int i = 0; i < myNp; ++i) {
+			final int ki = ktri[i];
+			final boolean usegauss = gtri[i];
+			final double newy = ytri[i];
 
 			// update all counters and data for learning
 			if (newy < y[i]) {
@@ -207,7 +232,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 				}
 
 				// update population if the new vector is improvement
-				System.arraycopy(xtrii, 0, pool[i], 0, d);
+				System.arraycopy(xtri[i], 0, pool[i], 0, d);
 				y[i] = newy;
 			} else {
 				++nf[ki];
@@ -234,6 +259,28 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 	 * @param ub
 	 */
 	public final void initialize(final Function<? super double[], Double> func, final double[] lb, final double[] ub) {
+		initialize(BatchObjective.of(func), lb, ub);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 */
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] lb, final double[] ub) {
+		initialize(BatchObjective.ofDouble(func), lb, ub);
+	}
+
+	/**
+	 * Initializes the population in the box [lb, ub] with an objective that
+	 * evaluates all trial vectors of a generation in one call.
+	 * 
+	 * @param func
+	 * @param lb
+	 * @param ub
+	 */
+	public final void initialize(final BatchObjective func, final double[] lb, final double[] ub) {
 		myFunc = func;
 		lower = lb;
 		upper = ub;
@@ -243,15 +290,18 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 		final int D = lower.length;
 		pool = new double[myNp][D];
 		y = new double[myNp];
-		xtrii = new double[D];
+		xtri = new double[myNp][D];
+		ytri = new double[myNp];
+		ktri = new int[myNp];
+		gtri = new boolean[myNp];
 		for (int i = 0; i < myNp; ++i) {
 			final double[] xi = pool[i];
 			for (int j = 0; j < D; ++j) {
-				xi[j] = (upper[j] - lower[j]) * RAND.nextDouble() + lower[j];
+				xi[j] = (upper[j] - lower[j]) * myRandom.nextDouble() + lower[j];
 			}
 			pool[i] = xi;
-			y[i] = myFunc.apply(xi);
 		}
+		myFunc.apply(myNp, pool, y);
 		myEvals += myNp;
 
 		// compute the rankings
@@ -280,6 +330,33 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> function,
 			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.of(function), lb, ub);
+	}
+
+	/**
+	 *
+	 * @param function
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> function,
+			final double[] lb, final double[] ub) {
+		return optimize(BatchObjective.ofDouble(function), lb, ub);
+	}
+
+	/**
+	 * Minimizes function over the box [lb, ub], evaluating the trial vectors of
+	 * each generation together.
+	 * 
+	 * @param function
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final BatchObjective function, final double[] lb,
+			final double[] ub) {
+		start();
 
 		// initialize parameters
 		initialize(function, lb, ub);
@@ -290,6 +367,9 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 
 			// learning and solution update
 			iterate();
+			if (!fireIteration(genr, myEvals, 0, y[ibw[0]], Double.NaN)) {
+				break;
+			}
 
 			// test convergence in function values
 			final double y0 = y[ibw[0]];
@@ -318,7 +398,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 				}
 			}
 		}
-		return new OptimizerSolution<>(pool[ibw[0]], myEvals, 0, converged);
+		return finish(new OptimizerSolution<>(pool[ibw[0]], myEvals, 0, converged));
 	}
 
 	/**
@@ -359,19 +439,19 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 		// randomly select five distinct agents from population
 		int a, b, c, d, e;
 		do {
-			a = RAND.nextInt(myNp);
+			a = myRandom.nextInt(myNp);
 		} while (a == i);
 		do {
-			b = RAND.nextInt(myNp);
+			b = myRandom.nextInt(myNp);
 		} while (b == i || b == a);
 		do {
-			c = RAND.nextInt(myNp);
+			c = myRandom.nextInt(myNp);
 		} while (c == i || c == a || c == b);
 		do {
-			d = RAND.nextInt(myNp);
+			d = myRandom.nextInt(myNp);
 		} while (d == i || d == a || d == b || d == c);
 		do {
-			e = RAND.nextInt(myNp);
+			e = myRandom.nextInt(myNp);
 		} while (e == i || e == a || e == b || e == c || e == d);
 
 		// retrieve their data
@@ -384,13 +464,13 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 		final double[] bb = pool[ib];
 
 		// use them to generate a mutated vector from the original
-		final int jrnd = RAND.nextInt(D);
+		final int jrnd = myRandom.nextInt(D);
 		switch (ki) {
 		case 0:
 
 			// DE/rand/1
 			for (int j = 0; j < D; ++j) {
-				if (j == jrnd || RAND.nextDouble() <= CR) {
+				if (j == jrnd || myRandom.nextDouble() <= CR) {
 					out[j] = p1[j] + F * (p2[j] - p3[j]);
 				} else {
 					out[j] = x[j];
@@ -401,7 +481,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 
 			// DE/best/1
 			for (int j = 0; j < D; ++j) {
-				if (j == jrnd || RAND.nextDouble() <= CR) {
+				if (j == jrnd || myRandom.nextDouble() <= CR) {
 					out[j] = bb[j] + F * (p1[j] - p2[j]);
 				} else {
 					out[j] = x[j];
@@ -412,7 +492,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 
 			// DE/current-to-best/1
 			for (int j = 0; j < D; ++j) {
-				if (j == jrnd || RAND.nextDouble() <= CR) {
+				if (j == jrnd || myRandom.nextDouble() <= CR) {
 					out[j] = x[j] + F * (bb[j] - x[j]) + F * (p1[j] - p2[j]);
 				} else {
 					out[j] = x[j];
@@ -423,7 +503,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 
 			// DE/best/2:
 			for (int j = 0; j < D; ++j) {
-				if (j == jrnd || RAND.nextDouble() <= CR) {
+				if (j == jrnd || myRandom.nextDouble() <= CR) {
 					out[j] = bb[j] + F * (p1[j] - p2[j]) + F * (p3[j] - p4[j]);
 				} else {
 					out[j] = x[j];
@@ -434,7 +514,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 
 			// DE/rand/2:
 			for (int j = 0; j < D; ++j) {
-				if (j == jrnd || RAND.nextDouble() <= CR) {
+				if (j == jrnd || myRandom.nextDouble() <= CR) {
 					out[j] = p1[j] + F * (p2[j] - p3[j]) + F * (p4[j] - p5[j]);
 				} else {
 					out[j] = x[j];
@@ -449,7 +529,7 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 		// if not, then randomize it within this range
 		for (int j = 0; j < D; ++j) {
 			if (out[j] > upper[j] || out[j] < lower[j]) {
-				out[j] = RAND.nextDouble() * (upper[j] - lower[j]) + lower[j];
+				out[j] = myRandom.nextDouble() * (upper[j] - lower[j]) + lower[j];
 			}
 		}
 	}
@@ -482,13 +562,13 @@ public final class SadeAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static final int rouletteSample(final double... weights) {
+	private final int rouletteSample(final double... weights) {
 		final int n = weights.length;
 		double s = 0.0;
 		for (int i = 0; i < n; ++i) {
 			s += weights[i];
 		}
-		double U = RAND.nextDouble() * s;
+		double U = myRandom.nextDouble() * s;
 		for (int k = 0; k < n; ++k) {
 			U -= weights[k];
 			if (U <= 0.0) {
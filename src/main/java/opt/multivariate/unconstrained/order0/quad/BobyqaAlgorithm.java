@@ -22,6 +22,7 @@ package opt.multivariate.unconstrained.order0.quad;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -69,7 +70,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> function, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> function, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -79,7 +80,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
 
 		// prepare variables
@@ -87,12 +88,12 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		final double[] lower = new double[n];
 		final double[] upper = new double[n];
 		for (int i = 0; i < n; ++i) {
-			lower[i] = 1.0e-60;
+			lower[i] = -1.0e+60;
 			upper[i] = 1.0e+60;
 		}
 
 		// call main subroutine
-		return optimize(func, guess, lower, upper);
+		return optimizeDouble(func, guess, lower, upper);
 	}
 
 	/**
@@ -105,6 +106,20 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
 			final double[] guess, final double[] lower, final double[] upper) {
+		return optimizeDouble(func::apply, guess, lower, upper);
+	}
+
+	/**
+	 *
+	 * @param func
+	 * @param guess
+	 * @param lower
+	 * @param upper
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
+			final double[] guess, final double[] lower, final double[] upper) {
+		start();
 
 		// prepare variables
 		final int d = guess.length;
@@ -114,10 +129,10 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		// call main subroutine
 		// TODO: check convergence
 		final double[] result = bobyqa(func, guess, lower, upper, npt, myRho0, myTol, myMaxFEvals, nf);
-		return new OptimizerSolution<>(result, nf[0], 0, false);
+		return finish(new OptimizerSolution<>(result, nf[0], 0, false));
 	}
 
-	private static double[] bobyqa(final Function<? super double[], Double> func, final double[] guess,
+	private double[] bobyqa(final ToDoubleFunction<? super double[]> func, final double[] guess,
 			final double[] xl, final double[] xu, final int npt, final double rhobeg, final double rhoend,
 			final int maxfun, final int[] nf) {
 
@@ -131,7 +146,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		return x;
 	}
 
-	private static void bobyqa(final Function<? super double[], Double> func, final int n, final int npt,
+	private void bobyqa(final ToDoubleFunction<? super double[]> func, final int n, final int npt,
 			final double[] x, final double[] xl, final double[] xu, final double rhobeg, final double rhoend,
 			final int iprint, final int maxfun, final int[] nf) {
 
@@ -183,7 +198,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 				zmat, npt + n, sl, su, xnew, xalt, d, vlag, w, nf);
 	}
 
-	private static void bobyqb(final Function<? super double[], Double> func, final int n, final int npt,
+	private void bobyqb(final ToDoubleFunction<? super double[]> func, final int n, final int npt,
 			final double[] x, final double[] xl, final double[] xu, final double rhobeg, final double rhoend,
 			final int iprint, final int maxfun, final double[] xbase, final double[][] xpt, final double[] fval,
 			final double[] xopt, final double[] gopt, final double[] hq, final double[] pq, final double[][] bmat,
@@ -197,7 +212,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		double xoptsq, fsave, rho, delta, diff, diffa, diffb, diffc = 0.0, temp, dnorm = 0.0, distsq = 0.0, errbig,
 				frhosq, bdtest, bdtol, curv, sumpq, fracsq, sum, sumz, sumw, adelt = 0.0, suma, sumb, bsum, dx, delsq,
 				scaden, den, hdiag, biglsq, f, fopt, vquad, densav, ratio = 0.0, pqold, gqsq, gisq, dist, temp2;
-		int i, ih, ip, itest, j, jj, jp, k, ksav, kbase, nresc, ntrits, nfsav;
+		int i, ih, ip, itest, j, jj, jp, k, ksav, kbase, nresc, ntrits, nfsav, iter = 0;
 
 		// Set some constants.
 		final double half = 0.5, one = 1.0, ten = 10.0, tenth = 0.1, two = 2.0, zero = 0.0;
@@ -620,8 +635,12 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 				if (nf[0] >= maxfun) {
 					break;
 				}
+				++iter;
+				if (!fireIteration(iter, nf[0], 0, fval[kopt[0] - 1], delta)) {
+					break;
+				}
 				++nf[0];
-				f = func.apply(x);
+				f = func.applyAsDouble(x);
 				if (ntrits == -1) {
 					fsave = f;
 					break;
@@ -938,7 +957,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void rescue(final Function<? super double[], Double> func, final int n, final int npt,
+	private static void rescue(final ToDoubleFunction<? super double[]> func, final int n, final int npt,
 			final double[] xl, final double[] xu, final int iprint, final int maxfun, final double[] xbase,
 			final double[][] xpt, final double[] fval, final double[] xopt, final double[] gopt, final double[] hq,
 			final double[] pq, final double[][] bmat, final double[][] zmat, final int ndim, final double[] sl,
@@ -1264,7 +1283,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 			}
 			++nf[0];
 			System.arraycopy(w, iiw - 1, w1, 0, n);
-			f = func.apply(w1);
+			f = func.applyAsDouble(w1);
 			fval[kpt - 1] = f;
 			if (f < fval[kopt[0] - 1]) {
 				kopt[0] = kpt;
@@ -1358,14 +1377,14 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 					stepsq += s[i - 1 + is - 1] * s[i - 1 + is - 1];
 				}
 				if (stepsq == zero) {
-					gotoflag = 190;
+					break;
 				} else {
 					if (beta == zero) {
 						gredsq = stepsq;
 						itermax = iterc + n - nact;
 					}
 					if (gredsq * delsq <= 1.0e-4 * qred * qred) {
-						gotoflag = 190;
+						break;
 					} else {
 						gotoflag = 210;
 					}
@@ -1964,7 +1983,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 		}
 	}
 
-	private static void prelim(final Function<? super double[], Double> func, final int n, final int npt,
+	private static void prelim(final ToDoubleFunction<? super double[]> func, final int n, final int npt,
 			final double[] x, final double[] xl, final double[] xu, final double rhobeg, final int iprint,
 			final int maxfun, final double[] xbase, final double[][] xpt, final double[] fval, final double[] gopt,
 			final double[] hq, final double[] pq, final double[][] bmat, final double[][] zmat, final int ndim,
@@ -2042,7 +2061,7 @@ public final class BobyqaAlgorithm extends GradientFreeOptimizer {
 					x[j - 1] = xu[j - 1];
 				}
 			}
-			f = func.apply(x);
+			f = func.applyAsDouble(x);
 			fval[nf[0] - 1] = f;
 			if (nf[0] == 1) {
 				fbeg = f;
@@ -22,6 +22,7 @@ package opt.multivariate.unconstrained.order0.quad;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -68,7 +69,7 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -78,8 +79,9 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare data
 		final int n = guess.length;
@@ -90,10 +92,10 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 		// call main subroutine
 		// TODO: check convergence
 		x = newuoa(func, n, npt, x, myRho0, myTol, myMaxFev, fev);
-		return new OptimizerSolution<>(x, fev[0], 0, false);
+		return finish(new OptimizerSolution<>(x, fev[0], 0, false));
 	}
 
-	private static double[] newuoa(final Function<? super double[], Double> calfun, final int n, final int npt,
+	private double[] newuoa(final ToDoubleFunction<? super double[]> calfun, final int n, final int npt,
 			final double[] x, final double rhobeg, final double rhoend, final int maxfun, final int[] fev) {
 
 		// prepare variables
@@ -110,7 +112,7 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 		return x;
 	}
 
-	private static void newuob(final Function<? super double[], Double> calfun, final int n, final int npt,
+	private void newuob(final ToDoubleFunction<? super double[]> calfun, final int n, final int npt,
 			final double[] x, final double rhobeg, final double rhoend, final int maxfun, final double[] xbase,
 			final double[] xopt, final double[] xnew, final double[][] xpt, final double[] fval, final double[] gq,
 			final double[] hq, final double[] pq, final double[][] bmat, final double[][] zmat, final int ndim,
@@ -132,6 +134,7 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 
 		// Set the initial elements of XPT, BMAT, HQ, PQ and ZMAT to zero
 		// this is done in Java
+		System.arraycopy(x, 0, xbase, 0, n);
 		// Begin the initialization procedure. NF becomes one more than the number
 		// of function values so far. The coordinates of the displacement of the
 		// next initial interpolation point from XBASE are set in XPT(NF,.)
@@ -455,14 +458,14 @@ public final class NewuoaAlgorithm extends GradientFreeOptimizer {
 			}
 
 			if (gotoflag == 310) {
-				if (nf > nftest) {
+				if (nf > nftest || (nf > npt && !fireIteration(nf - npt, fev[0], 0, fopt, delta))) {
 					--nf;
 					if (fopt <= f) {
 						BlasMath.dxpy1(n, xbase, 1, xopt, 1, x, 1);
 					}
 					return;
 				}
-				f = calfun.apply(x);
+				f = calfun.applyAsDouble(x);
 				++fev[0];
 				if (nf <= npt) {
 					gotoflag = 70;
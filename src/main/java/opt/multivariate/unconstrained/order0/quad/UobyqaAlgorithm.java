@@ -21,7 +21,7 @@ Cambridge, UK.
 package opt.multivariate.unconstrained.order0.quad;
 
 import java.util.Arrays;
-import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
 import opt.multivariate.GradientFreeOptimizer;
@@ -53,7 +53,7 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final void initialize(final Function<? super double[], Double> func, final double[] guess) {
+	public final void initializeDouble(final ToDoubleFunction<? super double[]> func, final double[] guess) {
 		// nothing to do here
 	}
 
@@ -63,8 +63,9 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> func,
 			final double[] guess) {
+		start();
 
 		// prepare variables
 		final int n = guess.length;
@@ -74,10 +75,10 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 		// call main subroutine
 		// TODO: check convergence
 		uobyqa1(func, n, x, myMaxFev, myRho0, myTol, fev);
-		return new OptimizerSolution<>(x, fev[0], 0, false);
+		return finish(new OptimizerSolution<>(x, fev[0], 0, false));
 	}
 
-	private static void uobyqa1(final Function<? super double[], Double> func, final int n, final double[] x,
+	private void uobyqa1(final ToDoubleFunction<? super double[]> func, final int n, final double[] x,
 			final int maxfev, final double rhobeg, final double rhoend, final int[] fev) {
 		final int iprint = 0, npt = (n * n + 3 * n + 2) / 2;
 		final double[][] pl = new double[npt][npt], h = new double[n][n], xpt = new double[npt][n];
@@ -87,7 +88,7 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 		uobyqb(func, n, x, rhobeg, rhoend, iprint, maxfev, npt, xbase, xopt, xnew, xpt, pq, pl, h, g, d, vlag, w, fev);
 	}
 
-	private static void uobyqb(final Function<? super double[], Double> func, final int n, final double[] x,
+	private void uobyqb(final ToDoubleFunction<? super double[]> func, final int n, final double[] x,
 			final double rhobeg, final double rhoend, final int iprint, final int maxfun, final int npt,
 			final double[] xbase, final double[] xopt, final double[] xnew, final double[][] xpt, final double[] pq,
 			final double[][] pl, final double[][] h, final double[] g, final double[] d, final double[] vlag,
@@ -115,7 +116,7 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 		rho = rhobeg;
 		rhosq = rho * rho;
 		nf = 0;
-		System.arraycopy(xbase, 0, x, 0, n);
+		System.arraycopy(x, 0, xbase, 0, n);
 		for (k = 1; k <= npt; ++k) {
 			System.arraycopy(empty, 0, pl[k - 1], 0, nptm);
 			j = nptm;
@@ -284,14 +285,14 @@ public final class UobyqaAlgorithm extends GradientFreeOptimizer {
 			}
 
 			if (flag == 120) {
-				if (nf >= nftest) {
+				if (nf >= nftest || (nf >= npt && !fireIteration(nf - npt + 1, fev[0], 0, fopt, delta))) {
 					if (fopt <= f) {
 						BlasMath.dxpy1(n, xbase, 1, xopt, 1, x, 1);
 					}
 					return;
 				}
 				++nf;
-				f = func.apply(x);
+				f = func.applyAsDouble(x);
 				++fev[0];
 				if (nf <= npt) {
 					flag = 50;
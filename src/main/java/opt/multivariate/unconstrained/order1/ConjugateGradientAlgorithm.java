@@ -12,9 +12,9 @@ Methods for Optimization, (1992) SIAM J. on Optimization, 2, 1.
 package opt.multivariate.unconstrained.order1;
 
 import java.util.Arrays;
-import java.util.function.Function;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 
@@ -71,8 +71,8 @@ public final class ConjugateGradientAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] guess) {
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess) {
+		start();
 
 		// prepare variables
 		final int[] evals = new int[1];
@@ -80,16 +80,15 @@ public final class ConjugateGradientAlgorithm extends GradientOptimizer {
 
 		// call main subroutine
 		// TODO: check convergence
-		final double[] result = main(f, df, guess, myTol, evals, converged);
-		return new OptimizerSolution<>(result, evals[0], evals[0], converged[0]);
+		final double[] result = main(f, guess, myTol, evals, converged);
+		return finish(new OptimizerSolution<>(result, evals[0], evals[0], converged[0]));
 	}
 
-	private double[] main(final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final double[] guess, final double eps, final int[] evals,
-			final boolean[] converged) {
+	private double[] main(final DifferentiableObjective func, final double[] guess, final double eps,
+			final int[] evals, final boolean[] converged) {
 		final int n = guess.length;
 		final double[] x = Arrays.copyOf(guess, n);
-		double[] g = new double[n];
+		final double[] g = new double[n];
 		final double[] d = new double[n];
 		final double[] gold = new double[n];
 		final double[] w = new double[n];
@@ -102,9 +101,8 @@ public final class ConjugateGradientAlgorithm extends GradientOptimizer {
 			if (do20) {
 
 				// Calculate the function and gradient values here
-				f[0] = func.apply(x);
+				f[0] = func.apply(x, g);
 				++evals[0];
-				g = dfunc.apply(x);
 			}
 
 			// Call the main optimization code
@@ -120,6 +118,11 @@ public final class ConjugateGradientAlgorithm extends GradientOptimizer {
 				do20 = true;
 			} else {
 
+				// report the new iterate and stop if the listener asks to
+				if (!fireIteration(iter, evals[0], evals[0], f[0], stp[0])) {
+					return x;
+				}
+
 				// Termination Test.
 				final double tlev = eps * (1.0 + Math.abs(f[0]));
 				int i = 0;
@@ -48,9 +48,9 @@ Acknowledgements:
 package opt.multivariate.unconstrained.order1;
 
 import java.util.Arrays;
-import java.util.function.Function;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 import utils.IntMath;
@@ -67,16 +67,6 @@ import utils.RealMath;
  */
 public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 
-	private interface Obj {
-
-		double obj(int nf, double[] x);
-	}
-
-	private interface DObj {
-
-		void dobj(int nf, double[] x, double[] gf);
-	}
-
 	private final int[] nit = new int[1];
 	private int nfv, nfg, mtyp, mode, mes1, mes2, mes3;
 	private double rl, fl, pl, ru, fu, pu;
@@ -119,32 +109,27 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final double[] guess) {
-
-		// prepare functions
-		final Obj obj = (pnf, px) -> func.apply(px);
-		final DObj dobj = (pnf, px, pgf) -> {
-			System.arraycopy(dfunc.apply(px), 0, pgf, 0, pnf);
-		};
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective func,
+			final double[] guess) {
+		start();
 
-		// prepare other variables
+		// prepare variables
 		final int[] nf = { guess.length };
 		final double[] x = Arrays.copyOf(guess, nf[0]);
 		final int[] ipar = { 1000000, maxEvals, 0, 0, 0, 0, maxUpdt };
 		final double[] rpar = { maxStep, tolx, toldf, tolf, tolg, 0.0, 0.0, 0.0, 0.0 };
-		final double[] f = { func.apply(x) };
+		final double[] f = { func.value(x) };
 		final double[] gmax = { 0.0 };
 		final int iprnt = 0;
 		final int[] iterm = new int[1];
 
 		// call main subroutine
-		plicu(obj, dobj, nf, x, ipar, rpar, f, gmax, iprnt, iterm);
+		plicu(func, nf, x, ipar, rpar, f, gmax, iprnt, iterm);
 		final boolean converged = iterm[0] == 1 || iterm[0] == 2 || iterm[0] == 3 || iterm[0] == 4 || iterm[0] == 6;
-		return new OptimizerSolution<>(x, nfv, nfg, converged);
+		return finish(new OptimizerSolution<>(x, nfv, nfg, converged));
 	}
 
-	private void plicu(final Obj obj, final DObj dobj, final int[] nf, final double[] x, final int[] ipar,
+	private void plicu(final DifferentiableObjective obj, final int[] nf, final double[] x, final int[] ipar,
 			final double[] rpar, final double[] f, final double[] gmax, final int iprnt, final int[] iterm) {
 		int mf, nb;
 		mf = ipar[7 - 1];
@@ -163,7 +148,7 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 		final int[] ipar1 = { ipar[0] }, ipar2 = { ipar[1] }, ipar3 = { ipar[3] };
 
 		// CALL MAIN SUBROUTINE
-		plic(obj, dobj, nf, nb, x, ipar, ra, ra, ra1, ra2, ra3, ra4, ra5, ra6, ra7, ra8, rpar1, rpar2, rpar3, rpar4,
+		plic(obj, nf, nb, x, ipar, ra, ra, ra1, ra2, ra3, ra4, ra5, ra6, ra7, ra8, rpar1, rpar2, rpar3, rpar4,
 				rpar5, rpar6, gmax, f, ipar1, ipar2, ipar3, mf, iprnt, iterm);
 
 		// COPY MODIFIED PARAMETERS BACK
@@ -178,7 +163,7 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 		ipar[3] = ipar3[0];
 	}
 
-	private void plic(final Obj obj, final DObj dobj, final int[] nf, final int nb, final double[] x, final int[] ix,
+	private void plic(final DifferentiableObjective obj, final int[] nf, final int nb, final double[] x, final int[] ix,
 			final double[] xl, final double[] xu, final double[] gf, final double[] s, final double[] xo,
 			final double[] go, final double[] xm, final double[] gm, final double[] xr, final double[] gr,
 			final double[] xmax, final double[] tolx, final double[] tolf, final double[] tolb, final double[] tolg,
@@ -271,9 +256,8 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 		if (iterm[0] != 0) {
 			return;
 		}
-		f[0] = obj.obj(nf[0], x);
+		f[0] = obj.apply(x, gf);
 		++nfv;
-		dobj.dobj(nf[0], x, gf);
 		++nfg;
 
 		boolean do11120 = true;
@@ -287,6 +271,12 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 				if (iterm[0] != 0) {
 					return;
 				}
+
+				// report the new iterate and stop if the listener asks to
+				if (!fireIteration(nit[0], nfv, nfg, f[0], r[0])) {
+					iterm[0] = -20;
+					return;
+				}
 				if (kbf > 0 && rmax[0] > 0.0) {
 					pyrmc0(nf[0], n[0], ix, gf, eps8, umax[0], gmax[0], rmax[0], iold, irest);
 				}
@@ -360,9 +350,8 @@ public final class ConjugateVariableMetricAlgorithm extends GradientOptimizer {
 					} else {
 						mxudir(nf[0], r[0], s, xo, x, ix, kbf);
 						pcbs04(nf[0], x, ix, xl, xu, eps9, kbf);
-						f[0] = obj.obj(nf[0], x);
+						f[0] = obj.apply(x, gf);
 						++nfv;
-						dobj.dobj(nf[0], x, gf);
 						++nfg;
 						p[0] = mxudot(nf[0], gf, 1, s, 1, ix, kbf);
 					}
@@ -20,8 +20,10 @@ package opt.multivariate.unconstrained.order1;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 import utils.Constants;
@@ -45,8 +47,8 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] guess) {
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess) {
+		start();
 
 		// prepare variables
 		final double[] l = new double[guess.length];
@@ -60,9 +62,9 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 		final int[] fev = new int[1];
 
 		// call main subroutine
-		final double[] result = lbfgsb(f, df, guess, l, u, nbd, mySize, 10.0, myTol, fev);
+		final double[] result = lbfgsb(f, guess, l, u, nbd, mySize, 10.0, myTol, fev);
 		// TODO: check convergence
-		return new OptimizerSolution<>(result, fev[0], fev[0], false);
+		return finish(new OptimizerSolution<>(result, fev[0], fev[0], false));
 	}
 
 	/**
@@ -76,6 +78,34 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
 			final Function<? super double[], double[]> df, final double[] guess, final double[] lb, final double[] ub) {
+		return optimizeDouble(f::apply, df, guess, lb, ub);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param df
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df, final double[] guess, final double[] lb, final double[] ub) {
+		return optimize(DifferentiableObjective.of(f, df), guess, lb, ub);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param guess
+	 * @param lb
+	 * @param ub
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess,
+			final double[] lb, final double[] ub) {
+		start();
 
 		// prepare variables
 		final int[] nbd = new int[guess.length];
@@ -86,13 +116,12 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 
 		// call main subroutine
 		// TODO: check convergence
-		final double[] result = lbfgsb(f, df, guess, lb, ub, nbd, mySize, 10.0, myTol, fev);
-		return new OptimizerSolution<>(result, fev[0], fev[0], false);
+		final double[] result = lbfgsb(f, guess, lb, ub, nbd, mySize, 10.0, myTol, fev);
+		return finish(new OptimizerSolution<>(result, fev[0], fev[0], false));
 	}
 
-	private static double[] lbfgsb(final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final double[] guess, final double[] l, final double[] u,
-			final int[] nbd, final int m, final double factr, final double pgtol, final int[] fev) {
+	private double[] lbfgsb(final DifferentiableObjective func, final double[] guess, final double[] l,
+			final double[] u, final int[] nbd, final int m, final double factr, final double pgtol, final int[] fev) {
 
 		// prepare variables
 		final int n = guess.length;
@@ -100,12 +129,11 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 
 		// call main subroutine
 		fev[0] = 0;
-		driver(func, dfunc, n, m, x, l, u, nbd, factr, pgtol, fev);
+		driver(func, n, m, x, l, u, nbd, factr, pgtol, fev);
 		return x;
 	}
 
-	private static void driver(final Function<? super double[], Double> func,
-			final Function<? super double[], double[]> dfunc, final int n, final int m, final double[] x,
+	private void driver(final DifferentiableObjective func, final int n, final int m, final double[] x,
 			final double[] l, final double[] u, final int[] nbd, final double factr, final double pgtol,
 			final int[] fev) {
 
@@ -131,8 +159,7 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 
 				// the minimization routine has returned to request the
 				// function f and gradient g values at the current x.
-				f[0] = func.apply(x);
-				System.arraycopy(dfunc.apply(x), 0, g, 0, n);
+				f[0] = func.apply(x, g);
 				++fev[0];
 
 				// go back to the minimization routine.
@@ -142,6 +169,11 @@ public final class LBFGSBAlgorithm extends GradientOptimizer {
 			if (!"NEW_X".equals(task[0].substring(0, 5))) {
 				break;
 			}
+
+			// report the new iterate and stop if the listener asks to
+			if (!fireIteration(isave[9 - 1], fev[0], fev[0], f[0], dsave[14 - 1])) {
+				break;
+			}
 		}
 
 		// the minimization routine has returned with a new iterate,
@@ -15,8 +15,10 @@ package opt.multivariate.unconstrained.order1;
 
 import java.util.Arrays;
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 import utils.Constants;
@@ -78,8 +80,8 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] guess) {
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess) {
+		start();
 
 		// prepare variables
 		final int mgslvl = 1;
@@ -89,23 +91,24 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 		final double xtol = Math.max(myTol, Math.sqrt(accrcy));
 		final int[] err = new int[1];
 		final double[] x = Arrays.copyOf(guess, n);
-		final double[] fx = { f.apply(x) };
-		final double[] g = df.apply(x);
+		final double[] g = new double[n];
+		final double[] fx = { f.apply(x, g) };
 		final double[] w = new double[lw];
 		myEvals = myGEvals = 1;
 
 		// prepare function
+		final double[] x1 = new double[n];
+		final double[] g1 = new double[n];
 		final Sfun sfun = (nn, xx, xi, gg, gi) -> {
-			final double[] x1 = new double[nn];
 			System.arraycopy(xx, xi - 1, x1, 0, nn);
-			final double[] g1 = df.apply(x1);
+			final double f1 = f.apply(x1, g1);
 			System.arraycopy(g1, 0, gg, gi - 1, nn);
-			return f.apply(x1);
+			return f1;
 		};
 
 		// call main subroutine
 		lmqn(err, n, x, fx, g, w, lw, sfun, mgslvl, myMaxIters, myMaxEvals, myEta, myStepMax, accrcy, xtol);
-		return new OptimizerSolution<>(x, myEvals, myGEvals, err[0] == 0 || err[0] == 3);
+		return finish(new OptimizerSolution<>(x, myEvals, myGEvals, err[0] == 0 || err[0] == 3));
 	}
 
 	// ==========================================================================
@@ -122,6 +125,35 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 	 */
 	public final OptimizerSolution<double[], Double> optimize(final Function<double[], Double> f,
 			final Function<double[], double[]> df, final double[] guess, final double[] low, final double[] up) {
+		return optimizeDouble(f::apply, df, guess, low, up);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param df
+	 * @param guess
+	 * @param low
+	 * @param up
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df, final double[] guess, final double[] low,
+			final double[] up) {
+		return optimize(DifferentiableObjective.of(f, df), guess, low, up);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param guess
+	 * @param low
+	 * @param up
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess,
+			final double[] low, final double[] up) {
+		start();
 
 		// prepare variables
 		final int mgslvl = 1;
@@ -132,24 +164,25 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 		final int[] err = new int[1];
 		final int[] ipivot = new int[n];
 		final double[] x = Arrays.copyOf(guess, n);
-		final double[] fx = { f.apply(x) };
-		final double[] g = df.apply(x);
+		final double[] g = new double[n];
+		final double[] fx = { f.apply(x, g) };
 		final double[] w = new double[lw];
 		myEvals = myGEvals = 1;
 
 		// prepare function
+		final double[] x1 = new double[n];
+		final double[] g1 = new double[n];
 		final Sfun sfun = (nn, xx, xi, gg, gi) -> {
-			final double[] x1 = new double[nn];
 			System.arraycopy(xx, xi - 1, x1, 0, nn);
-			final double[] g1 = df.apply(x1);
+			final double f1 = f.apply(x1, g1);
 			System.arraycopy(g1, 0, gg, gi - 1, nn);
-			return f.apply(x1);
+			return f1;
 		};
 
 		// call main subroutine
 		lmqnbc(err, n, x, fx, g, w, lw, sfun, low, up, ipivot, mgslvl, myMaxIters, myMaxEvals, myEta, myStepMax, accrcy,
 				xtol);
-		return new OptimizerSolution<>(x, myEvals, myGEvals, err[0] == 0 || err[0] == 3);
+		return finish(new OptimizerSolution<>(x, myEvals, myGEvals, err[0] == 0 || err[0] == 3));
 	}
 
 	private void lmqn(final int[] ifail, final int n, final double[] x, final double[] f, final double[] g,
@@ -291,6 +324,13 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 			}
 			nwhy[0] = 0;
 
+			// REPORT THE ITERATION AND STOP IF THE LISTENER ASKS TO
+			if (!fireIteration(niter[0], myEvals, myGEvals, fnew[0], alpha[0])) {
+				f[0] = fnew[0];
+				ifail[0] = -20;
+				return;
+			}
+
 			// SET UP PARAMETERS USED IN CONVERGENCE AND RESETTING TESTS
 			difold = difnew;
 			difnew = oldf[0] - fnew[0];
@@ -543,6 +583,13 @@ public final class TruncatedNewtonAlgorithm extends GradientOptimizer {
 			}
 			nwhy[0] = 0;
 
+			// REPORT THE ITERATION AND STOP IF THE LISTENER ASKS TO
+			if (!fireIteration(niter[0], myEvals, myGEvals, fnew[0], alpha[0])) {
+				f[0] = fnew[0];
+				ifail[0] = -20;
+				return;
+			}
+
 			// SET UP PARAMETERS USED IN CONVERGENCE AND RESETTING TESTS
 			difold = difnew;
 			difnew = oldf[0] - fnew[0];
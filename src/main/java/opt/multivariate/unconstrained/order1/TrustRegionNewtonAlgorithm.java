@@ -30,8 +30,10 @@ DAMAGE.
 package opt.multivariate.unconstrained.order1;
 
 import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
 
 import opt.OptimizerSolution;
+import opt.multivariate.DifferentiableObjective;
 import opt.multivariate.GradientOptimizer;
 import utils.BlasMath;
 
@@ -74,8 +76,8 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final double[] guess) {
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f, final double[] guess) {
+		start();
 
 		// prepare work arrays
 		final int[] fev = new int[1];
@@ -83,9 +85,9 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
-		final double[] result = trust(f, df, null, guess.length, guess, 1, myDelta0, myDeltaM, myE1, myE2, myE3, myT1,
+		final double[] result = trust(f, null, guess.length, guess, 1, myDelta0, myDeltaM, myE1, myE2, myE3, myT1,
 				myT2, myTol, fev, dfev, myMaxEvals, converged);
-		return new OptimizerSolution<>(result, fev[0], dfev[0], converged[0]);
+		return finish(new OptimizerSolution<>(result, fev[0], dfev[0], converged[0]));
 	}
 
 	/**
@@ -99,6 +101,33 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 	public final OptimizerSolution<double[], Double> optimize(final Function<? super double[], Double> f,
 			final Function<? super double[], double[]> df, final Function<? super double[], double[][]> hess,
 			final double[] guess) {
+		return optimizeDouble(f::apply, df, hess, guess);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param df
+	 * @param hess
+	 * @param guess
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimizeDouble(final ToDoubleFunction<? super double[]> f,
+			final Function<? super double[], double[]> df, final Function<? super double[], double[][]> hess,
+			final double[] guess) {
+		return optimize(DifferentiableObjective.of(f, df), hess, guess);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param hess
+	 * @param guess
+	 * @return
+	 */
+	public final OptimizerSolution<double[], Double> optimize(final DifferentiableObjective f,
+			final Function<? super double[], double[][]> hess, final double[] guess) {
+		start();
 
 		// prepare work arrays
 		final int[] fev = new int[1];
@@ -106,20 +135,20 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
-		final double[] result = trust(f, df, hess, guess.length, guess, 0, myDelta0, myDeltaM, myE1, myE2, myE3, myT1,
+		final double[] result = trust(f, hess, guess.length, guess, 0, myDelta0, myDeltaM, myE1, myE2, myE3, myT1,
 				myT2, myTol, fev, dfev, myMaxEvals, converged);
-		return new OptimizerSolution<>(result, fev[0], dfev[0], converged[0]);
+		return finish(new OptimizerSolution<>(result, fev[0], dfev[0], converged[0]));
 	}
 
-	private static double[] trust(final Function<? super double[], Double> f,
-			final Function<? super double[], double[]> df, final Function<? super double[], double[][]> d2f,
+	private double[] trust(final DifferentiableObjective f, final Function<? super double[], double[][]> d2f,
 			final int n, final double[] x0, final int mode, final double delta0, final double delmax, final double e1,
 			final double e2, final double e3, final double t1, final double t2, final double tol, final int[] fev,
 			final int[] dfev, final int maxfev, final boolean[] converged) {
 
 		// INITIALIZE POSITION, GRADIENT AND WORK ARRAYS
 		final double[] x = x0;
-		final double[] g = df.apply(x);
+		final double[] g = new double[n];
+		final double[] g1 = new double[n];
 		final double[] d = new double[n];
 		final double[] x1 = new double[n];
 		final double[] b = new double[n];
@@ -127,7 +156,7 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 		final double[] wa2 = new double[n];
 		final double[] p = new double[n];
 		double delta = delta0;
-		double y = f.apply(x);
+		double y = f.apply(x, g);
 		fev[0] = dfev[0] = 1;
 
 		// INITIALIZE THE HESSIAN
@@ -150,6 +179,7 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 		}
 
 		// MAIN LOOP OF TRUST REGION METHOD STARTS HERE
+		int iter = 0;
 		while (true) {
 
 			// COMPUTE THE NEW POSITION AND STEP INFORMATION BY SOLVING THE
@@ -163,7 +193,7 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 				b[j] = BlasMath.ddotm(n, B[j], 1, p, 1);
 				x1[j] = x[j] + p[j];
 			}
-			final double y1 = f.apply(x1);
+			final double y1 = f.value(x1);
 			++fev[0];
 			if (fev[0] > maxfev) {
 				return x;
@@ -197,7 +227,7 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 				// ADVANCE THE POSITION, AND RECOMPUTE GRADIENT AND FUNCTION
 				// VALUES AT THE NEW POINT. FURTHERMORE, PREPARE THE NECESSARY
 				// QUANTITIES IN ORDER TO UPDATE THE HESSIAN AT THE NEW POINT.
-				final double[] g1 = df.apply(x1);
+				f.gradient(x1, g1);
 				++dfev[0];
 				for (int i = 0; i < n; ++i) {
 					d[i] = g1[i] - g[i] - b[i];
@@ -241,6 +271,12 @@ public final class TrustRegionNewtonAlgorithm extends GradientOptimizer {
 					}
 				}
 			}
+
+			// REPORT THE ITERATION AND STOP IF THE LISTENER ASKS TO
+			++iter;
+			if (!fireIteration(iter, fev[0], dfev[0], y, delta)) {
+				return x;
+			}
 		}
 	}
 
@@ -21,6 +21,7 @@ SOFTWARE.
 */
 package opt.univariate;
 
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import opt.OptimizerSolution;
@@ -42,23 +43,48 @@ public abstract class DerivativeFreeOptimizer extends UnivariateOptimizer {
 		super(absoluteTolerance, relativeTolerance, maxEvaluations);
 	}
 
-	public abstract OptimizerSolution<Double, Double> optimize(Function<? super Double, Double> f, double a, double b);
+	/**
+	 *
+	 * @param f
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	public abstract UnivariateOptimizerSolution optimizeDouble(DoubleUnaryOperator f, double a, double b);
 
 	@Override
-	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final Double guess) {
+	public UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double guess) {
 
 		// first use guess to compute a bracket [a, b] that contains a min
 		final int[] fev = new int[1];
-		final double[] brackt = bracket(f, guess, Constants.GOLDEN, myMaxEvals, fev);
+		final double[] brackt = bracketDouble(f, guess, Constants.GOLDEN, myMaxEvals, fev);
 		if (brackt == null) {
-			return new OptimizerSolution<>(Double.NaN, fev[0], 0, false);
+			return new UnivariateOptimizerSolution(Double.NaN, fev[0], 0, false);
 		}
 		final double a = brackt[0];
 		final double b = brackt[1];
 
 		// perform optimization using the bracketed routine
-		final OptimizerSolution<Double, Double> result = optimize(f, a, b);
-		return new OptimizerSolution<>(result.getOptimalPoint(), result.getFEvals() + fev[0], result.getDFEvals(),
-				result.converged());
+		final UnivariateOptimizerSolution result = optimizeDouble(f, a, b);
+		return new UnivariateOptimizerSolution(result.getOptimalPoint(), result.getFEvals() + fev[0],
+				result.getDFEvals(), result.converged(), result.getStopReason());
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param a
+	 * @param b
+	 * @return
+	 */
+	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
+			final double b) {
+		return optimizeDouble(f::apply, a, b).toOptimizerSolution();
+	}
+
+	@Override
+	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f,
+			final Double guess) {
+		return optimizeDouble(f::apply, guess.doubleValue()).toOptimizerSolution();
 	}
 }
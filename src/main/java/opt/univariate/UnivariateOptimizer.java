@@ -21,6 +21,7 @@ SOFTWARE.
 */
 package opt.univariate;
 
+import java.util.function.DoubleUnaryOperator;
 import java.util.function.Function;
 
 import opt.Optimizer;
@@ -40,12 +41,25 @@ public abstract class UnivariateOptimizer extends Optimizer<Double, Double, Func
 	 */
 	public static final double[] bracket(final Function<? super Double, Double> f, final double guess,
 			final double factor, final int maxfev, final int[] fev) {
+		return bracketDouble(f::apply, guess, factor, maxfev, fev);
+	}
+
+	/**
+	 *
+	 * @param f
+	 * @param guess
+	 * @param factor
+	 * @param fev
+	 * @return
+	 */
+	public static final double[] bracketDouble(final DoubleUnaryOperator f, final double guess, final double factor,
+			final int maxfev, final int[] fev) {
 		fev[0] = 0;
 		double a = guess;
-		double fa = f.apply(a);
+		double fa = f.applyAsDouble(a);
 		++fev[0];
 		double b = a + 1.0;
-		double fb = f.apply(b);
+		double fb = f.applyAsDouble(b);
 		++fev[0];
 		double c, fc;
 		if (fa < fb) {
@@ -56,7 +70,7 @@ public abstract class UnivariateOptimizer extends Optimizer<Double, Double, Func
 			fb = fc;
 		}
 		c = b + factor * (b - a);
-		fc = f.apply(c);
+		fc = f.applyAsDouble(c);
 		++fev[0];
 		if (fc <= fb) {
 			while (true) {
@@ -64,7 +78,7 @@ public abstract class UnivariateOptimizer extends Optimizer<Double, Double, Func
 				if (Math.abs(d) >= 1e100 || fev[0] >= maxfev) {
 					return null;
 				}
-				final double fd = f.apply(d);
+				final double fd = f.applyAsDouble(d);
 				++fev[0];
 				a = b;
 				b = c;
@@ -101,6 +115,17 @@ public abstract class UnivariateOptimizer extends Optimizer<Double, Double, Func
 		myMaxEvals = maxEvaluations;
 	}
 
+	// ==========================================================================
+	// ABSTRACT METHODS
+	// ==========================================================================
+	/**
+	 *
+	 * @param f
+	 * @param guess
+	 * @return
+	 */
+	public abstract UnivariateOptimizerSolution optimizeDouble(DoubleUnaryOperator f, double guess);
+
 	// ==========================================================================
 	// PUBLIC METHODS
 	// ==========================================================================
@@ -111,4 +136,22 @@ public abstract class UnivariateOptimizer extends Optimizer<Double, Double, Func
 	public final void setTolerance(final double newTolerance) {
 		myTol = newTolerance;
 	}
+
+	// ==========================================================================
+	// HELPER METHODS
+	// ==========================================================================
+	/**
+	 * Returns the solution of a run, together with the reason the run stopped
+	 * early, if it did, and resets the reason for the next run.
+	 * 
+	 * @param sol
+	 * @param fevals
+	 * @param dfevals
+	 * @param converged
+	 * @return
+	 */
+	protected final UnivariateOptimizerSolution finish(final double sol, final int fevals, final int dfevals,
+			final boolean converged) {
+		return new UnivariateOptimizerSolution(sol, fevals, dfevals, converged, takeStopReason());
+	}
 }
@@ -0,0 +1,117 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package opt.univariate;
+
+import opt.OptimizerSolution;
+import opt.StopReason;
+
+/**
+ * The result of a univariate optimization, which stores the optimal point as a
+ * primitive double instead of a boxed value.
+ */
+public final class UnivariateOptimizerSolution {
+
+	private final double mySol;
+	private final int myFEvals;
+	private final int myDEvals;
+	private final boolean myConverged;
+	private final StopReason myStopReason;
+
+	/**
+	 * 
+	 * @param sol
+	 * @param fevals
+	 * @param dfevals
+	 * @param converged
+	 */
+	public UnivariateOptimizerSolution(final double sol, final int fevals, final int dfevals,
+			final boolean converged) {
+		this(sol, fevals, dfevals, converged, StopReason.NONE);
+	}
+
+	/**
+	 * 
+	 * @param sol
+	 * @param fevals
+	 * @param dfevals
+	 * @param converged
+	 * @param stopReason
+	 */
+	public UnivariateOptimizerSolution(final double sol, final int fevals, final int dfevals,
+			final boolean converged, final StopReason stopReason) {
+		mySol = sol;
+		myFEvals = fevals;
+		myDEvals = dfevals;
+		myConverged = converged;
+		myStopReason = stopReason;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final double getOptimalPoint() {
+		return mySol;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final int getFEvals() {
+		return myFEvals;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final int getDFEvals() {
+		return myDEvals;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final boolean converged() {
+		return myConverged;
+	}
+
+	/**
+	 * Returns why the optimizer stopped before meeting its own termination
+	 * criteria, or NONE if it did not.
+	 * 
+	 * @return
+	 */
+	public final StopReason getStopReason() {
+		return myStopReason;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final OptimizerSolution<Double, Double> toOptimizerSolution() {
+		return new OptimizerSolution<>(mySol, myFEvals, myDEvals, myConverged, myStopReason);
+	}
+}
@@ -6,10 +6,10 @@
  */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.RealMath;
 
 /**
@@ -37,15 +37,16 @@ public final class BrentAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a,
 			final double b) {
 
 		// prepare variables
+		start();
 		final int[] status = new int[1];
 		final double[] aarr = { a };
 		final double[] barr = { b };
 		final double[] arg = { 0.5 * (a + b) };
-		double value = f.apply(arg[0]);
+		double value = f.applyAsDouble(arg[0]);
 		int evals = 1;
 		boolean converged = false;
 
@@ -55,14 +56,14 @@ public final class BrentAlgorithm extends DerivativeFreeOptimizer {
 			if (status[0] == 0) {
 				converged = true;
 				break;
-			} else if (evals >= myMaxEvals) {
+			} else if (evals >= myMaxEvals || stopRequested()) {
 				break;
 			} else {
-				value = f.apply(arg[0]);
+				value = f.applyAsDouble(arg[0]);
 				++evals;
 			}
 		}
-		return new OptimizerSolution<>(arg[0], evals, 0, converged);
+		return finish(arg[0], evals, 0, converged);
 	}
 
 	private void localmin(final double[] a, final double[] b, final double[] arg, final int[] status,
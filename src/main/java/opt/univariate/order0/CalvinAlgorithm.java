@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 
 /**
  * 
@@ -59,26 +59,26 @@ public final class CalvinAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
-			double b) {
+	public UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a, double b) {
 
 		// prepare variables
+		start();
 		final int[] fevals = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = optimize(f, a, b, myTol, myLambda, myMaxEvals, fevals, converged);
-		return new OptimizerSolution<>(result, fevals[0], 0, converged[0]);
+		return finish(result, fevals[0], 0, converged[0]);
 	}
 
-	private static double optimize(final Function<? super Double, Double> func, final double a, final double b,
+	private double optimize(final DoubleUnaryOperator func, final double a, final double b,
 			final double tolerance, final double lambda, final int fmax, final int[] evals, final boolean[] converged) {
-		final Function<Double, Double> obj = x -> func.apply(a + x * (b - a));
+		final DoubleUnaryOperator obj = x -> func.applyAsDouble(a + x * (b - a));
 		final double topt = calvin(obj, tolerance, lambda, fmax, evals, converged);
 		return a + topt * (b - a);
 	}
 
-	private static double calvin(final Function<Double, Double> func, final double tolerance, final double lambda,
+	private double calvin(final DoubleUnaryOperator func, final double tolerance, final double lambda,
 			final int fmax, final int[] evals, final boolean[] converged) {
 
 		// initialize the partition
@@ -89,9 +89,9 @@ public final class CalvinAlgorithm extends DerivativeFreeOptimizer {
 
 		// initialize the function evaluations at the endpoints
 		final double[] f = new double[fmax];
-		f[0] = func.apply(0.0);
-		f[1] = func.apply(0.5);
-		f[2] = func.apply(1.0);
+		f[0] = func.applyAsDouble(0.0);
+		f[1] = func.applyAsDouble(0.5);
+		f[2] = func.applyAsDouble(1.0);
 		evals[0] = 3;
 
 		// initialize the tracking parameters
@@ -101,6 +101,9 @@ public final class CalvinAlgorithm extends DerivativeFreeOptimizer {
 
 		// main loop
 		for (int n = 2; n < fmax; ++n) {
+			if (stopRequested()) {
+				break;
+			}
 
 			// find out which interval to split
 			double rhomax = Double.NEGATIVE_INFINITY;
@@ -120,7 +123,7 @@ public final class CalvinAlgorithm extends DerivativeFreeOptimizer {
 			final double left = t[imax - 1];
 			final double rght = t[imax];
 			final double tmid = 0.5 * (left + rght);
-			final double fmid = func.apply(tmid);
+			final double fmid = func.applyAsDouble(tmid);
 			System.arraycopy(t, imax, t, imax + 1, fmax - imax - 1);
 			System.arraycopy(f, imax, f, imax + 1, fmax - imax - 1);
 			t[imax] = tmid;
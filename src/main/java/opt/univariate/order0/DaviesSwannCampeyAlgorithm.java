@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 
 /**
  * 
@@ -58,26 +58,26 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
-			final double b) {
+	public UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a, final double b) {
 
 		// prepare work arrays
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = dsc(f, a, b, myL, myTol, fev, myMaxEvals, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
-	private static double dsc(final Function<? super Double, Double> f, final double a, final double b, final double K,
+	private double dsc(final DoubleUnaryOperator f, final double a, final double b, final double K,
 			final double tol, final int[] fev, final int maxfev, final boolean[] converged) {
 		final double delta1 = 0.5 * (b - a);
 		final double guess = 0.5 * (a + b);
 		return dsc1(f, guess, a, b, delta1, K, tol, fev, maxfev, converged);
 	}
 
-	private static double dsc1(final Function<? super Double, Double> f, final double guess, final double a,
+	private double dsc1(final DoubleUnaryOperator f, final double guess, final double a,
 			final double b, final double delta1, final double K, final double tol, final int[] fev, final int maxfev,
 			final boolean[] converged) {
 
@@ -88,12 +88,15 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 
 		// main loop of DSC algorithm
 		while (true) {
+			if (stopRequested()) {
+				return x0;
+			}
 
 			// step 2
 			final double xm1 = x0 - delta;
 			final double xp1 = x0 + delta;
-			final double f0 = f.apply(x0);
-			final double fp1 = f.apply(xp1);
+			final double f0 = f.applyAsDouble(x0);
+			final double fp1 = f.applyAsDouble(xp1);
 			double p;
 			fev[0] += 2;
 
@@ -101,7 +104,7 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 			if (f0 > fp1) {
 				p = 1.0;
 			} else {
-				final double fm1 = f.apply(xm1);
+				final double fm1 = f.applyAsDouble(xm1);
 				++fev[0];
 				if (fm1 < f0) {
 					p = -1.0;
@@ -125,7 +128,7 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 
 			// step 4
 			double twonm1 = 1.0;
-			double fnm2 = f.apply(xm1);
+			double fnm2 = f.applyAsDouble(xm1);
 			double xnm1 = x0;
 			double fnm1 = f0;
 			double xn;
@@ -133,7 +136,7 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 			++fev[0];
 			while (true) {
 				xn = xnm1 + twonm1 * p * delta;
-				fn = f.apply(xn);
+				fn = f.applyAsDouble(xn);
 				++fev[0];
 				if (fn > fnm1) {
 					break;
@@ -151,7 +154,7 @@ public final class DaviesSwannCampeyAlgorithm extends DerivativeFreeOptimizer {
 			// step 5
 			final double twonm2 = twonm1 / 2.0;
 			final double xm = xnm1 + twonm2 * p * delta;
-			final double fm = f.apply(xm);
+			final double fm = f.applyAsDouble(xm);
 			++fev[0];
 
 			// step 6: update the position of the minimum
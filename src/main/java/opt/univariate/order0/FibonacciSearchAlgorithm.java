@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.Constants;
 import utils.RealMath;
 
@@ -45,19 +45,20 @@ public final class FibonacciSearchAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a,
 			final double b) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = fibsearch(f, a, b, myTol, myRelTol, myMaxEvals, fev, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
-	private static double fibsearch(final Function<? super Double, Double> f, final double a, final double b,
+	private double fibsearch(final DoubleUnaryOperator f, final double a, final double b,
 			final double abstol, final double reltol, final int maxfev, final int[] fev, final boolean[] converged) {
 
 		// find the smallest n such that 1/F(n) < tolerance / (b - a)
@@ -84,7 +85,7 @@ public final class FibonacciSearchAlgorithm extends DerivativeFreeOptimizer {
 		double x1 = a;
 		double x4 = b;
 		double x3 = alpha * x4 + (1.0 - alpha) * x1;
-		double f3 = f.apply(x3);
+		double f3 = f.applyAsDouble(x3);
 		fev[0] = 1;
 
 		// main loop
@@ -97,7 +98,7 @@ public final class FibonacciSearchAlgorithm extends DerivativeFreeOptimizer {
 			} else {
 				x2 = alpha * x1 + (1.0 - alpha) * x4;
 			}
-			final double f2 = f.apply(x2);
+			final double f2 = f.applyAsDouble(x2);
 			++fev[0];
 
 			// update the interval
@@ -125,7 +126,7 @@ public final class FibonacciSearchAlgorithm extends DerivativeFreeOptimizer {
 			}
 
 			// check budget
-			if (fev[0] >= maxfev) {
+			if (fev[0] >= maxfev || stopRequested()) {
 				break;
 			}
 		}
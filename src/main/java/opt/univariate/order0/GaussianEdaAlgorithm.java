@@ -23,17 +23,17 @@ package opt.univariate.order0;
 
 import java.util.Arrays;
 import java.util.Random;
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 
 /**
  *
  */
 public final class GaussianEdaAlgorithm extends DerivativeFreeOptimizer {
 
-	private static final Random RAND = new Random();
+	private Random myRandom = new Random();
 
 	private final int myNp, myNb; // the size of the population, "elite" group
 	private final int myMaxEvals; // maximum number of function evaluations
@@ -63,28 +63,45 @@ public final class GaussianEdaAlgorithm extends DerivativeFreeOptimizer {
 		this(tolerance, popSize, popSize / 2, maxEvaluations);
 	}
 
+	/**
+	 *
+	 * @param seed
+	 */
+	public final void setSeed(final long seed) {
+		myRandom = new Random(seed);
+	}
+
+	/**
+	 *
+	 * @param random
+	 */
+	public final void setRandom(final Random random) {
+		myRandom = random;
+	}
+
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> func, final double a,
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator func, final double a,
 			final double b) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = eda(func, a, b, myTol, myMaxEvals, myNp, myNb, fev, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
-	private static double eda(final Function<? super Double, Double> func, final double a, final double b,
+	private double eda(final DoubleUnaryOperator func, final double a, final double b,
 			final double tol, final int maxfev, final int np, final int nb, final int[] fev,
 			final boolean[] converged) {
 
 		// prepare the population by randomization in [lb, ub]
 		final double[][] pool = new double[np][2];
 		for (int n = 0; n < np; ++n) {
-			final double x = (b - a) * RAND.nextDouble() + a;
-			final double fx = func.apply(x);
+			final double x = (b - a) * myRandom.nextDouble() + a;
+			final double fx = func.applyAsDouble(x);
 			pool[n][0] = x;
 			pool[n][1] = fx;
 		}
@@ -92,7 +109,7 @@ public final class GaussianEdaAlgorithm extends DerivativeFreeOptimizer {
 		Arrays.sort(pool, (u, v) -> Double.compare(u[1], v[1]));
 
 		// main loop of EDA
-		while (fev[0] + np - nb <= maxfev) {
+		while (fev[0] + np - nb <= maxfev && !stopRequested()) {
 
 			// compute both the mean and variance of the model distribution
 			double mu = 0.0;
@@ -113,9 +130,9 @@ public final class GaussianEdaAlgorithm extends DerivativeFreeOptimizer {
 			for (int n = nb; n < np; ++n) {
 				double x = 0.0;
 				do {
-					x = mu + RAND.nextGaussian() * sigma;
+					x = mu + myRandom.nextGaussian() * sigma;
 				} while (x < a || x > b);
-				final double fx = func.apply(x);
+				final double fx = func.applyAsDouble(x);
 				pool[n][0] = x;
 				pool[n][1] = fx;
 			}
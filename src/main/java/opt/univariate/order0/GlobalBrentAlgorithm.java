@@ -6,10 +6,10 @@
  */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.Constants;
 
 /**
@@ -35,13 +35,14 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a,
 			final double b) {
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		final double result = gbrent(f, myM, a, b, myTol, myMaxEvals, fev, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
 	/**
@@ -52,11 +53,11 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 		myM = bound;
 	}
 
-	private static double gbrent(final Function<? super Double, Double> f, final double boundOnD2f, double a, double b,
+	private double gbrent(final DoubleUnaryOperator f, final double boundOnD2f, double a, double b,
 			final double tol, final int maxfev, final int[] fev, final boolean[] converged) {
 		final double m2 = 0.5 * (1.0 + 16.0 * Constants.EPSILON) * boundOnD2f;
-		double a0 = b, a2 = a, a3, c = b, d0, d1, d2, h = 9.0 / 11.0, p, q, qs, r, s, sc = 0.0, x = a0, y0 = f.apply(b),
-				y1, y2 = f.apply(a), y = y2, y3, yb = y0, z0, z1, z2;
+		double a0 = b, a2 = a, a3, c = b, d0, d1, d2, h = 9.0 / 11.0, p, q, qs, r, s, sc = 0.0, x = a0,
+				y0 = f.applyAsDouble(b), y1, y2 = f.applyAsDouble(a), y = y2, y3, yb = y0, z0, z1, z2;
 		fev[0] = 2;
 		int k = 3;
 		if (y0 < y) {
@@ -68,7 +69,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 			return x;
 		}
 		sc = (sc <= a || sc >= b) ? 0.5 * (a + b) : c;
-		y1 = f.apply(sc);
+		y1 = f.applyAsDouble(sc);
 		++fev[0];
 		d0 = a2 - sc;
 		if (y1 < y) {
@@ -92,7 +93,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 					final double right = z2 * m2 * r * (z2 * q - r);
 					if (q * (r * (yb - y2) + z2 * q * (y2 - y + tol)) < right) {
 						a3 = a2 + r / q;
-						y3 = f.apply(a3);
+						y3 = f.applyAsDouble(a3);
 						++fev[0];
 						if (y3 < y) {
 							x = a3;
@@ -104,7 +105,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 				q = 1.0;
 				r = (b - a) * 1.0e-5 * k;
 				goto40 = true;
-				if (fev[0] >= maxfev) {
+				if (fev[0] >= maxfev || stopRequested()) {
 					return x;
 				}
 			} while (r < z2);
@@ -123,7 +124,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 					a3 = r;
 				}
 				if (a3 < b) {
-					y3 = f.apply(a3);
+					y3 = f.applyAsDouble(a3);
 					++fev[0];
 				} else {
 					a3 = b;
@@ -144,7 +145,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 					} else {
 						a3 = 0.5 * (a2 + a3);
 						h *= 0.9;
-						if (fev[0] >= maxfev) {
+						if (fev[0] >= maxfev || stopRequested()) {
 							return x;
 						}
 					}
@@ -160,7 +161,7 @@ public final class GlobalBrentAlgorithm extends DerivativeFreeOptimizer {
 				y0 = y1;
 				y1 = y2;
 				y2 = y3;
-				if (fev[0] >= maxfev) {
+				if (fev[0] >= maxfev || stopRequested()) {
 					converged[0] = false;
 					return x;
 				}
@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.Constants;
 
 /**
@@ -44,19 +44,20 @@ public final class GoldenSectionAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a,
 			final double b) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = gssearch(f, a, b, myRelTol, myTol, myMaxEvals, fev, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
-	private static double gssearch(final Function<? super Double, Double> f, final double a, final double b,
+	private double gssearch(final DoubleUnaryOperator f, final double a, final double b,
 			final double rtol, final double atol, final int mfev, final int[] fev, final boolean[] converged) {
 
 		// INITIALIZE CONSTANTS
@@ -69,7 +70,7 @@ public final class GoldenSectionAlgorithm extends DerivativeFreeOptimizer {
 		double d = a1 + (b1 - a1) / GOLD;
 
 		// MAIN LOOP OF GOLDEN SECTION SEARCH
-		while (fev[0] < mfev) {
+		while (fev[0] < mfev && !stopRequested()) {
 
 			// CHECK CONVERGENCE
 			final double mid = 0.5 * (c + d);
@@ -80,8 +81,8 @@ public final class GoldenSectionAlgorithm extends DerivativeFreeOptimizer {
 			}
 
 			// evaluate at new points
-			final double fc = f.apply(c);
-			final double fd = f.apply(d);
+			final double fc = f.applyAsDouble(c);
+			final double fd = f.applyAsDouble(d);
 			fev[0] += 2;
 
 			// update interval
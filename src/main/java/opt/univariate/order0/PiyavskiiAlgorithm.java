@@ -21,10 +21,11 @@ SOFTWARE.
 */
 package opt.univariate.order0;
 
-import java.util.function.Function;
+import java.util.function.BooleanSupplier;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeFreeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.IntMath;
 
 /**
@@ -68,21 +69,40 @@ public final class PiyavskiiAlgorithm extends DerivativeFreeOptimizer {
 	}
 
 	@Override
-	public OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f, final double a,
-			final double b) {
+	public UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final double a, final double b) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
-		final double result = shubert(f, a, b, myTol, myMaxEvals, fev, myR, myXi, converged);
-		return new OptimizerSolution<>(result, fev[0], 0, converged[0]);
+		final double result = shubert(f, a, b, myTol, myMaxEvals, fev, myR, myXi, converged, this::stopRequested);
+		return finish(result, fev[0], 0, converged[0]);
 	}
 
-	public static double shubert(final Function<? super Double, Double> func, final double a, final double b,
+	/**
+	 *
+	 * @param func
+	 * @param a
+	 * @param b
+	 * @param tol
+	 * @param maxiters
+	 * @param fev
+	 * @param r
+	 * @param xi
+	 * @param converged
+	 * @return
+	 */
+	public static double shubert(final DoubleUnaryOperator func, final double a, final double b,
 			final double tol, final int maxiters, final int[] fev, final double r, final double xi,
 			final boolean[] converged) {
+		return shubert(func, a, b, tol, maxiters, fev, r, xi, converged, () -> false);
+	}
+
+	private static double shubert(final DoubleUnaryOperator func, final double a, final double b,
+			final double tol, final int maxiters, final int[] fev, final double r, final double xi,
+			final boolean[] converged, final BooleanSupplier stop) {
 		final double[] xlist = new double[maxiters];
 		final double[] zlist = new double[maxiters];
 		final double[] llist = new double[maxiters];
@@ -90,8 +110,8 @@ public final class PiyavskiiAlgorithm extends DerivativeFreeOptimizer {
 		// first two trials
 		xlist[0] = a;
 		xlist[1] = b;
-		zlist[0] = func.apply(a);
-		zlist[1] = func.apply(b);
+		zlist[0] = func.applyAsDouble(a);
+		zlist[1] = func.applyAsDouble(b);
 		fev[0] = 2;
 		if (zlist[0] != zlist[0] || zlist[1] != zlist[1]) {
 			return Double.NaN;
@@ -100,6 +120,9 @@ public final class PiyavskiiAlgorithm extends DerivativeFreeOptimizer {
 		// main loop of adaptive Piyavskii algorithm
 		int k = 2;
 		while (fev[0] < maxiters && k < maxiters) {
+			if (stop.getAsBoolean()) {
+				return xlist[argmin(k, zlist)];
+			}
 
 			// compute the lipschitz constants
 			double xmax = 0.0;
@@ -151,7 +174,7 @@ public final class PiyavskiiAlgorithm extends DerivativeFreeOptimizer {
 				final double xmid = 0.5 * (xright + xleft);
 				final double zdif = 0.5 * (zleft - zright);
 				final double xtry = xmid + (zdif / lip);
-				final double ztry = func.apply(xtry);
+				final double ztry = func.applyAsDouble(xtry);
 				++fev[0];
 				if (ztry != ztry) {
 					break;
@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order1;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 import utils.Constants;
 
 /**
@@ -49,26 +49,27 @@ public final class CubicInterpolationAlgorithm extends DerivativeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f,
-			final Function<? super Double, Double> df, final double a, final double b) {
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final DoubleUnaryOperator df,
+			final double a, final double b) {
 
 		// prepare variables
+		start();
 		final int[] fev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = hybridcubic(f, df, a, b, myTol, myRelTol, myMaxEvals, fev, converged);
-		return new OptimizerSolution<>(result, fev[0], fev[0], converged[0]);
+		return finish(result, fev[0], fev[0], converged[0]);
 	}
 
-	private static double hybridcubic(final Function<? super Double, Double> func,
-			final Function<? super Double, Double> dfunc, double a, double b, final double tau, final double reltol,
+	private double hybridcubic(final DoubleUnaryOperator func,
+			final DoubleUnaryOperator dfunc, double a, double b, final double tau, final double reltol,
 			final int maxfev, final int[] fev, final boolean[] converged) {
 
 		// first convert the guess to a bracket
 		double el, c, fc, dfc;
-		double fa = func.apply(a);
-		double dfa = dfunc.apply(a);
+		double fa = func.applyAsDouble(a);
+		double dfa = dfunc.applyAsDouble(a);
 		fev[0] = 1;
 
 		while (true) {
@@ -82,23 +83,23 @@ public final class CubicInterpolationAlgorithm extends DerivativeOptimizer {
 			}
 
 			// check the budget
-			if (fev[0] >= maxfev) {
+			if (fev[0] >= maxfev || stopRequested()) {
 				return mid;
 			}
 
 			// interpolation step
 			el = 2.0 * Math.abs(b - a);
-			double gamma = cubic(a, fa, dfa, b, func.apply(b), dfunc.apply(b));
+			double gamma = cubic(a, fa, dfa, b, func.applyAsDouble(b), dfunc.applyAsDouble(b));
 			++fev[0];
 			c = step(a, b, gamma, tau);
-			fc = func.apply(c);
-			dfc = dfunc.apply(c);
+			fc = func.applyAsDouble(c);
+			dfc = dfunc.applyAsDouble(c);
 			++fev[0];
 			double[] updt = update(a, fa, dfa, b, c, fc, dfc);
 			a = updt[0];
 			b = updt[1];
-			fa = func.apply(a);
-			dfa = dfunc.apply(a);
+			fa = func.applyAsDouble(a);
+			dfa = dfunc.applyAsDouble(a);
 			++fev[0];
 
 			while (true) {
@@ -112,7 +113,7 @@ public final class CubicInterpolationAlgorithm extends DerivativeOptimizer {
 				}
 
 				// check budget
-				if (fev[0] >= maxfev) {
+				if (fev[0] >= maxfev || stopRequested()) {
 					return mid;
 				}
 
@@ -129,14 +130,14 @@ public final class CubicInterpolationAlgorithm extends DerivativeOptimizer {
 
 						// interpolation step
 						c = step(a, b, gamma, tau);
-						fc = func.apply(c);
-						dfc = dfunc.apply(c);
+						fc = func.applyAsDouble(c);
+						dfc = dfunc.applyAsDouble(c);
 						++fev[0];
 						updt = update(a, fa, dfa, b, c, fc, dfc);
 						a = updt[0];
 						b = updt[1];
-						fa = func.apply(a);
-						dfa = dfunc.apply(a);
+						fa = func.applyAsDouble(a);
+						dfa = dfunc.applyAsDouble(a);
 						++fev[0];
 					}
 				}
@@ -144,14 +145,14 @@ public final class CubicInterpolationAlgorithm extends DerivativeOptimizer {
 
 			// step 5 bisection step
 			c = 0.5 * (a + b);
-			fc = func.apply(c);
-			dfc = dfunc.apply(c);
+			fc = func.applyAsDouble(c);
+			dfc = dfunc.applyAsDouble(c);
 			++fev[0];
 			updt = update(a, fa, dfa, b, c, fc, dfc);
 			a = updt[0];
 			b = updt[1];
-			fa = func.apply(a);
-			dfa = dfunc.apply(a);
+			fa = func.applyAsDouble(a);
+			dfa = dfunc.applyAsDouble(a);
 			++fev[0];
 		}
 	}
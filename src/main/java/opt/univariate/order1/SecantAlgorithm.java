@@ -21,10 +21,10 @@ SOFTWARE.
 */
 package opt.univariate.order1;
 
-import java.util.function.Function;
+import java.util.function.DoubleUnaryOperator;
 
-import opt.OptimizerSolution;
 import opt.univariate.DerivativeOptimizer;
+import opt.univariate.UnivariateOptimizerSolution;
 
 /**
  * TODO: find which paper this is based on!
@@ -43,27 +43,28 @@ public final class SecantAlgorithm extends DerivativeOptimizer {
 	}
 
 	@Override
-	public final OptimizerSolution<Double, Double> optimize(final Function<? super Double, Double> f,
-			final Function<? super Double, Double> df, final double a, final double b) {
+	public final UnivariateOptimizerSolution optimizeDouble(final DoubleUnaryOperator f, final DoubleUnaryOperator df,
+			final double a, final double b) {
 
 		// prepare variables
+		start();
 		final int[] dfev = new int[1];
 		final boolean[] converged = new boolean[1];
 
 		// call main subroutine
 		final double result = secantMin(df, a, b, myTol, myRelTol, myMaxEvals, dfev, converged);
-		return new OptimizerSolution<>(result, 0, dfev[0], converged[0]);
+		return finish(result, 0, dfev[0], converged[0]);
 	}
 
-	private static double secantMin(final Function<? super Double, Double> dfunc, double a, double b, final double tol,
+	private double secantMin(final DoubleUnaryOperator dfunc, double a, double b, final double tol,
 			final double reltol, final int maxfev, final int[] dfev, final boolean[] converged) {
 
 		// generate two points
-		double dfb = dfunc.apply(b);
+		double dfb = dfunc.applyAsDouble(b);
 		double x0 = a + (b - a) / 3.0;
-		double df0 = dfunc.apply(x0);
+		double df0 = dfunc.applyAsDouble(x0);
 		double x1 = a + 2.0 * (b - a) / 3.0;
-		double df1 = dfunc.apply(x1);
+		double df1 = dfunc.applyAsDouble(x1);
 		dfev[0] = 3;
 		boolean secant = false;
 
@@ -102,13 +103,13 @@ public final class SecantAlgorithm extends DerivativeOptimizer {
 			}
 
 			// test for budget
-			if (dfev[0] >= maxfev) {
+			if (dfev[0] >= maxfev || stopRequested()) {
 				return x1;
 			}
 
 			// test sufficient reduction in the size of the bracket
 			double xtol = tol + reltol * Math.abs(mid);
-			final double df2 = dfunc.apply(x2);
+			final double df2 = dfunc.applyAsDouble(x2);
 			++dfev[0];
 			if (Math.abs(b - a) <= xtol) {
 				converged[0] = true;
@@ -0,0 +1,61 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package utils;
+
+/**
+ * Contiguous kernels that {@link BlasMath} hands its calls to when a faster
+ * implementation than its own loops is available. Offsets are zero-based, and
+ * the output array may be the same as an input array at the same offset.
+ */
+interface BlasKernels {
+
+	double ddot(int n, double[] dx, int ox, double[] dy, int oy);
+
+	/**
+	 * Computes z = y + a x.
+	 */
+	void daxpy(int n, double da, double[] dx, int ox, double[] dy, int oy, double[] dz, int oz);
+
+	/**
+	 * Computes y = a x.
+	 */
+	void dscal(int n, double da, double[] dx, int ox, double[] dy, int oy);
+
+	/**
+	 * Computes z = y + x.
+	 */
+	void dxpy(int n, double[] dx, int ox, double[] dy, int oy, double[] dz, int oz);
+
+	/**
+	 * Returns the Euclidean norm of x, or a negative number if the elements are
+	 * too large or too small to be summed without scaling.
+	 */
+	double dnrm2(int n, double[] dx, int ox);
+
+	/**
+	 * Computes c(i, j) = alpha * a(i, :) . b(j, :) + beta * c(i, j) over rows of
+	 * length k of matrices stored by rows, for i0 <= i < i1 and j0 <= j < j1, and
+	 * also j <= i if lower is set. If beta is zero, c is not read.
+	 */
+	void dgemmTile(int i0, int i1, int j0, int j1, boolean lower, int k, double alpha, double[] a, int lda,
+			double[] b, int ldb, double beta, double[] c, int ldc);
+}
@@ -7,8 +7,28 @@
  */
 package utils;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.IntConsumer;
+
 /**
+ * The level-1 kernels ddotm, dscalm, dscal1, daxpym, daxpy1, dnrm2 (with unit
+ * increment), dxpym and dxpy1 use SIMD instructions through the incubating
+ * Vector API when the JVM runs on JDK 17 or later with --add-modules
+ * jdk.incubator.vector, and the scalar loops below otherwise. Setting the
+ * system property optim4j.simd to false disables the vectorized kernels. The
+ * two paths agree exactly for the element-wise kernels other than the axpy
+ * kernels, which differ by at most one rounding per element, and within a few
+ * units in the last place of the largest partial sum for the reductions ddotm
+ * and dnrm2.
  * 
+ * The level-3 kernels dgemmnt and dgemmt work on matrices stored by rows in a
+ * single array with a leading dimension, such as a {@link DenseMatrix}. They
+ * are computed in square tiles, which are also vectorized when the inner
+ * dimension is long enough, and when given an executor they distribute the
+ * tiles over it. Each element of the output is computed by one task in a fixed
+ * order, so the result does not depend on the executor.
  */
 public final class BlasMath {
 
@@ -18,6 +38,36 @@ public final class BlasMath {
 	public static final double[] D1MACH = { Double.MIN_VALUE, Double.MAX_VALUE, RealMath.pow(2.0, -52),
 			RealMath.pow(2.0, -51), Math.log(2.0) / Math.log(10.0) };
 
+	// the vectorized kernels, or null if they are not available, and the length
+	// below which the scalar loops are faster
+	private static final BlasKernels KERNELS = loadKernels();
+	private static final int SIMD_MIN_LENGTH = 16;
+
+	// the tile size of the level-3 kernels, and the number of multiply-adds below
+	// which they ignore the executor
+	private static final int BLOCK = 32;
+	private static final long PARALLEL_MIN_WORK = 1L << 18;
+
+	private static BlasKernels loadKernels() {
+		if (!Boolean.parseBoolean(System.getProperty("optim4j.simd", "true"))) {
+			return null;
+		}
+		try {
+			return (BlasKernels) Class.forName("utils.VectorBlasKernels").getDeclaredConstructor().newInstance();
+		} catch (final ReflectiveOperationException | LinkageError | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Returns whether the level-1 kernels use the vectorized implementation.
+	 * 
+	 * @return
+	 */
+	public static final boolean isVectorized() {
+		return KERNELS != null;
+	}
+
 	// ==========================================================================
 	// STATIC METHODS
 	// ==========================================================================
@@ -28,12 +78,16 @@ public final class BlasMath {
 	 * @return
 	 */
 	public static final double denorm(final int n, final double[] x) {
+		return denorm(n, x, 0);
+	}
+
+	private static double denorm(final int n, final double[] x, final int ix) {
 		final double rdwarf = 3.834e-20, rgiant = 1.304e19, floatn = n, agiant = rgiant / floatn;
 		double s1, s2, s3, x1max, x3max, xabs;
 		s1 = s2 = s3 = x1max = x3max = 0.0;
 
 		for (int i = 1; i <= n; ++i) {
-			xabs = Math.abs(x[i - 1]);
+			xabs = Math.abs(x[ix + i - 1]);
 			if (xabs <= rdwarf || xabs >= agiant) {
 				if (xabs > rdwarf) {
 
@@ -74,6 +128,9 @@ public final class BlasMath {
 	}
 
 	/**
+	 * Computes the QR factorization with column pivoting of the m-by-n matrix a,
+	 * as {@link #dqrfac(int, int, double[], int, boolean, int[], int, double[],
+	 * double[], double[])} does, on a copy of a stored by columns.
 	 *
 	 * @param m
 	 * @param n
@@ -88,19 +145,48 @@ public final class BlasMath {
 	 */
 	public static final void dqrfac(final int m, final int n, final double[][] a, final int lda, final boolean pivot,
 			final int[] ipvt, final int lipvt, final double[] sigma, final double[] acnorm, final double[] wa) {
-		int i, j, jp1, k, kmax, minmn, l;
+		final double[] cols = new double[m * n];
+		for (int i = 0; i < m; ++i) {
+			for (int j = 0; j < n; ++j) {
+				cols[i + j * m] = a[i][j];
+			}
+		}
+		dqrfac(m, n, cols, m, pivot, ipvt, lipvt, sigma, acnorm, wa);
+		for (int i = 0; i < m; ++i) {
+			for (int j = 0; j < n; ++j) {
+				a[i][j] = cols[i + j * m];
+			}
+		}
+	}
+
+	/**
+	 * Computes the QR factorization with column pivoting of the m-by-n matrix a,
+	 * stored by columns as in MINPACK, so that element (i, j) is at index i + j *
+	 * lda. Every Householder transformation then reads and writes contiguous
+	 * columns.
+	 *
+	 * @param m
+	 * @param n
+	 * @param a
+	 * @param lda
+	 * @param pivot
+	 * @param ipvt
+	 * @param lipvt
+	 * @param sigma
+	 * @param acnorm
+	 * @param wa
+	 */
+	public static final void dqrfac(final int m, final int n, final double[] a, final int lda, final boolean pivot,
+			final int[] ipvt, final int lipvt, final double[] sigma, final double[] acnorm, final double[] wa) {
+		int i, j, jp1, k, kmax, minmn, ja, ka;
 		double ajnorm, epsmch, p05 = 5.0e-2, sum, temp;
-		final double[] cola = new double[m];
 
 		// epsmch is the machine precision
 		epsmch = D1MACH[4 - 1];
 
 		// COMPUTE THE INITIAL COLUMN NORMS AND INITIALIZE SEVERAL ARRAYS
 		for (j = 1; j <= n; ++j) {
-			for (l = 1; l <= m; ++l) {
-				cola[l - 1] = a[l - 1][j - 1];
-			}
-			acnorm[j - 1] = denorm(m, cola);
+			acnorm[j - 1] = denorm(m, a, (j - 1) * lda);
 			sigma[j - 1] = acnorm[j - 1];
 			wa[j - 1] = sigma[j - 1];
 			if (pivot) {
@@ -111,6 +197,7 @@ public final class BlasMath {
 		// REDUCE A TO R WITH HOUSEHOLDER TRANSFORMATIONS
 		minmn = Math.min(m, n);
 		for (j = 1; j <= minmn; ++j) {
+			ja = (j - 1) * lda;
 
 			if (pivot) {
 
@@ -122,10 +209,11 @@ public final class BlasMath {
 					}
 				}
 				if (kmax != j) {
+					ka = (kmax - 1) * lda;
 					for (i = 1; i <= m; ++i) {
-						temp = a[i - 1][j - 1];
-						a[i - 1][j - 1] = a[i - 1][kmax - 1];
-						a[i - 1][kmax - 1] = temp;
+						temp = a[ja + i - 1];
+						a[ja + i - 1] = a[ka + i - 1];
+						a[ka + i - 1] = temp;
 					}
 					sigma[kmax - 1] = sigma[j - 1];
 					wa[kmax - 1] = wa[j - 1];
@@ -137,47 +225,42 @@ public final class BlasMath {
 
 			// COMPUTE THE HOUSEHOLDER TRANSFORMATION TO REDUCE THE
 			// J-TH COLUMN OF A TO A MULTIPLE OF THE J-TH UNIT VECTOR
-			for (l = j; l <= m; ++l) {
-				cola[l - j] = a[l - 1][j - 1];
-			}
-			ajnorm = denorm(m - j + 1, cola);
+			ajnorm = denorm(m - j + 1, a, ja + j - 1);
 			if (ajnorm == 0.0) {
 				sigma[j - 1] = -ajnorm;
 				continue;
 			}
-			if (a[j - 1][j - 1] < 0.0) {
+			if (a[ja + j - 1] < 0.0) {
 				ajnorm = -ajnorm;
 			}
 			for (i = j; i <= m; ++i) {
-				a[i - 1][j - 1] /= ajnorm;
+				a[ja + i - 1] /= ajnorm;
 			}
-			a[j - 1][j - 1] += 1.0;
+			a[ja + j - 1] += 1.0;
 
 			// APPLY THE TRANSFORMATION TO THE REMAINING COLUMNS
 			// AND UPDATE THE NORMS
 			jp1 = j + 1;
 			if (n >= jp1) {
 				for (k = jp1; k <= n; ++k) {
+					ka = (k - 1) * lda;
 					sum = 0.0;
 					for (i = j; i <= m; ++i) {
-						sum += a[i - 1][j - 1] * a[i - 1][k - 1];
+						sum += a[ja + i - 1] * a[ka + i - 1];
 					}
-					temp = sum / a[j - 1][j - 1];
+					temp = sum / a[ja + j - 1];
 					for (i = j; i <= m; ++i) {
-						a[i - 1][k - 1] -= temp * a[i - 1][j - 1];
+						a[ka + i - 1] -= temp * a[ja + i - 1];
 					}
 					if (!pivot || sigma[k - 1] == 0.0) {
 						continue;
 					}
-					temp = a[j - 1][k - 1] / sigma[k - 1];
+					temp = a[ka + j - 1] / sigma[k - 1];
 					sigma[k - 1] *= Math.sqrt(Math.max(0.0, 1.0 - temp * temp));
 					if (p05 * (sigma[k - 1] / wa[k - 1]) * (sigma[k - 1] / wa[k - 1]) > epsmch) {
 						continue;
 					}
-					for (l = jp1; l <= m; ++l) {
-						cola[l - jp1] = a[l - 1][k - 1];
-					}
-					sigma[k - 1] = denorm(m - j, cola);
+					sigma[k - 1] = denorm(m - j, a, ka + j);
 					wa[k - 1] = sigma[k - 1];
 				}
 			}
@@ -198,6 +281,9 @@ public final class BlasMath {
 		if (n <= 0) {
 			return 0.0;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			return KERNELS.ddot(n, dx, idx - 1, dy, idy - 1);
+		}
 
 		// CODE FOR BOTH INCREMENTS EQUAL TO 1
 		double dtemp = 0.0;
@@ -229,6 +315,10 @@ public final class BlasMath {
 		if (n <= 0) {
 			return;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.dscal(n, da, dx, idx - 1, dx, idx - 1);
+			return;
+		}
 
 		// code for increment equal to 1
 		final int m = n % 5;
@@ -263,6 +353,10 @@ public final class BlasMath {
 		if (n <= 0) {
 			return;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.dscal(n, da, dx, idx - 1, dy, idy - 1);
+			return;
+		}
 
 		// code for increment equal to 1
 		final int m = n % 5;
@@ -297,6 +391,10 @@ public final class BlasMath {
 		if (n <= 0 || da == 0.0) {
 			return;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.daxpy(n, da, dx, idx - 1, dy, idy - 1, dy, idy - 1);
+			return;
+		}
 
 		// CODE FOR BOTH INCREMENTS EQUAL TO 1
 		final int m = n % 4;
@@ -335,7 +433,11 @@ public final class BlasMath {
 		if (da == 0.0) {
 
 			// COPY Y INTO Z
-			System.arraycopy(dy, idx - 1, dz, idz - 1, n);
+			System.arraycopy(dy, idy - 1, dz, idz - 1, n);
+			return;
+		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.daxpy(n, da, dx, idx - 1, dy, idy - 1, dz, idz - 1);
 			return;
 		}
 
@@ -369,6 +471,12 @@ public final class BlasMath {
 		if (n <= 0) {
 			return 0.0;
 		}
+		if (KERNELS != null && incx == 1 && n >= SIMD_MIN_LENGTH) {
+			final double nrm = KERNELS.dnrm2(n, dx, idx - 1);
+			if (nrm >= 0.0 || Double.isNaN(nrm)) {
+				return nrm;
+			}
+		}
 
 		double cutlo = 8.23181e-11, cuthi = 1.30438e19, hitest, sum = 0.0, xmax = 0.0;
 		int i = 1, j, next = 30, nn = n * incx;
@@ -493,6 +601,10 @@ public final class BlasMath {
 		if (n <= 0) {
 			return;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.dxpy(n, dx, idx - 1, dy, idy - 1, dy, idy - 1);
+			return;
+		}
 
 		// CODE FOR BOTH INCREMENTS EQUAL TO 1
 		final int m = n % 4;
@@ -527,6 +639,10 @@ public final class BlasMath {
 		if (n <= 0) {
 			return;
 		}
+		if (KERNELS != null && n >= SIMD_MIN_LENGTH) {
+			KERNELS.dxpy(n, dx, idx - 1, dy, idy - 1, dz, idz - 1);
+			return;
+		}
 
 		// CODE FOR BOTH INCREMENTS EQUAL TO 1
 		final int m = n % 4;
@@ -540,9 +656,224 @@ public final class BlasMath {
 		}
 		for (int i = m; i < n; i += 4) {
 			dz[i + idz - 1] = dy[i + idy - 1] + dx[i + idx - 1];
-			dz[i + 1 + idy - 1] = dy[i + 1 + idy - 1] + dx[i + 1 + idx - 1];
-			dz[i + 2 + idy - 1] = dy[i + 2 + idy - 1] + dx[i + 2 + idx - 1];
-			dz[i + 3 + idy - 1] = dy[i + 3 + idy - 1] + dx[i + 3 + idx - 1];
+			dz[i + 1 + idz - 1] = dy[i + 1 + idy - 1] + dx[i + 1 + idx - 1];
+			dz[i + 2 + idz - 1] = dy[i + 2 + idy - 1] + dx[i + 2 + idx - 1];
+			dz[i + 3 + idz - 1] = dy[i + 3 + idy - 1] + dx[i + 3 + idx - 1];
+		}
+	}
+
+	/**
+	 * Computes the m-by-n matrix c = alpha * a * b^T + beta * c, where a is
+	 * m-by-k and b is n-by-k. All matrices are stored by rows with the given
+	 * leading dimensions, so every element of c is a dot product of a row of a and
+	 * a row of b. If beta is zero, c need not be initialized.
+	 * 
+	 * @param m
+	 * @param n
+	 * @param k
+	 * @param alpha
+	 * @param a
+	 * @param lda
+	 * @param b
+	 * @param ldb
+	 * @param beta
+	 * @param c
+	 * @param ldc
+	 * @param executor
+	 */
+	public static final void dgemmnt(final int m, final int n, final int k, final double alpha, final double[] a,
+			final int lda, final double[] b, final int ldb, final double beta, final double[] c, final int ldc,
+			final Executor executor) {
+		if (m <= 0 || n <= 0) {
+			return;
+		}
+		final int nb = (n + BLOCK - 1) / BLOCK;
+		final int tiles = ((m + BLOCK - 1) / BLOCK) * nb;
+		forEachTile(tiles, (long) m * n * k, t -> {
+			final int i0 = (t / nb) * BLOCK, j0 = (t % nb) * BLOCK;
+			dgemmTile(i0, Math.min(i0 + BLOCK, m), j0, Math.min(j0 + BLOCK, n), false, k, alpha, a, lda, b, ldb,
+					beta, c, ldc);
+		}, executor);
+	}
+
+	/**
+	 * Computes c = alpha * a * b^T + beta * c for the dense matrices a, b and c,
+	 * as in {@link #dgemmnt(int, int, int, double, double[], int, double[], int,
+	 * double, double[], int, Executor)}.
+	 * 
+	 * @param alpha
+	 * @param a
+	 * @param b
+	 * @param beta
+	 * @param c
+	 * @param executor
+	 */
+	public static final void dgemmnt(final double alpha, final DenseMatrix a, final DenseMatrix b, final double beta,
+			final DenseMatrix c, final Executor executor) {
+		dgemmnt(c.getRows(), c.getCols(), a.getCols(), alpha, a.getData(), a.getLeadingDimension(), b.getData(),
+				b.getLeadingDimension(), beta, c.getData(), c.getLeadingDimension(), executor);
+	}
+
+	/**
+	 * Computes the lower triangle of the n-by-n matrix c = alpha * a * b^T + beta
+	 * * c, where a and b are n-by-k and stored by rows, and the product is known
+	 * to be symmetric. With a = y * diag(w) and b = y this is a symmetric rank-k
+	 * update with the (possibly negative) weights w. The strict upper triangle of
+	 * c is not referenced, and if beta is zero the lower triangle need not be
+	 * initialized.
+	 * 
+	 * @param n
+	 * @param k
+	 * @param alpha
+	 * @param a
+	 * @param lda
+	 * @param b
+	 * @param ldb
+	 * @param beta
+	 * @param c
+	 * @param ldc
+	 * @param executor
+	 */
+	public static final void dgemmt(final int n, final int k, final double alpha, final double[] a, final int lda,
+			final double[] b, final int ldb, final double beta, final double[] c, final int ldc,
+			final Executor executor) {
+		if (n <= 0) {
+			return;
+		}
+		final int nb = (n + BLOCK - 1) / BLOCK;
+		forEachTile(nb, (long) n * n * k / 2, t -> {
+			final int i0 = t * BLOCK, i1 = Math.min(i0 + BLOCK, n);
+			for (int j0 = 0; j0 < i1; j0 += BLOCK) {
+				dgemmTile(i0, i1, j0, Math.min(j0 + BLOCK, n), true, k, alpha, a, lda, b, ldb, beta, c, ldc);
+			}
+		}, executor);
+	}
+
+	/**
+	 * Computes the lower triangle of c = alpha * a * b^T + beta * c for the dense
+	 * matrices a, b and c, as in {@link #dgemmt(int, int, double, double[], int,
+	 * double[], int, double, double[], int, Executor)}.
+	 * 
+	 * @param alpha
+	 * @param a
+	 * @param b
+	 * @param beta
+	 * @param c
+	 * @param executor
+	 */
+	public static final void dgemmt(final double alpha, final DenseMatrix a, final DenseMatrix b, final double beta,
+			final DenseMatrix c, final Executor executor) {
+		dgemmt(c.getRows(), a.getCols(), alpha, a.getData(), a.getLeadingDimension(), b.getData(),
+				b.getLeadingDimension(), beta, c.getData(), c.getLeadingDimension(), executor);
+	}
+
+	// computes c(i, j) = alpha * a(i, :) . b(j, :) + beta * c(i, j) for
+	// i0 <= i < i1 and j0 <= j < j1, and also j <= i if lower is set; two rows of
+	// a and four rows of b are combined at a time to keep eight independent sums
+	// in registers
+	private static void dgemmTile(final int i0, final int i1, final int j0, final int j1, final boolean lower,
+			final int k, final double alpha, final double[] a, final int lda, final double[] b, final int ldb,
+			final double beta, final double[] c, final int ldc) {
+		if (KERNELS != null && k >= SIMD_MIN_LENGTH) {
+			KERNELS.dgemmTile(i0, i1, j0, j1, lower, k, alpha, a, lda, b, ldb, beta, c, ldc);
+			return;
+		}
+		int i = i0;
+		for (; i + 1 < i1; i += 2) {
+			final int ia0 = i * lda, ia1 = ia0 + lda, ic0 = i * ldc, ic1 = ic0 + ldc;
+			final int jend = lower ? Math.min(j1, i + 1) : j1;
+			int j = j0;
+			for (; j + 3 < jend; j += 4) {
+				final int jb0 = j * ldb, jb1 = jb0 + ldb, jb2 = jb1 + ldb, jb3 = jb2 + ldb;
+				double s00 = 0.0, s01 = 0.0, s02 = 0.0, s03 = 0.0;
+				double s10 = 0.0, s11 = 0.0, s12 = 0.0, s13 = 0.0;
+				for (int l = 0; l < k; ++l) {
+					final double x0 = a[ia0 + l], x1 = a[ia1 + l];
+					final double y0 = b[jb0 + l], y1 = b[jb1 + l], y2 = b[jb2 + l], y3 = b[jb3 + l];
+					s00 += x0 * y0;
+					s01 += x0 * y1;
+					s02 += x0 * y2;
+					s03 += x0 * y3;
+					s10 += x1 * y0;
+					s11 += x1 * y1;
+					s12 += x1 * y2;
+					s13 += x1 * y3;
+				}
+				c[ic0 + j] = scaleAdd(alpha, s00, beta, c[ic0 + j]);
+				c[ic0 + j + 1] = scaleAdd(alpha, s01, beta, c[ic0 + j + 1]);
+				c[ic0 + j + 2] = scaleAdd(alpha, s02, beta, c[ic0 + j + 2]);
+				c[ic0 + j + 3] = scaleAdd(alpha, s03, beta, c[ic0 + j + 3]);
+				c[ic1 + j] = scaleAdd(alpha, s10, beta, c[ic1 + j]);
+				c[ic1 + j + 1] = scaleAdd(alpha, s11, beta, c[ic1 + j + 1]);
+				c[ic1 + j + 2] = scaleAdd(alpha, s12, beta, c[ic1 + j + 2]);
+				c[ic1 + j + 3] = scaleAdd(alpha, s13, beta, c[ic1 + j + 3]);
+			}
+			for (; j < jend; ++j) {
+				final int jb0 = j * ldb;
+				double s0 = 0.0, s1 = 0.0;
+				for (int l = 0; l < k; ++l) {
+					s0 += a[ia0 + l] * b[jb0 + l];
+					s1 += a[ia1 + l] * b[jb0 + l];
+				}
+				c[ic0 + j] = scaleAdd(alpha, s0, beta, c[ic0 + j]);
+				c[ic1 + j] = scaleAdd(alpha, s1, beta, c[ic1 + j]);
+			}
+
+			// the diagonal element of the second row
+			if (lower && i + 1 >= j0 && i + 1 < j1) {
+				final int jb0 = (i + 1) * ldb;
+				double s1 = 0.0;
+				for (int l = 0; l < k; ++l) {
+					s1 += a[ia1 + l] * b[jb0 + l];
+				}
+				c[ic1 + i + 1] = scaleAdd(alpha, s1, beta, c[ic1 + i + 1]);
+			}
+		}
+		for (; i < i1; ++i) {
+			final int ia0 = i * lda, ic0 = i * ldc;
+			final int jend = lower ? Math.min(j1, i + 1) : j1;
+			for (int j = j0; j < jend; ++j) {
+				final int jb0 = j * ldb;
+				double s0 = 0.0;
+				for (int l = 0; l < k; ++l) {
+					s0 += a[ia0 + l] * b[jb0 + l];
+				}
+				c[ic0 + j] = scaleAdd(alpha, s0, beta, c[ic0 + j]);
+			}
+		}
+	}
+
+	private static double scaleAdd(final double alpha, final double sum, final double beta, final double c) {
+		if (beta == 0.0) {
+			return alpha * sum;
+		} else {
+			return alpha * sum + beta * c;
+		}
+	}
+
+	private static void forEachTile(final int tiles, final long work, final IntConsumer body,
+			final Executor executor) {
+		if (executor == null || tiles <= 1 || work < PARALLEL_MIN_WORK) {
+			for (int t = 0; t < tiles; ++t) {
+				body.accept(t);
+			}
+			return;
+		}
+		final CompletableFuture<?>[] futures = new CompletableFuture<?>[tiles];
+		for (int t = 0; t < tiles; ++t) {
+			final int tile = t;
+			futures[t] = CompletableFuture.runAsync(() -> body.accept(tile), executor);
+		}
+		try {
+			CompletableFuture.allOf(futures).join();
+		} catch (final CompletionException e) {
+			final Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			} else if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
 		}
 	}
 
@@ -0,0 +1,175 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package utils;
+
+import java.util.Arrays;
+
+/**
+ * A dense matrix stored by rows in a single array, so that element (i, j) is
+ * at index i * ld + j of the data for a leading dimension ld of at least the
+ * number of columns. Keeping the rows contiguous in one array lets the kernels
+ * in {@link BlasMath} walk a matrix without loading a separate row object per
+ * row. A matrix stored by columns, as in Fortran, is the row-major storage of
+ * its transpose.
+ */
+public final class DenseMatrix {
+
+	private final int myRows, myCols, myLd;
+	private final double[] myData;
+
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 * @param ld
+	 */
+	public DenseMatrix(final int rows, final int cols, final int ld) {
+		if (rows < 0 || cols < 0 || ld < Math.max(1, cols)) {
+			throw new IllegalArgumentException(
+					"invalid dimensions " + rows + "x" + cols + " with leading dimension " + ld);
+		}
+		myRows = rows;
+		myCols = cols;
+		myLd = ld;
+		myData = new double[rows * ld];
+	}
+
+	/**
+	 * 
+	 * @param rows
+	 * @param cols
+	 */
+	public DenseMatrix(final int rows, final int cols) {
+		this(rows, cols, Math.max(1, cols));
+	}
+
+	/**
+	 * Returns a copy of the given matrix, whose rows must all have the same
+	 * length.
+	 * 
+	 * @param a
+	 * @return
+	 */
+	public static DenseMatrix of(final double[][] a) {
+		final int cols = a.length == 0 ? 0 : a[0].length;
+		final DenseMatrix result = new DenseMatrix(a.length, cols);
+		for (int i = 0; i < a.length; ++i) {
+			System.arraycopy(a[i], 0, result.myData, i * result.myLd, cols);
+		}
+		return result;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final int getRows() {
+		return myRows;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final int getCols() {
+		return myCols;
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final int getLeadingDimension() {
+		return myLd;
+	}
+
+	/**
+	 * Returns the backing array, which is shared with this matrix.
+	 * 
+	 * @return
+	 */
+	public final double[] getData() {
+		return myData;
+	}
+
+	/**
+	 * 
+	 * @param i
+	 * @param j
+	 * @return
+	 */
+	public final double get(final int i, final int j) {
+		return myData[i * myLd + j];
+	}
+
+	/**
+	 * 
+	 * @param i
+	 * @param j
+	 * @param value
+	 */
+	public final void set(final int i, final int j, final double value) {
+		myData[i * myLd + j] = value;
+	}
+
+	/**
+	 * Sets every element, including any padding between the rows, to the given
+	 * value.
+	 * 
+	 * @param value
+	 */
+	public final void fill(final double value) {
+		Arrays.fill(myData, value);
+	}
+
+	/**
+	 * Copies the elements of another matrix of the same dimensions into this one.
+	 * 
+	 * @param other
+	 */
+	public final void copyFrom(final DenseMatrix other) {
+		if (other.myRows != myRows || other.myCols != myCols) {
+			throw new IllegalArgumentException("expected a " + myRows + "x" + myCols + " matrix, got "
+					+ other.myRows + "x" + other.myCols);
+		}
+		if (other.myLd == myLd) {
+			System.arraycopy(other.myData, 0, myData, 0, myData.length);
+		} else {
+			for (int i = 0; i < myRows; ++i) {
+				System.arraycopy(other.myData, i * other.myLd, myData, i * myLd, myCols);
+			}
+		}
+	}
+
+	/**
+	 * Returns a copy of this matrix as an array of rows.
+	 * 
+	 * @return
+	 */
+	public final double[][] toArray() {
+		final double[][] result = new double[myRows][myCols];
+		for (int i = 0; i < myRows; ++i) {
+			System.arraycopy(myData, i * myLd, result[i], 0, myCols);
+		}
+		return result;
+	}
+}
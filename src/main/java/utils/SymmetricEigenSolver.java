@@ -0,0 +1,963 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package utils;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Computes all eigenvalues and eigenvectors of a dense symmetric matrix. The
+ * matrix is first reduced to tridiagonal form with blocks of Householder
+ * reflectors, as in the LAPACK routine DSYTRD, so that most of the reduction is
+ * done by the matrix products in {@link BlasMath}. The tridiagonal problem is
+ * then solved by Cuppen's divide-and-conquer method with the deflation and the
+ * eigenvector formula of Gu and Eisenstat, as in DSTEDC, and the eigenvectors
+ * are transformed back with the same blocks of reflectors. Small subproblems
+ * are solved by the implicit QL method.
+ * 
+ * With a warm start, approximate eigenvectors, such as those of a nearby
+ * matrix, are instead improved by the iterative refinement of Ogita and
+ * Aishima, which converges quadratically and only needs matrix products. If it
+ * does not reach full accuracy in a few steps, the matrix is decomposed from
+ * scratch.
+ * 
+ * If a pool is given, the two halves of every large subproblem are solved as
+ * separate fork-join tasks and the matrix products are tiled over the pool. An
+ * instance keeps its workspace between calls and must not be shared between
+ * threads.
+ * 
+ * 
+ * REFERENCES:
+ * 
+ * [1] Cuppen, Jan JM. "A divide and conquer method for the symmetric
+ * tridiagonal eigenproblem." Numerische Mathematik 36.2 (1980): 177-195.
+ * 
+ * [2] Gu, Ming, and Stanley C. Eisenstat. "A divide-and-conquer algorithm for
+ * the symmetric tridiagonal eigenproblem." SIAM Journal on Matrix Analysis and
+ * Applications 16.1 (1995): 172-191.
+ * 
+ * [3] Ogita, Takeshi, and Kensuke Aishima. "Iterative refinement for symmetric
+ * eigenvalue decomposition." Japan Journal of Industrial and Applied
+ * Mathematics 35.3 (2018): 1007-1035.
+ * 
+ * [4] Anderson, Edward, et al. LAPACK Users' guide. Society for Industrial and
+ * Applied Mathematics, 1999.
+ */
+public final class SymmetricEigenSolver {
+
+	// the number of reflectors in a block, the order up to which the reduction is
+	// not blocked, the largest subproblem solved by the QL method, and the
+	// smallest subproblem whose halves are solved in parallel
+	private static final int BLOCK = 32;
+	private static final int MIN_BLOCKED = 64;
+	private static final int LEAF = 25;
+	private static final int PARALLEL_MIN = 128;
+
+	// the number of refinement steps of a warm start, and the largest correction
+	// of the eigenvectors in the last step, whose square bounds the final error
+	private static final int MAX_REFINE = 3;
+	private static final double REFINE_TOL = Math.sqrt(Math.ulp(1.0));
+
+	private static final int MAX_ITERS = 64;
+	private static final double EPS = Math.ulp(1.0);
+	private static final double SQRT1_2 = Math.sqrt(0.5);
+
+	// the kinds of eigenvector of a merged subproblem: nonzero in the first half
+	// only, in both halves, or in the second half only
+	private static final int UPPER = 0, MIXED = 1, LOWER = 2;
+
+	private final ForkJoinPool myPool;
+	private final boolean myWarmStart;
+
+	// workspace: the lower triangle of the matrix, which is overwritten by the
+	// reflectors, the tridiagonal matrix and the eigenvectors stored by rows
+	private int myN;
+	private double[] myA, myD, myE, myTau, myZt, myWork;
+	private double[] myPanel, myP, myQ, myV, myVt, myX, myT;
+	private double[] myXc, myY, myS, myR;
+
+	/**
+	 * 
+	 * @param pool
+	 * @param warmStart
+	 */
+	public SymmetricEigenSolver(final ForkJoinPool pool, final boolean warmStart) {
+		myPool = pool;
+		myWarmStart = warmStart;
+	}
+
+	/**
+	 * 
+	 * @param pool
+	 */
+	public SymmetricEigenSolver(final ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	/**
+	 * 
+	 */
+	public SymmetricEigenSolver() {
+		this(null);
+	}
+
+	/**
+	 * Computes the eigenvalues of the symmetric matrix a in ascending order, and
+	 * the corresponding orthonormal eigenvectors as the columns of z. Only the
+	 * lower triangle of a is read, and a is not modified. If a is not finite, the
+	 * result is not finite either.
+	 * 
+	 * @param a
+	 * @param w
+	 * @param z
+	 */
+	public final void decompose(final DenseMatrix a, final double[] w, final DenseMatrix z) {
+		decompose(a, w, z, null);
+	}
+
+	/**
+	 * Computes the eigenvalues and eigenvectors of a as
+	 * {@link #decompose(DenseMatrix, double[], DenseMatrix)} does. If the warm
+	 * start is enabled and guess is not null, its columns are taken as
+	 * approximate eigenvectors to refine. Only the lower triangle of a is read,
+	 * and z may not be the same matrix as guess.
+	 * 
+	 * @param a
+	 * @param w
+	 * @param z
+	 * @param guess
+	 */
+	public final void decompose(final DenseMatrix a, final double[] w, final DenseMatrix z,
+			final DenseMatrix guess) {
+		final int n = a.getRows();
+		if (a.getCols() != n || z.getRows() != n || z.getCols() != n || w.length < n
+				|| (guess != null && (guess.getRows() != n || guess.getCols() != n))) {
+			throw new IllegalArgumentException("expected square matrices of order " + n);
+		}
+		if (n == 0) {
+			return;
+		}
+		ensureWorkspace(n);
+
+		// copy the lower triangle
+		final double[] src = a.getData();
+		final int lda = a.getLeadingDimension();
+		for (int i = 0; i < n; ++i) {
+			System.arraycopy(src, i * lda, myA, i * n, i + 1);
+		}
+
+		if (!myWarmStart || guess == null || !refine(n, guess)) {
+
+			// reduce to the tridiagonal matrix T = Q^T * A * Q, find the
+			// eigenvectors of T and multiply them by Q
+			tridiagonalize(n);
+			Arrays.fill(myZt, 0, n * n, 0.0);
+			if (myPool == null) {
+				divide(0, n);
+			} else {
+				myPool.invoke(new Divide(0, n));
+			}
+			transformBack(n);
+		}
+
+		// store the eigenvectors as columns
+		System.arraycopy(myD, 0, w, 0, n);
+		final double[] dst = z.getData();
+		final int ldz = z.getLeadingDimension();
+		for (int i = 0; i < n; ++i) {
+			for (int j = 0; j < n; ++j) {
+				dst[i * ldz + j] = myZt[j * n + i];
+			}
+		}
+	}
+
+	private void ensureWorkspace(final int n) {
+		if (myN == n) {
+			return;
+		}
+		myN = n;
+		myA = new double[n * n];
+		myZt = new double[n * n];
+		myD = new double[n];
+		myE = new double[n];
+		myTau = new double[n];
+		myWork = new double[n];
+		myPanel = new double[BLOCK * n];
+		myP = new double[2 * BLOCK * n];
+		myQ = new double[2 * BLOCK * n];
+		myV = new double[BLOCK * n];
+		myVt = new double[BLOCK * n];
+		myX = new double[BLOCK * n];
+		myT = new double[BLOCK * BLOCK];
+		myXc = myY = myS = myR = null;
+	}
+
+	// ==========================================================================
+	// REFINEMENT
+	// ==========================================================================
+	// Given X with the approximate eigenvectors as columns, a step of Ogita and
+	// Aishima computes R = I - X^T * X, S = X^T * A * X, the eigenvalues
+	// lambda(k) = S(k, k) / (1 - R(k, k)) and X = X + X * E, where E(k, k) =
+	// R(k, k) / 2 and E(k, l) = (S(k, l) + lambda(l) * R(k, l)) / (lambda(l) -
+	// lambda(k)). If the error of X is e, the corrections E are of order e and
+	// the error of the new X is of order e^2. A correction that is not small
+	// means that the guess is too far from the solution, or that it does not
+	// separate close eigenvalues, so the refinement is abandoned.
+	private boolean refine(final int n, final DenseMatrix guess) {
+		if (myXc == null) {
+			myXc = new double[n * n];
+			myY = new double[n * n];
+			myS = new double[n * n];
+			myR = new double[n * n];
+		}
+		final double[] a = myA, x = myXc, e = myY, xt = myZt, s = myS, r = myR, d = myD;
+
+		// the full matrix, keeping the lower triangle for a fallback, and X and X^T
+		// from the guess
+		for (int i = 0; i < n; ++i) {
+			for (int j = 0; j < i; ++j) {
+				a[j * n + i] = a[i * n + j];
+			}
+		}
+		final double[] g = guess.getData();
+		final int ldg = guess.getLeadingDimension();
+		for (int i = 0; i < n; ++i) {
+			System.arraycopy(g, i * ldg, x, i * n, n);
+			for (int j = 0; j < n; ++j) {
+				xt[j * n + i] = g[i * ldg + j];
+			}
+		}
+
+		for (int step = 0; step < MAX_REFINE; ++step) {
+
+			// S = X^T * A * X and R = I - X^T * X, with (A * X)^T in e
+			BlasMath.dgemmnt(n, n, n, 1.0, xt, n, a, n, 0.0, e, n, myPool);
+			BlasMath.dgemmt(n, n, 1.0, xt, n, e, n, 0.0, s, n, myPool);
+			BlasMath.dgemmt(n, n, -1.0, xt, n, xt, n, 0.0, r, n, myPool);
+			double anorm = 0.0;
+			for (int k = 0; k < n; ++k) {
+				r[k * n + k] += 1.0;
+				d[k] = s[k * n + k] / (1.0 - r[k * n + k]);
+				anorm = Math.max(anorm, Math.abs(d[k]));
+			}
+
+			// the corrections E^T, where a pair of vectors that is not coupled in S
+			// beyond rounding is only kept orthogonal; E(k, l) + E(l, k) = R(k, l)
+			// either way
+			final double tol = EPS * anorm;
+			double emax = 0.0;
+			for (int k = 0; k < n; ++k) {
+				e[k * n + k] = 0.5 * r[k * n + k];
+				for (int l = 0; l < k; ++l) {
+					final double skl = s[k * n + l], rkl = r[k * n + l];
+					final double nkl = skl + d[l] * rkl, nlk = skl + d[k] * rkl;
+					final double ekl, elk;
+					if (Math.abs(nkl) <= tol && Math.abs(nlk) <= tol) {
+						ekl = elk = 0.5 * rkl;
+					} else {
+						ekl = nkl / (d[l] - d[k]);
+						elk = nlk / (d[k] - d[l]);
+					}
+					e[l * n + k] = ekl;
+					e[k * n + l] = elk;
+					emax = Math.max(emax, Math.max(Math.abs(ekl), Math.abs(elk)));
+				}
+			}
+			if (!(emax <= 0.25)) {
+				return false;
+			}
+
+			// X^T = X^T + E^T * X^T
+			BlasMath.dgemmnt(n, n, n, 1.0, e, n, x, n, 1.0, xt, n, myPool);
+			if (emax <= REFINE_TOL) {
+				sortEigenpairs(n);
+				return true;
+			}
+			for (int i = 0; i < n; ++i) {
+				for (int j = 0; j < n; ++j) {
+					x[j * n + i] = xt[i * n + j];
+				}
+			}
+		}
+		return false;
+	}
+
+	// sorts the eigenvalues in d into ascending order, along with the rows of Z^T
+	private void sortEigenpairs(final int n) {
+		final int[] order = new int[n];
+		for (int i = 0; i < n; ++i) {
+			order[i] = i;
+		}
+		final int[] sorted = sortedByValue(order, n, myD);
+		final double[] d = Arrays.copyOf(myD, n), zt = Arrays.copyOf(myZt, n * n);
+		for (int q = 0; q < n; ++q) {
+			myD[q] = d[sorted[q]];
+			System.arraycopy(zt, sorted[q] * n, myZt, q * n, n);
+		}
+	}
+
+	// ==========================================================================
+	// REDUCTION TO TRIDIAGONAL FORM
+	// ==========================================================================
+	// The lower triangle is stored by rows, so row i holds the part of column i
+	// above the diagonal. As in DSYTRD with UPLO = 'U', the reflector for column
+	// i annihilates a(i, 0:i-2) and is stored there, with its unit element at
+	// a(i, i-1), leaving d(i) = a(i, i) and e(i-1) = a(i, i-1). Rows are reduced
+	// from the last one up, a block of BLOCK rows at a time.
+	private void tridiagonalize(final int n) {
+		final double[] a = myA;
+		int top = n;
+		if (n >= MIN_BLOCKED) {
+			while (top > MIN_BLOCKED) {
+				final int base = top - BLOCK;
+				reducePanel(n, top);
+
+				// update the leading block: A = A - V * W^T - W * V^T
+				final double[] p = myP, q = myQ;
+				for (int r = 0; r < base; ++r) {
+					for (int t = 0; t < BLOCK; ++t) {
+						final double v = a[(base + t) * n + r], w = myPanel[t * n + r];
+						p[r * 2 * BLOCK + t] = q[r * 2 * BLOCK + BLOCK + t] = v;
+						p[r * 2 * BLOCK + BLOCK + t] = q[r * 2 * BLOCK + t] = w;
+					}
+				}
+				BlasMath.dgemmt(base, 2 * BLOCK, -1.0, p, 2 * BLOCK, q, 2 * BLOCK, 1.0, a, n, myPool);
+				for (int j = base; j < top; ++j) {
+					a[j * n + j - 1] = myE[j - 1];
+					myD[j] = a[j * n + j];
+				}
+				top = base;
+			}
+		}
+		reduceUnblocked(n, top);
+	}
+
+	// reduces rows top-1 down to top-BLOCK as in DLATRD, storing the columns of W
+	// in the rows of the panel, without updating the leading block
+	private void reducePanel(final int n, final int top) {
+		final double[] a = myA, wt = myPanel;
+		final int base = top - BLOCK;
+		for (int i = top - 1; i >= base; --i) {
+			final int ri = i * n, rw = (i - base) * n;
+
+			// apply the previous reflectors of this panel to row i
+			for (int j = i + 1; j < top; ++j) {
+				final int rj = j * n, rwj = (j - base) * n;
+				BlasMath.daxpym(i + 1, -wt[rwj + i], a, rj + 1, a, ri + 1);
+				BlasMath.daxpym(i + 1, -a[rj + i], wt, rwj + 1, a, ri + 1);
+			}
+
+			// generate the reflector for row i
+			final double tau = reflector(i, a, ri);
+			myE[i - 1] = a[ri + i - 1];
+			myTau[i - 1] = tau;
+			a[ri + i - 1] = 1.0;
+
+			// w = tau * (A - V * W^T - W * V^T) * v on the leading block
+			symv(i, a, n, ri, wt, rw);
+			for (int j = i + 1; j < top; ++j) {
+				final int rj = j * n, rwj = (j - base) * n;
+				final double wv = BlasMath.ddotm(i, wt, rwj + 1, a, ri + 1);
+				final double vv = BlasMath.ddotm(i, a, rj + 1, a, ri + 1);
+				BlasMath.daxpym(i, -wv, a, rj + 1, wt, rw + 1);
+				BlasMath.daxpym(i, -vv, wt, rwj + 1, wt, rw + 1);
+			}
+			BlasMath.dscalm(i, tau, wt, rw + 1);
+			final double alpha = -0.5 * tau * BlasMath.ddotm(i, wt, rw + 1, a, ri + 1);
+			BlasMath.daxpym(i, alpha, a, ri + 1, wt, rw + 1);
+		}
+	}
+
+	// reduces the leading block of order top one row at a time, as in DSYTD2
+	private void reduceUnblocked(final int n, final int top) {
+		final double[] a = myA, w = myWork;
+		for (int i = top - 1; i > 0; --i) {
+			final int ri = i * n;
+			final double tau = reflector(i, a, ri);
+			myE[i - 1] = a[ri + i - 1];
+			if (tau != 0.0) {
+				a[ri + i - 1] = 1.0;
+
+				// w = tau * A * v - (tau^2 / 2) * (v^T * A * v) * v
+				symv(i, a, n, ri, w, 0);
+				BlasMath.dscalm(i, tau, w, 1);
+				final double alpha = -0.5 * tau * BlasMath.ddotm(i, w, 1, a, ri + 1);
+				BlasMath.daxpym(i, alpha, a, ri + 1, w, 1);
+
+				// A = A - v * w^T - w * v^T
+				for (int r = 0; r < i; ++r) {
+					BlasMath.daxpym(r + 1, -a[ri + r], w, 1, a, r * n + 1);
+					BlasMath.daxpym(r + 1, -w[r], a, ri + 1, a, r * n + 1);
+				}
+				a[ri + i - 1] = myE[i - 1];
+			}
+			myD[i] = a[ri + i];
+			myTau[i - 1] = tau;
+		}
+		myD[0] = a[0];
+	}
+
+	// y = A * x for the leading block of order m of the lower triangle of A
+	// stored by rows, where x starts at a[ix] and y at y[iy]
+	private static void symv(final int m, final double[] a, final int lda, final int ix, final double[] y,
+			final int iy) {
+		Arrays.fill(y, iy, iy + m, 0.0);
+		for (int r = 0; r < m; ++r) {
+			final int rr = r * lda;
+			final double xr = a[ix + r];
+			y[iy + r] += BlasMath.ddotm(r, a, rr + 1, a, ix + 1) + a[rr + r] * xr;
+			BlasMath.daxpym(r, xr, a, rr + 1, y, iy + 1);
+		}
+	}
+
+	// generates the reflector H = I - tau * v * v^T with v(len-1) = 1 such that
+	// H * x has zeros in 0:len-2, as in DLARFG, where x has length len and starts
+	// at x[off]; v(0:len-2) overwrites x(0:len-2), beta overwrites x(len-1), and
+	// tau is returned
+	private static double reflector(final int len, final double[] x, final int off) {
+		if (len <= 1) {
+			return 0.0;
+		}
+		final double xnorm = BlasMath.dnrm2(len - 1, x, off + 1, 1);
+		if (xnorm == 0.0) {
+			return 0.0;
+		}
+		final double alpha = x[off + len - 1];
+		final double beta = -Math.copySign(RealMath.hypot(alpha, xnorm), alpha);
+		BlasMath.dscalm(len - 1, 1.0 / (alpha - beta), x, off + 1);
+		x[off + len - 1] = beta;
+		return (beta - alpha) / beta;
+	}
+
+	// ==========================================================================
+	// BACK-TRANSFORMATION
+	// ==========================================================================
+	// The rows z of Z^T become z * H(0) * H(1) * ... * H(n-2), where reflector t
+	// is stored in row t+1 of A with its unit element in column t. Blocks of
+	// BLOCK reflectors are applied at once as I - V * T * V^T, with T upper
+	// triangular as in DLARFT, using two matrix products.
+	private void transformBack(final int n) {
+		final double[] a = myA, zt = myZt;
+		for (int t = 0; t < n - 1; ++t) {
+			a[(t + 1) * n + t] = 1.0;
+		}
+		if (n < MIN_BLOCKED) {
+			for (int t = 0; t < n - 1; ++t) {
+				final double tau = myTau[t];
+				if (tau == 0.0) {
+					continue;
+				}
+				final int rv = (t + 1) * n;
+				for (int c = 0; c < n; ++c) {
+					final double s = tau * BlasMath.ddotm(t + 1, zt, c * n + 1, a, rv + 1);
+					BlasMath.daxpym(t + 1, -s, a, rv + 1, zt, c * n + 1);
+				}
+			}
+			return;
+		}
+		final double[] v = myV, vt = myVt, x = myX, tm = myT, p = myP;
+		for (int t0 = 0; t0 < n - 1; t0 += BLOCK) {
+			final int k = Math.min(BLOCK, n - 1 - t0), len = t0 + k;
+
+			// the reflectors of this block as the rows of v, padded with zeros
+			for (int s = 0; s < k; ++s) {
+				final int t = t0 + s;
+				System.arraycopy(a, (t + 1) * n, v, s * len, t + 1);
+				Arrays.fill(v, s * len + t + 1, (s + 1) * len, 0.0);
+				for (int r = 0; r < len; ++r) {
+					vt[r * k + s] = v[s * len + r];
+				}
+			}
+
+			// the triangular factor T of the block
+			for (int s = 0; s < k; ++s) {
+				final double tau = myTau[t0 + s];
+				tm[s * k + s] = tau;
+				for (int q = 0; q < s; ++q) {
+					myWork[q] = -tau * BlasMath.ddotm(t0 + q + 1, v, q * len + 1, v, s * len + 1);
+				}
+				for (int q = 0; q < s; ++q) {
+					double sum = 0.0;
+					for (int l = q; l < s; ++l) {
+						sum += tm[q * k + l] * myWork[l];
+					}
+					tm[q * k + s] = sum;
+				}
+			}
+
+			// Z^T = Z^T - ((Z^T * V) * T) * V^T
+			BlasMath.dgemmnt(n, k, len, 1.0, zt, n, v, len, 0.0, x, k, myPool);
+			for (int c = 0; c < n; ++c) {
+				for (int s = k - 1; s >= 0; --s) {
+					double sum = 0.0;
+					for (int q = 0; q <= s; ++q) {
+						sum += x[c * k + q] * tm[q * k + s];
+					}
+					p[c * k + s] = sum;
+				}
+			}
+			BlasMath.dgemmnt(n, len, k, -1.0, p, k, vt, k, 1.0, zt, n, myPool);
+		}
+	}
+
+	// ==========================================================================
+	// DIVIDE AND CONQUER
+	// ==========================================================================
+	private final class Divide extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+		private final int myLo, myHi;
+
+		Divide(final int lo, final int hi) {
+			myLo = lo;
+			myHi = hi;
+		}
+
+		@Override
+		protected void compute() {
+			divide(myLo, myHi);
+		}
+	}
+
+	// solves the tridiagonal subproblem in rows and columns lo:hi-1, leaving the
+	// eigenvalues in ascending order in d(lo:hi-1) and the eigenvectors in the
+	// corresponding rows of Z^T
+	private void divide(final int lo, final int hi) {
+		if (hi - lo <= LEAF) {
+			solveLeaf(lo, hi);
+			return;
+		}
+
+		// split T into two halves and a rank-one correction
+		final int mid = (lo + hi) >>> 1;
+		final double beta = myE[mid - 1];
+		myD[mid - 1] -= Math.abs(beta);
+		myD[mid] -= Math.abs(beta);
+		if (myPool != null && hi - lo >= PARALLEL_MIN) {
+			ForkJoinTask.invokeAll(new Divide(lo, mid), new Divide(mid, hi));
+		} else {
+			divide(lo, mid);
+			divide(mid, hi);
+		}
+		merge(lo, mid, hi, beta);
+	}
+
+	private void solveLeaf(final int lo, final int hi) {
+		final int m = hi - lo, n = myN;
+		final double[] d = Arrays.copyOfRange(myD, lo, hi);
+		final double[] e = new double[m];
+		final double[] v = new double[m * m];
+		System.arraycopy(myE, lo, e, 0, m - 1);
+		for (int i = 0; i < m; ++i) {
+			v[i * m + i] = 1.0;
+		}
+		ql(m, d, e, v);
+		System.arraycopy(d, 0, myD, lo, m);
+		for (int i = 0; i < m; ++i) {
+			System.arraycopy(v, i * m, myZt, (lo + i) * n + lo, m);
+		}
+	}
+
+	// the implicit QL method of tql2 in the JAMA package, with the off-diagonal
+	// in e(0:n-2), the eigenvectors accumulated in the rows of v and a bound on
+	// the number of iterations, after which d is set to NaN
+	private static void ql(final int n, final double[] d, final double[] e, final double[] v) {
+		e[n - 1] = 0.0;
+		double f = 0.0, tst1 = 0.0;
+		for (int l = 0; l < n; l++) {
+
+			// Find small subdiagonal element
+			tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+			int m = l;
+			for (m = l; m < n; m++) {
+				if (Math.abs(e[m]) <= EPS * tst1) {
+					break;
+				}
+			}
+			if (m >= n) {
+				break;
+			}
+
+			// If m == l, d[l] is an eigenvalue, otherwise, iterate.
+			if (m > l) {
+				int iter = 0;
+				do {
+					if (++iter > MAX_ITERS) {
+						Arrays.fill(d, Double.NaN);
+						return;
+					}
+
+					// Compute implicit shift
+					double g = d[l];
+					double p = (d[l + 1] - g) / (2.0 * e[l]);
+					double r = RealMath.hypot(p, 1.0);
+					r = RealMath.sign(r, p);
+					d[l] = e[l] / (p + r);
+					d[l + 1] = e[l] * (p + r);
+					double dl1 = d[l + 1];
+					double h = g - d[l];
+					for (int i = l + 2; i < n; i++) {
+						d[i] -= h;
+					}
+					f += h;
+
+					// Implicit QL transformation.
+					p = d[m];
+					double c = 1.0, c2 = c, c3 = c;
+					double el1 = e[l + 1];
+					double s = 0.0, s2 = 0.0;
+					for (int i = m - 1; i >= l; i--) {
+						c3 = c2;
+						c2 = c;
+						s2 = s;
+						g = c * e[i];
+						h = c * p;
+						r = RealMath.hypot(p, e[i]);
+						e[i + 1] = s * r;
+						s = e[i] / r;
+						c = p / r;
+						p = c * d[i] - s * g;
+						d[i + 1] = h + s * (c * g + s * d[i]);
+
+						// Accumulate transformation.
+						final int ri = i * n, ri1 = ri + n;
+						for (int k = 0; k < n; k++) {
+							h = v[ri1 + k];
+							v[ri1 + k] = s * v[ri + k] + c * h;
+							v[ri + k] = c * v[ri + k] - s * h;
+						}
+					}
+					p = -s * s2 * c3 * el1 * e[l] / dl1;
+					e[l] = s * p;
+					d[l] = c * p;
+
+					// Check for convergence.
+				} while (Math.abs(e[l]) > EPS * tst1);
+			}
+			d[l] += f;
+			e[l] = 0.0;
+		}
+
+		// Sort eigenvalues and corresponding vectors.
+		for (int i = 0; i < n - 1; i++) {
+			int k = i;
+			double p = d[i];
+			for (int j = i + 1; j < n; j++) {
+				if (d[j] < p) {
+					k = j;
+					p = d[j];
+				}
+			}
+			if (k != i) {
+				d[k] = d[i];
+				d[i] = p;
+				for (int j = 0; j < n; j++) {
+					p = v[i * n + j];
+					v[i * n + j] = v[k * n + j];
+					v[k * n + j] = p;
+				}
+			}
+		}
+	}
+
+	// merges the solved halves lo:mid-1 and mid:hi-1 of a subproblem that were
+	// split off by removing the coupling beta, as in DLAED1 to DLAED3
+	private void merge(final int lo, final int mid, final int hi, final double beta) {
+		final int n = hi - lo, n1 = mid - lo, n2 = hi - mid, ldz = myN;
+		final double[] zt = myZt;
+
+		// in the eigenvector bases of the halves the coupling becomes the rank-one
+		// modification diag(d) + rho * z * z^T with |z| = 1
+		final double rho = 2.0 * Math.abs(beta);
+		final double[] d = Arrays.copyOfRange(myD, lo, hi);
+		final double[] z = new double[n];
+		final int[] kind = new int[n];
+		for (int i = 0; i < n1; ++i) {
+			z[i] = SQRT1_2 * zt[(lo + i) * ldz + mid - 1];
+			kind[i] = UPPER;
+		}
+		for (int i = n1; i < n; ++i) {
+			z[i] = Math.copySign(SQRT1_2, beta) * zt[(lo + i) * ldz + mid];
+			kind[i] = LOWER;
+		}
+
+		// merge the eigenvalues of the halves into ascending order
+		final int[] order = new int[n];
+		for (int i = 0, j = n1, q = 0; q < n; ++q) {
+			if (j >= n || (i < n1 && d[i] <= d[j])) {
+				order[q] = i++;
+			} else {
+				order[q] = j++;
+			}
+		}
+
+		// deflate the eigenpairs for which z is negligible, and use Givens
+		// rotations to zero z for one of two nearly equal eigenvalues
+		double dmax = 0.0, zmax = 0.0;
+		for (int i = 0; i < n; ++i) {
+			dmax = Math.max(dmax, Math.abs(d[i]));
+			zmax = Math.max(zmax, Math.abs(z[i]));
+		}
+		final double tol = 8.0 * EPS * Math.max(dmax, zmax);
+		final int[] kept = new int[n], deflated = new int[n];
+		int k = 0, nd = 0, pj = -1;
+		for (int q = 0; q < n; ++q) {
+			final int nj = order[q];
+			if (rho * Math.abs(z[nj]) <= tol) {
+				deflated[nd++] = nj;
+				continue;
+			}
+			if (pj >= 0) {
+				final double tau = RealMath.hypot(z[pj], z[nj]);
+				final double c = z[nj] / tau, s = -z[pj] / tau;
+				final double t = d[nj] - d[pj];
+				if (Math.abs(t * c * s) <= tol) {
+					z[nj] = tau;
+					z[pj] = 0.0;
+					if (kind[nj] != kind[pj]) {
+						kind[nj] = MIXED;
+					}
+					final int rp = (lo + pj) * ldz + lo, rn = (lo + nj) * ldz + lo;
+					for (int l = 0; l < n; ++l) {
+						final double x = zt[rp + l], y = zt[rn + l];
+						zt[rp + l] = c * x + s * y;
+						zt[rn + l] = c * y - s * x;
+					}
+					final double dp = d[pj] * c * c + d[nj] * s * s;
+					d[nj] = d[pj] * s * s + d[nj] * c * c;
+					d[pj] = dp;
+					deflated[nd++] = pj;
+				} else {
+					kept[k++] = pj;
+				}
+			}
+			pj = nj;
+		}
+		if (pj >= 0) {
+			kept[k++] = pj;
+		}
+
+		// solve the secular equation for the remaining eigenvalues, and compute
+		// their eigenvectors u, stored by rows, from the recomputed z
+		final double[] lambda = new double[k], dk = new double[k], zk = new double[k];
+		final double[] u = new double[k * k];
+		for (int q = 0; q < k; ++q) {
+			dk[q] = d[kept[q]];
+			zk[q] = z[kept[q]];
+		}
+		for (int j = 0; j < k; ++j) {
+			lambda[j] = secular(k, j, dk, zk, rho, u, j * k);
+		}
+		final double[] zhat = new double[k];
+		for (int i = 0; i < k; ++i) {
+			double prod = Math.abs(u[i * k + i]) / rho;
+			for (int j = 0; j < k; ++j) {
+				if (j != i) {
+					prod *= Math.abs(u[j * k + i] / (dk[j] - dk[i]));
+				}
+			}
+			zhat[i] = Math.copySign(Math.sqrt(prod), zk[i]);
+		}
+		for (int j = 0; j < k; ++j) {
+			final int rj = j * k;
+			for (int i = 0; i < k; ++i) {
+				u[rj + i] = zhat[i] / u[rj + i];
+			}
+			final double norm = BlasMath.dnrm2(k, u, rj + 1, 1);
+			for (int i = 0; i < k; ++i) {
+				u[rj + i] /= norm;
+			}
+		}
+
+		// the new eigenvectors are u times the old ones; the upper rows only
+		// involve the UPPER and MIXED vectors, and the lower rows only the MIXED and
+		// LOWER vectors
+		final int[] byKind = new int[k];
+		int k1 = 0, k2 = 0;
+		for (int q = 0; q < k; ++q) {
+			if (kind[kept[q]] == UPPER) {
+				++k1;
+			} else if (kind[kept[q]] == MIXED) {
+				++k2;
+			}
+		}
+		for (int q = 0, i1 = 0, i2 = k1, i3 = k1 + k2; q < k; ++q) {
+			final int kd = kind[kept[q]];
+			byKind[kd == UPPER ? i1++ : kd == MIXED ? i2++ : i3++] = q;
+		}
+		final double[] upper = product(k, 0, k1 + k2, byKind, kept, u, lo, lo, n1);
+		final double[] lower = product(k, k1, k, byKind, kept, u, lo, mid, n2);
+
+		// write the eigenpairs back in ascending order of the eigenvalues
+		final double[] dnew = new double[n];
+		final double[] znew = new double[n * n];
+		final int[] dorder = sortedByValue(deflated, nd, d);
+		for (int q = 0, j = 0, i = 0; q < n; ++q) {
+			final int rq = q * n;
+			if (i >= nd || (j < k && lambda[j] <= d[dorder[i]])) {
+				dnew[q] = lambda[j];
+				System.arraycopy(upper, j * n1, znew, rq, n1);
+				System.arraycopy(lower, j * n2, znew, rq + n1, n2);
+				++j;
+			} else {
+				final int id = dorder[i];
+				dnew[q] = d[id];
+				System.arraycopy(zt, (lo + id) * ldz + lo, znew, rq, n);
+				++i;
+			}
+		}
+		System.arraycopy(dnew, 0, myD, lo, n);
+		for (int q = 0; q < n; ++q) {
+			System.arraycopy(znew, q * n, zt, (lo + q) * ldz + lo, n);
+		}
+	}
+
+	// computes the rows u(:, byKind(q0:q1-1)) * V^T, where V holds columns c0 to
+	// c0+len-1 of the old eigenvectors kept(byKind(q0:q1-1)) of the subproblem
+	// starting at lo
+	private double[] product(final int k, final int q0, final int q1, final int[] byKind, final int[] kept,
+			final double[] u, final int lo, final int c0, final int len) {
+		final int m = q1 - q0, ldz = myN;
+		final double[] a = new double[k * m], b = new double[len * m], c = new double[k * len];
+		for (int j = 0; j < k; ++j) {
+			for (int q = q0; q < q1; ++q) {
+				a[j * m + q - q0] = u[j * k + byKind[q]];
+			}
+		}
+		for (int q = q0; q < q1; ++q) {
+			final int rz = (lo + kept[byKind[q]]) * ldz + c0;
+			for (int r = 0; r < len; ++r) {
+				b[r * m + q - q0] = myZt[rz + r];
+			}
+		}
+		BlasMath.dgemmnt(k, len, m, 1.0, a, m, b, m, 0.0, c, len, myPool);
+		return c;
+	}
+
+	private static int[] sortedByValue(final int[] index, final int count, final double[] value) {
+		final Integer[] boxed = new Integer[count];
+		for (int i = 0; i < count; ++i) {
+			boxed[i] = index[i];
+		}
+		Arrays.sort(boxed, (i, j) -> Double.compare(value[i], value[j]));
+		final int[] result = new int[count];
+		for (int i = 0; i < count; ++i) {
+			result[i] = boxed[i];
+		}
+		return result;
+	}
+
+	// finds the j-th root of the secular equation 1 / rho + sum(z(i)^2 / (d(i) -
+	// lambda)) = 0 for d in ascending order and rho > 0, which lies in (d(j),
+	// d(j+1)), or in (d(k-1), d(k-1) + rho * |z|^2) for the last. The root is
+	// found as an offset tau from the nearer pole d(o) with the fixed weight
+	// rational iteration of DLAED4, safeguarded by bisection, and d(i) - lambda
+	// is stored in delta(off+i) as (d(i) - d(o)) - tau to keep its relative
+	// accuracy
+	private static double secular(final int k, final int j, final double[] d, final double[] z, final double rho,
+			final double[] delta, final int off) {
+		final double rhoinv = 1.0 / rho;
+		final int o;
+		double lo, hi;
+		if (j == k - 1) {
+			o = j;
+			lo = 0.0;
+			hi = rho * BlasMath.ddotm(k, z, 1, z, 1);
+		} else {
+			final double half = 0.5 * (d[j + 1] - d[j]);
+			double f = rhoinv;
+			for (int i = 0; i < k; ++i) {
+				f += z[i] * z[i] / ((d[i] - d[j]) - half);
+			}
+			if (f > 0.0) {
+				o = j;
+				lo = 0.0;
+				hi = half;
+			} else {
+				o = j + 1;
+				lo = -half;
+				hi = 0.0;
+			}
+		}
+		for (int i = 0; i < k; ++i) {
+			delta[off + i] = d[i] - d[o];
+		}
+
+		double tau = 0.5 * (lo + hi);
+		for (int iter = 0; iter < MAX_ITERS; ++iter) {
+
+			// evaluate the parts of f from the poles left and right of the root
+			double psi = 0.0, dpsi = 0.0, phi = 0.0, dphi = 0.0;
+			for (int i = 0; i <= j; ++i) {
+				final double t = z[i] / (delta[off + i] - tau);
+				psi += z[i] * t;
+				dpsi += t * t;
+			}
+			for (int i = j + 1; i < k; ++i) {
+				final double t = z[i] / (delta[off + i] - tau);
+				phi += z[i] * t;
+				dphi += t * t;
+			}
+			final double f = rhoinv + psi + phi;
+			final double erretm = 9.0 * (phi - psi) + 2.0 * rhoinv + 3.0 * Math.abs(tau) * (dpsi + dphi);
+			if (Math.abs(f) <= EPS * erretm) {
+				break;
+			}
+			if (f < 0.0) {
+				lo = tau;
+			} else {
+				hi = tau;
+			}
+			if (hi - lo <= 2.0 * EPS * Math.max(Math.abs(lo), Math.abs(hi))) {
+				break;
+			}
+
+			// model psi and phi by one pole each, matching their values and
+			// derivatives, and take the root of the model inside the bracket
+			final double dl = delta[off + j] - tau;
+			double eta;
+			if (j == k - 1) {
+				final double c = f - dl * dpsi;
+				eta = c > 0.0 ? dl + dpsi * dl * dl / c : Double.NaN;
+			} else {
+				final double dr = delta[off + j + 1] - tau;
+				final double c = f - dl * dpsi - dr * dphi;
+				final double a = c * (dl + dr) + dpsi * dl * dl + dphi * dr * dr;
+				final double b = dl * dr * f;
+				if (c == 0.0) {
+					eta = b / a;
+				} else {
+					final double disc = Math.sqrt(Math.abs(a * a - 4.0 * b * c));
+					eta = a <= 0.0 ? (a - disc) / (2.0 * c) : 2.0 * b / (a + disc);
+				}
+			}
+			final double next = tau + eta;
+			tau = next > lo && next < hi ? next : 0.5 * (lo + hi);
+		}
+		for (int i = 0; i < k; ++i) {
+			delta[off + i] -= tau;
+		}
+		return d[o] + tau;
+	}
+}
@@ -0,0 +1,323 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package optim4j.testbeds;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import opt.CancellationToken;
+import opt.multivariate.GradientFreeOptimizer;
+import opt.multivariate.unconstrained.order0.cmaes.ActiveCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.BiPopCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.CmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.cmaes.IPopCmaesAlgorithm;
+import opt.multivariate.unconstrained.order0.direct.NelderMeadAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.AmalgamAlgorithm;
+import opt.multivariate.unconstrained.order0.evol.SadeAlgorithm;
+import opt.multivariate.unconstrained.order0.quad.BobyqaAlgorithm;
+import opt.multivariate.unconstrained.order0.quad.NewuoaAlgorithm;
+
+/**
+ * Runs a grid of optimizers on the noiseless BBOB functions in the style of
+ * the COCO platform. Every combination of optimizer, function, dimension and
+ * instance is an independent task, and the tasks are spread over a thread
+ * pool. Each task builds its own {@link MultiUnconstrBBOB} instance and its own
+ * optimizer, so no state is shared between threads, and every optimizer sees
+ * the same instances and starting points for a given seed.
+ * 
+ * A run stops once it reaches the final target of {@link BBOBRun#TARGETS},
+ * through a cancellation token that every optimizer checks, or once the
+ * optimizer spends its budget of evaluations per dimension. Runs are written
+ * as CSV, or in a compact binary format for large grids.
+ */
+public final class BBOBExperiment {
+
+	private static final int BINARY_MAGIC = 0x42424f42;
+
+	@FunctionalInterface
+	public interface Factory {
+
+		GradientFreeOptimizer create(int dimension, int budget);
+	}
+
+	private final Map<String, Factory> myOptimizers = new LinkedHashMap<>();
+	private final List<String> myFunctions;
+	private final int[] myDimensions;
+	private final int myInstances;
+	private final int myBudgetPerDimension;
+	private final long mySeed;
+
+	/**
+	 *
+	 * @param functions
+	 * @param dimensions
+	 * @param instances
+	 * @param budgetPerDimension
+	 * @param seed
+	 */
+	public BBOBExperiment(final List<String> functions, final int[] dimensions, final int instances,
+			final int budgetPerDimension, final long seed) {
+		myFunctions = functions;
+		myDimensions = dimensions;
+		myInstances = instances;
+		myBudgetPerDimension = budgetPerDimension;
+		mySeed = seed;
+	}
+
+	/**
+	 * 
+	 * @param name
+	 * @param factory
+	 * @return
+	 */
+	public final BBOBExperiment add(final String name, final Factory factory) {
+		myOptimizers.put(name, factory);
+		return this;
+	}
+
+	/**
+	 * Runs the full grid on the given executor and returns the runs in grid
+	 * order, regardless of the order in which they finish.
+	 * 
+	 * @param executor
+	 * @return
+	 * @throws InterruptedException
+	 */
+	public final List<BBOBRun> run(final ExecutorService executor) throws InterruptedException {
+		final List<Future<BBOBRun>> futures = new ArrayList<>();
+		for (final Map.Entry<String, Factory> entry : myOptimizers.entrySet()) {
+			for (final String function : myFunctions) {
+				for (final int dimension : myDimensions) {
+					for (int instance = 1; instance <= myInstances; ++instance) {
+						final int inst = instance;
+						futures.add(executor.submit(() -> runOne(entry.getKey(), entry.getValue(), function, dimension, inst)));
+					}
+				}
+			}
+		}
+		final List<BBOBRun> runs = new ArrayList<>(futures.size());
+		for (final Future<BBOBRun> future : futures) {
+			try {
+				runs.add(future.get());
+			} catch (final ExecutionException e) {
+				throw new RuntimeException(e.getCause());
+			}
+		}
+		return runs;
+	}
+
+	private BBOBRun runOne(final String name, final Factory factory, final String function, final int dimension,
+			final int instance) {
+
+		// the seeds do not depend on the optimizer, so all of them are compared
+		// on the same landscape and from the same starting point; the instance,
+		// the starting point and the optimizer each draw from their own stream
+		final Random seeds = new Random(mySeed + 1000003L * dimension + instance);
+		final long instanceSeed = seeds.nextLong();
+		final long startSeed = seeds.nextLong();
+		final long optimizerSeed = seeds.nextLong();
+		final Function<double[], Double> func = new MultiUnconstrBBOB(dimension, instanceSeed).functions()
+				.get(function);
+		final Random start = new Random(startSeed);
+		final double[] guess = new double[dimension];
+		for (int i = 0; i < dimension; ++i) {
+			guess[i] = 8.0 * start.nextDouble() - 4.0;
+		}
+
+		// record the first evaluation at which each target is reached
+		final int budget = myBudgetPerDimension * dimension;
+		final long[] hits = new long[BBOBRun.TARGETS.length];
+		final long[] evals = new long[1];
+		final double[] best = { Double.POSITIVE_INFINITY };
+		final int[] next = new int[1];
+		final CancellationToken token = new CancellationToken();
+		final Function<double[], Double> recorder = x -> {
+			final double fx = func.apply(x);
+			++evals[0];
+			if (fx < best[0]) {
+				best[0] = fx;
+				while (next[0] < hits.length && fx <= BBOBRun.TARGETS[next[0]]) {
+					hits[next[0]++] = evals[0];
+				}
+				if (next[0] == hits.length) {
+					token.cancel();
+				}
+			}
+			return fx;
+		};
+		for (int i = 0; i < hits.length; ++i) {
+			hits[i] = -1L;
+		}
+
+		final GradientFreeOptimizer optimizer = factory.create(dimension, budget);
+		optimizer.setSeed(optimizerSeed);
+		optimizer.setCancellationToken(token);
+		final long begin = System.nanoTime();
+		try {
+			optimizer.optimize(recorder, guess);
+		} catch (final RuntimeException e) {
+
+			// a failed run keeps whatever targets it reached before failing
+			System.err.println(name + " failed on " + function + " (d=" + dimension + ", i=" + instance + "): " + e);
+		}
+		final long nanos = System.nanoTime() - begin;
+		return new BBOBRun(name, function, dimension, instance, evals[0], best[0], nanos, hits);
+	}
+
+	/**
+	 * Writes the runs as CSV, one line per run.
+	 * 
+	 * @param runs
+	 * @param file
+	 * @throws IOException
+	 */
+	public static final void write(final List<BBOBRun> runs, final Path file) throws IOException {
+		try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+			out.write(BBOBRun.csvHeader());
+			out.newLine();
+			for (final BBOBRun run : runs) {
+				out.write(run.toCsv());
+				out.newLine();
+			}
+		}
+	}
+
+	/**
+	 * Writes the runs in a compact binary format: a magic number, the number of
+	 * runs, and then each run as written by {@link BBOBRun#writeTo}.
+	 * 
+	 * @param runs
+	 * @param file
+	 * @throws IOException
+	 */
+	public static final void writeBinary(final List<BBOBRun> runs, final Path file) throws IOException {
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+			out.writeInt(BINARY_MAGIC);
+			out.writeInt(runs.size());
+			for (final BBOBRun run : runs) {
+				run.writeTo(out);
+			}
+		}
+	}
+
+	/**
+	 * Reads runs written by {@link #writeBinary(List, Path)}.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static final List<BBOBRun> readBinary(final Path file) throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+			if (in.readInt() != BINARY_MAGIC) {
+				throw new IOException("Not a binary BBOB result file: " + file);
+			}
+			final int count = in.readInt();
+			final List<BBOBRun> runs = new ArrayList<>(count);
+			for (int i = 0; i < count; ++i) {
+				runs.add(BBOBRun.readFrom(in));
+			}
+			return runs;
+		}
+	}
+
+	/**
+	 * Reads runs written by {@link #write(List, Path)}, or by
+	 * {@link #writeBinary(List, Path)} if the file name ends with .bin.
+	 * 
+	 * @param file
+	 * @return
+	 * @throws IOException
+	 */
+	public static final List<BBOBRun> read(final Path file) throws IOException {
+		if (file.getFileName().toString().endsWith(".bin")) {
+			return readBinary(file);
+		}
+		final List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		final List<BBOBRun> runs = new ArrayList<>(lines.size());
+		for (int i = 1; i < lines.size(); ++i) {
+			if (!lines.get(i).isEmpty()) {
+				runs.add(BBOBRun.fromCsv(lines.get(i)));
+			}
+		}
+		return runs;
+	}
+
+	/**
+	 * Runs the default grid and writes runs.csv, runs.bin, ert.csv and ecdf.csv
+	 * to the directory given as the first argument, or to bbob-results by
+	 * default.
+	 * 
+	 * @param args
+	 * @throws Exception
+	 */
+	public static void main(final String[] args) throws Exception {
+		final Path dir = Paths.get(args.length > 0 ? args[0] : "bbob-results");
+		Files.createDirectories(dir);
+
+		final BBOBExperiment experiment = new BBOBExperiment(MultiUnconstrBBOB.FUNCTION_NAMES,
+				new int[] { 2, 3, 5, 10, 20 }, 15, 1000, 0L);
+		experiment.add("CMAES", (n, b) -> new CmaesAlgorithm(1e-12, 2.0, b))
+				.add("ACTIVE_CMAES", (n, b) -> new ActiveCmaesAlgorithm(1e-12, 2.0, b))
+				.add("IPOP_CMAES", (n, b) -> new IPopCmaesAlgorithm(1e-12, 1e-12, 2.0, b, false))
+				.add("BIPOP_CMAES", (n, b) -> new BiPopCmaesAlgorithm(1e-12, 1e-12, 2.0, b, false))
+				.add("AMALGAM", (n, b) -> new AmalgamAlgorithm(1e-12, 1e-12, b, true, false))
+				.add("SADE", (n, b) -> new SadeAlgorithm(1e-12, 1e-12, 50, b))
+				.add("NELDER_MEAD", (n, b) -> new NelderMeadAlgorithm(1e-12, 1.0, n + 1, b))
+				.add("BOBYQA", (n, b) -> new BobyqaAlgorithm(1e-12, 2.0, b))
+				.add("NEWUOA", (n, b) -> new NewuoaAlgorithm(1e-12, 2.0, b));
+
+		final ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		final List<BBOBRun> runs;
+		final long start = System.nanoTime();
+		try {
+			runs = experiment.run(executor);
+		} finally {
+			executor.shutdown();
+		}
+		System.out.println(runs.size() + " runs in " + (System.nanoTime() - start) / 1e9 + " s");
+
+		write(runs, dir.resolve("runs.csv"));
+		writeBinary(runs, dir.resolve("runs.bin"));
+		BBOBReport.writeErt(runs, dir.resolve("ert.csv"));
+		BBOBReport.writeEcdf(runs, dir.resolve("ecdf.csv"));
+		BBOBReport.printErt(runs, BBOBRun.TARGETS.length - 1);
+	}
+}
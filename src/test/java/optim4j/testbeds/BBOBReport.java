@@ -0,0 +1,248 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package optim4j.testbeds;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Aggregates BBOB runs into expected running time (ERT) tables and empirical
+ * cumulative distributions (ECDF) of the runtime, as in the COCO platform.
+ * 
+ * The ERT of a target is the total number of evaluations spent by all runs,
+ * counting successful runs only up to the target, divided by the number of
+ * runs that reached it. The ECDF gives, for each budget, the fraction of
+ * (function, instance, target) triples reached within that budget.
+ * 
+ * Run with the runs.csv or runs.bin of one experiment to write its tables, or
+ * with the result files of a new and a baseline experiment to list the ERT
+ * ratios between them, which is how performance regressions between releases
+ * are spotted.
+ */
+public final class BBOBReport {
+
+	private static final int ECDF_STEPS_PER_DECADE = 5;
+
+	/**
+	 * Returns the expected running time of the given runs for the given target
+	 * index, or infinity if none of them reached it.
+	 * 
+	 * @param runs
+	 * @param target
+	 * @return
+	 */
+	public static final double ert(final List<BBOBRun> runs, final int target) {
+		long evals = 0L;
+		int successes = 0;
+		for (final BBOBRun run : runs) {
+			final long hit = run.hit(target);
+			if (hit >= 0L) {
+				evals += hit;
+				++successes;
+			} else {
+				evals += run.evaluations;
+			}
+		}
+		return successes == 0 ? Double.POSITIVE_INFINITY : (double) evals / successes;
+	}
+
+	/**
+	 * Writes one line per optimizer, dimension, function and target with its
+	 * ERT, the number of successful runs and the number of runs.
+	 * 
+	 * @param runs
+	 * @param file
+	 * @throws IOException
+	 */
+	public static final void writeErt(final List<BBOBRun> runs, final Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("optimizer,dimension,function,target,ert,successes,runs");
+			for (final Map.Entry<String, List<BBOBRun>> group : groupBy(runs, true).entrySet()) {
+				final List<BBOBRun> list = group.getValue();
+				for (int t = 0; t < BBOBRun.TARGETS.length; ++t) {
+					int successes = 0;
+					for (final BBOBRun run : list) {
+						if (run.hit(t) >= 0L) {
+							++successes;
+						}
+					}
+					out.println(group.getKey() + "," + BBOBRun.TARGETS[t] + "," + ert(list, t) + "," + successes + ","
+							+ list.size());
+				}
+			}
+		}
+	}
+
+	/**
+	 * Writes the ECDF of each optimizer and dimension over all functions,
+	 * instances and targets, at budgets spaced evenly in log10(evaluations /
+	 * dimension).
+	 * 
+	 * @param runs
+	 * @param file
+	 * @throws IOException
+	 */
+	public static final void writeEcdf(final List<BBOBRun> runs, final Path file) throws IOException {
+		try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+			out.println("optimizer,dimension,log10_evals_per_dim,fraction");
+			for (final Map.Entry<String, List<BBOBRun>> group : groupBy(runs, false).entrySet()) {
+				final List<BBOBRun> list = group.getValue();
+				final int dimension = list.get(0).dimension;
+				long maxEvals = 1L;
+				for (final BBOBRun run : list) {
+					maxEvals = Math.max(maxEvals, run.evaluations);
+				}
+				final int steps = (int) Math.ceil(ECDF_STEPS_PER_DECADE * Math.log10((double) maxEvals / dimension));
+				final double pairs = (double) list.size() * BBOBRun.TARGETS.length;
+				for (int k = 0; k <= steps; ++k) {
+					final double log10 = (double) k / ECDF_STEPS_PER_DECADE;
+					final double budget = dimension * Math.pow(10.0, log10);
+					int reached = 0;
+					for (final BBOBRun run : list) {
+						for (int t = 0; t < BBOBRun.TARGETS.length; ++t) {
+							final long hit = run.hit(t);
+							if (hit >= 0L && hit <= budget) {
+								++reached;
+							}
+						}
+					}
+					out.println(group.getKey() + "," + log10 + "," + reached / pairs);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Prints, for each dimension, a table of ERT divided by the dimension for
+	 * every function and optimizer at the given target index.
+	 * 
+	 * @param runs
+	 * @param target
+	 */
+	public static final void printErt(final List<BBOBRun> runs, final int target) {
+		final Set<String> optimizers = new LinkedHashSet<>();
+		final Set<Integer> dimensions = new LinkedHashSet<>();
+		final Set<String> functions = new LinkedHashSet<>();
+		for (final BBOBRun run : runs) {
+			optimizers.add(run.optimizer);
+			dimensions.add(run.dimension);
+			functions.add(run.function);
+		}
+		final Map<String, List<BBOBRun>> groups = groupBy(runs, true);
+		for (final int dimension : dimensions) {
+			System.out.println();
+			System.out.printf("ERT / dimension to reach %.0e in dimension %d%n", BBOBRun.TARGETS[target], dimension);
+			System.out.printf("%-20s", "");
+			for (final String optimizer : optimizers) {
+				System.out.printf(" %12s", optimizer);
+			}
+			System.out.println();
+			for (final String function : functions) {
+				System.out.printf("%-20s", function);
+				for (final String optimizer : optimizers) {
+					final List<BBOBRun> list = groups.get(key(optimizer, dimension, function));
+					final double ert = list == null ? Double.NaN : ert(list, target) / dimension;
+					System.out.printf(" %12.1f", ert);
+				}
+				System.out.println();
+			}
+		}
+	}
+
+	/**
+	 * Prints the ratio of the ERT of the current runs over the ERT of the baseline
+	 * runs at the given target, for every optimizer, dimension and function
+	 * present in both, flagging ratios above the given threshold.
+	 * 
+	 * @param current
+	 * @param baseline
+	 * @param target
+	 * @param threshold
+	 * @return the number of flagged entries
+	 */
+	public static final int compare(final List<BBOBRun> current, final List<BBOBRun> baseline, final int target,
+			final double threshold) {
+		final Map<String, List<BBOBRun>> base = groupBy(baseline, true);
+		int flagged = 0;
+		System.out.printf("ERT ratio (current / baseline) to reach %.0e%n", BBOBRun.TARGETS[target]);
+		for (final Map.Entry<String, List<BBOBRun>> group : groupBy(current, true).entrySet()) {
+			final List<BBOBRun> old = base.get(group.getKey());
+			if (old == null) {
+				continue;
+			}
+			final double ratio = ert(group.getValue(), target) / ert(old, target);
+			final boolean worse = ratio > threshold || (Double.isNaN(ratio) && ert(old, target) < Double.POSITIVE_INFINITY);
+			if (worse) {
+				++flagged;
+			}
+			System.out.printf("%-50s %10.3f%s%n", group.getKey(), ratio, worse ? "  <-- regression" : "");
+		}
+		return flagged;
+	}
+
+	private static Map<String, List<BBOBRun>> groupBy(final List<BBOBRun> runs, final boolean byFunction) {
+		final Map<String, List<BBOBRun>> groups = new LinkedHashMap<>();
+		for (final BBOBRun run : runs) {
+			final String key = byFunction ? key(run.optimizer, run.dimension, run.function)
+					: run.optimizer + "," + run.dimension;
+			groups.computeIfAbsent(key, k -> new ArrayList<>()).add(run);
+		}
+		return groups;
+	}
+
+	private static String key(final String optimizer, final int dimension, final String function) {
+		return optimizer + "," + dimension + "," + function;
+	}
+
+	/**
+	 * 
+	 * @param args
+	 * @throws IOException
+	 */
+	public static void main(final String[] args) throws IOException {
+		final Path file = Paths.get(args.length > 0 ? args[0] : "bbob-results/runs.csv");
+		final List<BBOBRun> runs = BBOBExperiment.read(file);
+		final Path dir = file.toAbsolutePath().getParent();
+		writeErt(runs, dir.resolve("ert.csv"));
+		writeEcdf(runs, dir.resolve("ecdf.csv"));
+		printErt(runs, BBOBRun.TARGETS.length - 1);
+		if (args.length > 1) {
+			System.out.println();
+			final int flagged = compare(runs, BBOBExperiment.read(Paths.get(args[1])), BBOBRun.TARGETS.length - 1,
+					1.2);
+			System.out.println(flagged + " regressions");
+		}
+	}
+
+	private BBOBReport() {
+	}
+}
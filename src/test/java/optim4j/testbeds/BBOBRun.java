@@ -0,0 +1,171 @@
+/*
+Copyright (c) 2020 Mike Gimelfarb
+
+Permission is hereby granted, free of charge, to any person obtaining a copy
+of this software and associated documentation files (the > "Software"), to
+deal in the Software without restriction, including without limitation the
+rights to use, copy, modify, merge, publish, distribute, sublicense, and/or
+sell copies of the Software, and to permit persons to whom the Software is
+furnished to do so, > subject to the following conditions:
+
+The above copyright notice and this permission notice shall be included in
+all copies or substantial portions of the Software.
+
+THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+SOFTWARE.
+*/
+package optim4j.testbeds;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * The outcome of a single run of an optimizer on one instance of a BBOB
+ * function. Besides the final error, a run records how many evaluations the
+ * optimizer needed to first reach each of the {@link #TARGETS}.
+ */
+public final class BBOBRun {
+
+	/**
+	 * The target precisions, from 1e2 down to 1e-8, as in the COCO platform.
+	 */
+	public static final double[] TARGETS = new double[11];
+
+	static {
+		for (int i = 0; i < TARGETS.length; ++i) {
+			TARGETS[i] = Math.pow(10.0, 2 - i);
+		}
+	}
+
+	public final String optimizer;
+	public final String function;
+	public final int dimension;
+	public final int instance;
+	public final long evaluations;
+	public final double error;
+	public final long nanos;
+	private final long[] myHits;
+
+	public BBOBRun(final String optimizer, final String function, final int dimension, final int instance,
+			final long evaluations, final double error, final long nanos, final long[] hits) {
+		this.optimizer = optimizer;
+		this.function = function;
+		this.dimension = dimension;
+		this.instance = instance;
+		this.evaluations = evaluations;
+		this.error = error;
+		this.nanos = nanos;
+		myHits = hits;
+	}
+
+	/**
+	 * Returns the number of evaluations after which the error first fell to
+	 * TARGETS[target] or below, or -1 if the run never reached it.
+	 * 
+	 * @param target
+	 * @return
+	 */
+	public final long hit(final int target) {
+		return myHits[target];
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public static final String csvHeader() {
+		final StringBuilder sb = new StringBuilder("optimizer,function,dimension,instance,evaluations,error,nanos");
+		for (int i = 0; i < TARGETS.length; ++i) {
+			sb.append(",hit").append(2 - i);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * 
+	 * @return
+	 */
+	public final String toCsv() {
+		final StringBuilder sb = new StringBuilder();
+		sb.append(optimizer).append(',').append(function).append(',').append(dimension).append(',').append(instance)
+				.append(',').append(evaluations).append(',').append(error).append(',').append(nanos);
+		for (final long hit : myHits) {
+			sb.append(',').append(hit);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Parses a line written by {@link #toCsv()}.
+	 * 
+	 * @param line
+	 * @return
+	 */
+	public static final BBOBRun fromCsv(final String line) {
+		final String[] tokens = line.split(",");
+		if (tokens.length != 7 + TARGETS.length) {
+			throw new IllegalArgumentException("Malformed BBOB run: " + line);
+		}
+		final long[] hits = new long[TARGETS.length];
+		for (int i = 0; i < hits.length; ++i) {
+			hits[i] = Long.parseLong(tokens[7 + i]);
+		}
+		return new BBOBRun(tokens[0], tokens[1], Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]),
+				Long.parseLong(tokens[4]), Double.parseDouble(tokens[5]), Long.parseLong(tokens[6]), hits);
+	}
+
+	/**
+	 * Writes the run in the compact binary format read by
+	 * {@link #readFrom(DataInput)}.
+	 * 
+	 * @param out
+	 * @throws IOException
+	 */
+	public final void writeTo(final DataOutput out) throws IOException {
+		out.writeUTF(optimizer);
+		out.writeUTF(function);
+		out.writeInt(dimension);
+		out.writeInt(instance);
+		out.writeLong(evaluations);
+		out.writeDouble(error);
+		out.writeLong(nanos);
+		for (final long hit : myHits) {
+			out.writeLong(hit);
+		}
+	}
+
+	/**
+	 * Reads a run written by {@link #writeTo(DataOutput)}.
+	 * 
+	 * @param in
+	 * @return
+	 * @throws IOException
+	 */
+	public static final BBOBRun readFrom(final DataInput in) throws IOException {
+		final String optimizer = in.readUTF();
+		final String function = in.readUTF();
+		final int dimension = in.readInt();
+		final int instance = in.readInt();
+		final long evaluations = in.readLong();
+		final double error = in.readDouble();
+		final long nanos = in.readLong();
+		final long[] hits = new long[TARGETS.length];
+		for (int i = 0; i < hits.length; ++i) {
+			hits[i] = in.readLong();
+		}
+		return new BBOBRun(optimizer, function, dimension, instance, evaluations, error, nanos, hits);
+	}
+
+	@Override
+	public String toString() {
+		return optimizer + " on " + function + " (d=" + dimension + ", i=" + instance + "): error " + error
+				+ " after " + evaluations + " evaluations, hits " + Arrays.toString(myHits);
+	}
+}
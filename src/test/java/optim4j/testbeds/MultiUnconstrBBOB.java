@@ -21,7 +21,10 @@ SOFTWARE.
 */
 package optim4j.testbeds;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Random;
 import java.util.function.Function;
@@ -52,41 +55,20 @@ import utils.RealMath;
 
 public class MultiUnconstrBBOB {
 
-	public static final Map<String, Function<double[], Double>> ALL_FUNCTIONS = new LinkedHashMap<String, Function<double[], Double>>() {
-
-		private static final long serialVersionUID = -3852837778398908234L;
-
-		{
-			put("sphere", MultiUnconstrBBOB::sphere);
-			put("ellipsoidal", MultiUnconstrBBOB::ellipsoidal);
-			put("rastrigin", MultiUnconstrBBOB::rastrigin);
-			put("bucheRastrigin", MultiUnconstrBBOB::bucheRastrigin);
-			put("linearSlope", MultiUnconstrBBOB::linearSlope);
-			put("attractiveSector", MultiUnconstrBBOB::attractiveSector);
-			put("stepEllipsoidal", MultiUnconstrBBOB::stepEllipsoidal);
-			put("rosenbrock", MultiUnconstrBBOB::rosenbrock);
-			put("rotatedRosenbrock", MultiUnconstrBBOB::rotatedRosenbrock);
-			put("ellipsoidal2", MultiUnconstrBBOB::ellipsoidal2);
-			put("discus", MultiUnconstrBBOB::discus);
-			put("bentCigar", MultiUnconstrBBOB::bentCigar);
-			put("sharpRidge", MultiUnconstrBBOB::sharpRidge);
-			put("differentPowers", MultiUnconstrBBOB::differentPowers);
-			put("rastrigin2", MultiUnconstrBBOB::rastrigin2);
-			put("weierstrass", MultiUnconstrBBOB::weierstrass);
-			put("schafferF7", MultiUnconstrBBOB::schafferF7);
-			put("schafferF7ill", MultiUnconstrBBOB::schafferF7ill);
-			put("griewankRosenbrock", MultiUnconstrBBOB::griewankRosenbrock);
-			put("schwefel", MultiUnconstrBBOB::schwefel);
-			put("gallagher101", MultiUnconstrBBOB::gallagher101);
-			put("gallagher21", MultiUnconstrBBOB::gallagher21);
-			put("katsuura", MultiUnconstrBBOB::katsuura);
-			put("lunacekBiRastrigin", MultiUnconstrBBOB::lunacekBiRastrigin);
-		}
-	};
-
-	private static final Random RAND = new Random();
-
-	private static final double[] lambda_mult(final int ialpha, final double[] x) {
+	/**
+	 * The names of the 24 noiseless BBOB functions, in the order of the testbed.
+	 */
+	public static final List<String> FUNCTION_NAMES = Collections.unmodifiableList(Arrays.asList(
+			"sphere", "ellipsoidal", "rastrigin", "bucheRastrigin",
+			"linearSlope", "attractiveSector", "stepEllipsoidal", "rosenbrock",
+			"rotatedRosenbrock", "ellipsoidal2", "discus", "bentCigar",
+			"sharpRidge", "differentPowers", "rastrigin2", "weierstrass",
+			"schafferF7", "schafferF7ill", "griewankRosenbrock", "schwefel",
+			"gallagher101", "gallagher21", "katsuura", "lunacekBiRastrigin"));
+
+	private final Random random;
+
+	private final double[] lambda_mult(final int ialpha, final double[] x) {
 		final double base = lambda_base[ialpha];
 		double cumpow = 1.0;
 		final double[] result = new double[x.length];
@@ -97,7 +79,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	private static final double fpen(final double[] x) {
+	private final double fpen(final double[] x) {
 		double res = 0.0;
 		for (final double xi : x) {
 			final double resi = Math.max(0, Math.abs(xi) - 5);
@@ -106,15 +88,15 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	private static final double[] onepm(final int d) {
+	private final double[] onepm(final int d) {
 		final double[] res = new double[d];
 		for (int i = 0; i < d; ++i) {
-			res[i] = RAND.nextBoolean() ? 1 : -1;
+			res[i] = random.nextBoolean() ? 1 : -1;
 		}
 		return res;
 	}
 
-	private static final double[] tasy(final double beta, final double[] x) {
+	private final double[] tasy(final double beta, final double[] x) {
 		final int d = x.length;
 		final double[] res = new double[d];
 		for (int i = 0; i < d; ++i) {
@@ -123,7 +105,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	private static final double tosz(final double x) {
+	private final double tosz(final double x) {
 		final double c1 = x > 0 ? 10 : 5.5;
 		final double c2 = x > 0 ? 7.9 : 3.1;
 		final double xhat = x > 0 || x < 0 ? Math.log(Math.abs(x)) : 0;
@@ -131,7 +113,7 @@ public class MultiUnconstrBBOB {
 		return sign * Math.exp(xhat + 0.049 * (Math.sin(c1 * xhat) + Math.sin(c2 * xhat)));
 	}
 
-	private static final double[] tosz(final double[] x) {
+	private final double[] tosz(final double[] x) {
 		final double[] res = new double[x.length];
 		for (int i = 0; i < x.length; ++i) {
 			res[i] = tosz(x[i]);
@@ -139,7 +121,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	private static final double[] mmult(final double[][] mat, final double[] x) {
+	private final double[] mmult(final double[][] mat, final double[] x) {
 		final double[] res = new double[mat.length];
 		for (int i = 0; i < mat.length; ++i) {
 			res[i] = BlasMath.ddotm(x.length, mat[i], 1, x, 1);
@@ -147,39 +129,88 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	private static final double[][] orthogonal(final int dim) {
+	private final double[][] orthogonal(final int dim) {
 		final double[][] mat = new double[dim][dim];
 		for (int i = 0; i < dim; ++i) {
 			for (int j = 0; j < dim; ++j) {
-				mat[i][j] = RAND.nextGaussian();
+				mat[i][j] = random.nextGaussian();
 			}
 		}
 		return QR.qr(mat)[0];
 	}
 
 	// cache fixed quantities for quick computation
-	private static int D;
-	private static double[] one_pm;
-	private static double[][] Q, R;
-	private static double[] lambda_base;
-
-	private static double[] pow2j;
-	private static double[] pow05k, pow3k;
-	private static double lbr_mu1, lbr_s;
-	private static double[][] y_101, C_101;
-	private static double[][] y_21, C_21;
-	private static double base1, base2, base3, base4;
-
-	private static void shuffle(final double[] values, final int istart) {
+	private int D;
+	private double[] one_pm;
+	private double[][] Q, R;
+	private double[] lambda_base;
+
+	private double[] pow2j;
+	private double[] pow05k, pow3k;
+	private double lbr_mu1, lbr_s;
+	private double[][] y_101, C_101;
+	private double[][] y_21, C_21;
+	private double base1, base2, base3, base4;
+
+	private void shuffle(final double[] values, final int istart) {
 		for (int i = istart; i < values.length; i++) {
-			final int randomIndexToSwap = RAND.nextInt(values.length - istart) + istart;
+			final int randomIndexToSwap = random.nextInt(values.length - istart) + istart;
 			final double temp = values[randomIndexToSwap];
 			values[randomIndexToSwap] = values[i];
 			values[i] = temp;
 		}
 	}
 
-	public static final void prepare(final int dim) {
+	/**
+	 * Creates an instance of the testbed in the given dimension. Instances with
+	 * the same dimension and seed share the same rotations, optima and landscape,
+	 * so that different optimizers can be compared on them, while separate
+	 * instances can be evaluated concurrently.
+	 * 
+	 * @param dim
+	 * @param seed
+	 */
+	public MultiUnconstrBBOB(final int dim, final long seed) {
+		random = new Random(seed);
+		prepare(dim);
+	}
+
+	/**
+	 * Returns the functions of this instance by name, in the order of
+	 * {@link #FUNCTION_NAMES}.
+	 * 
+	 * @return
+	 */
+	public final Map<String, Function<double[], Double>> functions() {
+		final Map<String, Function<double[], Double>> result = new LinkedHashMap<>();
+		result.put("sphere", this::sphere);
+		result.put("ellipsoidal", this::ellipsoidal);
+		result.put("rastrigin", this::rastrigin);
+		result.put("bucheRastrigin", this::bucheRastrigin);
+		result.put("linearSlope", this::linearSlope);
+		result.put("attractiveSector", this::attractiveSector);
+		result.put("stepEllipsoidal", this::stepEllipsoidal);
+		result.put("rosenbrock", this::rosenbrock);
+		result.put("rotatedRosenbrock", this::rotatedRosenbrock);
+		result.put("ellipsoidal2", this::ellipsoidal2);
+		result.put("discus", this::discus);
+		result.put("bentCigar", this::bentCigar);
+		result.put("sharpRidge", this::sharpRidge);
+		result.put("differentPowers", this::differentPowers);
+		result.put("rastrigin2", this::rastrigin2);
+		result.put("weierstrass", this::weierstrass);
+		result.put("schafferF7", this::schafferF7);
+		result.put("schafferF7ill", this::schafferF7ill);
+		result.put("griewankRosenbrock", this::griewankRosenbrock);
+		result.put("schwefel", this::schwefel);
+		result.put("gallagher101", this::gallagher101);
+		result.put("gallagher21", this::gallagher21);
+		result.put("katsuura", this::katsuura);
+		result.put("lunacekBiRastrigin", this::lunacekBiRastrigin);
+		return result;
+	}
+
+	private void prepare(final int dim) {
 		D = dim;
 		one_pm = onepm(D);
 		Q = orthogonal(D);
@@ -211,11 +242,11 @@ public class MultiUnconstrBBOB {
 		// for Gallagher 101 function
 		y_101 = new double[101][dim];
 		for (int i = 0; i < D; ++i) {
-			y_101[0][i] = -4.0 + 8.0 * RAND.nextDouble();
+			y_101[0][i] = -4.0 + 8.0 * random.nextDouble();
 		}
 		for (int k = 1; k < 101; ++k) {
 			for (int i = 0; i < D; ++i) {
-				y_101[k][i] = -5.0 + 10.0 * RAND.nextDouble();
+				y_101[k][i] = -5.0 + 10.0 * random.nextDouble();
 			}
 		}
 		double[] alpha = new double[101];
@@ -242,11 +273,11 @@ public class MultiUnconstrBBOB {
 		// for Gallagher 21 function
 		y_21 = new double[21][dim];
 		for (int i = 0; i < D; ++i) {
-			y_21[0][i] = -3.92 + 3.92 * 2 * RAND.nextDouble();
+			y_21[0][i] = -3.92 + 3.92 * 2 * random.nextDouble();
 		}
 		for (int k = 1; k < 21; ++k) {
 			for (int i = 0; i < D; ++i) {
-				y_21[k][i] = -4.9 + 4.9 * 2 * RAND.nextDouble();
+				y_21[k][i] = -4.9 + 4.9 * 2 * random.nextDouble();
 			}
 		}
 		alpha = new double[21];
@@ -278,11 +309,11 @@ public class MultiUnconstrBBOB {
 	}
 
 	// separable functions
-	public static final double sphere(final double[] x) {
+	public final double sphere(final double[] x) {
 		return BlasMath.ddotm(x.length, x, 1, x, 1);
 	}
 
-	public static final double ellipsoidal(final double[] x) {
+	public final double ellipsoidal(final double[] x) {
 		final int d = x.length;
 		final double base = base1;
 		final double[] z = tosz(x);
@@ -295,7 +326,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double rastrigin(final double[] x) {
+	public final double rastrigin(final double[] x) {
 		final int d = x.length;
 		final double[] z = lambda_mult(1, tasy(0.2, tosz(x)));
 		double sum = d;
@@ -306,7 +337,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double bucheRastrigin(final double[] x) {
+	public final double bucheRastrigin(final double[] x) {
 		final int d = x.length;
 		final double[] z = tosz(x);
 		final double base = base2;
@@ -327,7 +358,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double linearSlope(final double[] x) {
+	public final double linearSlope(final double[] x) {
 		final int d = x.length;
 		final double base = base3;
 		double cumpow = 1.0;
@@ -344,7 +375,7 @@ public class MultiUnconstrBBOB {
 	}
 
 	// functions with low or moderate conditioning
-	public static final double attractiveSector(final double[] x) {
+	public final double attractiveSector(final double[] x) {
 		final double[] z = mmult(Q, lambda_mult(1, mmult(R, x)));
 		double res = BlasMath.ddotm(z.length, z, 1, z, 1);
 		res = tosz(res);
@@ -352,7 +383,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double stepEllipsoidal(final double[] x) {
+	public final double stepEllipsoidal(final double[] x) {
 		final int d = x.length;
 		final double[] zhat = lambda_mult(1, mmult(R, x));
 		final double zhat1 = zhat[0];
@@ -371,7 +402,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double rosenbrock(final double[] x) {
+	public final double rosenbrock(final double[] x) {
 		final int d = x.length;
 		final double[] z = new double[d];
 		for (int i = 0; i < d; ++i) {
@@ -385,7 +416,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double rotatedRosenbrock(final double[] x) {
+	public final double rotatedRosenbrock(final double[] x) {
 		final int d = x.length;
 		final double[] z = mmult(R, x);
 		for (int i = 0; i < d; ++i) {
@@ -399,7 +430,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double ellipsoidal2(final double[] x) {
+	public final double ellipsoidal2(final double[] x) {
 		final int d = x.length;
 		final double[] z = tosz(mmult(R, x));
 		final double base = base1;
@@ -412,7 +443,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double discus(final double[] x) {
+	public final double discus(final double[] x) {
 		final int d = x.length;
 		final double[] z = tosz(mmult(R, x));
 		double res = 1000000 * z[0] * z[0];
@@ -422,7 +453,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double bentCigar(final double[] x) {
+	public final double bentCigar(final double[] x) {
 		final double[] z = mmult(R, tasy(0.5, mmult(R, x)));
 		double sum = 0.0;
 		for (int i = 1; i < x.length; ++i) {
@@ -432,7 +463,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double sharpRidge(final double[] x) {
+	public final double sharpRidge(final double[] x) {
 		final double[] z = mmult(Q, lambda_mult(1, mmult(R, x)));
 		double res = 0.0;
 		for (int i = 1; i < x.length; ++i) {
@@ -442,7 +473,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double differentPowers(final double[] x) {
+	public final double differentPowers(final double[] x) {
 		final int d = x.length;
 		final double[] z = mmult(R, x);
 		double res = 0.0;
@@ -454,7 +485,7 @@ public class MultiUnconstrBBOB {
 	}
 
 	// multi-modal functions
-	public static final double rastrigin2(final double[] x) {
+	public final double rastrigin2(final double[] x) {
 		final double[] z = mmult(R, lambda_mult(1, mmult(Q, tasy(0.2, tosz(mmult(R, x))))));
 		double res = x.length;
 		for (final double e : z) {
@@ -464,7 +495,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double weierstrass(final double[] x) {
+	public final double weierstrass(final double[] x) {
 		final double[] z = mmult(R, lambda_mult(0, mmult(Q, tosz(mmult(R, x)))));
 		final double f0 = -4095.0 / 2048.0;
 		double res = 0.0;
@@ -477,7 +508,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double schafferF7(final double[] x) {
+	public final double schafferF7(final double[] x) {
 		final double[] z = lambda_mult(1, mmult(Q, tasy(0.5, mmult(R, x))));
 		double res = 0.0;
 		for (int i = 0; i < x.length - 1; ++i) {
@@ -492,7 +523,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double schafferF7ill(final double[] x) {
+	public final double schafferF7ill(final double[] x) {
 		final double[] z = lambda_mult(3, mmult(Q, tasy(0.5, mmult(R, x))));
 		double res = 0.0;
 		for (int i = 0; i < x.length - 1; ++i) {
@@ -507,7 +538,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double griewankRosenbrock(final double[] x) {
+	public final double griewankRosenbrock(final double[] x) {
 		final int d = x.length;
 		final double[] z = mmult(R, x);
 		for (int i = 0; i < d; ++i) {
@@ -524,7 +555,7 @@ public class MultiUnconstrBBOB {
 	}
 
 	// multi-modal functions with weak global structure
-	public static final double schwefel(final double[] x) {
+	public final double schwefel(final double[] x) {
 		final int d = x.length;
 		final double[] xhat = new double[d];
 		final double[] xopt = new double[d];
@@ -555,7 +586,7 @@ public class MultiUnconstrBBOB {
 		return res;
 	}
 
-	public static final double gallagher101(final double[] x) {
+	public final double gallagher101(final double[] x) {
 		double res = Double.NEGATIVE_INFINITY;
 		final double[] work = new double[x.length];
 		for (int i = 1; i <= 101; ++i) {
@@ -575,7 +606,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double gallagher21(final double[] x) {
+	public final double gallagher21(final double[] x) {
 		double res = Double.NEGATIVE_INFINITY;
 		final double[] work = new double[x.length];
 		for (int i = 1; i <= 21; ++i) {
@@ -595,7 +626,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double katsuura(final double[] x) {
+	public final double katsuura(final double[] x) {
 		final int d = x.length;
 		final double[] z = mmult(Q, lambda_mult(2, mmult(R, x)));
 		double prod = 1.0;
@@ -611,7 +642,7 @@ public class MultiUnconstrBBOB {
 		return result;
 	}
 
-	public static final double lunacekBiRastrigin(final double[] x) {
+	public final double lunacekBiRastrigin(final double[] x) {
 		final int d = x.length;
 		final double[] xhat = new double[d];
 		double[] z = new double[d];
@@ -636,20 +667,20 @@ public class MultiUnconstrBBOB {
 	public static void main(String[] args) {
 		final int scales = 7;
 		final int n = 5;
+		final Random rand = new Random();
 		for (int i = 0; i <= scales * 5; ++i) {
 			final int fevs = (int) Math.pow(10, i / 5.0);
 			int passed = 0;
-			for (final String key : ALL_FUNCTIONS.keySet()) {
-				final Function<double[], Double> func = ALL_FUNCTIONS.get(key);
+			for (final String key : FUNCTION_NAMES) {
 				double besterr = Double.POSITIVE_INFINITY;
 				double bestfit = Double.POSITIVE_INFINITY;
 				for (int j = -8; j <= 2; ++j) {
-					prepare(n);
+					final Function<double[], Double> func = new MultiUnconstrBBOB(n, rand.nextLong()).functions().get(key);
 					final double[] lb = new double[n];
 					final double[] ub = new double[n];
 					final double[] guess = new double[n];
 					for (int l = 0; l < n; ++l) {
-						guess[l] = RAND.nextDouble() * 2 - 1;
+						guess[l] = rand.nextDouble() * 2 - 1;
 						lb[l] = -5.0;
 						ub[l] = 5.0;
 					}